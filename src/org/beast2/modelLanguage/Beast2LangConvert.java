@@ -11,6 +11,7 @@ import beast.base.parser.XMLParser;
 import beastfx.app.util.OutFile;
 import org.beast2.modelLanguage.beast.Beast2AnalysisBuilder;
 import org.beast2.modelLanguage.beast.Beast2ModelBuilder;
+import org.beast2.modelLanguage.beast.BeastXMLWriter;
 import org.beast2.modelLanguage.converter.*;
 import org.beast2.modelLanguage.model.Beast2Analysis;
 import org.beast2.modelLanguage.model.Beast2Model;
@@ -18,6 +19,7 @@ import org.json.JSONObject;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.util.Collections;
 
 import static org.beast2.modelLanguage.Beast2LangUtils.*;
 
@@ -42,6 +44,8 @@ public class Beast2LangConvert extends beast.base.inference.Runnable {
             "Trace log file name", "trace.log");
     public Input<Boolean> debugInput = new Input<>("debug",
             "Enable debug logging", false);
+    public Input<Boolean> noCacheInput = new Input<>("noCache",
+            "Always convert, without using or updating the result cache", false);
 //    public Input<Boolean> usePhyloSpecInput = new Input<>("usePhyloSpec",
 //            "Use PhyloSpec syntax", false);
 
@@ -52,6 +56,7 @@ public class Beast2LangConvert extends beast.base.inference.Runnable {
     private Integer logEvery;
     private String traceFileName;
     private Boolean debug;
+    private Boolean noCache;
 //    private Boolean usePhyloSpec;
 
     @Override
@@ -66,6 +71,7 @@ public class Beast2LangConvert extends beast.base.inference.Runnable {
         logEvery = logEveryInput.get();
         traceFileName = traceFileNameInput.get();
         debug = debugInput.get();
+        noCache = noCacheInput.get();
 //        usePhyloSpec = usePhyloSpecInput.get();
     }
 
@@ -85,136 +91,169 @@ public class Beast2LangConvert extends beast.base.inference.Runnable {
         try {
             Log.info("Converting from " + fromFormat + " to " + toFormat + "...");
 
-            // Initialize converters
-            Beast2ToPhyloSpecConverter toPhyloSpecConverter = new Beast2ToPhyloSpecConverter();
-            PhyloSpecToBeast2Converter toBeast2Converter = new PhyloSpecToBeast2Converter();
-            Beast2ModelBuilder reflectionBuilder = new Beast2ModelBuilder();
-            Beast2ToLPHYConverter toLPHYConverter = new Beast2ToLPHYConverter();
-
-            // Perform conversion
-            if ("org/beast2".equals(fromFormat) && "phylospec".equals(toFormat)) {
-                try (FileInputStream fis = new FileInputStream(inputFile)) {
-                    // Convert Beast2Lang to PhyloSpec
-                    Beast2Model model = reflectionBuilder.buildFromStream(fis);
-                    JSONObject phyloSpec = toPhyloSpecConverter.convert(model);
-
-                    // Output result
-                    writeOutput(outputFile, phyloSpec.toString(2));
-                }
-            } else if ("phylospec".equals(fromFormat) && "org/beast2".equals(toFormat)) {
-                // Read PhyloSpec JSON
-                String content = new String(Files.readAllBytes(inputFile.toPath()));
-                JSONObject phyloSpec = new JSONObject(content);
+            // Reuse the output of an earlier conversion of the same input with the same options
+            ResultCache cache = noCache || !hasOutputFile() ? null : ResultCache.getDefault();
+            String cacheKey = cache != null ? cacheKey() : null;
+            if (cache != null && cache.restore(cacheKey, outputFile)) {
+                Log.info("Output restored from cache to " + outputFile);
+                return;
+            }
+
+            if (convert() && cache != null) {
+                cache.store(cacheKey, outputFile, Collections.emptyList());
+            }
+        } catch (Exception e) {
+            Log.err("Error converting file: " + e.getMessage());
+
+            if (debug) {
+                e.printStackTrace();
+            } else {
+                // Print a more useful stack trace
+                StringWriter sw = new StringWriter();
+                PrintWriter pw = new PrintWriter(sw);
+                e.printStackTrace(pw);
+                Log.err("Detailed error: " + sw.toString());
+            }
 
-                // Convert PhyloSpec to Beast2Lang
-                Beast2Model model = toBeast2Converter.convert(phyloSpec);
-                String beast2Lang = generateBeast2Lang(model);
+        }
+    }
+
+    /**
+     * Convert the input file to the output format
+     *
+     * @return true if the output was written
+     */
+    private boolean convert() throws Exception {
+        // Initialize converters
+        Beast2ToPhyloSpecConverter toPhyloSpecConverter = new Beast2ToPhyloSpecConverter();
+        PhyloSpecToBeast2Converter toBeast2Converter = new PhyloSpecToBeast2Converter();
+        Beast2ModelBuilder reflectionBuilder = new Beast2ModelBuilder();
+        Beast2ToLPHYConverter toLPHYConverter = new Beast2ToLPHYConverter();
+
+        // Perform conversion
+        if ("org/beast2".equals(fromFormat) && "phylospec".equals(toFormat)) {
+            try (FileInputStream fis = new FileInputStream(inputFile)) {
+                // Convert Beast2Lang to PhyloSpec
+                Beast2Model model = reflectionBuilder.buildFromStream(fis);
+                JSONObject phyloSpec = toPhyloSpecConverter.convert(model);
 
                 // Output result
-                writeOutput(outputFile, beast2Lang);
-            } else if ("org/beast2".equals(fromFormat) && "xml".equals(toFormat)) {
-                try (FileInputStream fis = new FileInputStream(inputFile)) {
-                    // Parse the pure model
-                    Beast2Model model = reflectionBuilder.buildFromStream(fis);
-
-                    // Wrap in analysis
-                    Beast2Analysis analysis = new Beast2Analysis(
-                            model,
-                            chainLength,      // from CLI option --chainLength
-                            logEvery,         // from CLI option --logEvery
-                            traceFileName     // from CLI option --traceFileName
-                    );
-
-                    // Build the run
-                    Beast2AnalysisBuilder analysisBuilder =
-                            new Beast2AnalysisBuilder(reflectionBuilder);
-
-                    String xml;
-                    MCMC rootRun = analysisBuilder.buildRun(analysis);
-
-                    // Add this before generating XML
-                    try {
-                        Log.info("\nDumping model structure before XML generation...");
-                        dumpModelStructure(reflectionBuilder.getAllObjects());
-                    } catch (Exception e) {
-                        Log.err("Error dumping model structure: " + e.getMessage());
-                    }
-
-                    // Then continue with XML generation
-                    try {
-                        xml = generateXML(rootRun);
-                        // Generate XML
-                        writeOutput(outputFile, xml);
-                    } catch (Exception e) {
-                        throw new RuntimeException("XML generation failure!", e);
-                    }
+                writeOutput(outputFile, out -> phyloSpec.write(out, 2, 0));
+            }
+        } else if ("phylospec".equals(fromFormat) && "org/beast2".equals(toFormat)) {
+            // Read PhyloSpec JSON
+            String content = new String(Files.readAllBytes(inputFile.toPath()));
+            JSONObject phyloSpec = new JSONObject(content);
+
+            // Convert PhyloSpec to Beast2Lang
+            Beast2Model model = toBeast2Converter.convert(phyloSpec);
+
+            // Output result
+            writeOutput(outputFile, out -> writeBeast2Lang(model, out));
+        } else if ("org/beast2".equals(fromFormat) && "xml".equals(toFormat)) {
+            try (FileInputStream fis = new FileInputStream(inputFile)) {
+                // Parse the pure model
+                Beast2Model model = reflectionBuilder.buildFromStream(fis);
+
+                // Wrap in analysis
+                Beast2Analysis analysis = new Beast2Analysis(
+                        model,
+                        chainLength,      // from CLI option --chainLength
+                        logEvery,         // from CLI option --logEvery
+                        traceFileName     // from CLI option --traceFileName
+                );
+
+                // Build the run
+                Beast2AnalysisBuilder analysisBuilder =
+                        new Beast2AnalysisBuilder(reflectionBuilder);
+
+                MCMC rootRun = analysisBuilder.buildRun(analysis);
+
+                // Add this before generating XML
+                try {
+                    Log.info("\nDumping model structure before XML generation...");
+                    dumpModelStructure(reflectionBuilder.getAllObjects());
+                } catch (Exception e) {
+                    Log.err("Error dumping model structure: " + e.getMessage());
                 }
-            } else if ("xml".equals(fromFormat) && "org/beast2".equals(toFormat)) {
-                // Handle XML to Beast2Lang conversion
-                Log.info("Converting BEAST2 XML to Beast2Lang...");
-
-                // Parse the XML file
-                XMLParser parser = new XMLParser();
-                BEASTInterface beast = parser.parseFile(inputFile);
 
-                if (!(beast instanceof MCMC)) {
-                    throw new IllegalArgumentException("Input XML does not contain an MCMC analysis");
+                // Then stream the XML to the output file
+                try {
+                    writeOutput(outputFile, out -> new BeastXMLWriter().write(rootRun, out));
+                } catch (Exception e) {
+                    throw new RuntimeException("XML generation failure!", e);
                 }
+            }
+        } else if ("xml".equals(fromFormat) && "org/beast2".equals(toFormat)) {
+            // Handle XML to Beast2Lang conversion
+            Log.info("Converting BEAST2 XML to Beast2Lang...");
 
-                MCMC mcmc = (MCMC) beast;
+            // Parse the XML file
+            XMLParser parser = new XMLParser();
+            BEASTInterface beast = parser.parseFile(inputFile);
 
-                // Extract the posterior distribution and state
-                CompoundDistribution posterior = (CompoundDistribution) mcmc.posteriorInput.get();
-                State state = mcmc.startStateInput.get();
+            if (!(beast instanceof MCMC)) {
+                throw new IllegalArgumentException("Input XML does not contain an MCMC analysis");
+            }
 
-                // Convert to Beast2Lang model
-                Beast2ToBeast2LangConverter converter = new Beast2ToBeast2LangConverter();
-                Beast2Model model = converter.convertToBeast2Model(posterior, state, mcmc);
+            MCMC mcmc = (MCMC) beast;
 
-                // Write the model to a file
-                Beast2ModelWriter writer = new Beast2ModelWriter();
-                String scriptContent = writer.writeModel(model);
+            // Extract the posterior distribution and state
+            CompoundDistribution posterior = (CompoundDistribution) mcmc.posteriorInput.get();
+            State state = mcmc.startStateInput.get();
 
-                // If output file is not specified, derive from input
-                if (outputFile == null) {
-                    String baseName = inputFile.getName();
-                    if (baseName.endsWith(".xml")) {
-                        baseName = baseName.substring(0, baseName.length() - 4);
-                    }
-                    outputFile = new File(baseName + ".b2l");
-                }
+            // Convert to Beast2Lang model
+            Beast2ToBeast2LangConverter converter = new Beast2ToBeast2LangConverter();
+            Beast2Model model = converter.convertToBeast2Model(posterior, state, mcmc);
 
-                // Save to file
-                writeOutput(outputFile, scriptContent);
-                Log.info("BEAST2 XML file successfully converted to Beast2Lang script: " + outputFile);
-            } else if ("org/beast2".equals(fromFormat) && "lphy".equals(toFormat)) {
-                // Convert Beast2Lang to LPHY
-                try {
-                    toLPHYConverter.convertToFile(inputFile.getPath(), outputFile.getPath());
-                    Log.info("Beast2Lang file successfully converted to LPHY: " + outputFile);
-                } catch (IOException e) {
-                    throw new RuntimeException("Error converting to LPHY", e);
+            // If output file is not specified, derive from input
+            if (outputFile == null) {
+                String baseName = inputFile.getName();
+                if (baseName.endsWith(".xml")) {
+                    baseName = baseName.substring(0, baseName.length() - 4);
                 }
-            } else if ("lphy".equals(fromFormat)) {
-                // Handle LinguaPhylo format conversion if needed
-                Log.err("LinguaPhylo conversion not yet implemented");
-            } else {
-                Log.err("Unsupported conversion: " + fromFormat + " to " + toFormat);
+                outputFile = new File(baseName + ".b2l");
             }
-        } catch (Exception e) {
-            Log.err("Error converting file: " + e.getMessage());
 
-            if (debug) {
-                e.printStackTrace();
-            } else {
-                // Print a more useful stack trace
-                StringWriter sw = new StringWriter();
-                PrintWriter pw = new PrintWriter(sw);
-                e.printStackTrace(pw);
-                Log.err("Detailed error: " + sw.toString());
+            // Stream the model to the output file
+            Beast2ModelWriter writer = new Beast2ModelWriter();
+            writeOutput(outputFile, out -> writer.writeModel(model, out));
+            Log.info("BEAST2 XML file successfully converted to Beast2Lang script: " + outputFile);
+        } else if ("org/beast2".equals(fromFormat) && "lphy".equals(toFormat)) {
+            // Convert Beast2Lang to LPHY
+            try {
+                toLPHYConverter.convertToFile(inputFile.getPath(), outputFile.getPath());
+                Log.info("Beast2Lang file successfully converted to LPHY: " + outputFile);
+            } catch (IOException e) {
+                throw new RuntimeException("Error converting to LPHY", e);
             }
-
+        } else if ("lphy".equals(fromFormat)) {
+            // Handle LinguaPhylo format conversion if needed
+            Log.err("LinguaPhylo conversion not yet implemented");
+            return false;
+        } else {
+            Log.err("Unsupported conversion: " + fromFormat + " to " + toFormat);
+            return false;
         }
+        return true;
+    }
+
+    private boolean hasOutputFile() {
+        return outputFile != null && !outputFile.getName().isEmpty();
+    }
+
+    /**
+     * Cache key of the output for the input file, the packages it requires and the options
+     */
+    private String cacheKey() throws IOException {
+        ResultCache.Key key = ResultCache.key("convert", version).input(inputFile);
+        return key.packages(resolvePackageVersions(key.getRequiredPackages()))
+                .option("from", fromFormat)
+                .option("to", toFormat)
+                .option("chainLength", chainLength)
+                .option("logEvery", logEvery)
+                .option("traceFileName", traceFileName)
+                .build();
     }
 
     public static void main(String[] args) throws Exception {
@@ -10,13 +10,19 @@ import beast.base.inference.State;
 import beast.base.parser.XMLParser;
 import beast.pkgmgmt.PackageManager;
 import beastfx.app.util.OutFile;
+import org.beast2.modelLanguage.converter.AlignmentFileWriter;
 import org.beast2.modelLanguage.converter.Beast2ModelWriter;
 import org.beast2.modelLanguage.converter.Beast2ToBeast2LangConverter;
+import org.beast2.modelLanguage.converter.StreamingAlignmentExtractor;
+import org.beast2.modelLanguage.converter.pipeline.AlignmentProcessingPhase;
 import org.beast2.modelLanguage.model.Beast2Model;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Map;
 
 import static org.beast2.modelLanguage.Beast2LangUtils.*;
 
@@ -33,12 +39,21 @@ public class Beast2LangDecompile extends beast.base.inference.Runnable {
             new OutFile(""));
     public Input<Boolean> debugInput = new Input<>("debug",
             "Enable debug logging", false);
+    public Input<Boolean> streamDataInput = new Input<>("streamData",
+            "Stream large alignments to Nexus files before parsing, instead of loading their sequences", true);
+    public Input<Boolean> externalDataInput = new Input<>("externalData",
+            "Write all alignments to Nexus files next to the output instead of inlining small ones", false);
+    public Input<Boolean> noCacheInput = new Input<>("noCache",
+            "Always decompile, without using or updating the result cache", false);
 //    public Input<Boolean> usePhyloSpecInput = new Input<>("usePhyloSpec",
 //            "Use PhyloSpec syntax", false);
 
     private File inputFile;
     private File outputFile;
     private Boolean debug;
+    private Boolean streamData;
+    private Boolean externalData;
+    private Boolean noCache;
 //    private Boolean usePhyloSpec;
 
     @Override
@@ -48,6 +63,9 @@ public class Beast2LangDecompile extends beast.base.inference.Runnable {
             throw new IllegalArgumentException("Input file is required ! " + inputFile);
         outputFile = outputFileInput.get();
         debug = debugInput.get();
+        streamData = streamDataInput.get();
+        externalData = externalDataInput.get();
+        noCache = noCacheInput.get();
 //        usePhyloSpec = usePhyloSpecInput.get();
 
         // If output file is not specified, derive from input
@@ -76,11 +94,49 @@ public class Beast2LangDecompile extends beast.base.inference.Runnable {
         try {
             Log.info("Decompiling BEAST2 XML file: " + inputFile.getPath());
 
+            // Reuse the script (and Nexus files) of an earlier decompile of the same XML with the same options
+            ResultCache cache = noCache ? null : ResultCache.getDefault();
+            String cacheKey = cache != null ? cacheKey() : null;
+            if (cache != null && cache.restore(cacheKey, outputFile)) {
+                System.out.println("Beast2Lang script restored from cache to " + outputFile);
+                return;
+            }
+
             PackageManager.loadExternalJars();
 
+            // Alignments written to Nexus files go next to the output, shared files for identical data
+            AlignmentFileWriter alignmentFileWriter = new AlignmentFileWriter(outputFile.getParentFile());
+
+            // Move the sequences of large alignments to Nexus files, then parse the reduced XML
+            Map<String, String> alignmentFiles = Collections.emptyMap();
+            BEASTInterface beast = null;
+            if (streamData) {
+                StreamingAlignmentExtractor.Result extracted = null;
+                try {
+                    extracted = new StreamingAlignmentExtractor(alignmentFileWriter,
+                            externalData ? 0 : AlignmentProcessingPhase.DEFAULT_INLINE_THRESHOLD,
+                            externalData ? 0 : AlignmentProcessingPhase.DEFAULT_SEQUENCE_LENGTH_THRESHOLD)
+                            .extract(inputFile);
+                    if (!extracted.isEmpty()) {
+                        beast = new XMLParser().parseFile(extracted.getXmlFile());
+                        alignmentFiles = extracted.getAlignmentFiles();
+                    }
+                } catch (Exception e) {
+                    Log.warning("Streaming alignments failed, parsing the full XML instead: " + e.getMessage());
+                    alignmentFiles = Collections.emptyMap();
+                    beast = null;
+                } finally {
+                    if (extracted != null && extracted.getXmlFile() != null) {
+                        extracted.getXmlFile().delete();
+                    }
+                }
+            }
+
             // Parse the XML file
-            XMLParser parser = new XMLParser();
-            BEASTInterface beast = parser.parseFile(inputFile);
+            if (beast == null) {
+                XMLParser parser = new XMLParser();
+                beast = parser.parseFile(inputFile);
+            }
 
             if (!(beast instanceof MCMC)) {
                 throw new IllegalArgumentException("Input XML does not contain an MCMC analysis");
@@ -94,19 +150,21 @@ public class Beast2LangDecompile extends beast.base.inference.Runnable {
 
             // Convert to Beast2Lang model - PASS THE MCMC OBJECT TOO
             Beast2ToBeast2LangConverter converter = new Beast2ToBeast2LangConverter();
-            Beast2Model model = converter.convertToBeast2Model(posterior, state, mcmc);  // ADD mcmc PARAMETER
+            converter.setAlignmentFileWriter(alignmentFileWriter);
+            converter.setExternalizeAlignments(externalData);
+            Beast2Model model = converter.convertToBeast2Model(posterior, state, mcmc, alignmentFiles);
 
             String required = extractRequiredPackages(inputFile);
             if (required != null) {
                 addRequiresFromString(model, required);
             }
 
-            // Write the model to a file
+            // Stream the model to the output file
             Beast2ModelWriter writer = new Beast2ModelWriter();
-            String scriptContent = writer.writeModel(model);
-
-            // Save to file
-            writeOutput(outputFile, scriptContent);
+            writeOutput(outputFile, out -> writer.writeModel(model, out));
+            if (cache != null) {
+                cache.store(cacheKey, outputFile, alignmentFileWriter.getFiles());
+            }
 
             System.out.println("BEAST2 XML file successfully decompiled to Beast2Lang script: " + outputFile);
 
@@ -124,6 +182,22 @@ public class Beast2LangDecompile extends beast.base.inference.Runnable {
         }
     }
 
+    /**
+     * Cache key of the script for the input file, the packages it requires and the options.
+     * The script refers to its Nexus files by the output directory and file name, which the
+     * builder resolves against the working directory, so both directories are part of the key.
+     */
+    private String cacheKey() throws IOException {
+        ResultCache.Key key = ResultCache.key("decompile", version).input(inputFile);
+        return key.packages(resolvePackageVersions(key.getRequiredPackages()))
+                .option("streamData", streamData)
+                .option("externalData", externalData)
+                .option("output", outputFile.getPath())
+                .option("outputDirectory", outputFile.getAbsoluteFile().getParent())
+                .option("workingDirectory", new File("").getAbsolutePath())
+                .build();
+    }
+
     public static void main(String[] args) throws Exception {
         String title = "Convert " + version;
 
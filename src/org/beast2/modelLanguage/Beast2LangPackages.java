@@ -0,0 +1,63 @@
+package org.beast2.modelLanguage;
+
+import beast.base.core.Description;
+import beast.base.core.Input;
+import beast.base.core.Log;
+import beast.pkgmgmt.Package;
+import beast.pkgmgmt.PackageManager;
+import org.beast2.modelLanguage.beast.PackageCatalogue;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Lists installed packages and those in the local package catalogue, and refreshes the catalogue.
+ * Refreshing is the only operation of Beast2Lang that contacts the package repositories.
+ */
+@Description("List BEAST packages and refresh the local catalogue of available packages")
+public class Beast2LangPackages extends beast.base.inference.Runnable {
+
+    public Input<Boolean> refreshInput = new Input<>("refresh",
+            "Fetch the list of available packages from the package repositories", false);
+
+    @Override
+    public void initAndValidate() {
+    }
+
+    @Override
+    public void run() {
+        PackageCatalogue catalogue = PackageCatalogue.getDefault();
+        try {
+            if (refreshInput.get()) {
+                int count = catalogue.refresh();
+                Log.info("Package catalogue " + catalogue.getFile() + " refreshed with " + count + " packages");
+            }
+
+            Map<String, Package> installed = new TreeMap<>(PackageManager::comparePackageNames);
+            PackageManager.addInstalledPackages(installed);
+            Log.info("Installed packages:");
+            for (Package pkg : installed.values()) {
+                if (pkg.isInstalled()) {
+                    Log.info("  " + pkg.getName() + " " + pkg.getInstalledVersion());
+                }
+            }
+
+            Instant refreshed = catalogue.getRefreshTime();
+            if (refreshed == null) {
+                Log.info("No package catalogue at " + catalogue.getFile() + "; run with refresh=true to create it");
+                return;
+            }
+            Log.info("Package catalogue " + catalogue.getFile() + " refreshed " + refreshed
+                    + (catalogue.isExpired() ? " (expired)" : ""));
+            for (PackageCatalogue.AvailablePackage pkg : catalogue.getAvailablePackages().values()) {
+                if (!installed.containsKey(pkg.name()) || !installed.get(pkg.name()).isInstalled()) {
+                    Log.info("  " + pkg.name() + " " + pkg.latestVersion() + " - " + pkg.description());
+                }
+            }
+        } catch (Exception e) {
+            Log.err("Error updating package catalogue: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
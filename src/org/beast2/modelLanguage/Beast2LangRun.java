@@ -8,16 +8,20 @@ import beast.base.parser.XMLParser;
 import beastfx.app.util.OutFile;
 import org.beast2.modelLanguage.beast.Beast2AnalysisBuilder;
 import org.beast2.modelLanguage.beast.Beast2ModelBuilder;
+import org.beast2.modelLanguage.beast.BeastXMLWriter;
 import org.beast2.modelLanguage.builder.Beast2LangParser;
 import org.beast2.modelLanguage.builder.Beast2LangParserImpl;
+import org.beast2.modelLanguage.builder.BuildProfiler;
 import org.beast2.modelLanguage.model.Beast2Analysis;
 import org.beast2.modelLanguage.model.Beast2Model;
 import org.beast2.modelLanguage.phylospec.Beast2LangParserWithPhyloSpec;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Collections;
 
 /**TODO only work in command line
  * Main application class for Beast2Lang
@@ -47,6 +51,10 @@ public class Beast2LangRun extends beast.base.inference.Runnable {
             "Resume from previous run", false);
     public Input<Boolean> usePhyloSpecInput = new Input<>("usePhyloSpec",
             "Use PhyloSpec syntax", false);
+    public Input<File> profileInput = new Input<>("profile",
+            "Write a build profile report to this file, and a Chrome trace next to it (.json)");
+    public Input<Boolean> noCacheInput = new Input<>("noCache",
+            "Always build the XML, without using or updating the result cache", false);
 
     private File inputFile;
     private File outputFile;
@@ -60,6 +68,8 @@ public class Beast2LangRun extends beast.base.inference.Runnable {
     private Integer threads;
     private Boolean resume;
     private Boolean usePhyloSpec;
+    private File profileFile;
+    private Boolean noCache;
 
     @Override
     public void initAndValidate() {
@@ -76,6 +86,8 @@ public class Beast2LangRun extends beast.base.inference.Runnable {
         threads = threadsInput.get();
         resume = resumeInput.get();
         usePhyloSpec = usePhyloSpecInput.get();
+        profileFile = profileInput.get();
+        noCache = noCacheInput.get();
     }
 
 
@@ -94,79 +106,43 @@ public class Beast2LangRun extends beast.base.inference.Runnable {
         try {
             System.out.println("Running Beast2 model from file: " + inputFile.getPath());
 
-            // First convert the model to BEAST2 objects
-            Beast2ModelBuilder modelBuilder = new Beast2ModelBuilder();
-
-            // Use appropriate parser based on PhyloSpec flag
-            Beast2LangParser parser = usePhyloSpec
-                    ? new Beast2LangParserWithPhyloSpec()
-                    : new Beast2LangParserImpl();
-
-            try (FileInputStream fis = new FileInputStream(inputFile)) {
-                // Parse the model with the selected parser
-                Beast2Model model = usePhyloSpec
-                        ? parser.parseFromStream(fis)
-                        : modelBuilder.buildFromStream(fis);
-
-                // Create analysis parameters
-                Beast2Analysis analysis = new Beast2Analysis(
-                        model,
-                        chainLength,
-                        logEvery,
-                        traceFileName
-                );
-
-                // Set additional parameters
-                analysis.setTreeLogFileName(treeFileName);
-                if (seed != null) {
-                    analysis.setSeed(seed);
-                }
-                analysis.setThreadCount(threads);
-
-                // Build the MCMC run object
-                Beast2AnalysisBuilder analysisBuilder = new Beast2AnalysisBuilder(modelBuilder);
-                MCMC mcmc = analysisBuilder.buildRun(analysis);
-
-                // Before running, dump the model structure for debugging
-                if (debug) {
-                    System.out.println("\nDumping model structure before running...");
-                    Beast2LangUtils.dumpModelStructure(modelBuilder.getAllObjects());
+            // The XML stage is skipped when the same input was built with the same options before
+            // (a build profile needs the build to run)
+            ResultCache cache = noCache || profileFile != null ? null : ResultCache.getDefault();
+            String cacheKey = cache != null ? cacheKey() : null;
+            if (cache != null && cache.restore(cacheKey, outputFile)) {
+                System.out.println("XML restored from cache to " + outputFile.getPath());
+            } else {
+                buildXML();
+                if (cache != null) {
+                    cache.store(cacheKey, outputFile, Collections.emptyList());
                 }
+            }
 
-                System.out.println("Writing XML...");
-
-                // Generate XML
-                String xml = Beast2LangUtils.generateXML(mcmc);
-                // Write XML to output file
-                Beast2LangUtils.writeOutput(outputFile, xml);
-
-                System.out.println("XML written to " + outputFile.getPath());
-
-                // Now instead of running the existing MCMC object, we'll load from the XML
-                System.out.println("Loading the model from XML...");
+            // Now instead of running the existing MCMC object, we'll load from the XML
+            System.out.println("Loading the model from XML...");
 
-                try {
-                    // Use BEAST2's XMLParser to read the XML back in
-                    XMLParser parser2 = new XMLParser();
-                    Object loadedObject = parser2.parseFile(outputFile);
+            try {
+                // Use BEAST2's XMLParser to read the XML back in
+                XMLParser parser2 = new XMLParser();
+                Object loadedObject = parser2.parseFile(outputFile);
 
-                    if (loadedObject instanceof MCMC) {
-                        MCMC loadedMCMC = (MCMC) loadedObject;
+                if (loadedObject instanceof MCMC) {
+                    MCMC loadedMCMC = (MCMC) loadedObject;
 
-                        // Run the MCMC loaded from XML
-                        System.out.println("Starting MCMC run from loaded XML...");
-                        loadedMCMC.run();
+                    // Run the MCMC loaded from XML
+                    System.out.println("Starting MCMC run from loaded XML...");
+                    loadedMCMC.run();
 
-                        System.out.println("MCMC run completed successfully.");
-                    } else {
-                        throw new RuntimeException("Loaded object is not an MCMC instance: " +
-                                (loadedObject != null ? loadedObject.getClass().getName() : "null"));
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error loading or running from XML: " + e.getMessage());
-                    if (debug) {
-                        e.printStackTrace();
-                    }
+                    System.out.println("MCMC run completed successfully.");
+                } else {
+                    throw new RuntimeException("Loaded object is not an MCMC instance: " +
+                            (loadedObject != null ? loadedObject.getClass().getName() : "null"));
+                }
+            } catch (Exception e) {
+                System.err.println("Error loading or running from XML: " + e.getMessage());
+                if (debug) {
+                    e.printStackTrace();
                 }
             }
         } catch (Exception e) {
@@ -184,6 +160,111 @@ public class Beast2LangRun extends beast.base.inference.Runnable {
         }
     }
 
+    /**
+     * Build the model and write it as XML to the output file
+     */
+    private void buildXML() throws Exception {
+        // First convert the model to BEAST2 objects
+        Beast2ModelBuilder modelBuilder = new Beast2ModelBuilder();
+
+        if (profileFile != null) {
+            BuildProfiler.start();
+        }
+        MCMC mcmc;
+        try {
+            mcmc = buildRun(modelBuilder);
+        } finally {
+            // Stop the profiler even if the build failed, so it does not keep recording
+            if (profileFile != null) {
+                writeProfile(BuildProfiler.stop());
+            }
+        }
+
+        // Before running, dump the model structure for debugging
+        if (debug) {
+            System.out.println("\nDumping model structure before running...");
+            Beast2LangUtils.dumpModelStructure(modelBuilder.getAllObjects());
+        }
+
+        System.out.println("Writing XML...");
+
+        // Stream the XML to the output file
+        Beast2LangUtils.writeOutput(outputFile, out -> new BeastXMLWriter().write(mcmc, out));
+
+        System.out.println("XML written to " + outputFile.getPath());
+    }
+
+    /**
+     * Parse the input file and build the MCMC run object
+     */
+    private MCMC buildRun(Beast2ModelBuilder modelBuilder) throws Exception {
+        // Use appropriate parser based on PhyloSpec flag
+        Beast2LangParser parser = usePhyloSpec
+                ? new Beast2LangParserWithPhyloSpec()
+                : new Beast2LangParserImpl();
+
+        try (FileInputStream fis = new FileInputStream(inputFile)) {
+            // Parse the model with the selected parser
+            Beast2Model model = usePhyloSpec
+                    ? parser.parseFromStream(fis)
+                    : modelBuilder.buildFromStream(fis);
+
+            // Create analysis parameters
+            Beast2Analysis analysis = new Beast2Analysis(
+                    model,
+                    chainLength,
+                    logEvery,
+                    traceFileName
+            );
+
+            // Set additional parameters
+            analysis.setTreeLogFileName(treeFileName);
+            if (seed != null) {
+                analysis.setSeed(seed);
+            }
+            analysis.setThreadCount(threads);
+
+            // Build the MCMC run object
+            Beast2AnalysisBuilder analysisBuilder = new Beast2AnalysisBuilder(modelBuilder);
+            return analysisBuilder.buildRun(analysis);
+        }
+    }
+
+    /**
+     * Cache key of the XML for the input file, the packages it requires and the options
+     * that end up in the XML
+     */
+    private String cacheKey() throws IOException {
+        ResultCache.Key key = ResultCache.key("run", version).input(inputFile);
+        return key.packages(Beast2LangUtils.resolvePackageVersions(key.getRequiredPackages()))
+                .option("chainLength", chainLength)
+                .option("logEvery", logEvery)
+                .option("traceFileName", traceFileName)
+                .option("treeFileName", treeFileName)
+                .option("seed", seed)
+                .option("threads", threads)
+                .option("usePhyloSpec", usePhyloSpec)
+                .build();
+    }
+
+    /**
+     * Write the build profile report, and the Chrome trace with a .json extension next to it
+     */
+    private void writeProfile(BuildProfiler profiler) {
+        // Called from a finally block, so failing here must not hide an exception from the build
+        try {
+            profiler.writeReport(profileFile);
+            String name = profileFile.getName();
+            int dot = name.lastIndexOf('.');
+            File traceFile = new File(profileFile.getAbsoluteFile().getParentFile(),
+                    (dot > 0 ? name.substring(0, dot) : name) + ".json");
+            profiler.writeChromeTrace(traceFile);
+            System.out.println("Build profile written to " + profileFile.getPath() + " and " + traceFile.getPath());
+        } catch (IOException e) {
+            Log.warning("Could not write build profile to " + profileFile.getPath() + ": " + e.getMessage());
+        }
+    }
+
     public static void main(String[] args) throws Exception {
         String title = "Run Beast2Lang " + version;
 
@@ -6,13 +6,15 @@ import beast.base.core.Log;
 import beast.pkgmgmt.PackageManager;
 import beastfx.app.util.OutFile;
 import org.beast2.modelLanguage.schema.BEAST2ModelLibraryGenerator;
-import org.beast2.modelLanguage.schema.validation.ValidationResult;
+import org.beast2.modelLanguage.schema.scanner.ComponentCatalog;
+import org.beast2.modelLanguage.schema.validation.ClosureGraph;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.time.Duration;
 
 import static org.beast2.modelLanguage.Beast2LangUtils.writeOutput;
 
@@ -25,31 +27,59 @@ public class Beast2LangSchema extends beast.base.inference.Runnable {
 
     public Input<OutFile> outputFileInput = new Input<>("output", "Output JSON file",
             new OutFile(FILE_INIT));
+    public Input<OutFile> binaryOutputInput = new Input<>("binaryOutput",
+            "Also write the library in the binary format, e.g. beast2-model-library.b2lib");
     public Input<String> packagesInput = new Input<>("packages",
             "Additional packages to include (comma-separated)");
     public Input<Boolean> prettyInput = new Input<>("pretty",
             "Pretty print JSON output", true);
     public Input<Boolean> testClosureInput = new Input<>("testClosure",
-            "Test type closure after generation", false);
+            "Test type closure after generation, checking only what changed since the previous run", false);
+    public Input<OutFile> closureDiffInput = new Input<>("closureDiff",
+            "With testClosure, write the references broken and fixed since the previous run as JSON");
     public Input<Boolean> debugInput = new Input<>("debug",
             "Enable debug logging", false);
+    public Input<Integer> threadsInput = new Input<>("threads",
+            "Number of threads for scanning packages (default: number of processors)",
+            Runtime.getRuntime().availableProcessors());
+    public Input<Integer> timeoutInput = new Input<>("timeout",
+            "Seconds after which a component that does not load or construct is skipped", 10);
+    public Input<Boolean> staticInputsInput = new Input<>("staticInputs",
+            "Read component inputs from class files, instantiating components only when that fails", true);
+    public Input<Boolean> noCacheInput = new Input<>("noCache",
+            "Scan all packages again instead of using the component catalog", false);
 //    public Input<Boolean> usePhyloSpecInput = new Input<>("usePhyloSpec",
 //            "Use PhyloSpec syntax", false);
 
     private File outputFile;
+    private File binaryOutputFile;
     private String packages;
     private boolean prettyPrint;
     private boolean testClosure;
+    private File closureDiffFile;
     private Boolean debug;
+    private int threads;
+    private int timeout;
+    private boolean noCache;
+    private boolean staticInputs;
 //    private Boolean usePhyloSpec;
 
     @Override
     public void initAndValidate() {
         outputFile = outputFileInput.get();
+        binaryOutputFile = binaryOutputInput.get();
         packages = packagesInput.get();
         prettyPrint = prettyInput.get();
         testClosure = testClosureInput.get();
+        closureDiffFile = closureDiffInput.get();
         debug = debugInput.get();
+        threads = threadsInput.get();
+        timeout = timeoutInput.get();
+        noCache = noCacheInput.get();
+        staticInputs = staticInputsInput.get();
+        if (threads < 1 || timeout < 1) {
+            throw new IllegalArgumentException("threads and timeout must be at least 1");
+        }
 //        usePhyloSpec = usePhyloSpecInput.get();
     }
 
@@ -66,19 +96,25 @@ public class Beast2LangSchema extends beast.base.inference.Runnable {
             Log.setLevel(Log.Level.debug);
         }
 
+        BEAST2ModelLibraryGenerator generator = null;
         try {
             Log.info("Generating BEAST2 model library schema...");
 
             // Load external packages if needed
             PackageManager.loadExternalJars();
 
-            BEAST2ModelLibraryGenerator generator = new BEAST2ModelLibraryGenerator();
+            generator = new BEAST2ModelLibraryGenerator(threads,
+                    Duration.ofSeconds(timeout), noCache ? null : ComponentCatalog.getDefaultDirectory());
+            generator.setStaticInputs(staticInputs);
 
             // Generate the schema
             String schema = generator.generateModelLibrary();
 
             // Write to file
             writeOutput(outputFile, schema, prettyPrint);
+            if (binaryOutputFile != null) {
+                generator.writeBinaryModelLibrary(schema, binaryOutputFile);
+            }
 
             // Print summary
             JSONObject schemaObj = new JSONObject(schema);
@@ -139,8 +175,21 @@ public class Beast2LangSchema extends beast.base.inference.Runnable {
 
             if (testClosure) {
                 Log.info("\nRunning closure test...");
-                ValidationResult result = generator.validateSchema(schema);
-                Log.info(result.generateReport());
+                BEAST2ModelLibraryGenerator.ClosureCheck check = generator.validateClosureChanges();
+                Log.info(check.result().generateReport());
+                ClosureGraph.Diff diff = check.diff();
+                Log.info("Closure changes: " + diff.broken().size() + " broken, " + diff.fixed().size()
+                        + " fixed (" + diff.changedNodes() + " changed definitions, "
+                        + diff.checkedReferences() + " references checked)");
+                for (ClosureGraph.Reference reference : diff.broken()) {
+                    Log.info("  broken: " + reference.usage());
+                }
+                for (ClosureGraph.Reference reference : diff.fixed()) {
+                    Log.info("  fixed: " + reference.usage());
+                }
+                if (closureDiffFile != null) {
+                    writeOutput(closureDiffFile, diff.toJSON().toString(prettyPrint ? 2 : 0), false);
+                }
             }
 
         } catch (Exception e) {
@@ -155,6 +204,10 @@ public class Beast2LangSchema extends beast.base.inference.Runnable {
                 Log.err("Detailed error: " + sw.toString());
             }
 
+        } finally {
+            if (generator != null) {
+                generator.close();
+            }
         }
     }
 
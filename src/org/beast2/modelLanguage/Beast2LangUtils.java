@@ -4,8 +4,11 @@ import beast.base.core.BEASTInterface;
 import beast.base.core.Input;
 import beast.base.core.Log;
 import beast.base.parser.XMLProducer;
+import beast.pkgmgmt.Package;
+import beast.pkgmgmt.PackageManager;
 import org.beast2.modelLanguage.model.Beast2Model;
 import org.beast2.modelLanguage.model.RequiresStatement;
+import org.beast2.modelLanguage.model.Statement;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -13,11 +16,14 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Collection;
 import java.util.Map;
-import java.util.regex.Matcher;
+import java.util.Scanner;
+import java.util.TreeMap;
 import java.util.regex.Pattern;
 
 /**
@@ -26,6 +32,10 @@ import java.util.regex.Pattern;
  */
 public class Beast2LangUtils {
 
+    private static final Pattern REQUIRED_ATTRIBUTE = Pattern.compile("required=\"([^\"]+)\"");
+    // Characters searched for the required attribute
+    private static final int REQUIRED_HORIZON = 1 << 20;
+
     /**
      * Write output with optional pretty printing
      */
@@ -49,14 +59,27 @@ public class Beast2LangUtils {
 
     // Helper method to extract required attribute from XML
     public static String extractRequiredPackages(File xmlFile) throws IOException {
-        // Simple regex or XML parsing to extract the required attribute
-        String content = Files.readString(xmlFile.toPath());
-        Pattern pattern = Pattern.compile("required=\"([^\"]+)\"");
-        Matcher matcher = pattern.matcher(content);
-        if (matcher.find()) {
-            return matcher.group(1);
+        // The attribute is on the root element, so only the start of a (possibly very large) file is read
+        try (Scanner scanner = new Scanner(Files.newBufferedReader(xmlFile.toPath(), StandardCharsets.UTF_8))) {
+            String match = scanner.findWithinHorizon(REQUIRED_ATTRIBUTE, REQUIRED_HORIZON);
+            return match != null ? scanner.match().group(1) : null;
+        }
+    }
+
+    /**
+     * Look up the installed version of each package, "not installed" for missing ones
+     */
+    public static Map<String, String> resolvePackageVersions(Collection<String> packageNames) {
+        Map<String, Package> installed = new TreeMap<>(PackageManager::comparePackageNames);
+        PackageManager.addInstalledPackages(installed);
+        Map<String, String> versions = new TreeMap<>();
+        for (String name : packageNames) {
+            Package pkg = installed.get(name);
+            versions.put(name, pkg != null && pkg.isInstalled()
+                    ? pkg.getInstalledVersion().toString()
+                    : "not installed");
         }
-        return null;
+        return versions;
     }
 
     // Helper method to parse required string and add to model
@@ -220,6 +243,16 @@ public class Beast2LangUtils {
         return sb.toString();
     }
 
+    /**
+     * Stream Beast2Lang syntax from a Beast2Model, one statement at a time
+     */
+    public static void writeBeast2Lang(Beast2Model model, Writer writer) throws IOException {
+        for (Statement statement : model.getStatements()) {
+            writer.write(statement.toString());
+            writer.write('\n');
+        }
+    }
+
     /**
      * Generate XML from a BEAST2 object
      */
@@ -247,6 +280,32 @@ public class Beast2LangUtils {
         }
     }
 
+    /**
+     * Produces output by writing it to a writer
+     */
+    @FunctionalInterface
+    public interface OutputProducer {
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    /**
+     * Stream output to a file or stdout, without building it as a string first
+     */
+    public static void writeOutput(File outputFile, OutputProducer producer) throws IOException {
+        if (outputFile != null) {
+            try (Writer writer = Files.newBufferedWriter(outputFile.toPath(), StandardCharsets.UTF_8)) {
+                producer.writeTo(writer);
+            }
+            System.out.println("Output written to " + outputFile.getPath());
+        } else {
+            // Write to stdout, which must stay open, ending with a line break as println does
+            Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+            producer.writeTo(writer);
+            writer.write(System.lineSeparator());
+            writer.flush();
+        }
+    }
+
     /**
      * Write output to a file or stdout
      */
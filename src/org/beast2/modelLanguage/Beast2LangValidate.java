@@ -1,65 +1,166 @@
 package org.beast2.modelLanguage;
 
-import beast.base.core.Description;
-import beast.base.core.Input;
-import beast.base.core.Log;
 import org.beast2.modelLanguage.builder.Beast2LangParser;
 import org.beast2.modelLanguage.builder.Beast2LangParserImpl;
 import org.beast2.modelLanguage.model.Beast2Model;
 import org.beast2.modelLanguage.phylospec.Beast2LangParserWithPhyloSpec;
+import org.beast2.modelLanguage.schema.binary.BinaryLibrary;
+import org.beast2.modelLanguage.schema.index.SchemaIndex;
+import org.beast2.modelLanguage.schema.validation.SchemaModelValidator;
+import org.json.JSONObject;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
-/**TODO only work in command line
- * Main application class for Beast2Lang
- * Provides utilities for working with Beast2 model definition language
+/**
+ * Validates Beast2 models written in the definition language.
+ * <p>
+ * This command uses neither BEAST nor its application framework: files are parsed, and type-checked
+ * against a model library if one is given, so models can be validated on machines without a BEAST
+ * installation. Arguments are given as "-file model.b2l -library library.json -usePhyloSpec true";
+ * a single argument without a name is the file.
  */
-@Description("Validate a Beast2 model written in the definition language")
-public class Beast2LangValidate extends beast.base.inference.Runnable {
+public class Beast2LangValidate {
     public static final String version = "v0.0.1";
-    public static final String FILE_INIT = "[[*.b2l]]";
 
-    public Input<File> inputFileInput = new Input<>("file", "Input Beast2Lang file",
-            new File(FILE_INIT));
-    public Input<Boolean> usePhyloSpecInput = new Input<>("usePhyloSpec",
-            "Use PhyloSpec syntax", false);
+    private static final String USAGE = "Usage: Beast2LangValidate [-file] <file or directory> "
+            + "[-library <model library>] [-usePhyloSpec true|false]";
 
-    private File inputFile;
-    private Boolean usePhyloSpec;
+    private final boolean usePhyloSpec;
+    private final SchemaModelValidator validator;
 
-    @Override
-    public void initAndValidate() {
-        inputFile = inputFileInput.get();
-        if (inputFile.getName().contains(FILE_INIT))
-            throw new IllegalArgumentException("Input file is required ! " + inputFile);
-        usePhyloSpec = usePhyloSpecInput.get();
+    /**
+     * @param library      model library (JSON or binary) to type-check against without loading BEAST
+     *                     classes; null to only check the syntax
+     * @param usePhyloSpec whether files use PhyloSpec syntax
+     */
+    public Beast2LangValidate(File library, boolean usePhyloSpec) throws IOException {
+        this.usePhyloSpec = usePhyloSpec;
+        this.validator = library != null ? new SchemaModelValidator(readLibrary(library)) : null;
     }
 
+    /**
+     * Read a model library written by Beast2LangSchema, as JSON or in the binary format
+     */
+    static SchemaIndex readLibrary(File file) throws IOException {
+        if (file.getName().endsWith(".json")) {
+            return new SchemaIndex(new JSONObject(Files.readString(file.toPath(), StandardCharsets.UTF_8)));
+        }
+        return new SchemaIndex(BinaryLibrary.open(file).toJSON());
+    }
 
-    @Override
-    public void run() {
-        try {
-            System.out.println("Validating " + inputFile.getPath() + "...");
-
-            // Use appropriate parser based on PhyloSpec flag
-            Beast2LangParser parser = usePhyloSpec
-                    ? new Beast2LangParserWithPhyloSpec()
-                    : new Beast2LangParserImpl();
+    /**
+     * Validate a file, or all .b2l files in a directory
+     *
+     * @return number of invalid files
+     */
+    public int run(File input) throws IOException {
+        List<File> files = new ArrayList<>();
+        if (input.isDirectory()) {
+            try (Stream<Path> paths = Files.walk(input.toPath())) {
+                paths.filter(path -> path.toString().endsWith(".b2l")).sorted()
+                        .forEach(path -> files.add(path.toFile()));
+            }
+        } else {
+            files.add(input);
+        }
 
-            try (FileInputStream fis = new FileInputStream(inputFile)) {
-                Beast2Model model = parser.parseFromStream(fis);
-                Log.info("Model is valid. Contains " + model.getStatements().size() + " statements.");
+        int invalid = 0;
+        for (File file : files) {
+            if (!validate(file)) {
+                invalid++;
             }
+        }
+        if (files.size() > 1) {
+            System.out.println(files.size() - invalid + " of " + files.size() + " files are valid.");
+        }
+        return invalid;
+    }
+
+    /**
+     * Parse a file and, if a library is given, type-check it
+     *
+     * @return whether the file is valid
+     */
+    private boolean validate(File file) {
+        System.out.println("Validating " + file.getPath() + "...");
+
+        // Use appropriate parser based on PhyloSpec flag
+        Beast2LangParser parser = usePhyloSpec
+                ? new Beast2LangParserWithPhyloSpec()
+                : new Beast2LangParserImpl();
+
+        Beast2Model model;
+        try (FileInputStream fis = new FileInputStream(file)) {
+            model = parser.parseFromStream(fis);
         } catch (Exception e) {
-            Log.err("Error validating file: " + e.getMessage());
-            e.printStackTrace();
+            System.err.println("Error validating file: " + e.getMessage());
+            return false;
         }
+
+        if (validator == null) {
+            System.out.println("Model is valid. Contains " + model.getStatements().size() + " statements.");
+            return true;
+        }
+        List<SchemaModelValidator.Problem> problems = validator.validate(model);
+        for (SchemaModelValidator.Problem problem : problems) {
+            (problem.severity() == SchemaModelValidator.Severity.ERROR ? System.err : System.out)
+                    .println(file.getName() + ": " + problem);
+        }
+        if (SchemaModelValidator.hasErrors(problems)) {
+            return false;
+        }
+        System.out.println("Model is valid. Contains " + model.getStatements().size() + " statements.");
+        return true;
     }
 
-    public static void main(String[] args) throws Exception {
-        String title = "Validate Beast2Lang " + version;
+    public static void main(String[] args) {
+        File input = null;
+        File library = null;
+        boolean usePhyloSpec = false;
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i].replaceFirst("^--?", "");
+            if (name.equals(args[i])) {
+                input = new File(args[i]);
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                System.err.println("Missing value of " + args[i] + "\n" + USAGE);
+                System.exit(1);
+            }
+            String value = args[++i];
+            switch (name) {
+                case "file" -> input = new File(value);
+                case "library" -> library = new File(value);
+                case "usePhyloSpec" -> usePhyloSpec = Boolean.parseBoolean(value);
+                default -> {
+                    System.err.println("Unknown argument " + args[i - 1] + "\n" + USAGE);
+                    System.exit(1);
+                }
+            }
+        }
+        if (input == null) {
+            System.err.println("Input file is required\n" + USAGE);
+            System.exit(1);
+        }
 
-        new beastfx.app.tools.Application(new Beast2LangValidate(), title, args);
+        System.out.println("Validate Beast2Lang " + version);
+        try {
+            int invalid = new Beast2LangValidate(library, usePhyloSpec).run(input);
+            // Without a library only the syntax is checked, and failures are reported but not fatal
+            if (invalid > 0 && library != null) {
+                System.exit(1);
+            }
+        } catch (IOException e) {
+            System.err.println("Error validating file: " + e.getMessage());
+            System.exit(1);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,386 @@
+package org.beast2.modelLanguage;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of command results on the local disk.
+ * <p>
+ * The key of an entry is a SHA-256 hash of everything the result depends on: the input bytes,
+ * the data files the input refers to, the installed versions of the packages it requires, the
+ * tool version and build, and the command options. An entry is a directory holding the output
+ * file and any files written next to it (e.g. Nexus files), so a hit only copies files.
+ * <p>
+ * The cache is bounded in size: after each store the least recently used entries are removed
+ * until the total size is below the limit. Entries are written to a temporary directory and
+ * renamed into place, so concurrent runs never see a partial entry.
+ */
+public class ResultCache {
+
+    private static final Logger logger = Logger.getLogger(ResultCache.class.getName());
+
+    /** System property for the cache directory, by default ~/.beast2lang/cache */
+    public static final String DIRECTORY_PROPERTY = "beast2lang.cache.dir";
+    /** System property for the maximum size of the cache in bytes */
+    public static final String MAX_SIZE_PROPERTY = "beast2lang.cache.maxSize";
+    public static final long DEFAULT_MAX_SIZE = 512L * 1024 * 1024;
+
+    private static final String OUTPUT_FILE = "output";
+    private static final String MANIFEST_FILE = "manifest";
+
+    // Data files referenced from Beast2Lang scripts and XML, e.g. nexus(file="primates.nex")
+    private static final Pattern FILE_REFERENCE = Pattern.compile("\\b(?:file|fileName)\\s*=\\s*\"([^\"]+)\"");
+    private static final Pattern REQUIRES_STATEMENT = Pattern.compile("^\\s*requires\\s+([\\w.\\-]+)");
+    private static final Pattern REQUIRED_ATTRIBUTE = Pattern.compile("\\brequired\\s*=\\s*\"([^\"]+)\"");
+
+    // Computed once, see buildStamp()
+    private static String buildStamp;
+
+    private final Path directory;
+    private final long maxSize;
+
+    public ResultCache(File directory, long maxSize) {
+        this.directory = directory.toPath();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * The cache in the directory given by the system properties, or the default one
+     */
+    public static ResultCache getDefault() {
+        String dir = System.getProperty(DIRECTORY_PROPERTY);
+        File directory = dir != null
+                ? new File(dir)
+                : new File(System.getProperty("user.home"), ".beast2lang" + File.separator + "cache");
+        long maxSize = Long.getLong(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE);
+        return new ResultCache(directory, maxSize);
+    }
+
+    /**
+     * Start a key for a command
+     *
+     * @param command     name of the command, e.g. "decompile"
+     * @param toolVersion version of the command
+     */
+    public static Key key(String command, String toolVersion) {
+        return new Key(command, toolVersion);
+    }
+
+    /**
+     * Copy a cached result to the output file, and the files stored with it back to their paths.
+     * Existing files at those paths are never overwritten: one with the cached content is kept,
+     * and one with other content makes the entry unusable, as the output refers to it.
+     *
+     * @return true if the result was in the cache and could be used
+     */
+    public boolean restore(String key, File outputFile) {
+        Path entry = directory.resolve(key);
+        Path output = entry.resolve(OUTPUT_FILE);
+        if (!Files.isRegularFile(output)) {
+            return false;
+        }
+        try {
+            List<String> sideFiles = Files.readAllLines(entry.resolve(MANIFEST_FILE), StandardCharsets.UTF_8);
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 0; i < sideFiles.size(); i++) {
+                Path target = Paths.get(sideFiles.get(i));
+                if (!Files.exists(target)) {
+                    missing.add(i);
+                } else if (Files.mismatch(entry.resolve(String.valueOf(i)), target) != -1) {
+                    logger.info("Not using cached result " + key + ": " + target + " has other content");
+                    return false;
+                }
+            }
+            for (int i : missing) {
+                createParent(Paths.get(sideFiles.get(i)));
+                Files.copy(entry.resolve(String.valueOf(i)), Paths.get(sideFiles.get(i)));
+            }
+            createParent(outputFile.toPath());
+            Files.copy(output, outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            // The modification time of an entry is its last use
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            logger.info("Using cached result " + key + " for " + outputFile);
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            // An entry removed by another run, or a damaged one: treat as a miss
+            logger.warning("Could not use cached result " + key + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Store the output file and the files written with it under the key.
+     * Failures are logged and otherwise ignored: the cache is only an optimisation.
+     *
+     * @param sideFiles files the output refers to, restored to the same paths on a hit
+     */
+    public void store(String key, File outputFile, Collection<String> sideFiles) {
+        Path entry = directory.resolve(key);
+        if (Files.isDirectory(entry)) {
+            return;
+        }
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempDirectory(directory, key + ".tmp");
+            List<String> manifest = new ArrayList<>();
+            for (String sideFile : sideFiles) {
+                Files.copy(Paths.get(sideFile), temp.resolve(String.valueOf(manifest.size())));
+                manifest.add(Paths.get(sideFile).toAbsolutePath().toString());
+            }
+            Files.write(temp.resolve(MANIFEST_FILE), manifest, StandardCharsets.UTF_8);
+            Files.copy(outputFile.toPath(), temp.resolve(OUTPUT_FILE));
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+                // Stored by a concurrent run in the meantime
+                deleteRecursively(temp);
+            }
+            temp = null;
+            evict();
+        } catch (IOException | UncheckedIOException e) {
+            logger.warning("Could not cache result for " + outputFile + ": " + e.getMessage());
+        } finally {
+            if (temp != null) {
+                deleteRecursively(temp);
+            }
+        }
+    }
+
+    /**
+     * Remove the least recently used entries until the cache fits in its maximum size
+     */
+    void evict() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        Map<Path, Long> sizes = new HashMap<>();
+        Map<Path, FileTime> lastUsed = new HashMap<>();
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path entry : stream) {
+                if (entry.getFileName().toString().contains(".tmp")) {
+                    continue;
+                }
+                long size = size(entry);
+                entries.add(entry);
+                sizes.put(entry, size);
+                lastUsed.put(entry, Files.getLastModifiedTime(entry));
+                total += size;
+            }
+        }
+        if (total <= maxSize) {
+            return;
+        }
+
+        entries.sort(Comparator.comparing(lastUsed::get));
+        for (Path entry : entries) {
+            if (total <= maxSize) {
+                break;
+            }
+            deleteRecursively(entry);
+            total -= sizes.get(entry);
+            logger.fine("Evicted cached result " + entry.getFileName());
+        }
+    }
+
+    private static long size(Path entry) throws IOException {
+        try (Stream<Path> files = Files.list(entry)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static void createParent(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+    }
+
+    private static void deleteRecursively(Path path) {
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            logger.fine("Could not delete " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stamp of the build this class was loaded from, so results are not reused across builds
+     * with the same version number: size and time of a jar, or a hash of the class files in a
+     * class directory, whose own size and time say nothing about its contents
+     */
+    public static synchronized String buildStamp() {
+        if (buildStamp == null) {
+            buildStamp = computeBuildStamp();
+        }
+        return buildStamp;
+    }
+
+    private static String computeBuildStamp() {
+        try {
+            CodeSource source = ResultCache.class.getProtectionDomain().getCodeSource();
+            if (source != null && source.getLocation() != null) {
+                File location = new File(source.getLocation().toURI());
+                if (location.isDirectory()) {
+                    return hashClassFiles(location.toPath());
+                }
+                return location.length() + "@" + location.lastModified();
+            }
+        } catch (URISyntaxException | IllegalArgumentException | SecurityException | IOException e) {
+            logger.fine("Could not determine build of " + ResultCache.class.getName() + ": " + e.getMessage());
+        }
+        return "unknown";
+    }
+
+    /**
+     * Hash of the names and contents of the class files under a directory
+     */
+    static String hashClassFiles(Path directory) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        List<Path> classFiles;
+        try (Stream<Path> files = Files.walk(directory)) {
+            classFiles = files.filter(file -> file.toString().endsWith(".class")).sorted().toList();
+        }
+        for (Path file : classFiles) {
+            digest.update(directory.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Files.readAllBytes(file));
+        }
+        return "classes:" + HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Builder for cache keys. The order of calls matters, so commands should add their
+     * parts in a fixed order.
+     */
+    public static class Key {
+        private final MessageDigest digest;
+        private final Set<String> requiredPackages = new TreeSet<>();
+
+        private Key(String command, String toolVersion) {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            part("command", command);
+            part("version", toolVersion);
+            part("build", buildStamp());
+        }
+
+        /**
+         * Add a command option
+         */
+        public Key option(String name, Object value) {
+            return part("option " + name, String.valueOf(value));
+        }
+
+        /**
+         * Add the bytes of the input file and of the data files it refers to,
+         * and collect the packages it requires
+         */
+        public Key input(File inputFile) throws IOException {
+            List<String> references = new ArrayList<>();
+            part("input", hash(inputFile, line -> {
+                Matcher matcher = FILE_REFERENCE.matcher(line);
+                while (matcher.find()) {
+                    references.add(matcher.group(1));
+                }
+                matcher = REQUIRES_STATEMENT.matcher(line);
+                if (matcher.find()) {
+                    requiredPackages.add(matcher.group(1));
+                }
+                matcher = REQUIRED_ATTRIBUTE.matcher(line);
+                if (matcher.find()) {
+                    // e.g. "BEAST.base v2.7.7:feast v10.4.0"
+                    for (String pkg : matcher.group(1).split(":")) {
+                        requiredPackages.add(pkg.trim().split("\\s+")[0]);
+                    }
+                }
+            }));
+
+            for (String reference : references) {
+                File file = new File(reference);
+                if (!file.isAbsolute() && !file.exists()) {
+                    file = new File(inputFile.getAbsoluteFile().getParentFile(), reference);
+                }
+                part("data " + reference, file.isFile() ? hash(file, null) : "missing");
+            }
+            return this;
+        }
+
+        /**
+         * Packages named in requires statements or the required attribute of the input
+         */
+        public Set<String> getRequiredPackages() {
+            return Collections.unmodifiableSet(requiredPackages);
+        }
+
+        /**
+         * Add the resolved versions of packages
+         */
+        public Key packages(Map<String, String> versions) {
+            new TreeMap<>(versions).forEach((name, version) -> part("package " + name, version));
+            return this;
+        }
+
+        public String build() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        private Key part(String name, String value) {
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            return this;
+        }
+
+        /**
+         * Hash a file, passing its lines to the scanner on the way
+         */
+        private static String hash(File file, Consumer<String> scanner) throws IOException {
+            MessageDigest fileDigest;
+            try {
+                fileDigest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file.toPath()), fileDigest)) {
+                if (scanner != null) {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        scanner.accept(line);
+                    }
+                } else {
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+            return HexFormat.of().formatHex(fileDigest.digest());
+        }
+    }
+}
@@ -6,13 +6,13 @@ import beast.base.core.Log;
 import beast.base.evolution.alignment.Taxon;
 import beast.base.inference.parameter.IntegerParameter;
 import beast.base.inference.parameter.RealParameter;
+import org.beast2.modelLanguage.builder.BuildProfiler;
 import org.beast2.modelLanguage.builder.ObjectRegistry;
 
 import java.lang.reflect.*;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Registry of autoboxing rules for BEAST2Lang.
@@ -27,6 +27,16 @@ public class AutoboxingRegistry {
     // Registry of autoboxing rules
     private final List<AutoboxingRule> rules = new ArrayList<>();
 
+    // Dispatch cache: value class and target type -> rules that can autobox it, in rule order (empty if none)
+    private final Map<DispatchKey, List<AutoboxingRule>> dispatchCache = new ConcurrentHashMap<>();
+    // Incremented by addRule, so a dispatch computed from an older rule list is not cached
+    private long ruleGeneration;
+
+    // Profiling counters: successful conversions per rule, and dispatch cache hits/misses
+    private final Map<AutoboxingRule, LongAdder> ruleHits = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
     /**
      * Get the singleton instance
      */
@@ -82,10 +92,13 @@ public class AutoboxingRegistry {
     }
 
     /**
-     * Add an autoboxing rule to the registry
+     * Add an autoboxing rule to the registry.
+     * Invalidates the dispatch cache, since the new rule may apply to cached combinations.
      */
-    public void addRule(AutoboxingRule rule) {
+    public synchronized void addRule(AutoboxingRule rule) {
         rules.add(rule);
+        ruleGeneration++;
+        dispatchCache.clear();
     }
 
     /**
@@ -101,21 +114,23 @@ public class AutoboxingRegistry {
             return value; // No autoboxing needed
         }
 
-        // Try each rule in order
-        for (AutoboxingRule rule : rules) {
-            if (rule.canAutobox(value, targetType)) {
-                try {
-                    Object result = rule.autobox(value, targetType, objectRegistry);
-                    if (result != null) {
-                        Log.info("Autoboxed " + value.getClass().getSimpleName() +
-                                " to " + result.getClass().getSimpleName() +
-                                " using " + rule.getClass().getSimpleName());
-                        return result;
-                    }
-                } catch (Exception e) {
-                    Log.warning("Error during autoboxing with " + rule.getClass().getSimpleName() +
-                            ": " + e.getMessage());
+        try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.AUTOBOX)) {
+            return autoboxWithRules(value, targetType, objectRegistry);
+        }
+    }
+
+    private Object autoboxWithRules(Object value, Type targetType, ObjectRegistry objectRegistry) {
+        // Try each applicable rule in order
+        for (AutoboxingRule rule : getApplicableRules(value, targetType)) {
+            try {
+                Object result = rule.autobox(value, targetType, objectRegistry);
+                if (result != null) {
+                    ruleHits.computeIfAbsent(rule, r -> new LongAdder()).increment();
+                    return result;
                 }
+            } catch (Exception e) {
+                Log.warning("Error during autoboxing with " + rule.getClass().getSimpleName() +
+                        ": " + e.getMessage());
             }
         }
 
@@ -123,6 +138,109 @@ public class AutoboxingRegistry {
         return value;
     }
 
+    /**
+     * Get the rules whose canAutobox accepts this value and target type, using the dispatch cache.
+     * Rules only look at the value's class (and, for arrays, the class of the first element at
+     * each level of nesting), and at the raw target type and its element type, so these make up
+     * the cache key.
+     */
+    private List<AutoboxingRule> getApplicableRules(Object value, Type targetType) {
+        DispatchKey key = DispatchKey.of(value, targetType);
+        List<AutoboxingRule> applicable = dispatchCache.get(key);
+        if (applicable != null) {
+            cacheHits.increment();
+            return applicable;
+        }
+
+        cacheMisses.increment();
+        List<AutoboxingRule> snapshot;
+        long generation;
+        synchronized (this) {
+            snapshot = new ArrayList<>(rules);
+            generation = ruleGeneration;
+        }
+        applicable = new ArrayList<>();
+        for (AutoboxingRule rule : snapshot) {
+            if (rule.canAutobox(value, targetType)) {
+                applicable.add(rule);
+            }
+        }
+        applicable = applicable.isEmpty() ? Collections.emptyList() : List.copyOf(applicable);
+        synchronized (this) {
+            if (generation == ruleGeneration) {
+                dispatchCache.put(key, applicable);
+            }
+        }
+        return applicable;
+    }
+
+    /**
+     * Number of successful conversions per rule, by rule class name, in rule order
+     */
+    public synchronized Map<String, Long> getRuleHitCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (AutoboxingRule rule : rules) {
+            LongAdder hits = ruleHits.get(rule);
+            counts.put(rule.getClass().getSimpleName(), hits != null ? hits.sum() : 0L);
+        }
+        return counts;
+    }
+
+    /**
+     * Conversions of one model class to another that the rules apply, in rule order
+     */
+    public synchronized List<Conversion> getConversions() {
+        List<Conversion> conversions = new ArrayList<>();
+        for (AutoboxingRule rule : rules) {
+            conversions.addAll(rule.getConversions());
+        }
+        return conversions;
+    }
+
+    /**
+     * Summary of dispatch cache usage and rule hits, for profiling
+     */
+    public String getStatistics() {
+        return "Autoboxing: " + cacheHits.sum() + " cache hits, " + cacheMisses.sum() + " misses, " +
+                dispatchCache.size() + " cached dispatches, rule hits " + getRuleHitCounts();
+    }
+
+    /**
+     * Reset the profiling counters (the dispatch cache is kept)
+     */
+    public void resetStatistics() {
+        ruleHits.clear();
+        cacheHits.reset();
+        cacheMisses.reset();
+    }
+
+    /**
+     * Key of the dispatch cache
+     */
+    private record DispatchKey(Class<?> valueClass, List<Class<?>> firstElementClasses,
+                               Class<?> targetClass, Type targetElementType) {
+
+        static DispatchKey of(Object value, Type targetType) {
+            // Class of the first element, of its first element, and so on for nested arrays;
+            // Void for a null element, and nothing for an empty array
+            List<Class<?>> firstElementClasses = new ArrayList<>(1);
+            Object array = value;
+            while (array != null && array.getClass().isArray() && Array.getLength(array) > 0) {
+                array = Array.get(array, 0);
+                firstElementClasses.add(array != null ? array.getClass() : Void.class);
+            }
+            return new DispatchKey(value.getClass(), firstElementClasses,
+                    TypeUtils.getRawType(targetType), TypeUtils.getCollectionElementType(targetType));
+        }
+    }
+
+    /**
+     * A conversion of a rule: values of the class (or a subclass) are accepted by inputs of the
+     * target class or a subclass of it. Both are fully qualified class names.
+     */
+    public record Conversion(String valueClass, String targetClass) {
+    }
+
     /**
      * Interface for autoboxing rules with Type information
      */
@@ -136,6 +254,14 @@ public class AutoboxingRegistry {
          * Perform the autoboxing
          */
         Object autobox(Object value, Type targetType, ObjectRegistry objectRegistry) throws Exception;
+
+        /**
+         * The conversions of one model class to another this rule applies, which the model library
+         * records for checking models without BEAST; empty for rules that convert literals and arrays
+         */
+        default List<Conversion> getConversions() {
+            return List.of();
+        }
     }
 
     /**
@@ -469,6 +595,12 @@ public class AutoboxingRegistry {
             }
         }
 
+        @Override
+        public List<Conversion> getConversions() {
+            return List.of(new Conversion("beast.base.inference.distribution.ParametricDistribution",
+                    "beast.base.inference.distribution.Prior"));
+        }
+
         @Override
         public Object autobox(Object value, Type targetType, ObjectRegistry objectRegistry) throws Exception {
             // Create Prior
@@ -511,6 +643,12 @@ public class AutoboxingRegistry {
             }
         }
 
+        @Override
+        public List<Conversion> getConversions() {
+            return List.of(new Conversion("beast.base.evolution.substitutionmodel.SubstitutionModel",
+                    "beast.base.evolution.sitemodel.SiteModelInterface"));
+        }
+
         @Override
         public Object autobox(Object value, Type targetType, ObjectRegistry objectRegistry) throws Exception {
             // Create SiteModel
@@ -553,6 +691,12 @@ public class AutoboxingRegistry {
             }
         }
 
+        @Override
+        public List<Conversion> getConversions() {
+            return List.of(new Conversion("beast.base.evolution.alignment.Alignment",
+                    "beast.base.evolution.alignment.TaxonSet"));
+        }
+
         @Override
         public Object autobox(Object value, Type targetType, ObjectRegistry objectRegistry) throws Exception {
             // Create TaxonSet
@@ -688,6 +832,12 @@ public class AutoboxingRegistry {
             }
         }
 
+        @Override
+        public List<Conversion> getConversions() {
+            return List.of(new Conversion("beast.base.inference.parameter.RealParameter",
+                    "beast.base.evolution.substitutionmodel.Frequencies"));
+        }
+
         @Override
         public Object autobox(Object value, Type targetType, ObjectRegistry objectRegistry) throws Exception {
             // Create Frequencies object
@@ -768,6 +918,13 @@ public class AutoboxingRegistry {
             }
         }
 
+        @Override
+        public List<Conversion> getConversions() {
+            return List.of(
+                    new Conversion("beast.base.evolution.tree.Tree", "beast.base.evolution.tree.TreeIntervals"),
+                    new Conversion("beast.base.evolution.tree.TreeInterface", "beast.base.evolution.tree.TreeIntervals"));
+        }
+
         @Override
         public Object autobox(Object value, Type targetType, ObjectRegistry objectRegistry) throws Exception {
             try {
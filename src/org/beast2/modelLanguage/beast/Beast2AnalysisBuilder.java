@@ -17,6 +17,7 @@ import beast.base.evolution.tree.coalescent.RandomTree;
 import beast.base.inference.*;
 import beast.base.inference.parameter.Parameter;
 import beast.base.inference.parameter.RealParameter;
+import org.beast2.modelLanguage.builder.BuildProfiler;
 import org.beast2.modelLanguage.model.Beast2Analysis;
 import org.beast2.modelLanguage.operators.DefaultParameterOperator;
 import org.beast2.modelLanguage.operators.DefaultTreeOperator;
@@ -51,49 +52,61 @@ public class Beast2AnalysisBuilder {
             modelBuilder.buildModel(analysis.getModel());
         }
 
-        // Initialize trees with RandomTree initializer
-        initializeTreesWithRandomTree();
+        try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.ANALYSIS)) {
+            // Initialize trees with RandomTree initializer
+            initializeTreesWithRandomTree();
 
-        // Set up the core components
-        State state = setupState();
+            // Set up the core components
+            State state = setupState();
 
-        // Initialize state nodes using their distributions
-        initializeStateNodes(state);
+            // Initialize state nodes using their distributions
+            initializeStateNodes(state);
 
-        List<Distribution> dists = modelBuilder.getCreatedDistributions();
-        List<TreeLikelihood> likelihoods = filterTreeLikelihoods(dists);
+            List<Distribution> dists = modelBuilder.getCreatedDistributions();
+            List<TreeLikelihood> likelihoods = filterTreeLikelihoods(dists);
 
-        // Set up distributions
-        CompoundDistribution prior = setupPrior(likelihoods);
-        CompoundDistribution likelihood = setupLikelihood(likelihoods);
-        CompoundDistribution posterior = setupPosterior(prior, likelihood);
+            // Set up distributions
+            CompoundDistribution prior = setupPrior(likelihoods);
+            CompoundDistribution likelihood = setupLikelihood(likelihoods);
+            CompoundDistribution posterior = setupPosterior(prior, likelihood);
 
-        // Set up operators
-        List<Operator> operators = setupOperators();
+            // Set up operators
+            List<Operator> operators = setupOperators();
 
-        // Create the MCMC object
-        return setupMCMC(analysis, posterior, state, operators);
+            // Create the MCMC object
+            return setupMCMC(analysis, posterior, state, operators);
+        }
+    }
+
+    /**
+     * Create an independent copy of a run built by {@link #buildRun(Beast2Analysis)}, for replicate chains.
+     * This is much cheaper than parsing and building the model again: alignments and taxon sets
+     * are shared, while state nodes, distributions, operators and loggers are copied.
+     * IDs and logger file names get the suffix "_" followed by the replicate number, e.g. for
+     * replicate 2 "trace.log" becomes "trace_2.log".
+     * The random seed is global in BEAST2, so set it with Randomizer before running each replicate.
+     */
+    public MCMC buildReplicate(MCMC run, int replicate) throws Exception {
+        return new BeastGraphCopier("_" + replicate).copy(run);
     }
 
     private void initializeTreesWithRandomTree() {
         try {
-            Map<String, Object> objects = modelBuilder.getAllObjects();
+            BeastObjectRegistry registry = modelBuilder.getRegistry();
 
             // First find all trees and MRCAPriors
             Map<String, List<MRCAPrior>> treeToPriors = new HashMap<>();
 
             // Collect all MRCAPriors and organize them by tree
-            for (Object obj : objects.values()) {
-                if (obj instanceof MRCAPrior prior) {
-                    Tree priorTree = prior.treeInput.get();
-                    if (priorTree != null) {
-                        String treeId = priorTree.getID();
-                        if (!treeToPriors.containsKey(treeId)) {
-                            treeToPriors.put(treeId, new ArrayList<>());
-                        }
-                        treeToPriors.get(treeId).add(prior);
-                        Log.info("Found MRCAPrior for tree " + treeId + ": " + prior.getID());
+            for (MRCAPrior prior : registry.getObjectsOfType(MRCAPrior.class)) {
+                Tree priorTree = prior.treeInput.get();
+                if (priorTree != null) {
+                    String treeId = priorTree.getID();
+                    if (!treeToPriors.containsKey(treeId)) {
+                        treeToPriors.put(treeId, new ArrayList<>());
                     }
+                    treeToPriors.get(treeId).add(prior);
+                    Log.info("Found MRCAPrior for tree " + treeId + ": " + prior.getID());
                 }
             }
 
@@ -101,46 +114,43 @@ public class Beast2AnalysisBuilder {
             Map<String, Alignment> treeToAlignment = new HashMap<>();
 
             // Find TreeLikelihood objects to determine which alignment is used with which tree
-            for (Object obj : objects.values()) {
-                if (obj instanceof TreeLikelihood likelihood) {
-                    TreeInterface tree = likelihood.treeInput.get();
-                    Alignment data = likelihood.dataInput.get();
-
-                    if (tree != null && data != null) {
-                        treeToAlignment.put(tree.getID(), data);
-                        Log.info("Found alignment " + data.getID() + " for tree " + tree.getID());
-                    }
+            for (TreeLikelihood likelihood : registry.getObjectsOfType(TreeLikelihood.class)) {
+                TreeInterface tree = likelihood.treeInput.get();
+                Alignment data = likelihood.dataInput.get();
+
+                if (tree != null && data != null) {
+                    treeToAlignment.put(tree.getID(), data);
+                    Log.info("Found alignment " + data.getID() + " for tree " + tree.getID());
                 }
             }
 
             // Now create tree initializers for each tree
-            for (Map.Entry<String, Object> entry : objects.entrySet()) {
-                if (entry.getValue() instanceof Tree tree) {
-                    String treeId = tree.getID();
-
-                    // Find the alignment for this tree
-                    Alignment alignment = treeToAlignment.get(treeId);
-                    if (alignment == null) {
-                        Log.warning("Could not find alignment for tree " + treeId + ", skipping initialization");
-                        continue;
-                    }
+            // (copied, since the RandomTree initializers registered below are Trees too)
+            for (Tree tree : new ArrayList<>(registry.getObjectsOfType(Tree.class))) {
+                String treeId = tree.getID();
+
+                // Find the alignment for this tree
+                Alignment alignment = treeToAlignment.get(treeId);
+                if (alignment == null) {
+                    Log.warning("Could not find alignment for tree " + treeId + ", skipping initialization");
+                    continue;
+                }
 
-                    // Get any MRCAPriors for this tree
-                    List<MRCAPrior> priors = treeToPriors.getOrDefault(treeId, new ArrayList<>());
+                // Get any MRCAPriors for this tree
+                List<MRCAPrior> priors = treeToPriors.getOrDefault(treeId, new ArrayList<>());
 
-                    // Determine which initializer to use
-                    boolean hasCalibrations = priors.stream()
-                            .anyMatch(p -> p.distInput.get() != null);
+                // Determine which initializer to use
+                boolean hasCalibrations = priors.stream()
+                        .anyMatch(p -> p.distInput.get() != null);
 
-                    if (hasCalibrations) {
+                if (hasCalibrations) {
 
-                        // Use RandomTree
-                        try {
-                            createRandomTreeInitializer(tree, alignment, treeId, priors);
-                        } catch (Exception e) {
-                            Log.warning("Failed to create tree initializer for " + treeId + ": " + e.getMessage());
-                            e.printStackTrace();
-                        }
+                    // Use RandomTree
+                    try {
+                        createRandomTreeInitializer(tree, alignment, treeId, priors);
+                    } catch (Exception e) {
+                        Log.warning("Failed to create tree initializer for " + treeId + ": " + e.getMessage());
+                        e.printStackTrace();
                     }
                 }
             }
@@ -247,12 +257,10 @@ public class Beast2AnalysisBuilder {
         List<StateNodeInitialiser> initializers = new ArrayList<>();
 
         // Look for all initializers, not just RandomTree
-        for (Map.Entry<String, Object> entry : modelBuilder.getAllObjects().entrySet()) {
-            Object obj = entry.getValue();
-            if (obj instanceof StateNodeInitialiser) {
-                initializers.add((StateNodeInitialiser) obj);
-                Log.info("Found initializer: " + entry.getKey() + " of class " + obj.getClass().getName());
-            }
+        for (StateNodeInitialiser initializer : modelBuilder.getRegistry().getObjectsOfType(StateNodeInitialiser.class)) {
+            initializers.add(initializer);
+            Log.info("Found initializer: " + ((BEASTInterface) initializer).getID() +
+                    " of class " + initializer.getClass().getName());
         }
 
         Log.info("Total initializers found: " + initializers.size());
@@ -512,9 +520,8 @@ public class Beast2AnalysisBuilder {
 
         //*** special cases ***//
 
-        List<GenericTreeLikelihood> treeLikelihoods = modelBuilder.getAllObjects().values().stream()
-                .filter(o -> o instanceof GenericTreeLikelihood)
-                .map(o -> (GenericTreeLikelihood)o)
+        List<GenericTreeLikelihood> treeLikelihoods = modelBuilder.getRegistry()
+                .getObjectsOfType(GenericTreeLikelihood.class).stream()
                 .sorted(Comparator.comparing(GenericTreeLikelihood::getID)) // sort by id
                 .toList();
 
@@ -5,6 +5,8 @@ import beast.base.inference.Distribution;
 import beast.base.inference.StateNode;
 import org.beast2.modelLanguage.builder.Beast2LangParser;
 import org.beast2.modelLanguage.builder.Beast2LangParserImpl;
+import org.beast2.modelLanguage.builder.BuildProfiler;
+import org.beast2.modelLanguage.builder.ModelDiff;
 import org.beast2.modelLanguage.builder.ModelStatementProcessor;
 import org.beast2.modelLanguage.model.*;
 
@@ -26,6 +28,9 @@ public class Beast2ModelBuilder {
     private final BeastObjectRegistry registry;
     private final ModelStatementProcessor objectFactory;
 
+    // The model that was last built, used as the baseline for incremental rebuilds
+    private Beast2Model builtModel;
+
     /**
      * Constructor that initializes the parser, registry, and object factory.
      */
@@ -73,7 +78,9 @@ public class Beast2ModelBuilder {
      * @throws IOException if an I/O error occurs
      */
     public Beast2Model buildFromStream(InputStream inputStream) throws IOException {
-        return parser.parseFromStream(inputStream);
+        try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.PARSE)) {
+            return parser.parseFromStream(inputStream);
+        }
     }
 
     /**
@@ -83,7 +90,9 @@ public class Beast2ModelBuilder {
      * @return the constructed Beast2Model
      */
     public Beast2Model buildFromString(String input) {
-        return parser.parseFromString(input);
+        try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.PARSE)) {
+            return parser.parseFromString(input);
+        }
     }
 
     /**
@@ -104,11 +113,44 @@ public class Beast2ModelBuilder {
 
         // Second pass: build the actual Beast2 objects
         objectFactory.buildFromModel(model);
+        builtModel = model;
 
         // Log registry statistics
         Log.info(registry.getStatistics());
     }
 
+    /**
+     * Rebuild BEAST2 objects after the model changed, reusing objects whose
+     * statements (and everything they depend on) are unchanged since the last build.
+     * Falls back to a full build if nothing was built yet, or imports or requires changed.
+     *
+     * @param model the new version of the model
+     * @return the difference that was applied
+     * @throws Exception if construction fails
+     */
+    public ModelDiff buildModelIncremental(Beast2Model model) throws Exception {
+        ModelDiff diff = ModelDiff.compute(builtModel, model, registry.getObjectOwners());
+        if (diff.isFullRebuildRequired()) {
+            Log.info("Imports or requires changed, doing a full rebuild");
+            buildModel(model);
+            return diff;
+        }
+
+        Log.info("Incremental rebuild: " + diff.getChangedKeys().size() + " changed, " +
+                diff.getRemovedKeys().size() + " removed, " + diff.getDirtyKeys().size() + " to rebuild");
+
+        registry.removeStatementObjects(diff.getStaleKeys());
+
+        // Annotations are cheap to re-collect, and the rebuilt statements rely on them
+        processAnnotations(model);
+
+        objectFactory.buildStatements(model, diff.getDirtyKeys());
+        builtModel = model;
+
+        Log.info(registry.getStatistics());
+        return diff;
+    }
+
     /**
      * Build BEAST2 objects and return them as a Beast2Analysis
      *
@@ -0,0 +1,156 @@
+package org.beast2.modelLanguage.beast;
+
+import beast.base.core.BEASTInterface;
+import beast.base.core.Input;
+import beast.base.core.Log;
+import beast.base.evolution.alignment.Alignment;
+import beast.base.evolution.alignment.Taxon;
+import beast.base.evolution.alignment.TaxonSet;
+import beast.base.evolution.datatype.DataType;
+import beast.base.evolution.tree.TraitSet;
+import beast.base.inference.Logger;
+import beast.base.inference.StateNode;
+
+import java.util.*;
+
+import static org.beast2.modelLanguage.beast.BEASTObjectID.INPUT_FILE_NAME;
+
+/**
+ * Deep-copies a fully built BEAST2 object graph, e.g. for replicate runs.
+ * Immutable data (alignments, taxa, taxon sets, traits and data types) is shared
+ * between the original and the copy; the outputs of shared objects are left as they were,
+ * so they only lead back into the original graph. Everything else is re-instantiated, connected
+ * to the copied inputs and initialised in dependency order. StateNodes take over the
+ * current values of the original. Copied objects and logger output files get a replicate
+ * suffix, so the IDs and log files of the copy do not clash with those of the original.
+ */
+public class BeastGraphCopier {
+
+    // Types that are not modified after initAndValidate, so can be shared between copies
+    private static final List<Class<?>> SHARED_TYPES = List.of(
+            Alignment.class, TaxonSet.class, Taxon.class, TraitSet.class, DataType.class
+    );
+
+    private final String fileSuffix;
+    private final Map<BEASTInterface, BEASTInterface> copies = new IdentityHashMap<>();
+    // Outputs of shared objects before copying
+    private final Map<BEASTInterface, Set<BEASTInterface>> sharedOutputs = new IdentityHashMap<>();
+
+    /**
+     * @param fileSuffix suffix appended to the IDs of copied objects and inserted before the
+     *                   extension of logger file names, e.g. "_2" turns "trace.log" into "trace_2.log"
+     */
+    public BeastGraphCopier(String fileSuffix) {
+        this.fileSuffix = fileSuffix;
+    }
+
+    /**
+     * Copy the graph reachable from the given root through its inputs
+     *
+     * @param root the root object, typically the MCMC object
+     * @return the copy of the root
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends BEASTInterface> T copy(T root) throws Exception {
+        T copy;
+        try {
+            copy = (T) copyObject(root);
+        } finally {
+            restoreSharedOutputs();
+        }
+        Log.info("Copied object graph of " + root.getID() + ": " + copies.size() + " objects");
+        return copy;
+    }
+
+    /**
+     * Get the copy made for an object of the original graph, or the object itself if it is shared
+     */
+    public BEASTInterface getCopy(BEASTInterface original) {
+        return copies.get(original);
+    }
+
+    private BEASTInterface copyObject(BEASTInterface original) throws Exception {
+        if (isShared(original)) {
+            copies.put(original, original);
+            sharedOutputs.computeIfAbsent(original, obj -> new HashSet<>(obj.getOutputs()));
+            return original;
+        }
+
+        BEASTInterface existing = copies.get(original);
+        if (existing != null) {
+            return existing;
+        }
+
+        BEASTInterface copy = original.getClass().getDeclaredConstructor().newInstance();
+        if (original.getID() != null) {
+            copy.setID(original.getID() + fileSuffix);
+        }
+        // register before descending, inputs never refer back to their owner
+        copies.put(original, copy);
+
+        for (Map.Entry<String, Input<?>> entry : original.getInputs().entrySet()) {
+            Object value = entry.getValue().get();
+            if (value == null || (value instanceof Collection<?> c && c.isEmpty())) {
+                continue;
+            }
+            if (original instanceof Logger && INPUT_FILE_NAME.equals(entry.getKey())) {
+                value = renameFile(value.toString());
+            }
+            copy.setInputValue(entry.getKey(), copyValue(value));
+        }
+
+        copy.initAndValidate();
+
+        if (original instanceof StateNode originalNode) {
+            ((StateNode) copy).assignFromWithoutID(originalNode);
+        }
+
+        return copy;
+    }
+
+    private Object copyValue(Object value) throws Exception {
+        if (value instanceof BEASTInterface beastObj) {
+            return copyObject(beastObj);
+        } else if (value instanceof List<?> list) {
+            List<Object> copiedList = new ArrayList<>(list.size());
+            for (Object item : list) {
+                copiedList.add(copyValue(item));
+            }
+            return copiedList;
+        }
+        return value;
+    }
+
+    /**
+     * Setting an input of a copy to a shared object records the copy as an output of the shared object.
+     * Undo that, otherwise the outputs of shared data would reach into every replicate made from the
+     * same original.
+     */
+    private void restoreSharedOutputs() {
+        for (Map.Entry<BEASTInterface, Set<BEASTInterface>> entry : sharedOutputs.entrySet()) {
+            entry.getKey().getOutputs().retainAll(entry.getValue());
+        }
+        sharedOutputs.clear();
+    }
+
+    private boolean isShared(BEASTInterface obj) {
+        for (Class<?> type : SHARED_TYPES) {
+            if (type.isInstance(obj)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String renameFile(String fileName) {
+        if (fileName.isEmpty()) {
+            return fileName;
+        }
+        int dot = fileName.lastIndexOf('.');
+        int slash = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\'));
+        if (dot > slash + 1) {
+            return fileName.substring(0, dot) + fileSuffix + fileName.substring(dot);
+        }
+        return fileName + fileSuffix;
+    }
+}
@@ -22,6 +22,7 @@ import beast.base.parser.NexusParser;
 import beast.pkgmgmt.BEASTClassLoader;
 import beast.pkgmgmt.Package;
 import beast.pkgmgmt.PackageManager;
+import org.beast2.modelLanguage.builder.BuildProfiler;
 import org.beast2.modelLanguage.builder.ModelObjectFactory;
 import org.beast2.modelLanguage.builder.ObjectRegistry;
 import org.beast2.modelLanguage.builder.handlers.ExpressionResolver;
@@ -31,6 +32,7 @@ import org.beast2.modelLanguage.model.FunctionCall;
 import java.io.File;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -50,7 +52,13 @@ public class BeastObjectFactory implements ModelObjectFactory {
     /**
      * Cache for loaded classes to improve performance
      */
-    private static final Map<String, Class<?>> CLASS_CACHE = new HashMap<>();
+    private static final Map<String, Class<?>> CLASS_CACHE = new ConcurrentHashMap<>();
+    // Class hierarchy of the class path and installed packages, read from the class files
+    private static final ClassHierarchyIndex CLASS_INDEX = ClassHierarchyIndex.getDefault();
+    // Whether the class index has been brought up to date with the class path in this run
+    private static boolean classIndexUpdated;
+    // Packages whose jars were loaded on demand
+    private static final Set<String> LOADED_PACKAGES = ConcurrentHashMap.newKeySet();
 
     /**
      * Map from distribution classes to their primary input names
@@ -75,7 +83,10 @@ public class BeastObjectFactory implements ModelObjectFactory {
     @Override
     public Object createObject(String className, String id) throws Exception {
         Class<?> clazz = loadClass(className);
-        Object obj = clazz.getDeclaredConstructor().newInstance();
+        Object obj;
+        try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.INSTANTIATE)) {
+            obj = clazz.getDeclaredConstructor().newInstance();
+        }
         if (id != null) {
             setID(obj, id);
         }
@@ -272,7 +283,9 @@ public class BeastObjectFactory implements ModelObjectFactory {
      */
     @Override
     public void initAndValidate(Object obj) throws Exception {
-        obj.getClass().getMethod("initAndValidate").invoke(obj);
+        try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.INIT_AND_VALIDATE)) {
+            obj.getClass().getMethod("initAndValidate").invoke(obj);
+        }
     }
 
     /**
@@ -384,7 +397,10 @@ public class BeastObjectFactory implements ModelObjectFactory {
             return CLASS_CACHE.get(className);
         }
 
-        Class<?> clazz = BEASTClassLoader.forName(className);
+        Class<?> clazz;
+        try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.LOAD_CLASS)) {
+            clazz = BEASTClassLoader.forName(className);
+        }
         CLASS_CACHE.put(className, clazz);
         return clazz;
     }
@@ -405,28 +421,98 @@ public class BeastObjectFactory implements ModelObjectFactory {
     // Package management support
 
     /**
-     * Get all BEAST packages (both installed and available).
+     * Get all BEAST packages: the installed ones as {@link Package}, and those that are only
+     * available from the repositories as {@link PackageCatalogue.AvailablePackage}, taken from the
+     * local package catalogue so that this never waits for the network.
      * Used by PackageUtils to discover available functionality.
      */
     @Override
     public Map<String, Object> getAllPlugins() {
         Map<String, Package> packageMap = new TreeMap<>(PackageManager::comparePackageNames);
         PackageManager.addInstalledPackages(packageMap);
-        try {
-            PackageManager.addAvailablePackages(packageMap);
-        } catch (Exception e) {
-            Log.warning("Could not retrieve available packages: " + e.getMessage());
-        }
-        return new TreeMap<>(packageMap);
+        Map<String, Object> plugins = new TreeMap<>(packageMap);
+        PackageCatalogue.getDefault().getAvailablePackages().forEach(plugins::putIfAbsent);
+        return plugins;
     }
 
     /**
      * Find all BEASTInterface implementations in a package.
-     * Used by NameResolver for import resolution.
+     * Used by NameResolver for import resolution and by ComponentScanner.
+     * The classes are found from the class-file headers of the class path and the installed
+     * packages, without loading them. BEAST's package manager is used if that finds nothing, or if
+     * the index lacks BEASTInterface or a supertype of a class in the package, e.g. one in a jar
+     * that is neither on the class path nor in an installed package.
      */
     @Override
     public List<String> findModelObjectClasses(String packageName) {
-        return PackageManager.find(BEASTInterface.class, packageName.toLowerCase());
+        ClassHierarchyIndex index = updatedClassIndex();
+        String typeName = BEASTInterface.class.getName();
+        String prefix = packageName.toLowerCase();
+        if (index.isComplete(typeName, prefix)) {
+            List<String> classes = index.findSubtypes(typeName, prefix);
+            if (!classes.isEmpty()) {
+                return classes;
+            }
+        }
+        return PackageManager.find(BEASTInterface.class, prefix);
+    }
+
+    /**
+     * The class index, updated with the class path and installed packages on first use in a run
+     */
+    private static synchronized ClassHierarchyIndex updatedClassIndex() {
+        if (!classIndexUpdated) {
+            CLASS_INDEX.update(classPathRoots());
+            classIndexUpdated = true;
+        }
+        return CLASS_INDEX;
+    }
+
+    /**
+     * Jars and class directories of the class path and of the installed packages
+     */
+    private static List<File> classPathRoots() {
+        List<File> roots = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                roots.add(new File(entry));
+            }
+        }
+        for (String directory : PackageManager.getBeastDirectories()) {
+            File[] packageDirs = new File(directory).listFiles(File::isDirectory);
+            for (File packageDir : packageDirs == null ? new File[0] : packageDirs) {
+                File[] jars = new File(packageDir, "lib").listFiles((dir, name) -> name.endsWith(".jar"));
+                if (jars != null) {
+                    Arrays.sort(jars);
+                    roots.addAll(Arrays.asList(jars));
+                }
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * Add the jars of an installed package and its dependencies to BEAST's class loader,
+     * once per package. Used by NameResolver when a required package is first searched.
+     */
+    @Override
+    public void loadPackage(String packageName) {
+        if (!LOADED_PACKAGES.add(packageName)) {
+            return;
+        }
+        Map<String, Package> installed = new TreeMap<>(PackageManager::comparePackageNames);
+        PackageManager.addInstalledPackages(installed);
+        Package pkg = installed.get(packageName);
+        if (pkg == null || !pkg.isInstalled()) {
+            Log.warning("Required package " + packageName + " is not installed");
+            return;
+        }
+        try {
+            // Same format as the required attribute of BEAST XML, e.g. "feast 10.4.0"
+            PackageManager.loadExternalJars(packageName + " " + pkg.getInstalledVersion());
+        } catch (Exception e) {
+            Log.warning("Could not load package " + packageName + ": " + e.getMessage());
+        }
     }
 
     /**
@@ -438,9 +524,14 @@ public class BeastObjectFactory implements ModelObjectFactory {
         if (distributionObject == null) {
             return null;
         }
+        return getPrimaryInputNameForClass(distributionObject.getClass());
+    }
 
+    /**
+     * Get the primary input name for a distribution class, without an instance of it.
+     */
+    public String getPrimaryInputNameForClass(Class<?> distClass) {
         // Search for the most specific class match in our map
-        Class<?> distClass = distributionObject.getClass();
         while (distClass != null) {
             if (DISTRIBUTION_CLASS_TO_ARGUMENT_INPUT.containsKey(distClass)) {
                 return DISTRIBUTION_CLASS_TO_ARGUMENT_INPUT.get(distClass);
@@ -1,5 +1,7 @@
 package org.beast2.modelLanguage.beast;
 
+import beast.base.core.BEASTInterface;
+import beast.base.core.Input;
 import beast.base.core.Log;
 import beast.base.evolution.alignment.TaxonSet;
 import beast.base.evolution.tree.MRCAPrior;
@@ -34,6 +36,17 @@ public class BeastObjectRegistry implements ObjectRegistry {
     private final Set<String> dataAnnotatedVariables = new HashSet<>();
     private final Map<String, String> observedDataReferences = new HashMap<>();
 
+    // Track which statement created each object, used for incremental rebuilds
+    private final Map<String, String> objectOwners = new HashMap<>();
+    private String currentStatement;
+
+    // Class-indexed views: each registered class and its supertypes -> objects by ID, in insertion order
+    private final Map<Class<?>, Map<String, Object>> typeIndex = new HashMap<>();
+    private final Map<Class<?>, List<Class<?>>> supertypeCache = new HashMap<>();
+
+    // Registered object -> its IDs, to map the outputs of an object back to registered objects
+    private final Map<Object, Set<String>> idsByObject = new IdentityHashMap<>();
+
     /**
      * Register an object in the registry
      */
@@ -42,7 +55,17 @@ public class BeastObjectRegistry implements ObjectRegistry {
             throw new IllegalArgumentException("Cannot register null id or object");
         }
 
-        objects.put(id, object);
+        Object previous = objects.put(id, object);
+        if (previous != null) {
+            unindex(id, previous);
+        }
+        index(id, object);
+
+        if (currentStatement != null) {
+            objectOwners.put(id, currentStatement);
+        } else {
+            objectOwners.remove(id);
+        }
 
         // Also register in specialized maps if applicable
         if (object instanceof StateNode) {
@@ -73,17 +96,125 @@ public class BeastObjectRegistry implements ObjectRegistry {
     }
 
     /**
-     * Get all objects (returns a defensive copy)
+     * Get all objects (returns a read-only view)
      */
     public Map<String, Object> getAllObjects() {
-        return new HashMap<>(objects);
+        return Collections.unmodifiableMap(objects);
     }
 
     /**
-     * Get all StateNode objects
+     * Get all StateNode objects (returns a read-only view)
      */
     public Map<String, StateNode> getStateNodes() {
-        return new HashMap<>(stateNodes);
+        return Collections.unmodifiableMap(stateNodes);
+    }
+
+    /**
+     * Get all registered objects that are instances of the given type, in registration order.
+     * Returns a read-only view; copy it before registering objects of that type while iterating.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Collection<T> getObjectsOfType(Class<T> type) {
+        Map<String, Object> bucket = typeIndex.get(type);
+        if (bucket == null) {
+            return Collections.emptyList();
+        }
+        return (Collection<T>) Collections.unmodifiableCollection(bucket.values());
+    }
+
+    /**
+     * Get the IDs of registered objects that take the given object as an input.
+     * These are found from the outputs BEAST records whenever an input is set, so they stay
+     * current when inputs are set after registration.
+     */
+    public Set<String> getConsumers(Object object) {
+        if (!(object instanceof BEASTInterface beastObj)) {
+            return Collections.emptySet();
+        }
+        Set<String> ids = new TreeSet<>();
+        for (BEASTInterface output : beastObj.getOutputs()) {
+            Set<String> outputIds = idsByObject.get(output);
+            if (outputIds != null && isInput(object, output)) {
+                ids.addAll(outputIds);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Get the IDs of registered objects that take the object with the given ID as an input
+     */
+    public Set<String> getConsumers(String id) {
+        Object object = objects.get(id);
+        return object != null ? getConsumers(object) : Collections.emptySet();
+    }
+
+    /**
+     * Whether an object is still an input of another; outputs are not removed when an input is
+     * set to a different value, so they can refer to former consumers
+     */
+    private static boolean isInput(Object object, BEASTInterface consumer) {
+        for (Input<?> input : consumer.getInputs().values()) {
+            Object value = input.get();
+            if (value == object || value instanceof Collection<?> c && c.stream().anyMatch(item -> item == object)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add an object to the type and ID indexes
+     */
+    private void index(String id, Object object) {
+        for (Class<?> type : getSupertypes(object.getClass())) {
+            typeIndex.computeIfAbsent(type, k -> new LinkedHashMap<>()).put(id, object);
+        }
+        idsByObject.computeIfAbsent(object, k -> new HashSet<>()).add(id);
+    }
+
+    /**
+     * Remove an object from all indexes
+     */
+    private void unindex(String id, Object object) {
+        for (Class<?> type : getSupertypes(object.getClass())) {
+            Map<String, Object> bucket = typeIndex.get(type);
+            if (bucket != null) {
+                bucket.remove(id);
+            }
+        }
+        Set<String> ids = idsByObject.get(object);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                idsByObject.remove(object);
+            }
+        }
+
+        stateNodes.remove(id);
+        distributions.remove(id);
+    }
+
+    /**
+     * All superclasses and interfaces of a class (excluding Object), cached per class
+     */
+    private List<Class<?>> getSupertypes(Class<?> clazz) {
+        return supertypeCache.computeIfAbsent(clazz, c -> {
+            Set<Class<?>> types = new LinkedHashSet<>();
+            Deque<Class<?>> queue = new ArrayDeque<>();
+            queue.add(c);
+            while (!queue.isEmpty()) {
+                Class<?> type = queue.poll();
+                if (type == Object.class || !types.add(type)) {
+                    continue;
+                }
+                if (type.getSuperclass() != null) {
+                    queue.add(type.getSuperclass());
+                }
+                queue.addAll(Arrays.asList(type.getInterfaces()));
+            }
+            return new ArrayList<>(types);
+        });
     }
 
     /**
@@ -315,6 +446,89 @@ public class BeastObjectRegistry implements ObjectRegistry {
         return new ArrayList<>(dataAnnotatedVariables);
     }
 
+    /**
+     * Set the key of the statement currently being processed.
+     * Objects registered from now on are owned by that statement; null means unowned.
+     */
+    public void setCurrentStatement(String statementKey) {
+        this.currentStatement = statementKey;
+    }
+
+    /**
+     * Get the statement key that created each object (read-only view)
+     */
+    public Map<String, String> getObjectOwners() {
+        return Collections.unmodifiableMap(objectOwners);
+    }
+
+    /**
+     * Remove all objects created by the given statements, as well as all objects
+     * that were not created by a statement (e.g. those added by Beast2AnalysisBuilder).
+     * Removed objects are also unlinked from the outputs of the objects that are kept,
+     * so the kept objects do not refer to the discarded graph.
+     * Observed and data annotations are cleared, since they are re-collected from the model.
+     *
+     * @param staleKeys statement keys whose objects should be discarded
+     * @return the number of objects removed
+     */
+    public int removeStatementObjects(Set<String> staleKeys) {
+        List<Object> removed = new ArrayList<>();
+        Iterator<Map.Entry<String, Object>> iter = objects.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<String, Object> entry = iter.next();
+            String owner = objectOwners.get(entry.getKey());
+            if (owner == null || staleKeys.contains(owner)) {
+                removed.add(entry.getValue());
+                unindex(entry.getKey(), entry.getValue());
+                objectOwners.remove(entry.getKey());
+                iter.remove();
+            }
+        }
+
+        randomVariables.removeAll(staleKeys);
+        observedVariables.clear();
+        dataAnnotatedVariables.clear();
+        observedDataReferences.clear();
+
+        unlinkOutputs(removed);
+
+        Log.info("Removed " + removed.size() + " objects for " + staleKeys.size() + " changed statements");
+        return removed.size();
+    }
+
+    /**
+     * Remove discarded objects, and the unregistered objects nested inside them,
+     * from the outputs of their inputs.
+     */
+    private void unlinkOutputs(List<Object> removed) {
+        Set<Object> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+        retained.addAll(objects.values());
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        Deque<BEASTInterface> queue = new ArrayDeque<>();
+        for (Object obj : removed) {
+            if (obj instanceof BEASTInterface beastObj && !retained.contains(obj) && visited.add(obj)) {
+                queue.add(beastObj);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            BEASTInterface beastObj = queue.poll();
+            for (Input<?> input : beastObj.getInputs().values()) {
+                Object value = input.get();
+                Collection<?> values = value instanceof Collection<?> c ? c : Collections.singletonList(value);
+                for (Object item : values) {
+                    if (item instanceof BEASTInterface child) {
+                        child.getOutputs().remove(beastObj);
+                        if (!retained.contains(child) && visited.add(child)) {
+                            queue.add(child);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Clear the registry (useful for testing)
      */
@@ -326,6 +540,10 @@ public class BeastObjectRegistry implements ObjectRegistry {
         observedVariables.clear();
         dataAnnotatedVariables.clear();
         observedDataReferences.clear();
+        objectOwners.clear();
+        currentStatement = null;
+        typeIndex.clear();
+        idsByObject.clear();
         Log.info("Registry cleared");
     }
 
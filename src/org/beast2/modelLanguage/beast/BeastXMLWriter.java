@@ -0,0 +1,224 @@
+package org.beast2.modelLanguage.beast;
+
+import beast.base.core.BEASTInterface;
+import beast.base.core.Input;
+import beast.base.core.Log;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.util.*;
+
+/**
+ * Writes BEAST2 XML for a run built by {@link Beast2AnalysisBuilder} directly to a Writer.
+ * <p>
+ * Unlike XMLProducer, the XML is not built as a string and post-processed: the object graph
+ * is walked twice, once to find objects referenced more than once (which need an id) and once
+ * to stream the elements. Each object is written where it is first reached, in input order,
+ * so state nodes end up inside the state; later references use idref or "@id".
+ * Inputs that are unset or equal to their default value are left out.
+ */
+public class BeastXMLWriter {
+
+    private static final String BEAST_VERSION = "2.7";
+    private static final String INDENT = "    ";
+
+    private XMLStreamWriter xml;
+    private final Map<BEASTInterface, String> ids = new IdentityHashMap<>();
+    private final Set<BEASTInterface> written = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int depth;
+
+    /**
+     * Write a complete BEAST2 XML document with the given object as its run element.
+     * The writer is flushed but not closed.
+     */
+    public void write(BEASTInterface run, Writer writer) throws IOException {
+        ids.clear();
+        written.clear();
+        depth = 0;
+        assignIds(run);
+
+        try {
+            xml = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeCharacters("\n");
+            xml.writeStartElement("beast");
+            xml.writeAttribute("version", BEAST_VERSION);
+            depth++;
+            writeObject("run", run);
+            depth--;
+            xml.writeCharacters("\n");
+            xml.writeEndElement();
+            xml.writeCharacters("\n");
+            xml.writeEndDocument();
+            xml.flush();
+        } catch (XMLStreamException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to write XML for " + run.getID(), e);
+        } finally {
+            xml = null;
+        }
+        writer.flush();
+    }
+
+    /**
+     * Give an id to every object that is referenced more than once and has none,
+     * so that the second and later references can point at it
+     */
+    private void assignIds(BEASTInterface root) {
+        Map<BEASTInterface, Integer> references = new IdentityHashMap<>();
+        Set<String> usedIds = new HashSet<>();
+        Deque<BEASTInterface> stack = new ArrayDeque<>();
+        stack.push(root);
+        references.put(root, 1);
+        while (!stack.isEmpty()) {
+            BEASTInterface obj = stack.pop();
+            if (obj.getID() != null) {
+                usedIds.add(obj.getID());
+            }
+            for (BEASTInterface input : inputObjects(obj)) {
+                if (references.merge(input, 1, Integer::sum) == 1) {
+                    stack.push(input);
+                }
+            }
+        }
+
+        Map<String, Integer> counters = new HashMap<>();
+        for (Map.Entry<BEASTInterface, Integer> entry : references.entrySet()) {
+            BEASTInterface obj = entry.getKey();
+            String id = obj.getID();
+            if ((id == null || id.isEmpty()) && entry.getValue() > 1) {
+                String base = obj.getClass().getSimpleName();
+                do {
+                    id = base + "." + counters.merge(base, 1, Integer::sum);
+                } while (usedIds.contains(id));
+                usedIds.add(id);
+            }
+            if (id != null && !id.isEmpty()) {
+                ids.put(obj, id);
+            }
+        }
+    }
+
+    private List<BEASTInterface> inputObjects(BEASTInterface obj) {
+        List<BEASTInterface> result = new ArrayList<>();
+        for (Input<?> input : obj.getInputs().values()) {
+            Object value = input.get();
+            if (value instanceof BEASTInterface beastObj) {
+                result.add(beastObj);
+            } else if (value instanceof Collection<?> collection) {
+                for (Object item : collection) {
+                    if (item instanceof BEASTInterface beastObj) {
+                        result.add(beastObj);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Write an object as an element, or as an idref if it was written before
+     */
+    private void writeObject(String elementName, BEASTInterface obj) throws XMLStreamException {
+        newLine();
+        if (!written.add(obj)) {
+            xml.writeEmptyElement(elementName);
+            xml.writeAttribute("idref", ids.get(obj));
+            return;
+        }
+
+        // Attributes have to be written before any child element, so sort the inputs first
+        Map<String, String> attributes = new LinkedHashMap<>();
+        List<Map.Entry<String, Object>> children = new ArrayList<>();
+        for (Input<?> input : obj.getInputs().values()) {
+            collectInput(obj, input, attributes, children);
+        }
+
+        if (children.isEmpty()) {
+            xml.writeEmptyElement(elementName);
+        } else {
+            xml.writeStartElement(elementName);
+        }
+        String id = ids.get(obj);
+        if (id != null) {
+            xml.writeAttribute("id", id);
+        }
+        xml.writeAttribute("spec", obj.getClass().getName());
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            xml.writeAttribute(attribute.getKey(), attribute.getValue());
+        }
+
+        if (!children.isEmpty()) {
+            depth++;
+            for (Map.Entry<String, Object> child : children) {
+                writeObject(child.getKey(), (BEASTInterface) child.getValue());
+            }
+            depth--;
+            newLine();
+            xml.writeEndElement();
+        }
+    }
+
+    /**
+     * Sort the value of an input into attributes (plain values and references to objects
+     * written before) and child elements (objects written here)
+     */
+    private void collectInput(BEASTInterface obj, Input<?> input, Map<String, String> attributes,
+                              List<Map.Entry<String, Object>> children) {
+        Object value = input.get();
+        String name = input.getName();
+        if (value == null) {
+            return;
+        }
+
+        if (value instanceof BEASTInterface beastObj) {
+            if (written.contains(beastObj)) {
+                attributes.put(name, "@" + ids.get(beastObj));
+            } else {
+                children.add(Map.entry(name, beastObj));
+            }
+        } else if (value instanceof Collection<?> collection) {
+            if (collection.isEmpty()) {
+                return;
+            }
+            StringJoiner plainValues = new StringJoiner(" ");
+            for (Object item : collection) {
+                if (item instanceof BEASTInterface beastObj) {
+                    children.add(Map.entry(name, beastObj));
+                } else if (item != null) {
+                    plainValues.add(item.toString());
+                }
+            }
+            if (plainValues.length() > 0) {
+                attributes.put(name, plainValues.toString());
+            }
+        } else if (Objects.equals(value, input.defaultValue)) {
+            // Only plain values are left out when they equal the default, as XMLProducer does:
+            // list inputs share one list object for their value and their default
+            return;
+        } else if (value instanceof Map<?, ?>) {
+            Log.warning("Map input '" + name + "' of " + obj.getID() + " is not written to XML");
+        } else if (value.getClass().isArray()) {
+            StringJoiner plainValues = new StringJoiner(" ");
+            for (int i = 0; i < Array.getLength(value); i++) {
+                plainValues.add(String.valueOf(Array.get(value, i)));
+            }
+            attributes.put(name, plainValues.toString());
+        } else {
+            attributes.put(name, value.toString());
+        }
+    }
+
+    private void newLine() throws XMLStreamException {
+        xml.writeCharacters("\n");
+        for (int i = 0; i < depth; i++) {
+            xml.writeCharacters(INDENT);
+        }
+    }
+}
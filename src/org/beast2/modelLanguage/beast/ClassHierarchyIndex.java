@@ -0,0 +1,362 @@
+package org.beast2.modelLanguage.beast;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Index of the class hierarchy in jars and class directories, read from the class-file headers.
+ * <p>
+ * For each class only the name, the superclass and the interfaces are read: the constant pool
+ * and the few fields after it. No class is loaded or initialised, so finding all subtypes of
+ * BEASTInterface in the installed packages costs a pass over the jar entries instead of loading
+ * every class. Subtypes are resolved transitively across all indexed roots, so a class in one
+ * package that extends a class of another is found.
+ * <p>
+ * The headers of each jar are saved with its size and modification time, and a jar is only read
+ * again when it changes. Class directories are always read, as they are used during development.
+ */
+public class ClassHierarchyIndex {
+
+    private static final Logger logger = Logger.getLogger(ClassHierarchyIndex.class.getName());
+
+    /** System property for the index file, by default ~/.beast2lang/class-index.json */
+    public static final String FILE_PROPERTY = "beast2lang.classIndex.file";
+
+    private static final int FORMAT = 1;
+
+    /**
+     * Super types of a class, as internal names (e.g. beast/base/core/BEASTObject)
+     */
+    private record Header(String name, String superName, List<String> interfaces) {
+    }
+
+    /**
+     * Classes of one jar or directory, and the size and time of the jar when it was read
+     */
+    private record Root(long size, long modified, List<Header> classes) {
+    }
+
+    private final File file;
+    private final Map<String, Root> roots = new LinkedHashMap<>();
+    private boolean changed;
+
+    // Internal name -> direct subclasses and implementations, and internal name -> header,
+    // rebuilt when the roots change
+    private Map<String, List<String>> subtypes;
+    private Map<String, Header> headers;
+
+    /**
+     * @param file file the index is kept in, null to read the jars every time
+     */
+    public ClassHierarchyIndex(File file) {
+        this.file = file;
+        if (file != null && file.exists()) {
+            load();
+        }
+    }
+
+    /**
+     * The index in the file given by the system property, or the default one
+     */
+    public static ClassHierarchyIndex getDefault() {
+        String path = System.getProperty(FILE_PROPERTY);
+        return new ClassHierarchyIndex(path != null
+                ? new File(path)
+                : new File(System.getProperty("user.home"), ".beast2lang" + File.separator + "class-index.json"));
+    }
+
+    /**
+     * Index these jars and class directories: read the ones that are new or changed, and drop the
+     * ones that are no longer given. The index file is written if anything changed.
+     */
+    public synchronized void update(Collection<File> files) {
+        Set<String> paths = new LinkedHashSet<>();
+        for (File root : files) {
+            String path = root.getAbsolutePath();
+            if (!paths.add(path)) {
+                continue;
+            }
+            Root indexed = roots.get(path);
+            if (root.isDirectory()) {
+                putRoot(path, new Root(0, 0, readDirectory(root.toPath())));
+            } else if (root.isFile() && root.getName().endsWith(".jar")) {
+                if (indexed == null || indexed.size() != root.length() || indexed.modified() != root.lastModified()) {
+                    putRoot(path, new Root(root.length(), root.lastModified(), readJar(root)));
+                }
+            }
+        }
+        if (roots.keySet().retainAll(paths)) {
+            changed = true;
+            subtypes = null;
+            headers = null;
+        }
+        if (changed && file != null) {
+            save();
+        }
+    }
+
+    private void putRoot(String path, Root root) {
+        if (!root.equals(roots.get(path))) {
+            roots.put(path, root);
+            changed = true;
+            subtypes = null;
+            headers = null;
+        }
+    }
+
+    /**
+     * Classes that extend or implement a type, directly or indirectly, whose names start with a
+     * prefix, in alphabetical order; nested classes are left out
+     *
+     * @param typeName name of the class or interface, e.g. beast.base.core.BEASTInterface
+     * @param prefix   start of the class names, e.g. a Java package
+     */
+    public synchronized List<String> findSubtypes(String typeName, String prefix) {
+        buildMaps();
+        Set<String> found = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(typeName.replace('.', '/'));
+        while (!queue.isEmpty()) {
+            for (String subtype : subtypes.getOrDefault(queue.poll(), List.of())) {
+                if (found.add(subtype)) {
+                    queue.add(subtype);
+                }
+            }
+        }
+
+        String internalPrefix = prefix.replace('.', '/');
+        return found.stream()
+                .filter(name -> name.startsWith(internalPrefix) && !name.contains("$"))
+                .map(name -> name.replace('/', '.'))
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Whether findSubtypes finds all subtypes of a type with a prefix: the index has the header of
+     * the type, and of all supertypes of the classes with the prefix up to the Java runtime. A class
+     * whose superclass or an interface is not indexed might be a subtype that is missed.
+     */
+    public synchronized boolean isComplete(String typeName, String prefix) {
+        buildMaps();
+        if (!headers.containsKey(typeName.replace('.', '/'))) {
+            return false;
+        }
+        String internalPrefix = prefix.replace('.', '/');
+        Deque<String> queue = new ArrayDeque<>();
+        for (String name : headers.keySet()) {
+            if (name.startsWith(internalPrefix)) {
+                queue.add(name);
+            }
+        }
+        Set<String> checked = new HashSet<>();
+        while (!queue.isEmpty()) {
+            String name = queue.poll();
+            if (!checked.add(name)) {
+                continue;
+            }
+            Header header = headers.get(name);
+            if (header == null) {
+                if (isRuntimeClass(name)) {
+                    continue;
+                }
+                logger.fine("Class " + name + " is not indexed, so subtypes of " + typeName + " may be missed");
+                return false;
+            }
+            if (header.superName() != null) {
+                queue.add(header.superName());
+            }
+            queue.addAll(header.interfaces());
+        }
+        return true;
+    }
+
+    private static boolean isRuntimeClass(String internalName) {
+        return ClassLoader.getPlatformClassLoader().getResource(internalName + ".class") != null;
+    }
+
+    private void buildMaps() {
+        if (subtypes != null) {
+            return;
+        }
+        subtypes = new HashMap<>();
+        headers = new HashMap<>();
+        for (Root root : roots.values()) {
+            for (Header header : root.classes()) {
+                headers.putIfAbsent(header.name(), header);
+                if (header.superName() != null) {
+                    subtypes.computeIfAbsent(header.superName(), k -> new ArrayList<>()).add(header.name());
+                }
+                for (String interfaceName : header.interfaces()) {
+                    subtypes.computeIfAbsent(interfaceName, k -> new ArrayList<>()).add(header.name());
+                }
+            }
+        }
+    }
+
+    public synchronized int getClassCount() {
+        return roots.values().stream().mapToInt(root -> root.classes().size()).sum();
+    }
+
+    private static List<Header> readJar(File jar) {
+        List<Header> classes = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(jar)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (isClassFile(entry.getName())) {
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        classes.add(readHeader(in));
+                    } catch (IOException | RuntimeException e) {
+                        logger.fine("Cannot read " + entry.getName() + " in " + jar + ": " + e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("Cannot read jar " + jar + ": " + e.getMessage());
+        }
+        return classes;
+    }
+
+    private static List<Header> readDirectory(Path directory) {
+        List<Header> classes = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.filter(p -> isClassFile(directory.relativize(p).toString())).toList()) {
+                try (InputStream in = Files.newInputStream(path)) {
+                    classes.add(readHeader(in));
+                } catch (IOException | RuntimeException e) {
+                    logger.fine("Cannot read " + path + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("Cannot read class directory " + directory + ": " + e.getMessage());
+        }
+        return classes;
+    }
+
+    private static boolean isClassFile(String name) {
+        return name.endsWith(".class") && !name.startsWith("META-INF") && !name.endsWith("module-info.class")
+                && !name.endsWith("package-info.class");
+    }
+
+    /**
+     * Read the name, superclass and interfaces of a class file, without reading its fields and methods
+     */
+    private static Header readHeader(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("not a class file");
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+
+        // Only UTF-8 strings and class entries are kept
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        int[] classNames = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1 -> utf8[i] = in.readUTF();
+                case 7 -> classNames[i] = in.readUnsignedShort();
+                case 3, 4 -> in.skipBytes(4);
+                case 5, 6 -> {
+                    in.skipBytes(8);
+                    i++;
+                }
+                case 8, 16, 19, 20 -> in.skipBytes(2);
+                case 9, 10, 11, 12, 17, 18 -> in.skipBytes(4);
+                case 15 -> in.skipBytes(3);
+                default -> throw new IOException("unknown constant pool tag " + tag);
+            }
+        }
+
+        in.readUnsignedShort(); // access flags
+        String name = utf8[classNames[in.readUnsignedShort()]];
+        int superClass = in.readUnsignedShort();
+        String superName = superClass == 0 ? null : utf8[classNames[superClass]];
+        int interfaceCount = in.readUnsignedShort();
+        List<String> interfaces = new ArrayList<>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaces.add(utf8[classNames[in.readUnsignedShort()]]);
+        }
+        return new Header(name, superName, interfaces);
+    }
+
+    private void load() {
+        try {
+            JSONObject json = new JSONObject(Files.readString(file.toPath(), StandardCharsets.UTF_8));
+            if (json.optInt("format") != FORMAT) {
+                return;
+            }
+            JSONObject rootsJson = json.getJSONObject("roots");
+            for (String path : rootsJson.keySet()) {
+                JSONObject root = rootsJson.getJSONObject(path);
+                JSONArray classes = root.getJSONArray("classes");
+                List<Header> headers = new ArrayList<>(classes.length());
+                for (int i = 0; i < classes.length(); i++) {
+                    JSONArray header = classes.getJSONArray(i);
+                    JSONArray interfaces = header.getJSONArray(2);
+                    List<String> interfaceNames = new ArrayList<>(interfaces.length());
+                    for (int j = 0; j < interfaces.length(); j++) {
+                        interfaceNames.add(interfaces.getString(j));
+                    }
+                    headers.add(new Header(header.getString(0), header.isNull(1) ? null : header.getString(1),
+                            interfaceNames));
+                }
+                roots.put(path, new Root(root.getLong("size"), root.getLong("modified"), headers));
+            }
+        } catch (Exception e) {
+            logger.warning("Cannot read class index " + file + ": " + e.getMessage());
+            roots.clear();
+        }
+    }
+
+    private void save() {
+        JSONObject rootsJson = new JSONObject();
+        roots.forEach((path, root) -> {
+            JSONArray classes = new JSONArray();
+            for (Header header : root.classes()) {
+                classes.put(new JSONArray()
+                        .put(header.name())
+                        .put(header.superName() == null ? JSONObject.NULL : header.superName())
+                        .put(new JSONArray(header.interfaces())));
+            }
+            rootsJson.put(path, new JSONObject()
+                    .put("size", root.size())
+                    .put("modified", root.modified())
+                    .put("classes", classes));
+        });
+        JSONObject json = new JSONObject().put("format", FORMAT).put("roots", rootsJson);
+        try {
+            // Write to a temporary file and rename, so another run never reads half an index
+            Path directory = file.getAbsoluteFile().toPath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "class-index", ".tmp");
+            try {
+                Files.writeString(temp, json.toString(), StandardCharsets.UTF_8);
+                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            changed = false;
+        } catch (IOException e) {
+            logger.warning("Cannot write class index " + file + ": " + e.getMessage());
+        }
+    }
+}
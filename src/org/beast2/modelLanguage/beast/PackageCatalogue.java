@@ -0,0 +1,180 @@
+package org.beast2.modelLanguage.beast;
+
+import beast.pkgmgmt.Package;
+import beast.pkgmgmt.PackageManager;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Local copy of the list of BEAST packages available from the package repositories.
+ * <p>
+ * Package discovery is offline: it uses the installed packages and this catalogue, and never
+ * contacts the repositories, so compiling and validating do not wait for network timeouts on
+ * machines without network access. The catalogue is only fetched by {@link #refresh()}, which
+ * Beast2LangPackages runs on request. A catalogue older than its time to live is ignored until it is
+ * refreshed.
+ */
+public class PackageCatalogue {
+
+    private static final Logger logger = Logger.getLogger(PackageCatalogue.class.getName());
+
+    /** System property for the catalogue file, by default ~/.beast2lang/packages.json */
+    public static final String FILE_PROPERTY = "beast2lang.packages.file";
+    /** System property for the time to live of the catalogue in hours */
+    public static final String TTL_PROPERTY = "beast2lang.packages.ttl";
+    public static final Duration DEFAULT_TTL = Duration.ofDays(7);
+
+    private static final int FORMAT = 1;
+
+    /**
+     * A package that can be installed from a repository
+     *
+     * @param name          package name, e.g. "feast"
+     * @param latestVersion latest version in the repositories
+     * @param description   short description from the repository
+     */
+    public record AvailablePackage(String name, String latestVersion, String description) {
+    }
+
+    private final File file;
+    private final Duration ttl;
+
+    public PackageCatalogue(File file, Duration ttl) {
+        this.file = file;
+        this.ttl = ttl;
+    }
+
+    /**
+     * The catalogue in the file given by the system properties, or the default one
+     */
+    public static PackageCatalogue getDefault() {
+        String path = System.getProperty(FILE_PROPERTY);
+        File file = path != null
+                ? new File(path)
+                : new File(System.getProperty("user.home"), ".beast2lang" + File.separator + "packages.json");
+        Long hours = Long.getLong(TTL_PROPERTY);
+        return new PackageCatalogue(file, hours != null ? Duration.ofHours(hours) : DEFAULT_TTL);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * When the catalogue was last refreshed, or null if it never was
+     */
+    public Instant getRefreshTime() {
+        JSONObject json = read();
+        return json == null ? null : Instant.ofEpochMilli(json.getLong("refreshed"));
+    }
+
+    public boolean isExpired() {
+        return isExpired(read());
+    }
+
+    private boolean isExpired(JSONObject json) {
+        return json == null || Instant.ofEpochMilli(json.getLong("refreshed")).plus(ttl).isBefore(Instant.now());
+    }
+
+    /**
+     * Packages of the catalogue by name; empty if there is no catalogue or it has expired
+     */
+    public Map<String, AvailablePackage> getAvailablePackages() {
+        JSONObject json = read();
+        if (json == null) {
+            return Map.of();
+        }
+        if (isExpired(json)) {
+            logger.warning("Package catalogue " + file + " has expired; run Beast2LangPackages with refresh=true");
+            return Map.of();
+        }
+        Map<String, AvailablePackage> packages = new TreeMap<>(PackageManager::comparePackageNames);
+        JSONArray array = json.getJSONArray("packages");
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject pkg = array.getJSONObject(i);
+            packages.put(pkg.getString("name"), new AvailablePackage(pkg.getString("name"),
+                    pkg.optString("latestVersion", null), pkg.optString("description", "")));
+        }
+        return packages;
+    }
+
+    private JSONObject read() {
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            JSONObject json = new JSONObject(Files.readString(file.toPath(), StandardCharsets.UTF_8));
+            return json.optInt("format") == FORMAT ? json : null;
+        } catch (Exception e) {
+            logger.warning("Could not read package catalogue " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Fetch the package lists from the repositories and store them; this is the only method that
+     * uses the network
+     *
+     * @return number of packages in the catalogue
+     */
+    public int refresh() throws IOException {
+        Map<String, Package> packageMap = new TreeMap<>(PackageManager::comparePackageNames);
+        try {
+            PackageManager.addAvailablePackages(packageMap);
+        } catch (Exception e) {
+            throw new IOException("Could not retrieve available packages: " + e.getMessage(), e);
+        }
+
+        List<AvailablePackage> packages = new ArrayList<>();
+        for (Package pkg : packageMap.values()) {
+            packages.add(new AvailablePackage(pkg.getName(),
+                    pkg.getLatestVersion() != null ? pkg.getLatestVersion().toString() : null,
+                    pkg.getDescription()));
+        }
+        store(packages);
+        return packages.size();
+    }
+
+    /**
+     * Write the catalogue with these packages, refreshed now. The file is replaced atomically, so a
+     * failed write leaves the previous catalogue and no temporary file.
+     */
+    void store(List<AvailablePackage> packages) throws IOException {
+        JSONArray array = new JSONArray();
+        for (AvailablePackage pkg : packages) {
+            JSONObject json = new JSONObject().put("name", pkg.name());
+            if (pkg.latestVersion() != null) {
+                json.put("latestVersion", pkg.latestVersion());
+            }
+            if (pkg.description() != null) {
+                json.put("description", pkg.description());
+            }
+            array.put(json);
+        }
+        JSONObject json = new JSONObject()
+                .put("format", FORMAT)
+                .put("refreshed", System.currentTimeMillis())
+                .put("packages", array);
+
+        Path directory = file.getAbsoluteFile().toPath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "packages", ".tmp");
+        try {
+            Files.writeString(temp, json.toString(2), StandardCharsets.UTF_8);
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package org.beast2.modelLanguage.builder;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+/**
+ * Opt-in profiler for model building. Records wall time, CPU time and allocated bytes
+ * for each statement and each build phase (class resolution, instantiation, autoboxing,
+ * initAndValidate, Nexus parsing, parameter initialisation, ...).
+ *
+ * Usage:
+ * <pre>
+ *     try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.INIT_AND_VALIDATE)) {
+ *         ...
+ *     }
+ * </pre>
+ * When no profiler is active, {@link #phase} and {@link #statement} return a shared no-op span,
+ * so instrumented code only pays for a volatile read.
+ */
+public final class BuildProfiler {
+
+    // Span categories
+    public static final String STATEMENT = "statement";
+    public static final String PHASE = "phase";
+
+    // Build phases
+    public static final String PARSE = "parse";
+    public static final String IMPORTS = "imports";
+    public static final String REQUIRES = "requires";
+    public static final String RESOLVE_NAMES = "resolveNames";
+    public static final String LOAD_CLASS = "loadClass";
+    public static final String INSTANTIATE = "instantiate";
+    public static final String AUTOBOX = "autobox";
+    public static final String INIT_AND_VALIDATE = "initAndValidate";
+    public static final String NEXUS = "nexus";
+    public static final String PARAMETER_INIT = "parameterInit";
+    public static final String ANALYSIS = "analysis";
+    public static final String OTHER = "other";
+
+    private static volatile BuildProfiler active;
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeSupported;
+    private final com.sun.management.ThreadMXBean allocationBean;
+    private final long origin = System.nanoTime();
+    private final List<Record> records = Collections.synchronizedList(new ArrayList<>());
+    private final ThreadLocal<Deque<ActiveSpan>> stack = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private BuildProfiler() {
+        cpuTimeSupported = threadBean.isCurrentThreadCpuTimeSupported();
+        if (cpuTimeSupported && !threadBean.isThreadCpuTimeEnabled()) {
+            threadBean.setThreadCpuTimeEnabled(true);
+        }
+        com.sun.management.ThreadMXBean bean = null;
+        if (threadBean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported()) {
+            if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+                sunBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            bean = sunBean;
+        }
+        allocationBean = bean;
+    }
+
+    /**
+     * Start profiling, replacing any active profiler
+     */
+    public static BuildProfiler start() {
+        BuildProfiler profiler = new BuildProfiler();
+        active = profiler;
+        return profiler;
+    }
+
+    /**
+     * Stop profiling
+     *
+     * @return the profiler that was active, or null if profiling was not enabled
+     */
+    public static BuildProfiler stop() {
+        BuildProfiler profiler = active;
+        active = null;
+        return profiler;
+    }
+
+    public static boolean isEnabled() {
+        return active != null;
+    }
+
+    /**
+     * Open a span for a build phase
+     */
+    public static Span phase(String name) {
+        BuildProfiler profiler = active;
+        return profiler == null ? Span.NONE : profiler.open(PHASE, name);
+    }
+
+    /**
+     * Open a span for a top-level statement
+     */
+    public static Span statement(String key) {
+        BuildProfiler profiler = active;
+        return profiler == null ? Span.NONE : profiler.open(STATEMENT, key != null ? key : "<anonymous>");
+    }
+
+    private Span open(String category, String name) {
+        Deque<ActiveSpan> spans = stack.get();
+        ActiveSpan span = new ActiveSpan(this, category, name, spans.size(),
+                System.nanoTime(), cpuTime(), allocatedBytes());
+        spans.push(span);
+        return span;
+    }
+
+    private void close(ActiveSpan span) {
+        long wall = System.nanoTime() - span.startWall;
+        long cpu = cpuTime() - span.startCpu;
+        long alloc = allocatedBytes() - span.startAlloc;
+
+        Deque<ActiveSpan> spans = stack.get();
+        spans.remove(span);
+        ActiveSpan parent = spans.peek();
+        if (parent != null) {
+            parent.childWall += wall;
+            parent.childCpu += cpu;
+            parent.childAlloc += alloc;
+        }
+
+        records.add(new Record(span.category, span.name, Thread.currentThread().getId(), span.depth,
+                span.startWall - origin, wall, cpu, alloc,
+                wall - span.childWall, cpu - span.childCpu, alloc - span.childAlloc));
+    }
+
+    private long cpuTime() {
+        return cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : 0;
+    }
+
+    private long allocatedBytes() {
+        return allocationBean != null ? allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    /**
+     * Get all completed spans, in order of completion
+     */
+    public List<Record> getRecords() {
+        synchronized (records) {
+            return new ArrayList<>(records);
+        }
+    }
+
+    /**
+     * Build a report with the time spent per phase (exclusive of nested phases)
+     * and per statement (inclusive), each sorted by wall time
+     */
+    public String getReport() {
+        List<Record> all = getRecords();
+
+        Map<String, long[]> phases = new HashMap<>();
+        List<Record> statements = new ArrayList<>();
+        long totalWall = 0, totalCpu = 0, totalAlloc = 0;
+        for (Record r : all) {
+            if (STATEMENT.equals(r.category)) {
+                statements.add(r);
+            }
+            // Time of a statement outside any nested phase is reported as "other"
+            String phase = STATEMENT.equals(r.category) ? OTHER : r.name;
+            long[] totals = phases.computeIfAbsent(phase, k -> new long[4]);
+            totals[0]++;
+            totals[1] += r.selfWallNanos;
+            totals[2] += r.selfCpuNanos;
+            totals[3] += r.selfAllocatedBytes;
+            if (r.isTopLevel()) {
+                totalWall += r.wallNanos;
+                totalCpu += r.cpuNanos;
+                totalAlloc += r.allocatedBytes;
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Build profile: %d statements, wall %.1f ms, cpu %.1f ms, allocated %.1f MB%n",
+                statements.size(), ms(totalWall), ms(totalCpu), totalAlloc / (1024.0 * 1024.0)));
+        if (!cpuTimeSupported) {
+            sb.append("(thread CPU time not supported on this JVM)\n");
+        }
+        if (allocationBean == null) {
+            sb.append("(thread allocation counting not supported on this JVM)\n");
+        }
+
+        sb.append(String.format("%nPhases (self time)%n%-24s %8s %12s %12s %14s%n",
+                "phase", "count", "wall ms", "cpu ms", "alloc KB"));
+        phases.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]))
+                .forEach(e -> sb.append(String.format("%-24s %8d %12.2f %12.2f %14.1f%n",
+                        e.getKey(), e.getValue()[0], ms(e.getValue()[1]), ms(e.getValue()[2]),
+                        e.getValue()[3] / 1024.0)));
+
+        sb.append(String.format("%nStatements (including nested phases)%n%-24s %12s %12s %14s%n",
+                "statement", "wall ms", "cpu ms", "alloc KB"));
+        statements.stream()
+                .sorted((a, b) -> Long.compare(b.wallNanos, a.wallNanos))
+                .forEach(r -> sb.append(String.format("%-24s %12.2f %12.2f %14.1f%n",
+                        r.name, ms(r.wallNanos), ms(r.cpuNanos), r.allocatedBytes / 1024.0)));
+        return sb.toString();
+    }
+
+    /**
+     * Write the report returned by {@link #getReport()} to a file
+     */
+    public void writeReport(File file) throws IOException {
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            writer.write(getReport());
+        }
+    }
+
+    /**
+     * Write all spans as Chrome trace events (complete events), for chrome://tracing or Perfetto
+     */
+    public void writeChromeTrace(File file) throws IOException {
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+            boolean first = true;
+            for (Record r : getRecords()) {
+                if (!first) {
+                    writer.write(",\n");
+                }
+                first = false;
+                writer.write(String.format(Locale.ROOT,
+                        "{\"name\":\"%s\",\"cat\":\"%s\",\"ph\":\"X\",\"ts\":%.3f,\"dur\":%.3f,\"pid\":1,\"tid\":%d," +
+                                "\"args\":{\"cpuUs\":%.3f,\"allocatedBytes\":%d}}",
+                        escape(r.name), r.category, r.startNanos / 1000.0, r.wallNanos / 1000.0, r.threadId,
+                        r.cpuNanos / 1000.0, r.allocatedBytes));
+            }
+            writer.write("\n]}\n");
+        }
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (char c : s.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A timed region, closed with try-with-resources
+     */
+    public static class Span implements AutoCloseable {
+        static final Span NONE = new Span();
+
+        private Span() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class ActiveSpan extends Span {
+        final BuildProfiler profiler;
+        final String category;
+        final String name;
+        final int depth;
+        final long startWall;
+        final long startCpu;
+        final long startAlloc;
+        long childWall;
+        long childCpu;
+        long childAlloc;
+        boolean closed;
+
+        ActiveSpan(BuildProfiler profiler, String category, String name, int depth,
+                   long startWall, long startCpu, long startAlloc) {
+            this.profiler = profiler;
+            this.category = category;
+            this.name = name;
+            this.depth = depth;
+            this.startWall = startWall;
+            this.startCpu = startCpu;
+            this.startAlloc = startAlloc;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                profiler.close(this);
+            }
+        }
+    }
+
+    /**
+     * A completed span. Times are in nanoseconds, relative to the start of profiling.
+     * The self values exclude time spent in nested spans.
+     */
+    public record Record(String category, String name, long threadId, int depth, long startNanos,
+                         long wallNanos, long cpuNanos, long allocatedBytes,
+                         long selfWallNanos, long selfCpuNanos, long selfAllocatedBytes) {
+
+        /**
+         * True if this span is not nested in another one
+         */
+        public boolean isTopLevel() {
+            return depth == 0;
+        }
+    }
+}
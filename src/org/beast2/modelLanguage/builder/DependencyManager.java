@@ -8,7 +8,7 @@ import java.util.Map;
  */
 public interface DependencyManager {
     /**
-     * Get all available plugins (both installed and available).
+     * Get all available plugins (both installed and available), without contacting package repositories.
      */
     Map<String, Object> getAllPlugins();
 
@@ -16,4 +16,11 @@ public interface DependencyManager {
      * Find all model object classes in a package.
      */
     List<String> findModelObjectClasses(String pluginName);
+
+    /**
+     * Make the classes of a package loadable, e.g. by adding its jars to the class path.
+     * Called before a package is searched for classes; does nothing if everything is loaded already.
+     */
+    default void loadPackage(String pluginName) {
+    }
 }
\ No newline at end of file
@@ -127,6 +127,14 @@ public class ModelBuilderListener extends Beast2ModelLanguageBaseListener {
             Beast2ModelLanguageParser.NexusFunctionContext nexusCtx =
                     ((Beast2ModelLanguageParser.NexusFunctionExprContext) ctx).nexusFunction();
             return createNexusFunction(nexusCtx);
+        } else if (ctx instanceof Beast2ModelLanguageParser.AlignmentFunctionExprContext) {
+            Beast2ModelLanguageParser.AlignmentFunctionContext alignmentCtx =
+                    ((Beast2ModelLanguageParser.AlignmentFunctionExprContext) ctx).alignmentFunction();
+            return createAlignmentFunction(alignmentCtx);
+        } else if (ctx instanceof Beast2ModelLanguageParser.MapExprContext) {
+            Beast2ModelLanguageParser.MapExpressionContext mapCtx =
+                    ((Beast2ModelLanguageParser.MapExprContext) ctx).mapExpression();
+            return createMapExpression(mapCtx);
         } else if (ctx instanceof Beast2ModelLanguageParser.IdentifierExprContext) {
             String name = ((Beast2ModelLanguageParser.IdentifierExprContext) ctx).identifier().getText();
             return new Identifier(name);
@@ -220,6 +228,35 @@ public class ModelBuilderListener extends Beast2ModelLanguageBaseListener {
         return new NexusFunction(arguments);
     }
 
+    /**
+     * Create an AlignmentFunction from its context
+     */
+    private AlignmentFunction createAlignmentFunction(Beast2ModelLanguageParser.AlignmentFunctionContext ctx) {
+        List<Argument> arguments = new ArrayList<>();
+
+        // Add arguments if present
+        if (ctx.argumentList() != null) {
+            for (Beast2ModelLanguageParser.ArgumentContext argCtx : ctx.argumentList().argument()) {
+                String name = argCtx.argumentName().getText();
+                Expression value = createExpressionFromArgumentValue(argCtx.argumentValue());
+                arguments.add(new Argument(name, value));
+            }
+        }
+
+        return new AlignmentFunction(arguments);
+    }
+
+    /**
+     * Create a MapExpression from its context, keeping the order of the entries
+     */
+    private MapExpression createMapExpression(Beast2ModelLanguageParser.MapExpressionContext ctx) {
+        Map<String, Expression> entries = new LinkedHashMap<>();
+        for (Beast2ModelLanguageParser.MapEntryContext entryCtx : ctx.mapEntry()) {
+            entries.put(entryCtx.identifier().getText(), createExpression(entryCtx.expression()));
+        }
+        return new MapExpression(entries);
+    }
+
     /**
      * Create a Literal with the appropriate LiteralType
      */
@@ -0,0 +1,211 @@
+package org.beast2.modelLanguage.builder;
+
+import org.beast2.modelLanguage.model.*;
+
+import java.util.*;
+
+/**
+ * Computes the difference between two versions of a Beast2Model, statement by statement.
+ * Statements are keyed by the variable they define, so that several statements
+ * defining the same variable (e.g. a tree with a MRCAPrior) are treated as one unit.
+ * A key is dirty if its statements changed, or if it (transitively) references a changed key.
+ */
+public class ModelDiff {
+
+    private final boolean fullRebuildRequired;
+    private final Set<String> changedKeys;
+    private final Set<String> removedKeys;
+    private final Set<String> dirtyKeys;
+
+    private ModelDiff(boolean fullRebuildRequired, Set<String> changedKeys,
+                      Set<String> removedKeys, Set<String> dirtyKeys) {
+        this.fullRebuildRequired = fullRebuildRequired;
+        this.changedKeys = changedKeys;
+        this.removedKeys = removedKeys;
+        this.dirtyKeys = dirtyKeys;
+    }
+
+    /**
+     * Compute the difference between a previously built model and a new model.
+     *
+     * @param previous the model that was built last, may be null
+     * @param current  the model to be built
+     * @param idOwners map from registered object id to the statement key that created it,
+     *                 used to resolve references to generated ids (e.g. "xPrior")
+     * @return the difference
+     */
+    public static ModelDiff compute(Beast2Model previous, Beast2Model current, Map<String, String> idOwners) {
+        if (previous == null
+                || !sameText(previous.getImports(), current.getImports())
+                || !sameText(previous.getRequires(), current.getRequires())) {
+            Set<String> all = new LinkedHashSet<>(getStatementText(current).keySet());
+            return new ModelDiff(true, all, Collections.emptySet(), all);
+        }
+
+        Map<String, String> oldText = getStatementText(previous);
+        Map<String, String> newText = getStatementText(current);
+
+        Set<String> changed = new LinkedHashSet<>();
+        for (Map.Entry<String, String> entry : newText.entrySet()) {
+            if (!entry.getValue().equals(oldText.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+
+        Set<String> removed = new LinkedHashSet<>(oldText.keySet());
+        removed.removeAll(newText.keySet());
+
+        // Reverse dependency graph of the new model: key -> keys that reference it
+        Map<String, Set<String>> dependents = new HashMap<>();
+        for (Statement stmt : current.getStatements()) {
+            String key = getStatementKey(stmt);
+            if (key == null) {
+                continue;
+            }
+            for (String ref : getReferencedIdentifiers(stmt)) {
+                String owner = idOwners != null ? idOwners.getOrDefault(ref, ref) : ref;
+                if (!owner.equals(key)) {
+                    dependents.computeIfAbsent(owner, k -> new LinkedHashSet<>()).add(key);
+                }
+            }
+        }
+
+        // Everything depending on a changed or removed key has to be rebuilt as well
+        Set<String> dirty = new LinkedHashSet<>(changed);
+        Deque<String> queue = new ArrayDeque<>(changed);
+        queue.addAll(removed);
+        while (!queue.isEmpty()) {
+            String key = queue.poll();
+            for (String dependent : dependents.getOrDefault(key, Collections.emptySet())) {
+                if (dirty.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+
+        return new ModelDiff(false, changed, removed, dirty);
+    }
+
+    /**
+     * Get the key of a statement, i.e. the name of the variable it defines
+     */
+    public static String getStatementKey(Statement stmt) {
+        if (stmt instanceof VariableDeclaration varDecl) {
+            return varDecl.getVariableName();
+        } else if (stmt instanceof DistributionAssignment distAssign) {
+            return distAssign.getVariableName();
+        } else if (stmt instanceof AnnotatedStatement annotatedStmt) {
+            return getStatementKey(annotatedStmt.getStatement());
+        }
+        return null;
+    }
+
+    /**
+     * Get all identifiers referenced by a statement, including annotation parameters
+     */
+    public static Set<String> getReferencedIdentifiers(Statement stmt) {
+        Set<String> refs = new LinkedHashSet<>();
+        if (stmt instanceof AnnotatedStatement annotatedStmt) {
+            for (Annotation annotation : annotatedStmt.getAnnotations()) {
+                for (Expression value : annotation.getParameters().values()) {
+                    collectIdentifiers(value, refs);
+                }
+            }
+            refs.addAll(getReferencedIdentifiers(annotatedStmt.getStatement()));
+        } else if (stmt instanceof VariableDeclaration varDecl) {
+            collectIdentifiers(varDecl.getValue(), refs);
+        } else if (stmt instanceof DistributionAssignment distAssign) {
+            collectIdentifiers(distAssign.getDistribution(), refs);
+        }
+        return refs;
+    }
+
+    private static void collectIdentifiers(Expression expr, Set<String> refs) {
+        if (expr instanceof Identifier id) {
+            refs.add(id.getName());
+        } else if (expr instanceof FunctionCall funcCall) {
+            collectArgumentIdentifiers(funcCall.getArguments(), refs);
+        } else if (expr instanceof NexusFunction nexusFunc) {
+            collectArgumentIdentifiers(nexusFunc.getArguments(), refs);
+        } else if (expr instanceof AlignmentFunction alignmentFunc) {
+            collectArgumentIdentifiers(alignmentFunc.getArguments(), refs);
+        } else if (expr instanceof ArrayLiteral array) {
+            for (Expression element : array.getElements()) {
+                collectIdentifiers(element, refs);
+            }
+        } else if (expr instanceof MapExpression map) {
+            for (Expression value : map.getEntries().values()) {
+                collectIdentifiers(value, refs);
+            }
+        }
+    }
+
+    private static void collectArgumentIdentifiers(List<Argument> arguments, Set<String> refs) {
+        for (Argument arg : arguments) {
+            collectIdentifiers(arg.getValue(), refs);
+        }
+    }
+
+    /**
+     * Source text of all statements grouped by key, in statement order
+     */
+    private static Map<String, String> getStatementText(Beast2Model model) {
+        Map<String, String> text = new LinkedHashMap<>();
+        for (Statement stmt : model.getStatements()) {
+            String key = getStatementKey(stmt);
+            if (key != null) {
+                text.merge(key, stmt.toString(), (a, b) -> a + "\n" + b);
+            }
+        }
+        return text;
+    }
+
+    private static boolean sameText(List<?> a, List<?> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).toString().equals(b.get(i).toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * True if imports or requires changed, or there is no previous model
+     */
+    public boolean isFullRebuildRequired() {
+        return fullRebuildRequired;
+    }
+
+    /**
+     * Keys whose statements differ from the previous model
+     */
+    public Set<String> getChangedKeys() {
+        return Collections.unmodifiableSet(changedKeys);
+    }
+
+    /**
+     * Keys that were in the previous model but are no longer defined
+     */
+    public Set<String> getRemovedKeys() {
+        return Collections.unmodifiableSet(removedKeys);
+    }
+
+    /**
+     * Keys that have to be rebuilt: changed keys plus their transitive dependents
+     */
+    public Set<String> getDirtyKeys() {
+        return Collections.unmodifiableSet(dirtyKeys);
+    }
+
+    /**
+     * Keys whose previously built objects have to be discarded
+     */
+    public Set<String> getStaleKeys() {
+        Set<String> stale = new LinkedHashSet<>(dirtyKeys);
+        stale.addAll(removedKeys);
+        return stale;
+    }
+}
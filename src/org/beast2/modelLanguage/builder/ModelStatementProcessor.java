@@ -8,6 +8,7 @@ import org.beast2.modelLanguage.model.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -42,17 +43,55 @@ public class ModelStatementProcessor implements StatementVisitor {
         logger.info("Processing Beast2Model statements...");
 
         // Process imports
-        processImports(model.getImports());
+        try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.IMPORTS)) {
+            processImports(model.getImports());
+        }
 
         // Process requires statements first
-        processRequiresStatements(model);
+        try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.REQUIRES)) {
+            processRequiresStatements(model);
+        }
 
         // Process all statements by visiting them
-        model.accept(this);
+        for (Statement statement : model.getStatements()) {
+            visitOwned(statement);
+        }
+        setCurrentStatement(null);
 
         logger.info("Finished processing model statements");
     }
 
+    /**
+     * Re-process only the statements with the given keys, in model order.
+     * Imports and requires are assumed to be unchanged since the last call to buildFromModel.
+     *
+     * @param model the model containing the statements
+     * @param statementKeys keys (defined variable names) of the statements to process
+     */
+    public void buildStatements(Beast2Model model, Set<String> statementKeys) {
+        logger.info("Re-processing " + statementKeys.size() + " changed statements...");
+
+        for (Statement statement : model.getStatements()) {
+            if (statementKeys.contains(ModelDiff.getStatementKey(statement))) {
+                visitOwned(statement);
+            }
+        }
+        setCurrentStatement(null);
+
+        logger.info("Finished re-processing changed statements");
+    }
+
+    /**
+     * Visit a top-level statement, recording it as the owner of the objects it registers
+     */
+    private void visitOwned(Statement statement) {
+        String key = ModelDiff.getStatementKey(statement);
+        setCurrentStatement(key);
+        try (BuildProfiler.Span span = BuildProfiler.statement(key)) {
+            statement.accept(this);
+        }
+    }
+
     /**
      * Process all requires statements to load necessary BEAST packages
      */
@@ -99,12 +138,14 @@ public class ModelStatementProcessor implements StatementVisitor {
             logger.fine("Processing VariableDeclaration: " + varDecl.getVariableName());
 
             // Resolve the class name using imports
-            String resolvedClassName = nameResolver.resolveClassName(varDecl.getClassName());
-            VariableDeclaration resolvedVarDecl = new VariableDeclaration(
-                    resolvedClassName,
-                    varDecl.getVariableName(),
-                    resolveExpressionClassNames(varDecl.getValue())
-            );
+            VariableDeclaration resolvedVarDecl;
+            try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.RESOLVE_NAMES)) {
+                resolvedVarDecl = new VariableDeclaration(
+                        nameResolver.resolveClassName(varDecl.getClassName()),
+                        varDecl.getVariableName(),
+                        resolveExpressionClassNames(varDecl.getValue())
+                );
+            }
 
             // Special handling for NexusFunction
             if (resolvedVarDecl.getValue() instanceof NexusFunction) {
@@ -163,12 +204,14 @@ public class ModelStatementProcessor implements StatementVisitor {
             logger.fine("Processing DistributionAssignment: " + distAssign.getVariableName());
 
             // Resolve the class name using imports
-            String resolvedClassName = nameResolver.resolveClassName(distAssign.getClassName());
-            DistributionAssignment resolvedDistAssign = new DistributionAssignment(
-                    resolvedClassName,
-                    distAssign.getVariableName(),
-                    resolveExpressionClassNames(distAssign.getDistribution())
-            );
+            DistributionAssignment resolvedDistAssign;
+            try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.RESOLVE_NAMES)) {
+                resolvedDistAssign = new DistributionAssignment(
+                        nameResolver.resolveClassName(distAssign.getClassName()),
+                        distAssign.getVariableName(),
+                        resolveExpressionClassNames(distAssign.getDistribution())
+                );
+            }
 
             // Record that this is a random variable
             String varName = resolvedDistAssign.getVariableName();
@@ -298,6 +341,12 @@ public class ModelStatementProcessor implements StatementVisitor {
         return false;
     }
 
+    private void setCurrentStatement(String statementKey) {
+        if (registry instanceof BeastObjectRegistry) {
+            ((BeastObjectRegistry) registry).setCurrentStatement(statementKey);
+        }
+    }
+
     private String getDataReference(String varName) {
         if (registry instanceof BeastObjectRegistry) {
             return ((BeastObjectRegistry) registry).getDataReference(varName);
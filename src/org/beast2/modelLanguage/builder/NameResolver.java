@@ -18,6 +18,8 @@ public class NameResolver {
     private final List<String> wildcardImports;
     private final Map<String, String> resolvedCache;
     private final Set<String> processedPackages;
+    // Required packages whose classes have not been indexed yet, in the order they were required
+    private final Deque<String> pendingPackages;
 
     /**
      * Constructor that initializes empty import collections
@@ -27,6 +29,7 @@ public class NameResolver {
         this.wildcardImports = new ArrayList<>();
         this.resolvedCache = new HashMap<>();
         this.processedPackages = new HashSet<>();
+        this.pendingPackages = new ArrayDeque<>();
     }
 
     /**
@@ -51,8 +54,10 @@ public class NameResolver {
     }
 
     /**
-     * Add all BEASTInterface classes from a required BEAST plugin.
-     * This method is called when processing a 'requires' statement.
+     * Register a required BEAST plugin as a candidate for resolving names.
+     * This method is called when processing a 'requires' statement. The jars of the plugin are
+     * loaded and its classes indexed only when a name does not resolve through the imports, so
+     * the cost depends on the plugins a model actually uses.
      *
      * @param pluginName the BEAST2 plugin name to require (e.g., "SNAPP", "ORC")
      */
@@ -64,14 +69,23 @@ public class NameResolver {
         }
 
         processedPackages.add(pluginName);
+        pendingPackages.add(pluginName);
+        logger.fine("Registered required BEAST plugin: " + pluginName);
+    }
+
+    /**
+     * Load a required plugin and add wildcard imports for the Java packages of its BEASTInterface classes
+     */
+    private void indexRequiredPackage(String pluginName) {
         logger.info("Processing required BEAST plugin: " + pluginName);
+        dependencyManager.loadPackage(pluginName);
 
         // Search for BEASTInterface classes directly in the plugin -- don't forget plugin name must be lowercase for this method!
         List<String> beastClasses = dependencyManager.findModelObjectClasses(pluginName);
 
         if (!beastClasses.isEmpty()) {
             // Get the unique Java packages from the found classes
-            Set<String> javaPackages = new HashSet<>();
+            Set<String> javaPackages = new LinkedHashSet<>();
             for (String className : beastClasses) {
                 int lastDot = className.lastIndexOf('.');
                 if (lastDot > 0) {
@@ -158,17 +172,20 @@ public class NameResolver {
         }
 
         // Try wildcard imports - check each possible class but safely
-        for (String wildcardPackage : wildcardImports) {
-            String qualifiedName = wildcardPackage + "." + className;
-            logger.fine("Trying wildcard resolution: " + qualifiedName);
+        String resolved = resolveWildcard(className, 0);
 
-            if (typeSystem.classExists(qualifiedName)) {
-                logger.fine("Successfully resolved " + className + " to " + qualifiedName);
-                resolvedCache.put(className, qualifiedName);
-                return qualifiedName;
-            }
+        // Then index required plugins one at a time until one of them has the class
+        while (resolved == null && !pendingPackages.isEmpty()) {
+            int indexed = wildcardImports.size();
+            indexRequiredPackage(pendingPackages.poll());
+            resolved = resolveWildcard(className, indexed);
+        }
+        if (resolved != null) {
+            resolvedCache.put(className, resolved);
+            return resolved;
         }
-        
+
+
         // If all else fails, return the original name
         logger.warning("Could not resolve " + className + " - will use unqualified name");
 
@@ -176,4 +193,22 @@ public class NameResolver {
         resolvedCache.put(className, className);
         return className;
     }
-}
\ No newline at end of file
+
+    /**
+     * Find the class in the wildcard imports, starting at an index
+     *
+     * @return the fully qualified class name, or null
+     */
+    private String resolveWildcard(String className, int from) {
+        for (int i = from; i < wildcardImports.size(); i++) {
+            String qualifiedName = wildcardImports.get(i) + "." + className;
+            logger.fine("Trying wildcard resolution: " + qualifiedName);
+
+            if (typeSystem.classExists(qualifiedName)) {
+                logger.fine("Successfully resolved " + className + " to " + qualifiedName);
+                return qualifiedName;
+            }
+        }
+        return null;
+    }
+}
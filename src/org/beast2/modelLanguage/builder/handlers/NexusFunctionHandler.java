@@ -1,5 +1,6 @@
 package org.beast2.modelLanguage.builder.handlers;
 
+import org.beast2.modelLanguage.builder.BuildProfiler;
 import org.beast2.modelLanguage.builder.ObjectRegistry;
 import org.beast2.modelLanguage.model.Argument;
 import org.beast2.modelLanguage.model.NexusFunction;
@@ -58,7 +59,7 @@ public class NexusFunctionHandler extends BaseHandler {
 
         logger.info("Loading Nexus file: " + filePath);
 
-        try {
+        try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.NEXUS)) {
             // Use factory to create alignment
             Object alignment = factory.createAlignment(filePath, alignmentId);
 
@@ -1,5 +1,6 @@
 package org.beast2.modelLanguage.builder.handlers;
 
+import org.beast2.modelLanguage.builder.BuildProfiler;
 import org.beast2.modelLanguage.builder.FactoryProvider;
 import org.beast2.modelLanguage.builder.ModelObjectFactory;
 
@@ -30,7 +31,7 @@ public class ParameterInitializer {
             return false;
         }
 
-        try {
+        try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.PARAMETER_INIT)) {
             // Determine parameter type and delegate to appropriate method
             if (factory.isRealParameter(param)) {
                 return initializeRealParameter(param, dist);
@@ -116,7 +117,7 @@ public class ParameterInitializer {
      * @return true if initialization successful, false otherwise
      */
     public static boolean initializeRealParameterWithDefault(Object param, int requestedDimension) {
-        try {
+        try (BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.PARAMETER_INIT)) {
             if (param == null) {
                 return false;
             }
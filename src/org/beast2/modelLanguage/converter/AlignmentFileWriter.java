@@ -0,0 +1,219 @@
+package org.beast2.modelLanguage.converter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Writes decompiled alignments to Nexus files in one directory.
+ * <p>
+ * Rows are encoded straight into a direct buffer and written through a FileChannel,
+ * so sequences are never copied into intermediate strings or byte arrays.
+ * Files are de-duplicated by content: when an alignment has the same data type, taxa and
+ * sequences as one written before, the new file is dropped and the earlier one is reused.
+ * Existing files are never overwritten: a name already taken in the directory gets a counter.
+ */
+public class AlignmentFileWriter {
+
+    private static final Logger logger = Logger.getLogger(AlignmentFileWriter.class.getName());
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final File directory;
+
+    // File names handed out so far
+    private final Set<String> usedNames = new HashSet<>();
+    // content digest -> file with that content
+    private final Map<String, File> filesByDigest = new LinkedHashMap<>();
+
+    private int duplicateCount = 0;
+
+    /**
+     * @param directory directory for the files, usually that of the script referring to them;
+     *                  null for the working directory
+     */
+    public AlignmentFileWriter(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Write a complete alignment
+     *
+     * @param baseName  file name without extension, made unique if needed
+     * @param dataType  Nexus data type, e.g. nucleotide
+     * @param sequences map from taxon name to sequence, in row order
+     * @param siteCount number of sites
+     * @return path of the file to refer to from the script: the directory and the file name, so
+     *         relative to the working directory as nexus(file=...) is resolved when building
+     */
+    public String write(String baseName, String dataType, Map<String, String> sequences, int siteCount) {
+        try {
+            Sink sink = open(baseName, dataType, sequences.size(), siteCount);
+            try {
+                for (Map.Entry<String, String> row : sequences.entrySet()) {
+                    sink.writeRow(row.getKey(), row.getValue());
+                }
+            } finally {
+                sink.close();
+            }
+            return sink.getPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write alignment file for " + baseName, e);
+        }
+    }
+
+    /**
+     * Start an alignment file whose rows are written one at a time.
+     * The path is available from the sink once it is closed.
+     */
+    public Sink open(String baseName, String dataType, int taxonCount, int siteCount) throws IOException {
+        String cleanName = baseName.replaceAll("[^a-zA-Z0-9_]", "_");
+        Sink sink = null;
+        while (sink == null) {
+            File file = new File(directory, uniqueName(cleanName));
+            try {
+                sink = new Sink(file);
+            } catch (FileAlreadyExistsException e) {
+                // created since uniqueName looked, try the next name
+                logger.fine("Alignment file " + file + " already exists");
+            }
+        }
+        sink.write("#NEXUS\nBEGIN DATA;\n");
+        sink.write("DIMENSIONS NTAX=" + taxonCount + " NCHAR=" + siteCount + ";\n");
+        sink.write("FORMAT DATATYPE=" + dataType + " MISSING=? GAP=-;\n");
+        sink.write("MATRIX\n");
+        return sink;
+    }
+
+    /**
+     * Number of alignments that reused the file of an identical alignment
+     */
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    /**
+     * Paths of the distinct files written so far
+     */
+    public Collection<String> getFiles() {
+        return filesByDigest.values().stream().map(File::getPath).toList();
+    }
+
+    /**
+     * A file name not handed out before and not present in the directory
+     */
+    private String uniqueName(String baseName) {
+        String name = baseName + ".nex";
+        int counter = 2;
+        while (usedNames.contains(name) || new File(directory, name).exists()) {
+            name = baseName + "_" + counter++ + ".nex";
+        }
+        usedNames.add(name);
+        return name;
+    }
+
+    private String finish(File file, String digest) throws IOException {
+        File existing = filesByDigest.putIfAbsent(digest, file);
+        if (existing != null) {
+            Files.deleteIfExists(file.toPath());
+            usedNames.remove(file.getName());
+            duplicateCount++;
+            logger.fine("Alignment file " + file + " has the same content as " + existing + ", reusing it");
+            return existing.getPath();
+        }
+        return file.getPath();
+    }
+
+    /**
+     * An open alignment file
+     */
+    public class Sink implements Closeable {
+        private final File file;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final MessageDigest digest;
+        private String path;
+
+        private Sink(File file) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE);
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                channel.close();
+                throw new IllegalStateException(e);
+            }
+        }
+
+        public void writeRow(String taxon, CharSequence sequence) throws IOException {
+            write(taxon);
+            write(" ");
+            write(sequence);
+            write("\n");
+        }
+
+        private void write(CharSequence text) throws IOException {
+            CharBuffer chars = CharBuffer.wrap(text);
+            while (true) {
+                CoderResult result = encoder.encode(chars, buffer, false);
+                if (result.isOverflow()) {
+                    flush();
+                } else if (result.isUnderflow()) {
+                    return;
+                } else {
+                    result.throwException();
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            digest.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Path of the file to refer to from the script, relative to the working directory unless
+         * the directory is absolute; this may be the file of an identical earlier alignment
+         */
+        public String getPath() {
+            if (path == null) {
+                throw new IllegalStateException("Alignment file " + file + " is not closed yet");
+            }
+            return path;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (path != null) {
+                return;
+            }
+            try {
+                write(";\nEND;\n");
+                flush();
+            } finally {
+                channel.close();
+            }
+            path = finish(file, HexFormat.of().formatHex(digest.digest()));
+        }
+    }
+}
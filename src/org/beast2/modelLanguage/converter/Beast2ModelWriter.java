@@ -2,16 +2,23 @@ package org.beast2.modelLanguage.converter;
 
 import org.beast2.modelLanguage.model.*;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Converts a Beast2Model to a Beast2Lang script as a string.
+ * Converts a Beast2Model to a Beast2Lang script, as a string or streamed to a writer.
  */
 public class Beast2ModelWriter {
 
     private static final String INDENT = "    ";
-    private final StringBuilder sb = new StringBuilder();
+    private ScriptOutput out;
 
     /**
      * Write a Beast2Model as a Beast2Lang script
@@ -20,10 +27,46 @@ public class Beast2ModelWriter {
      * @return A string containing the Beast2Lang script
      */
     public String writeModel(Beast2Model model) {
+        StringWriter writer = new StringWriter();
+        try {
+            writeModel(model, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Write a Beast2Model as a Beast2Lang script to a channel, encoded as UTF-8.
+     * The channel is not closed.
+     */
+    public void writeModel(Beast2Model model, WritableByteChannel channel) throws IOException {
+        Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+        writeModel(model, writer);
+    }
+
+    /**
+     * Write a Beast2Model as a Beast2Lang script to a writer, holding at most
+     * {@link ScriptOutput#BUFFER_SIZE} characters in memory.
+     * The writer is flushed but not closed.
+     */
+    public void writeModel(Beast2Model model, Writer writer) throws IOException {
+        out = new ScriptOutput(writer);
+        try {
+            writeScript(model);
+            out.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            out = null;
+        }
+    }
+
+    private void writeScript(Beast2Model model) {
 
         // Add requires statements first
         for (RequiresStatement req : model.getRequires()) {
-            sb.append(req.toString()).append("\n");
+            out.append(req.toString()).append("\n");
         }
 
         // Only add imports if no requires statements
@@ -35,27 +78,25 @@ public class Beast2ModelWriter {
 
         // Add blank line if we have requires or imports
         if (!model.getRequires().isEmpty() || !model.getImports().isEmpty()) {
-            sb.append("\n");
+            out.append("\n");
         }
 
         // Add statements
         for (Statement stmt : model.getStatements()) {
             writeStatement(stmt);
-            sb.append("\n");
+            out.append("\n");
         }
-
-        return sb.toString();
     }
 
     /**
      * Write an import statement
      */
     private void writeImport(ImportStatement importStmt) {
-        sb.append("import ").append(importStmt.getPackageName());
+        out.append("import ").append(importStmt.getPackageName());
         if (importStmt.isWildcard()) {
-            sb.append(".*");
+            out.append(".*");
         }
-        sb.append(";");
+        out.append(";");
     }
 
     /**
@@ -79,7 +120,7 @@ public class Beast2ModelWriter {
     private void writeAnnotatedStatement(AnnotatedStatement stmt) {
         for (Annotation annotation : stmt.getAnnotations()) {
             writeAnnotation(annotation);
-            sb.append("\n");
+            out.append("\n");
         }
         writeStatement(stmt.getStatement());
     }
@@ -88,26 +129,26 @@ public class Beast2ModelWriter {
      * Write an annotation
      */
     private void writeAnnotation(Annotation annotation) {
-        sb.append("@").append(annotation.getName());
+        out.append("@").append(annotation.getName());
 
         // Add parameters if present
         if (!annotation.getParameters().isEmpty()) {
-            sb.append("(");
+            out.append("(");
             boolean first = true;
 
             for (String paramName : annotation.getParameters().keySet()) {
                 if (!first) {
-                    sb.append(", ");
+                    out.append(", ");
                 }
                 first = false;
 
-                sb.append(paramName).append("=");
+                out.append(paramName).append("=");
                 Object value = annotation.getParameters().get(paramName);
 
-                sb.append(value);
+                out.append(value);
             }
 
-            sb.append(")");
+            out.append(")");
         }
     }
 
@@ -115,26 +156,26 @@ public class Beast2ModelWriter {
      * Write a variable declaration
      */
     private void writeVariableDeclaration(VariableDeclaration decl) {
-        sb.append(decl.getClassName()).append(" ")
+        out.append(decl.getClassName()).append(" ")
                 .append(decl.getVariableName())
                 .append(" = ");
 
         writeExpression(decl.getValue());
 
-        sb.append(";");
+        out.append(";");
     }
 
     /**
      * Write a distribution assignment
      */
     private void writeDistributionAssignment(DistributionAssignment asgn) {
-        sb.append(asgn.getClassName()).append(" ")
+        out.append(asgn.getClassName()).append(" ")
                 .append(asgn.getVariableName())
                 .append(" ~ ");
 
         writeExpression(asgn.getDistribution());
 
-        sb.append(";");
+        out.append(";");
     }
 
     /**
@@ -164,44 +205,44 @@ public class Beast2ModelWriter {
      * Write a function call
      */
     private void writeFunctionCall(FunctionCall call) {
-        sb.append(call.getClassName()).append("(");
+        out.append(call.getClassName()).append("(");
 
         List<Argument> arguments = call.getArguments();
         for (int i = 0; i < arguments.size(); i++) {
             if (i > 0) {
-                sb.append(", ");
+                out.append(", ");
             }
 
             Argument arg = arguments.get(i);
-            sb.append(arg.getName()).append("=");
+            out.append(arg.getName()).append("=");
             writeExpression(arg.getValue());
         }
 
-        sb.append(")");
+        out.append(")");
     }
 
     /**
      * Write a nexus function
      */
     private void writeNexusFunction(NexusFunction func) {
-        sb.append("nexus(");
+        out.append("nexus(");
 
         List<Argument> arguments = func.getArguments();
         for (int i = 0; i < arguments.size(); i++) {
             if (i > 0) {
-                sb.append(", ");
+                out.append(", ");
             }
 
             Argument arg = arguments.get(i);
-            sb.append(arg.getName()).append("=");
+            out.append(arg.getName()).append("=");
             writeExpression(arg.getValue());
         }
 
-        sb.append(")");
+        out.append(")");
     }
 
     private void writeAlignmentFunction(AlignmentFunction func) {
-        sb.append("alignment(");
+        out.append("alignment(");
 
         List<Argument> arguments = func.getArguments();
         boolean hasSequences = false;
@@ -216,15 +257,15 @@ public class Beast2ModelWriter {
 
         if (hasSequences) {
             // Multi-line format for better readability
-            sb.append("\n");
+            out.append("\n");
 
             for (int i = 0; i < arguments.size(); i++) {
                 if (i > 0) {
-                    sb.append(",\n");
+                    out.append(",\n");
                 }
 
                 Argument arg = arguments.get(i);
-                sb.append(INDENT).append(arg.getName()).append(" = ");  // Changed from ": " to " = "
+                out.append(INDENT).append(arg.getName()).append(" = ");  // Changed from ": " to " = "
 
                 if ("sequences".equals(arg.getName()) && arg.getValue() instanceof MapExpression sequences) {
                     // Write sequences map with proper indentation
@@ -234,18 +275,18 @@ public class Beast2ModelWriter {
                 }
             }
 
-            sb.append("\n)");
+            out.append("\n)");
         } else {
             // Single line format
             for (int i = 0; i < arguments.size(); i++) {
                 if (i > 0) {
-                    sb.append(", ");
+                    out.append(", ");
                 }
                 Argument arg = arguments.get(i);
-                sb.append(arg.getName()).append("=");  // No change needed here
+                out.append(arg.getName()).append("=");  // No change needed here
                 writeExpression(arg.getValue());
             }
-            sb.append(")");
+            out.append(")");
         }
     }
 
@@ -253,53 +294,53 @@ public class Beast2ModelWriter {
      * Write a map expression with indentation
      */
     private void writeIndentedMapExpression(MapExpression mapExpr) {
-        sb.append("{\n");
+        out.append("{\n");
 
         Map<String, Expression> entries = mapExpr.getEntries();
         boolean first = true;
 
         for (Map.Entry<String, Expression> entry : entries.entrySet()) {
             if (!first) {
-                sb.append(",\n");
+                out.append(",\n");
             }
             first = false;
 
-            sb.append(Beast2ModelWriter.INDENT).append(INDENT);
-            sb.append(entry.getKey()).append(": ");
+            out.append(Beast2ModelWriter.INDENT).append(INDENT);
+            out.append(entry.getKey()).append(": ");
             writeExpression(entry.getValue());
         }
 
-        sb.append("\n").append(Beast2ModelWriter.INDENT).append("}");
+        out.append("\n").append(Beast2ModelWriter.INDENT).append("}");
     }
 
     /**
      * Write a map expression
      */
     private void writeMapExpression(MapExpression mapExpr) {
-        sb.append("{");
+        out.append("{");
 
         Map<String, Expression> entries = mapExpr.getEntries();
         boolean first = true;
 
         for (Map.Entry<String, Expression> entry : entries.entrySet()) {
             if (!first) {
-                sb.append(", ");
+                out.append(", ");
             }
             first = false;
 
-            sb.append(entry.getKey());
-            sb.append(": ");
+            out.append(entry.getKey());
+            out.append(": ");
             writeExpression(entry.getValue());
         }
 
-        sb.append("}");
+        out.append("}");
     }
 
     /**
      * Write an identifier
      */
     private void writeIdentifier(Identifier id) {
-        sb.append(id.getName());
+        out.append(id.getName());
     }
 
     /**
@@ -309,8 +350,8 @@ public class Beast2ModelWriter {
         Object value = literal.getValue();
 
         switch (literal.getType()) {
-            case STRING -> sb.append("\"").append(value).append("\"");
-            case INTEGER, FLOAT, BOOLEAN -> sb.append(value);
+            case STRING -> out.append("\"").append(value).append("\"");
+            case INTEGER, FLOAT, BOOLEAN -> out.append(value);
             default -> throw new IllegalArgumentException("Unknown literal type: " + literal.getType());
         }
     }
@@ -319,17 +360,17 @@ public class Beast2ModelWriter {
      * Write an array literal
      */
     private void writeArrayLiteral(ArrayLiteral array) {
-        sb.append("[");
+        out.append("[");
 
         List<Expression> elements = array.getElements();
         for (int i = 0; i < elements.size(); i++) {
             if (i > 0) {
-                sb.append(", ");
+                out.append(", ");
             }
 
             writeExpression(elements.get(i));
         }
 
-        sb.append("]");
+        out.append("]");
     }
 }
\ No newline at end of file
@@ -7,6 +7,9 @@ import org.beast2.modelLanguage.converter.pipeline.*;
 import org.beast2.modelLanguage.model.Beast2Model;
 import org.beast2.modelLanguage.model.Expression;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Logger;
 
 /**
@@ -22,6 +25,10 @@ public class Beast2ToBeast2LangConverter {
     private final ConversionPipeline pipeline;
     private final boolean debugMode;
 
+    // Optional settings for alignments written to Nexus files
+    private AlignmentFileWriter alignmentFileWriter;
+    private boolean externalizeAlignments = false;
+
     /**
      * Create a converter with the standard pipeline
      */
@@ -65,6 +72,21 @@ public class Beast2ToBeast2LangConverter {
         this.debugMode = false;
     }
 
+    /**
+     * Set the writer for alignments that are written to Nexus files,
+     * by default they go to the working directory
+     */
+    public void setAlignmentFileWriter(AlignmentFileWriter alignmentFileWriter) {
+        this.alignmentFileWriter = alignmentFileWriter;
+    }
+
+    /**
+     * Write every alignment to a Nexus file, instead of only those too large to inline
+     */
+    public void setExternalizeAlignments(boolean externalizeAlignments) {
+        this.externalizeAlignments = externalizeAlignments;
+    }
+
     /**
      * Convert a BEAST2 analysis to a Beast2Lang model.
      *
@@ -74,6 +96,17 @@ public class Beast2ToBeast2LangConverter {
      * @return The converted Beast2Lang model
      */
     public Beast2Model convertToBeast2Model(Distribution posterior, State state, BEASTInterface mcmc) {
+        return convertToBeast2Model(posterior, state, mcmc, Collections.emptyMap());
+    }
+
+    /**
+     * Convert a BEAST2 analysis whose large alignments have already been written to Nexus files,
+     * see {@link StreamingAlignmentExtractor}.
+     *
+     * @param externalAlignmentFiles map from alignment id in the XML to its Nexus file
+     */
+    public Beast2Model convertToBeast2Model(Distribution posterior, State state, BEASTInterface mcmc,
+                                            Map<String, String> externalAlignmentFiles) {
         if (posterior == null) {
             throw new IllegalArgumentException("Posterior distribution cannot be null");
         }
@@ -85,7 +118,15 @@ public class Beast2ToBeast2LangConverter {
 
         try {
             // Execute the pipeline
-            Beast2Model model = pipeline.convert(posterior, state, mcmc);
+            Map<String, Object> metadata = new HashMap<>();
+            if (!externalAlignmentFiles.isEmpty()) {
+                metadata.put(ConversionContext.EXTERNAL_ALIGNMENT_FILES, externalAlignmentFiles);
+            }
+            if (alignmentFileWriter != null) {
+                metadata.put(ConversionContext.ALIGNMENT_FILE_WRITER, alignmentFileWriter);
+            }
+            metadata.put(ConversionContext.EXTERNALIZE_ALIGNMENTS, externalizeAlignments);
+            Beast2Model model = pipeline.convert(posterior, state, mcmc, metadata);
 
             logger.info("Conversion completed successfully");
             return model;
@@ -6,6 +6,7 @@ import org.beast2.modelLanguage.model.Beast2Model;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 
@@ -87,8 +88,13 @@ public class Beast2ToLPHYConverter {
      * @throws IOException If file operations fail
      */
     public void convertToFile(String inputFile, String outputFile) throws IOException {
-        String lphyCode = convert(inputFile);
-        Files.writeString(Paths.get(outputFile), lphyCode);
+        Beast2Model model;
+        try (FileInputStream fileStream = new FileInputStream(inputFile)) {
+            model = parser.parseFromStream(fileStream);
+        }
+        try (Writer writer = Files.newBufferedWriter(Paths.get(outputFile))) {
+            generator.generate(model, writer);
+        }
     }
 
     /**
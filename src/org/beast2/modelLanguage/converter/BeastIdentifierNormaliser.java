@@ -3,114 +3,121 @@ package org.beast2.modelLanguage.converter;
 import beast.base.core.BEASTInterface;
 import beast.base.core.Input;
 import beast.base.inference.State;
-import beast.base.inference.StateNode;
 
 import java.util.*;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 /**
  * Normalizes BEAST object identifiers before conversion to ensure they are valid
  * Java identifiers while maintaining all internal references.
+ * <p>
+ * The object graph is traversed once. Identifiers that are already valid are reserved as they
+ * are found, the others are renamed afterwards, in traversal order, to the cleaned name or the
+ * cleaned name with the first free suffix. Taken names are kept in a hash set with a counter per
+ * base name, so each rename is O(1) however many objects share a base name.
  */
 public class BeastIdentifierNormaliser {
 
     private static final Logger logger = Logger.getLogger(BeastIdentifierNormaliser.class.getName());
 
+    private static final Pattern INVALID_CHARACTERS = Pattern.compile("[^a-zA-Z0-9_]");
+
     private final Map<String, String> idTransformationMap = new HashMap<>();
-    private final Set<String> usedIdentifiers = new HashSet<>();
-    private final Set<BEASTInterface> processedObjects = new HashSet<>();
+    private final UniqueIdentifiers usedIdentifiers = new UniqueIdentifiers();
+    private final Set<BEASTInterface> processedObjects = Collections.newSetFromMap(new IdentityHashMap<>());
 
     /**
      * Normalize all identifiers in the BEAST object graph before conversion
      */
     public void normaliseIdentifiers(BEASTInterface beastObject, State state) {
+        List<BEASTInterface> roots = new ArrayList<>();
+        roots.add(beastObject);
+        if (state != null) {
+            roots.addAll(state.stateNodeInput.get());
+        }
+        normaliseIdentifiers(roots);
+    }
+
+    /**
+     * Normalize all identifiers in the object graphs of the roots, visited in the given order.
+     * Objects normalized by earlier calls on this normaliser are skipped.
+     */
+    public void normaliseIdentifiers(Collection<? extends BEASTInterface> roots) {
         logger.info("Starting identifier normalization...");
 
-        // First pass: collect all objects and plan transformations
-        collectObjects(beastObject);
-        for (StateNode node : state.stateNodeInput.get()) {
-            collectObjects(node);
-        }
+        List<BEASTInterface> toRename = collectObjects(roots);
 
-        // Second pass: apply the transformations
-        applyTransformations(beastObject);
-        for (StateNode node : state.stateNodeInput.get()) {
-            applyTransformations(node);
+        for (BEASTInterface obj : toRename) {
+            String currentId = obj.getID();
+            String newId = idTransformationMap.get(currentId);
+            if (newId == null) {
+                newId = usedIdentifiers.take(normalizeIdentifier(currentId));
+                idTransformationMap.put(currentId, newId);
+                logger.fine("Transformation: '" + currentId + "' -> '" + newId + "'");
+            }
+            obj.setID(newId);
         }
 
         logger.info("Identifier normalization complete. Transformed " + idTransformationMap.size() + " identifiers.");
     }
 
     /**
-     * Collect all objects and plan identifier transformations
+     * Visit all objects in depth-first pre-order, reserve the valid identifiers and
+     * return the objects whose identifier has to change
      */
-    private void collectObjects(BEASTInterface obj) {
-        if (obj == null || processedObjects.contains(obj)) {
-            return;
-        }
-        processedObjects.add(obj);
-
-        // Plan transformation for this object's ID if needed
-        String currentId = obj.getID();
-        if (currentId != null && !currentId.isEmpty()) {
-            String normalizedId = normalizeIdentifier(currentId);
-            if (!currentId.equals(normalizedId)) {
-                idTransformationMap.put(currentId, normalizedId);
-                logger.info("Planned transformation: '" + currentId + "' -> '" + normalizedId + "'");
+    private List<BEASTInterface> collectObjects(Collection<? extends BEASTInterface> roots) {
+        List<BEASTInterface> toRename = new ArrayList<>();
+        Deque<BEASTInterface> stack = new ArrayDeque<>();
+        List<BEASTInterface> rootList = new ArrayList<>(roots);
+        Collections.reverse(rootList);
+        for (BEASTInterface root : rootList) {
+            if (root != null) {
+                stack.push(root);
             }
-            usedIdentifiers.add(normalizedId);
         }
 
-        // Recursively process all referenced objects
-        for (Input<?> input : obj.getInputs().values()) {
-            if (input.get() != null) {
-                if (input.get() instanceof BEASTInterface) {
-                    collectObjects((BEASTInterface) input.get());
-                } else if (input.get() instanceof List) {
-                    for (Object item : (List<?>) input.get()) {
-                        if (item instanceof BEASTInterface) {
-                            collectObjects((BEASTInterface) item);
-                        }
-                    }
-                }
+        List<BEASTInterface> inputs = new ArrayList<>();
+        while (!stack.isEmpty()) {
+            BEASTInterface obj = stack.pop();
+            if (!processedObjects.add(obj)) {
+                continue;
             }
-        }
-    }
 
-    /**
-     * Apply the planned transformations to all objects
-     */
-    private void applyTransformations(BEASTInterface obj) {
-        if (obj == null) {
-            return;
-        }
-
-        // Transform this object's ID if needed
-        String currentId = obj.getID();
-        if (currentId != null && idTransformationMap.containsKey(currentId)) {
-            String newId = idTransformationMap.get(currentId);
-            obj.setID(newId);
-            logger.info("Applied transformation: '" + currentId + "' -> '" + newId + "'");
-        }
+            String currentId = obj.getID();
+            if (currentId != null && !currentId.isEmpty()) {
+                if (normalizeIdentifier(currentId).equals(currentId)) {
+                    usedIdentifiers.reserve(currentId);
+                } else {
+                    toRename.add(obj);
+                }
+            }
 
-        // Recursively apply to all referenced objects
-        for (Input<?> input : obj.getInputs().values()) {
-            if (input.get() != null) {
-                if (input.get() instanceof BEASTInterface) {
-                    applyTransformations((BEASTInterface) input.get());
-                } else if (input.get() instanceof List) {
-                    for (Object item : (List<?>) input.get()) {
-                        if (item instanceof BEASTInterface) {
-                            applyTransformations((BEASTInterface) item);
+            // Push referenced objects in reverse, so they are visited in input order
+            inputs.clear();
+            for (Input<?> input : obj.getInputs().values()) {
+                Object value = input.get();
+                if (value instanceof BEASTInterface beastObject) {
+                    inputs.add(beastObject);
+                } else if (value instanceof List<?> list) {
+                    for (Object item : list) {
+                        if (item instanceof BEASTInterface beastObject) {
+                            inputs.add(beastObject);
                         }
                     }
                 }
             }
+            for (int i = inputs.size() - 1; i >= 0; i--) {
+                if (!processedObjects.contains(inputs.get(i))) {
+                    stack.push(inputs.get(i));
+                }
+            }
         }
+        return toRename;
     }
 
     /**
-     * Normalize a single identifier to be a valid Java identifier
+     * Clean a single identifier to be a valid Java identifier, without making it unique
      */
     private String normalizeIdentifier(String originalId) {
         if (originalId == null || originalId.isEmpty()) {
@@ -118,7 +125,7 @@ public class BeastIdentifierNormaliser {
         }
 
         // Remove invalid characters, keeping only letters, digits, and underscores
-        String cleaned = originalId.replaceAll("[^a-zA-Z0-9_]", "_");
+        String cleaned = INVALID_CHARACTERS.matcher(originalId).replaceAll("_");
 
         // Handle identifiers starting with numbers or other invalid characters
         if (!Character.isJavaIdentifierStart(cleaned.charAt(0))) {
@@ -131,14 +138,7 @@ public class BeastIdentifierNormaliser {
             }
         }
 
-        // Ensure uniqueness
-        String uniqueId = cleaned;
-        int counter = 1;
-        while (usedIdentifiers.contains(uniqueId) && !uniqueId.equals(originalId)) {
-            uniqueId = cleaned + "_" + counter++;
-        }
-
-        return uniqueId;
+        return cleaned;
     }
 
     /**
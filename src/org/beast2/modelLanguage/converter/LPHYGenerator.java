@@ -2,6 +2,10 @@ package org.beast2.modelLanguage.converter;
 
 import org.beast2.modelLanguage.model.*;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -27,11 +31,36 @@ public class LPHYGenerator {
      * @return LPHY code as a string
      */
     public String generate(Beast2Model model) {
+        StringWriter writer = new StringWriter();
+        try {
+            generate(model, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Generate LPHY code from a Beast2Model to a writer, one statement at a time.
+     * The writer is flushed but not closed.
+     *
+     * @param model The Beast2Model to convert
+     * @param writer Destination of the LPHY code
+     */
+    public void generate(Beast2Model model, Writer writer) throws IOException {
         // First, identify observed distributions and their data sources
         findDataToObservedMappings(model);
 
-        StringBuilder sb = new StringBuilder();
+        ScriptOutput out = new ScriptOutput(writer);
+        try {
+            writeBlocks(model, out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
 
+    private void writeBlocks(Beast2Model model, ScriptOutput out) {
         // Separate statements into data and model blocks
         List<Statement> dataStatements = new ArrayList<>();
         List<Statement> modelStatements = new ArrayList<>();
@@ -46,26 +75,24 @@ public class LPHYGenerator {
 
         // Generate data block
         if (!dataStatements.isEmpty()) {
-            sb.append("data {\n");
+            out.append("data {\n");
             for (Statement stmt : dataStatements) {
-                sb.append("  ").append(generateStatement(stmt, true)).append("\n");
+                out.append("  ").append(generateStatement(stmt, true)).append("\n");
             }
-            sb.append("}\n");
+            out.append("}\n");
         }
 
         // Generate model block
         if (!modelStatements.isEmpty()) {
             if (!dataStatements.isEmpty()) {
-                sb.append("\n");
+                out.append("\n");
             }
-            sb.append("model {\n");
+            out.append("model {\n");
             for (Statement stmt : modelStatements) {
-                sb.append("  ").append(generateStatement(stmt, false)).append("\n");
+                out.append("  ").append(generateStatement(stmt, false)).append("\n");
             }
-            sb.append("}\n");
+            out.append("}\n");
         }
-
-        return sb.toString();
     }
 
     /**
@@ -0,0 +1,80 @@
+package org.beast2.modelLanguage.converter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Output of the script writers: a bounded buffer in front of a Writer.
+ * <p>
+ * Text is collected in a buffer of at most {@link #BUFFER_SIZE} characters and handed
+ * to the writer whenever it fills up; text longer than the buffer (e.g. sequence data)
+ * goes to the writer directly. The append methods chain like StringBuilder's, and
+ * I/O errors are rethrown as UncheckedIOException so recursive writers need no throws clauses.
+ */
+public class ScriptOutput {
+
+    public static final int BUFFER_SIZE = 8192;
+
+    private final Writer writer;
+    private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+
+    public ScriptOutput(Writer writer) {
+        this.writer = writer;
+    }
+
+    public ScriptOutput append(CharSequence text) {
+        if (text == null) {
+            text = "null";
+        }
+        if (buffer.length() + text.length() > BUFFER_SIZE) {
+            flushBuffer();
+            if (text.length() > BUFFER_SIZE) {
+                try {
+                    writer.append(text);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return this;
+            }
+        }
+        buffer.append(text);
+        return this;
+    }
+
+    public ScriptOutput append(Object value) {
+        return append(String.valueOf(value));
+    }
+
+    public ScriptOutput append(char c) {
+        if (buffer.length() >= BUFFER_SIZE) {
+            flushBuffer();
+        }
+        buffer.append(c);
+        return this;
+    }
+
+    /**
+     * Hand the buffered text to the writer and flush it
+     */
+    public void flush() throws IOException {
+        try {
+            flushBuffer();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void flushBuffer() {
+        if (buffer.length() == 0) {
+            return;
+        }
+        try {
+            writer.append(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.setLength(0);
+    }
+}
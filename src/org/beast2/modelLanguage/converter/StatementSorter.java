@@ -6,55 +6,105 @@ import java.util.*;
 import java.util.logging.Logger;
 
 /**
- * Handles sorting of statements based on dependencies
+ * Handles sorting of statements based on dependencies.
+ * Uses a topological sort (Kahn's algorithm) over dependencies computed once per statement.
+ * Among statements that are ready, the one that came first in the original order goes first.
  */
 public class StatementSorter {
 
     private static final Logger logger = Logger.getLogger(StatementSorter.class.getName());
 
+    // Cycles found by the last call to sortStatements, as statement ids in original order
+    private final List<List<String>> cycles = new ArrayList<>();
+
     public void sortStatements(Beast2Model model) {
-        List<Statement> sortedStatements = new ArrayList<>();
+        List<Statement> statements = new ArrayList<>(model.getStatements());
+        int n = statements.size();
+        cycles.clear();
+
+        List<Statement> sortedStatements = new ArrayList<>(n);
+        boolean[] emitted = new boolean[n];
         Set<String> declaredIds = new HashSet<>();
-        List<Statement> remainingStatements = new ArrayList<>(model.getStatements());
 
         // First pass: Add all @data statements (they have no dependencies)
-        Iterator<Statement> iter = remainingStatements.iterator();
-        while (iter.hasNext()) {
-            Statement stmt = iter.next();
-            if (stmt instanceof AnnotatedStatement annotatedStmt) {
-                for (Annotation annotation : annotatedStmt.getAnnotations()) {
-                    if ("data".equals(annotation.getName())) {
-                        sortedStatements.add(stmt);
-                        declaredIds.add(getStatementId(stmt));
-                        iter.remove();
-                        break;
-                    }
+        for (int i = 0; i < n; i++) {
+            if (isDataStatement(statements.get(i))) {
+                sortedStatements.add(statements.get(i));
+                declaredIds.add(getStatementId(statements.get(i)));
+                emitted[i] = true;
+            }
+        }
+
+        // Ids declared by some statement; dependencies on anything else cannot be ordered
+        Set<String> knownIds = new HashSet<>();
+        List<Set<String>> dependencies = new ArrayList<>(n);
+        for (Statement stmt : statements) {
+            knownIds.add(getStatementId(stmt));
+            dependencies.add(getStatementDependencies(stmt));
+        }
+
+        // Count unresolved dependencies of each statement, and index the statements waiting on each id
+        int[] unresolved = new int[n];
+        Map<String, List<Integer>> waiting = new HashMap<>();
+        Set<String> unknownIds = new TreeSet<>();
+        for (int i = 0; i < n; i++) {
+            if (emitted[i]) {
+                continue;
+            }
+            for (String dependency : dependencies.get(i)) {
+                if (declaredIds.contains(dependency)) {
+                    continue;
                 }
+                if (!knownIds.contains(dependency)) {
+                    unknownIds.add(dependency);
+                    continue;
+                }
+                waiting.computeIfAbsent(dependency, k -> new ArrayList<>()).add(i);
+                unresolved[i]++;
             }
         }
+        if (!unknownIds.isEmpty()) {
+            logger.fine("References to identifiers not declared by any statement: " + unknownIds);
+        }
 
-        // Repeatedly process remaining statements until all are sorted
-        boolean progress = true;
-        while (!remainingStatements.isEmpty() && progress) {
-            progress = false;
-            iter = remainingStatements.iterator();
-
-            while (iter.hasNext()) {
-                Statement stmt = iter.next();
-                Set<String> dependencies = getStatementDependencies(stmt);
-
-                if (declaredIds.containsAll(dependencies)) {
-                    sortedStatements.add(stmt);
-                    declaredIds.add(getStatementId(stmt));
-                    iter.remove();
-                    progress = true;
+        // Ready statements, ordered by original position
+        PriorityQueue<Integer> ready = new PriorityQueue<>();
+        for (int i = 0; i < n; i++) {
+            if (!emitted[i] && unresolved[i] == 0) {
+                ready.add(i);
+            }
+        }
+
+        while (!ready.isEmpty()) {
+            int i = ready.poll();
+            Statement stmt = statements.get(i);
+            sortedStatements.add(stmt);
+            emitted[i] = true;
+
+            // The first statement declaring an id resolves it for everything waiting on it
+            String id = getStatementId(stmt);
+            if (declaredIds.add(id)) {
+                for (int dependent : waiting.getOrDefault(id, Collections.emptyList())) {
+                    if (--unresolved[dependent] == 0) {
+                        ready.add(dependent);
+                    }
                 }
             }
         }
 
-        if (!remainingStatements.isEmpty()) {
-            logger.warning("Circular dependency detected. Adding remaining statements in original order.");
-            sortedStatements.addAll(remainingStatements);
+        if (sortedStatements.size() < n) {
+            List<Integer> remaining = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (!emitted[i]) {
+                    remaining.add(i);
+                }
+            }
+            findCycles(statements, dependencies, remaining);
+            logger.warning("Circular dependency detected between statements " + cycles +
+                    ". Adding " + remaining.size() + " unsorted statements in original order.");
+            for (int i : remaining) {
+                sortedStatements.add(statements.get(i));
+            }
         }
 
         model.clearStatements();
@@ -63,6 +113,108 @@ public class StatementSorter {
         }
     }
 
+    /**
+     * Get the dependency cycles found by the last call to {@link #sortStatements(Beast2Model)}.
+     * Each cycle lists the ids of its statements in original order.
+     */
+    public List<List<String>> getCycles() {
+        return Collections.unmodifiableList(cycles);
+    }
+
+    /**
+     * Find the cycles among the statements that could not be sorted, as the strongly connected
+     * components of their dependency graph (Tarjan's algorithm, iterative).
+     * Statements that only depend on a cycle are not part of it.
+     */
+    private void findCycles(List<Statement> statements, List<Set<String>> dependencies, List<Integer> remaining) {
+        // Dependency edges between the remaining statements
+        Map<String, List<Integer>> declaring = new HashMap<>();
+        for (int i : remaining) {
+            declaring.computeIfAbsent(getStatementId(statements.get(i)), k -> new ArrayList<>()).add(i);
+        }
+        Map<Integer, List<Integer>> edges = new HashMap<>();
+        for (int i : remaining) {
+            List<Integer> targets = new ArrayList<>();
+            for (String dependency : dependencies.get(i)) {
+                targets.addAll(declaring.getOrDefault(dependency, Collections.emptyList()));
+            }
+            edges.put(i, targets);
+        }
+
+        Map<Integer, Integer> index = new HashMap<>();
+        Map<Integer, Integer> lowLink = new HashMap<>();
+        Deque<Integer> sccStack = new ArrayDeque<>();
+        Set<Integer> onSccStack = new HashSet<>();
+        int counter = 0;
+
+        for (int start : remaining) {
+            if (index.containsKey(start)) {
+                continue;
+            }
+            // Each frame is {node, position of the next edge to follow}
+            Deque<int[]> callStack = new ArrayDeque<>();
+            callStack.push(new int[]{start, 0});
+            index.put(start, counter);
+            lowLink.put(start, counter++);
+            sccStack.push(start);
+            onSccStack.add(start);
+
+            while (!callStack.isEmpty()) {
+                int[] frame = callStack.peek();
+                int node = frame[0];
+                List<Integer> targets = edges.get(node);
+                if (frame[1] < targets.size()) {
+                    int target = targets.get(frame[1]++);
+                    if (!index.containsKey(target)) {
+                        index.put(target, counter);
+                        lowLink.put(target, counter++);
+                        sccStack.push(target);
+                        onSccStack.add(target);
+                        callStack.push(new int[]{target, 0});
+                    } else if (onSccStack.contains(target)) {
+                        lowLink.put(node, Math.min(lowLink.get(node), index.get(target)));
+                    }
+                    continue;
+                }
+
+                callStack.pop();
+                if (!callStack.isEmpty()) {
+                    int parent = callStack.peek()[0];
+                    lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(node)));
+                }
+                if (lowLink.get(node).equals(index.get(node))) {
+                    List<Integer> component = new ArrayList<>();
+                    int member;
+                    do {
+                        member = sccStack.pop();
+                        onSccStack.remove(member);
+                        component.add(member);
+                    } while (member != node);
+
+                    if (component.size() > 1 || targets.contains(node)) {
+                        Collections.sort(component);
+                        List<String> cycle = new ArrayList<>(component.size());
+                        for (int i : component) {
+                            cycle.add(getStatementId(statements.get(i)));
+                        }
+                        cycles.add(cycle);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isDataStatement(Statement stmt) {
+        if (stmt instanceof AnnotatedStatement annotatedStmt) {
+            for (Annotation annotation : annotatedStmt.getAnnotations()) {
+                if ("data".equals(annotation.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private String getStatementId(Statement stmt) {
         if (stmt instanceof VariableDeclaration) {
             return ((VariableDeclaration) stmt).getVariableName();
@@ -109,4 +261,4 @@ public class StatementSorter {
             }
         }
     }
-}
\ No newline at end of file
+}
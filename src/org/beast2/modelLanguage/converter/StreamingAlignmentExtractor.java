@@ -0,0 +1,405 @@
+package org.beast2.modelLanguage.converter;
+
+import javax.xml.stream.*;
+import javax.xml.stream.events.*;
+import java.io.*;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Streams a BEAST2 XML file with StAX and moves the sequence data of large embedded
+ * alignments into Nexus sidecar files, so that decompiling does not have to load it.
+ * <p>
+ * The first pass builds a lightweight index of alignment elements and the idrefs pointing at them.
+ * The second pass copies the XML to a temporary file, writing the sequences of each eligible
+ * alignment straight to its Nexus file and replacing them by a single site in the copy.
+ * The copy keeps all taxa and data types, so it can be parsed with XMLParser and converted
+ * as usual, while the converter emits nexus(file=...) for the extracted alignments.
+ * <p>
+ * Alignments are only extracted if they are plain Alignments defined inline with their
+ * sequences, are not filtered or ascertained, and are too large to be inlined in the script.
+ * Only data types with one character per site are streamed: integer and user-defined data
+ * types use comma-separated codes, so their sites cannot be counted or cut character by character.
+ */
+public class StreamingAlignmentExtractor {
+
+    private static final Logger logger = Logger.getLogger(StreamingAlignmentExtractor.class.getName());
+
+    private static final Set<String> ALIGNMENT_SPECS = Set.of(
+            "Alignment", "beast.base.evolution.alignment.Alignment", "beast.evolution.alignment.Alignment");
+
+    // Data types whose sequences have one character (or one {..} ambiguity set) per site
+    private static final Set<String> CHARACTER_DATA_TYPES = Set.of(
+            "nucleotide", "aminoacid", "binary", "twoStateCovarion");
+
+    // Alignment attributes that make the result depend on the actual sites
+    private static final Set<String> SITE_DEPENDENT_ATTRIBUTES = Set.of(
+            "ascertained", "excludefrom", "excludeto", "excludeevery", "strip");
+
+    private final AlignmentFileWriter fileWriter;
+    private final int taxonThreshold;
+    private final int siteThreshold;
+
+    /**
+     * @param fileWriter      writer for the Nexus files
+     * @param taxonThreshold  alignments with more taxa than this are extracted
+     * @param siteThreshold   alignments with more sites than this are extracted
+     */
+    public StreamingAlignmentExtractor(AlignmentFileWriter fileWriter, int taxonThreshold, int siteThreshold) {
+        this.fileWriter = fileWriter;
+        this.taxonThreshold = taxonThreshold;
+        this.siteThreshold = siteThreshold;
+    }
+
+    /**
+     * Result of an extraction
+     */
+    public static class Result {
+        private final File xmlFile;
+        private final Map<String, String> alignmentFiles;
+
+        Result(File xmlFile, Map<String, String> alignmentFiles) {
+            this.xmlFile = xmlFile;
+            this.alignmentFiles = alignmentFiles;
+        }
+
+        /**
+         * The XML with extracted alignments reduced to a single site, or null if nothing was extracted
+         */
+        public File getXmlFile() {
+            return xmlFile;
+        }
+
+        /**
+         * Map from alignment id in the XML to the Nexus file its sequences were written to
+         */
+        public Map<String, String> getAlignmentFiles() {
+            return Collections.unmodifiableMap(alignmentFiles);
+        }
+
+        public boolean isEmpty() {
+            return alignmentFiles.isEmpty();
+        }
+    }
+
+    /**
+     * Statistics of an alignment element collected in the first pass
+     */
+    private static class AlignmentInfo {
+        final String id;
+        final String dataType;
+        boolean eligible = true;
+        int taxonCount;
+        int siteCount;
+
+        AlignmentInfo(String id, String dataType) {
+            this.id = id;
+            this.dataType = dataType;
+        }
+    }
+
+    /**
+     * Extract the large alignments of a BEAST2 XML file
+     */
+    public Result extract(File xmlFile) throws IOException, XMLStreamException {
+        Map<String, AlignmentInfo> alignments = indexAlignments(xmlFile);
+
+        Map<String, AlignmentInfo> selected = new LinkedHashMap<>();
+        for (AlignmentInfo info : alignments.values()) {
+            if (info.eligible && info.taxonCount > 0
+                    && (info.taxonCount > taxonThreshold || info.siteCount > siteThreshold)) {
+                selected.put(info.id, info);
+            }
+        }
+        if (selected.isEmpty()) {
+            return new Result(null, new LinkedHashMap<>());
+        }
+
+        File parent = xmlFile.getAbsoluteFile().getParentFile();
+        File copy;
+        try {
+            copy = File.createTempFile("b2l-decompile-", ".xml", parent);
+        } catch (IOException e) {
+            copy = File.createTempFile("b2l-decompile-", ".xml");
+        }
+        copy.deleteOnExit();
+
+        Map<String, String> files = new LinkedHashMap<>();
+        try {
+            copyWithoutSequences(xmlFile, copy, selected, files);
+        } catch (IOException | XMLStreamException | RuntimeException e) {
+            copy.delete();
+            throw e;
+        }
+
+        logger.info("Streamed " + files.size() + " alignments to Nexus files: " + new LinkedHashSet<>(files.values()));
+        return new Result(copy, files);
+    }
+
+    /**
+     * First pass: find alignment elements, count their taxa and sites, and rule out
+     * alignments that are filtered or whose sequences are not defined inline
+     */
+    private Map<String, AlignmentInfo> indexAlignments(File xmlFile) throws IOException, XMLStreamException {
+        Map<String, AlignmentInfo> alignments = new LinkedHashMap<>();
+        Set<String> filteredIds = new HashSet<>();
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(xmlFile))) {
+            XMLStreamReader reader = createInputFactory().createXMLStreamReader(in);
+            Deque<AlignmentInfo> open = new ArrayDeque<>();
+            Deque<String> specs = new ArrayDeque<>();
+            AlignmentInfo current = null;
+            int depth = 0;
+            int alignmentDepth = -1;
+            boolean inSequenceText = false;
+            StringBuilder sequenceText = new StringBuilder();
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String spec = reader.getAttributeValue(null, "spec");
+                    String id = reader.getAttributeValue(null, "id");
+                    String idref = reader.getAttributeValue(null, "idref");
+                    boolean insideFilter = specs.stream().anyMatch(s -> s != null && s.contains("FilteredAlignment"));
+                    specs.push(spec == null ? "" : spec);
+
+                    // Anything a FilteredAlignment refers to needs its sites
+                    if ((spec != null && spec.contains("FilteredAlignment")) || insideFilter) {
+                        collectReferences(reader, filteredIds);
+                    }
+
+                    if (current != null && depth == alignmentDepth + 1) {
+                        if (isSequence(reader.getLocalName(), spec) && idref == null
+                                && reader.getAttributeValue(null, "taxon") != null) {
+                            String value = reader.getAttributeValue(null, "value");
+                            current.taxonCount++;
+                            if (value != null) {
+                                current.siteCount = Math.max(current.siteCount, countSites(value));
+                            } else {
+                                inSequenceText = true;
+                                sequenceText.setLength(0);
+                            }
+                        } else if (isSequence(reader.getLocalName(), spec)
+                                || "userDataType".equals(reader.getLocalName())) {
+                            current.eligible = false;
+                        }
+                    } else if (idref == null && isAlignment(reader.getLocalName(), spec)) {
+                        if (current != null) {
+                            open.push(current);
+                        }
+                        String dataType = reader.getAttributeValue(null, "dataType");
+                        current = new AlignmentInfo(id, dataType != null ? dataType : "nucleotide");
+                        alignmentDepth = depth;
+                        if (!CHARACTER_DATA_TYPES.contains(current.dataType)) {
+                            current.eligible = false;
+                        }
+                        for (int i = 0; i < reader.getAttributeCount(); i++) {
+                            String name = reader.getAttributeLocalName(i);
+                            if (SITE_DEPENDENT_ATTRIBUTES.contains(name) || "sequence".equals(name)
+                                    || "userDataType".equals(name)) {
+                                current.eligible = false;
+                            }
+                        }
+                        if (id == null) {
+                            current.eligible = false;
+                        } else {
+                            alignments.put(id, current);
+                        }
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                    if (inSequenceText) {
+                        sequenceText.append(reader.getText());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (inSequenceText) {
+                        current.siteCount = Math.max(current.siteCount, countSites(sequenceText));
+                        inSequenceText = false;
+                    }
+                    if (current != null && depth == alignmentDepth) {
+                        current = open.isEmpty() ? null : open.pop();
+                        alignmentDepth = -1;
+                        if (current != null) {
+                            // nested alignments are unusual, keep the outer one as it is
+                            current.eligible = false;
+                        }
+                    }
+                    specs.pop();
+                    depth--;
+                }
+            }
+            reader.close();
+        }
+
+        for (String id : filteredIds) {
+            AlignmentInfo info = alignments.get(id);
+            if (info != null) {
+                info.eligible = false;
+            }
+        }
+        return alignments;
+    }
+
+    /**
+     * Second pass: copy the XML, moving the sequences of the selected alignments to Nexus files
+     */
+    private void copyWithoutSequences(File xmlFile, File copy, Map<String, AlignmentInfo> selected,
+                                      Map<String, String> files) throws IOException, XMLStreamException {
+        XMLEventFactory events = XMLEventFactory.newInstance();
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(xmlFile));
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(copy))) {
+            XMLEventReader reader = createInputFactory().createXMLEventReader(in);
+            XMLEventWriter writer = XMLOutputFactory.newInstance().createXMLEventWriter(out, "UTF-8");
+
+            AlignmentFileWriter.Sink sidecar = null;
+            String sidecarId = null;
+            int depth = 0;
+            int alignmentDepth = -1;
+            String textTaxon = null;
+            StringBuilder sequenceText = new StringBuilder();
+
+            while (reader.hasNext()) {
+                XMLEvent event = reader.nextEvent();
+
+                if (event.isStartElement()) {
+                    depth++;
+                    StartElement start = event.asStartElement();
+                    String spec = attribute(start, "spec");
+
+                    if (sidecar == null && attribute(start, "idref") == null
+                            && isAlignment(start.getName().getLocalPart(), spec)
+                            && selected.containsKey(attribute(start, "id"))) {
+                        AlignmentInfo info = selected.get(attribute(start, "id"));
+                        sidecar = fileWriter.open(info.id, info.dataType, info.taxonCount, info.siteCount);
+                        sidecarId = info.id;
+                        alignmentDepth = depth;
+                    } else if (sidecar != null && depth == alignmentDepth + 1
+                            && isSequence(start.getName().getLocalPart(), spec)) {
+                        String taxon = attribute(start, "taxon");
+                        String value = attribute(start, "value");
+                        if (value != null) {
+                            sidecar.writeRow(taxon, value);
+                            event = replaceAttribute(events, start, "value", firstSite(value));
+                        } else {
+                            textTaxon = taxon;
+                            sequenceText.setLength(0);
+                        }
+                    }
+                } else if (event.isCharacters() && textTaxon != null) {
+                    sequenceText.append(event.asCharacters().getData());
+                    continue;
+                } else if (event.isEndElement()) {
+                    if (textTaxon != null) {
+                        sidecar.writeRow(textTaxon, sequenceText.toString().trim());
+                        writer.add(events.createCharacters(firstSite(sequenceText.toString())));
+                        textTaxon = null;
+                    }
+                    if (sidecar != null && depth == alignmentDepth) {
+                        sidecar.close();
+                        files.put(sidecarId, sidecar.getPath());
+                        sidecar = null;
+                        alignmentDepth = -1;
+                    }
+                    depth--;
+                }
+
+                writer.add(event);
+            }
+
+            writer.flush();
+            writer.close();
+            reader.close();
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return factory;
+    }
+
+    private static boolean isAlignment(String elementName, String spec) {
+        if (spec != null) {
+            return ALIGNMENT_SPECS.contains(spec);
+        }
+        return "data".equals(elementName);
+    }
+
+    private static boolean isSequence(String elementName, String spec) {
+        if (spec != null) {
+            return spec.equals("Sequence") || spec.endsWith(".Sequence");
+        }
+        return "sequence".equals(elementName);
+    }
+
+    private static void collectReferences(XMLStreamReader reader, Set<String> ids) {
+        String idref = reader.getAttributeValue(null, "idref");
+        if (idref != null) {
+            ids.add(idref);
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String value = reader.getAttributeValue(i);
+            if (value.startsWith("@")) {
+                ids.add(value.substring(1));
+            }
+        }
+    }
+
+    private static String attribute(StartElement start, String name) {
+        Attribute attribute = start.getAttributeByName(new javax.xml.namespace.QName(name));
+        return attribute != null ? attribute.getValue() : null;
+    }
+
+    private static StartElement replaceAttribute(XMLEventFactory events, StartElement start, String name, String value) {
+        List<Attribute> attributes = new ArrayList<>();
+        for (Iterator<Attribute> it = start.getAttributes(); it.hasNext(); ) {
+            Attribute attribute = it.next();
+            if (attribute.getName().getLocalPart().equals(name)) {
+                attributes.add(events.createAttribute(attribute.getName(), value));
+            } else {
+                attributes.add(attribute);
+            }
+        }
+        return events.createStartElement(start.getName(), attributes.iterator(), start.getNamespaces());
+    }
+
+    /**
+     * Number of sites in a sequence, counting ambiguity sets like {AC} as one site
+     */
+    private static int countSites(CharSequence sequence) {
+        int sites = 0;
+        boolean inSet = false;
+        for (int i = 0; i < sequence.length(); i++) {
+            char c = sequence.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (c == '{') {
+                inSet = true;
+            } else if (c == '}') {
+                inSet = false;
+                sites++;
+            } else if (!inSet) {
+                sites++;
+            }
+        }
+        return sites;
+    }
+
+    /**
+     * The first site of a sequence, used as its stand-in in the reduced XML
+     */
+    private static String firstSite(String sequence) {
+        String trimmed = sequence.trim();
+        if (trimmed.isEmpty()) {
+            return trimmed;
+        }
+        if (trimmed.charAt(0) == '{') {
+            int end = trimmed.indexOf('}');
+            return end > 0 ? trimmed.substring(0, end + 1) : trimmed;
+        }
+        return trimmed.substring(0, 1);
+    }
+}
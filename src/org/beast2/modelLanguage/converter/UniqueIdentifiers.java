@@ -0,0 +1,57 @@
+package org.beast2.modelLanguage.converter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set of taken identifiers that hands out unique ones.
+ * <p>
+ * A name that is taken gets a numeric suffix ({@code name_1}, {@code name_2}, ...). The next
+ * suffix to try is remembered per base name, so handing out many identifiers with the same
+ * base does not probe all earlier suffixes again: each identifier costs O(1) amortised.
+ */
+public class UniqueIdentifiers {
+
+    private final Set<String> taken = new HashSet<>();
+    // base name -> next suffix to try
+    private final Map<String, Integer> nextSuffix = new HashMap<>();
+
+    /**
+     * Mark an identifier as taken
+     *
+     * @return false if it was already taken
+     */
+    public boolean reserve(String identifier) {
+        return taken.add(identifier);
+    }
+
+    public boolean isTaken(String identifier) {
+        return taken.contains(identifier);
+    }
+
+    /**
+     * Take the base name if it is free, otherwise the base name with the first free suffix
+     */
+    public String take(String baseName) {
+        return take(baseName, 1);
+    }
+
+    /**
+     * Take the base name if it is free, otherwise the base name with the first free
+     * suffix starting from {@code firstSuffix}
+     */
+    public String take(String baseName, int firstSuffix) {
+        if (taken.add(baseName)) {
+            return baseName;
+        }
+        int suffix = Math.max(firstSuffix, nextSuffix.getOrDefault(baseName, firstSuffix));
+        String candidate = baseName + "_" + suffix;
+        while (!taken.add(candidate)) {
+            candidate = baseName + "_" + ++suffix;
+        }
+        nextSuffix.put(baseName, suffix + 1);
+        return candidate;
+    }
+}
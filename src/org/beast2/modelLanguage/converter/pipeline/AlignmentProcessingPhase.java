@@ -3,10 +3,9 @@ package org.beast2.modelLanguage.converter.pipeline;
 import beast.base.core.BEASTInterface;
 import beast.base.evolution.alignment.Alignment;
 import beast.base.evolution.alignment.Sequence;
+import org.beast2.modelLanguage.converter.AlignmentFileWriter;
 import org.beast2.modelLanguage.model.*;
 
-import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.*;
 import java.util.logging.Logger;
 
@@ -17,8 +16,8 @@ public class AlignmentProcessingPhase implements ConversionPhase {
     private static final Logger logger = Logger.getLogger(AlignmentProcessingPhase.class.getName());
 
     // Configuration constants
-    private static final int DEFAULT_INLINE_THRESHOLD = 80; // Default max sequences for inlining
-    private static final int DEFAULT_SEQUENCE_LENGTH_THRESHOLD = 1000; // Default max sequence length for inlining
+    public static final int DEFAULT_INLINE_THRESHOLD = 80; // Default max sequences for inlining
+    public static final int DEFAULT_SEQUENCE_LENGTH_THRESHOLD = 1000; // Default max sequence length for inlining
 
     // Instance variables
     private int alignmentCounter = 0;
@@ -31,22 +30,40 @@ public class AlignmentProcessingPhase implements ConversionPhase {
         int inlinedCount = 0;
         int externalCount = 0;
 
-        for (BEASTInterface obj : context.getObjectToIdMap().keySet()) {
-            if (obj instanceof Alignment alignment) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> externalFiles = (Map<String, String>) context.getMetadata(
+                ConversionContext.EXTERNAL_ALIGNMENT_FILES);
+        if (externalFiles == null) {
+            externalFiles = Collections.emptyMap();
+        }
+        AlignmentFileWriter fileWriter = context.getMetadata(ConversionContext.ALIGNMENT_FILE_WRITER,
+                AlignmentFileWriter.class);
+        if (fileWriter == null) {
+            fileWriter = new AlignmentFileWriter(null);
+        }
+        boolean externalizeAll = Boolean.TRUE.equals(context.getMetadata(ConversionContext.EXTERNALIZE_ALIGNMENTS));
+
+        for (Alignment alignment : context.getGraph().getNodesOfType(Alignment.class)) {
+            if (context.getObjectToIdMap().containsKey(alignment)) {
                 if (context.isProcessed(alignment)) {
                     continue;
                 }
 
-                String alignmentId = generateAlignmentId(alignment, context.getObjectToIdMap());
+                String alignmentId = generateAlignmentId(alignment, context);
                 context.getObjectToIdMap().put(alignment, alignmentId);
 
                 Statement stmt;
-                if (alignment.sequenceInput.get() != null && !alignment.sequenceInput.get().isEmpty()) {
-                    if (shouldInlineAlignment(alignment)) {
+                String externalFile = externalFiles.get(context.getOriginalId(alignment));
+                if (externalFile != null) {
+                    // sequences were streamed to a Nexus file before parsing
+                    stmt = createNexusAlignment(alignmentId, externalFile);
+                    externalCount++;
+                } else if (alignment.sequenceInput.get() != null && !alignment.sequenceInput.get().isEmpty()) {
+                    if (!externalizeAll && shouldInlineAlignment(alignment)) {
                         stmt = createInlineAlignment(alignment, alignmentId);
                         inlinedCount++;
                     } else {
-                        stmt = createAlignmentFromEmbeddedData(alignment, alignmentId);
+                        stmt = createAlignmentFromEmbeddedData(alignment, alignmentId, fileWriter);
                         externalCount++;
                     }
                 } else {
@@ -129,22 +146,15 @@ public class AlignmentProcessingPhase implements ConversionPhase {
     /**
      * Generate unique alignment identifier
      */
-    private String generateAlignmentId(Alignment alignment, Map<BEASTInterface, String> objectToIdMap) {
+    private String generateAlignmentId(Alignment alignment, ConversionContext context) {
         if (alignment.getID() != null && !alignment.getID().isEmpty()) {
             String baseId = alignment.getID().replaceAll("[^a-zA-Z0-9_]", "_");
 
-            // Check if this ID is already taken by another object
-            for (Map.Entry<BEASTInterface, String> entry : objectToIdMap.entrySet()) {
-                if (entry.getValue().equals(baseId) && entry.getKey() != alignment) {
-                    String uniqueId = baseId;
-                    int counter = 2;
-                    while (objectToIdMap.containsValue(uniqueId)) {
-                        uniqueId = baseId + "_" + counter++;
-                    }
-                    return uniqueId;
-                }
+            // Keep the identifier if the alignment already has it, otherwise it is taken by another object
+            if (baseId.equals(context.getObjectToIdMap().get(alignment))) {
+                return baseId;
             }
-            return baseId;
+            return context.uniqueIdentifier(baseId, 2);
         }
         return "alignment" + (++alignmentCounter);
     }
@@ -152,10 +162,21 @@ public class AlignmentProcessingPhase implements ConversionPhase {
     /**
      * Extract sequence data and create nexus statement
      */
-    private Statement createAlignmentFromEmbeddedData(Alignment alignment, String alignmentId) {
-        String fileName = alignmentId + ".nex";
-        saveAlignmentToFile(alignment, fileName);
+    private Statement createAlignmentFromEmbeddedData(Alignment alignment, String alignmentId,
+                                                      AlignmentFileWriter fileWriter) {
+        Map<String, String> sequences = new LinkedHashMap<>();
+        for (Sequence seq : alignment.sequenceInput.get()) {
+            sequences.put(seq.taxonInput.get(), seq.dataInput.get());
+        }
+        String fileName = fileWriter.write(alignmentId, alignment.getDataType().getTypeDescription(),
+                sequences, alignment.getSiteCount());
+        return createNexusAlignment(alignmentId, fileName);
+    }
 
+    /**
+     * Create a @data statement loading an alignment from a nexus file
+     */
+    private Statement createNexusAlignment(String alignmentId, String fileName) {
         Expression expr = new NexusFunction(fileName);
         VariableDeclaration decl = new VariableDeclaration("Alignment", alignmentId, expr);
 
@@ -165,29 +186,15 @@ public class AlignmentProcessingPhase implements ConversionPhase {
         return new AnnotatedStatement(List.of(annotation), decl);
     }
 
-    /**
-     * Write alignment to nexus file
-     */
-    private void saveAlignmentToFile(Alignment alignment, String fileName) {
-        try (PrintWriter writer = new PrintWriter(fileName)) {
-            writer.println("#NEXUS");
-            writer.println("BEGIN DATA;");
-            writer.println("DIMENSIONS NTAX=" + alignment.getTaxonCount() +
-                    " NCHAR=" + alignment.getSiteCount() + ";");
-            writer.println("FORMAT DATATYPE=" + alignment.getDataType().getTypeDescription() +
-                    " MISSING=? GAP=-;");
-            writer.println("MATRIX");
-
-            for (Sequence seq : alignment.sequenceInput.get()) {
-                writer.println(seq.taxonInput.get() + " " + seq.dataInput.get());
-            }
 
-            writer.println(";");
-            writer.println("END;");
-        } catch (IOException e) {
-            logger.severe("Failed to write alignment file: " + fileName);
-            throw new RuntimeException("Failed to write alignment file", e);
-        }
+    @Override
+    public Set<ContextFacet> getReads() {
+        return EnumSet.of(ContextFacet.INPUT, ContextFacet.METADATA, ContextFacet.STATEMENT_CREATOR);
+    }
+
+    @Override
+    public Set<ContextFacet> getWrites() {
+        return EnumSet.of(ContextFacet.IDS, ContextFacet.STATEMENTS, ContextFacet.ALIGNMENTS, ContextFacet.USED_DISTRIBUTIONS);
     }
 
     @Override
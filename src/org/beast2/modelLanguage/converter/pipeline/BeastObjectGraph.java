@@ -0,0 +1,237 @@
+package org.beast2.modelLanguage.converter.pipeline;
+
+import beast.base.core.BEASTInterface;
+import beast.base.core.Input;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable index of a BEAST object graph, built once per conversion so that phases
+ * do not have to walk the graph through getInputs() again.
+ *
+ * Nodes get dense integer ids in the order they are discovered (depth-first, inputs in
+ * declaration order). Input edges go from an object to the objects connected to its inputs,
+ * consumer edges go the other way; both are labelled with the input name.
+ * All traversals are iterative, so deep graphs cannot overflow the stack.
+ */
+public final class BeastObjectGraph {
+
+    /**
+     * An edge between two objects, labelled with the name of the input that connects them
+     */
+    public record Edge(BEASTInterface consumer, String inputName, BEASTInterface input) {
+    }
+
+    private final List<BEASTInterface> nodes;
+    private final Map<BEASTInterface, Integer> nodeIds;
+    private final List<List<Edge>> inputEdges;
+    private final List<List<Edge>> consumerEdges;
+    private final Map<Class<?>, List<BEASTInterface>> nodesByClass;
+
+    // Type buckets for supertypes, computed on demand from the per-class buckets
+    private final Map<Class<?>, List<BEASTInterface>> typeBuckets = new ConcurrentHashMap<>();
+
+    private BeastObjectGraph(List<BEASTInterface> nodes, Map<BEASTInterface, Integer> nodeIds,
+                             List<List<Edge>> inputEdges, List<List<Edge>> consumerEdges,
+                             Map<Class<?>, List<BEASTInterface>> nodesByClass) {
+        this.nodes = nodes;
+        this.nodeIds = nodeIds;
+        this.inputEdges = inputEdges;
+        this.consumerEdges = consumerEdges;
+        this.nodesByClass = nodesByClass;
+    }
+
+    /**
+     * Index all objects reachable from the given roots through their inputs
+     *
+     * @param roots root objects, null entries are ignored
+     */
+    public static BeastObjectGraph build(Collection<? extends BEASTInterface> roots) {
+        List<BEASTInterface> nodes = new ArrayList<>();
+        Map<BEASTInterface, Integer> nodeIds = new IdentityHashMap<>();
+        List<List<Edge>> inputEdges = new ArrayList<>();
+        List<List<Edge>> consumerEdges = new ArrayList<>();
+        Map<Class<?>, List<BEASTInterface>> nodesByClass = new LinkedHashMap<>();
+
+        for (BEASTInterface root : roots) {
+            if (root == null || nodeIds.containsKey(root)) {
+                continue;
+            }
+            Deque<BEASTInterface> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                BEASTInterface obj = stack.pop();
+                if (nodeIds.containsKey(obj)) {
+                    continue;
+                }
+                nodeIds.put(obj, nodes.size());
+                nodes.add(obj);
+                consumerEdges.add(new ArrayList<>());
+                nodesByClass.computeIfAbsent(obj.getClass(), k -> new ArrayList<>()).add(obj);
+
+                List<Edge> edges = getInputEdges(obj);
+                inputEdges.add(edges);
+                // push in reverse so that inputs are visited in declaration order
+                for (int i = edges.size() - 1; i >= 0; i--) {
+                    BEASTInterface input = edges.get(i).input();
+                    if (!nodeIds.containsKey(input)) {
+                        stack.push(input);
+                    }
+                }
+            }
+        }
+
+        // Every input edge is also a consumer edge of its target
+        for (List<Edge> edges : inputEdges) {
+            for (Edge edge : edges) {
+                consumerEdges.get(nodeIds.get(edge.input())).add(edge);
+            }
+        }
+
+        for (int i = 0; i < nodes.size(); i++) {
+            inputEdges.set(i, List.copyOf(inputEdges.get(i)));
+            consumerEdges.set(i, List.copyOf(consumerEdges.get(i)));
+        }
+        nodesByClass.replaceAll((k, v) -> List.copyOf(v));
+
+        return new BeastObjectGraph(Collections.unmodifiableList(nodes), nodeIds,
+                inputEdges, consumerEdges, nodesByClass);
+    }
+
+    private static List<Edge> getInputEdges(BEASTInterface obj) {
+        List<Edge> edges = new ArrayList<>();
+        for (Input<?> input : obj.getInputs().values()) {
+            Object value = input.get();
+            if (value instanceof BEASTInterface beastObj) {
+                edges.add(new Edge(obj, input.getName(), beastObj));
+            } else if (value instanceof List<?> list) {
+                for (Object item : list) {
+                    if (item instanceof BEASTInterface beastObj) {
+                        edges.add(new Edge(obj, input.getName(), beastObj));
+                    }
+                }
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Number of objects in the graph
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * All objects, in discovery order
+     */
+    public List<BEASTInterface> getNodes() {
+        return nodes;
+    }
+
+    public boolean contains(BEASTInterface obj) {
+        return nodeIds.containsKey(obj);
+    }
+
+    /**
+     * Get the node id of an object, or -1 if it is not in the graph
+     */
+    public int getNodeId(BEASTInterface obj) {
+        Integer id = nodeIds.get(obj);
+        return id != null ? id : -1;
+    }
+
+    public BEASTInterface getNode(int nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    /**
+     * Edges from an object to the objects connected to its inputs, in input order
+     */
+    public List<Edge> getInputEdges(BEASTInterface obj) {
+        Integer id = nodeIds.get(obj);
+        return id != null ? inputEdges.get(id) : Collections.emptyList();
+    }
+
+    /**
+     * Edges from the objects that have this object as an input
+     */
+    public List<Edge> getConsumerEdges(BEASTInterface obj) {
+        Integer id = nodeIds.get(obj);
+        return id != null ? consumerEdges.get(id) : Collections.emptyList();
+    }
+
+    /**
+     * Objects connected to the inputs of an object, without duplicates
+     */
+    public List<BEASTInterface> getInputs(BEASTInterface obj) {
+        return distinct(getInputEdges(obj), true);
+    }
+
+    /**
+     * Objects that have this object as an input, without duplicates
+     */
+    public List<BEASTInterface> getConsumers(BEASTInterface obj) {
+        return distinct(getConsumerEdges(obj), false);
+    }
+
+    private static List<BEASTInterface> distinct(List<Edge> edges, boolean inputSide) {
+        List<BEASTInterface> result = new ArrayList<>(edges.size());
+        Set<BEASTInterface> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Edge edge : edges) {
+            BEASTInterface obj = inputSide ? edge.input() : edge.consumer();
+            if (seen.add(obj)) {
+                result.add(obj);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * All objects that are instances of the given type, in discovery order
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getNodesOfType(Class<T> type) {
+        return (List<T>) typeBuckets.computeIfAbsent(type, t -> {
+            List<BEASTInterface> bucket = new ArrayList<>();
+            for (Map.Entry<Class<?>, List<BEASTInterface>> entry : nodesByClass.entrySet()) {
+                if (t.isAssignableFrom(entry.getKey())) {
+                    bucket.addAll(entry.getValue());
+                }
+            }
+            bucket.sort(Comparator.comparingInt(nodeIds::get));
+            return List.copyOf(bucket);
+        });
+    }
+
+    /**
+     * Objects reachable from a root through inputs, in depth-first pre-order (root first)
+     */
+    public List<BEASTInterface> getReachable(BEASTInterface root) {
+        List<BEASTInterface> result = new ArrayList<>();
+        if (root == null || !nodeIds.containsKey(root)) {
+            return result;
+        }
+        BitSet visited = new BitSet(nodes.size());
+        Deque<BEASTInterface> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            BEASTInterface obj = stack.pop();
+            int id = nodeIds.get(obj);
+            if (visited.get(id)) {
+                continue;
+            }
+            visited.set(id);
+            result.add(obj);
+            List<Edge> edges = inputEdges.get(id);
+            for (int i = edges.size() - 1; i >= 0; i--) {
+                BEASTInterface input = edges.get(i).input();
+                if (!visited.get(nodeIds.get(input))) {
+                    stack.push(input);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,28 @@
+package org.beast2.modelLanguage.converter.pipeline;
+
+/**
+ * Parts of the {@link ConversionContext} that phases read and write.
+ * The pipeline runs two phases concurrently only if neither writes a facet the other uses.
+ */
+public enum ContextFacet {
+    /** The input objects (posterior, state, mcmc) and their graph; written when their IDs change */
+    INPUT,
+    /** Object to identifier map, also used through the conversion utilities */
+    IDS,
+    /** Output model and the object to statement map */
+    STATEMENTS,
+    /** Objects found by object identification */
+    PROCESSED_OBJECTS,
+    /** Processed alignments by identifier */
+    ALIGNMENTS,
+    /** Distributions used by state nodes; the statement creator adds to them */
+    USED_DISTRIBUTIONS,
+    /** Distributions inlined into other distributions */
+    INLINED_DISTRIBUTIONS,
+    /** Parameters with a random composition */
+    RANDOM_COMPOSITION,
+    /** The statement creator, which reads IDS and writes USED_DISTRIBUTIONS */
+    STATEMENT_CREATOR,
+    /** Additional metadata */
+    METADATA
+}
@@ -8,13 +8,11 @@ import org.beast2.modelLanguage.beast.BeastObjectFactory;
 import org.beast2.modelLanguage.builder.ModelObjectFactory;
 import org.beast2.modelLanguage.converter.BeastConversionUtilities;
 import org.beast2.modelLanguage.converter.StatementCreator;
+import org.beast2.modelLanguage.converter.UniqueIdentifiers;
 import org.beast2.modelLanguage.model.Beast2Model;
 import org.beast2.modelLanguage.model.Statement;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Shared context for all phases of the conversion pipeline.
@@ -22,13 +20,37 @@ import java.util.Set;
  */
 public class ConversionContext {
 
+    /**
+     * Metadata key for a Map&lt;String, String&gt; from original alignment id to the Nexus file
+     * its sequences were already written to (see StreamingAlignmentExtractor)
+     */
+    public static final String EXTERNAL_ALIGNMENT_FILES = "externalAlignmentFiles";
+
+    /**
+     * Metadata key for the AlignmentFileWriter used for alignments written to Nexus files
+     */
+    public static final String ALIGNMENT_FILE_WRITER = "alignmentFileWriter";
+
+    /**
+     * Metadata key for a Boolean: write all alignments to Nexus files instead of inlining small ones
+     */
+    public static final String EXTERNALIZE_ALIGNMENTS = "externalizeAlignments";
+
     // Input objects
     private final Distribution posterior;
     private final State state;
     private final BEASTInterface mcmc;
 
+    // Index of the object graph reachable from the inputs, shared by all phases
+    private final BeastObjectGraph graph;
+
+    // IDs of the objects as they were in the input, before normalization
+    private final Map<BEASTInterface, String> originalIds = new IdentityHashMap<>();
+
     // Core data structures
     private final Map<BEASTInterface, String> objectToIdMap = new HashMap<>();
+    // Identifiers handed out for the object to id map
+    private final UniqueIdentifiers identifiers = new UniqueIdentifiers();
     private final Map<BEASTInterface, Statement> objectToStatementMap = new HashMap<>();
     private final Set<BEASTInterface> processedObjects = new HashSet<>();
     private final Map<String, Alignment> processedAlignments = new HashMap<>();
@@ -47,11 +69,30 @@ public class ConversionContext {
     // Additional context data
     private final Map<String, Object> metadata = new HashMap<>();
 
+    // Declared facets of the phase running on each pipeline thread
+    private record PhaseAccess(String name, Set<ContextFacet> reads, Set<ContextFacet> writes) {
+    }
+
+    private final ThreadLocal<PhaseAccess> currentPhase = new ThreadLocal<>();
+
     public ConversionContext(Distribution posterior, State state, BEASTInterface mcmc) {
         this.posterior = posterior;
         this.state = state;
         this.mcmc = mcmc;
 
+        List<BEASTInterface> roots = new ArrayList<>();
+        roots.add(posterior);
+        roots.add(mcmc);
+        if (state != null) {
+            roots.addAll(state.stateNodeInput.get());
+        }
+        this.graph = BeastObjectGraph.build(roots);
+        for (BEASTInterface obj : graph.getNodes()) {
+            if (obj.getID() != null) {
+                originalIds.put(obj, obj.getID());
+            }
+        }
+
         // Initialize helper components
         this.objectFactory = new BeastObjectFactory();
         this.conversionUtilities = new BeastConversionUtilities(objectToIdMap);
@@ -60,38 +101,77 @@ public class ConversionContext {
     }
 
     // Getters for input objects
-    public Distribution getPosterior() { return posterior; }
-    public State getState() { return state; }
-    public BEASTInterface getMcmc() { return mcmc; }
+    public Distribution getPosterior() { checkRead(ContextFacet.INPUT); return posterior; }
+    public State getState() { checkRead(ContextFacet.INPUT); return state; }
+    public BEASTInterface getMcmc() { checkRead(ContextFacet.INPUT); return mcmc; }
+    public BeastObjectGraph getGraph() { checkRead(ContextFacet.INPUT); return graph; }
+    public String getOriginalId(BEASTInterface obj) { checkRead(ContextFacet.INPUT); return originalIds.get(obj); }
 
     // Getters for data structures
-    public Map<BEASTInterface, String> getObjectToIdMap() { return objectToIdMap; }
-    public Map<BEASTInterface, Statement> getObjectToStatementMap() { return objectToStatementMap; }
-    public Set<BEASTInterface> getProcessedObjects() { return processedObjects; }
-    public Map<String, Alignment> getProcessedAlignments() { return processedAlignments; }
-    public Set<BEASTInterface> getUsedDistributions() { return usedDistributions; }
-    public Set<BEASTInterface> getInlinedDistributions() { return inlinedDistributions; }
-    public Set<BEASTInterface> getRandomCompositionParameters() { return randomCompositionParameters; }
+    public Map<BEASTInterface, String> getObjectToIdMap() { checkRead(ContextFacet.IDS); return objectToIdMap; }
+    public Map<BEASTInterface, Statement> getObjectToStatementMap() { checkRead(ContextFacet.STATEMENTS); return objectToStatementMap; }
+    public Set<BEASTInterface> getProcessedObjects() { checkRead(ContextFacet.PROCESSED_OBJECTS); return processedObjects; }
+    public Map<String, Alignment> getProcessedAlignments() { checkRead(ContextFacet.ALIGNMENTS); return processedAlignments; }
+    public Set<BEASTInterface> getUsedDistributions() { checkRead(ContextFacet.USED_DISTRIBUTIONS); return usedDistributions; }
+    public Set<BEASTInterface> getInlinedDistributions() { checkRead(ContextFacet.INLINED_DISTRIBUTIONS); return inlinedDistributions; }
+    public Set<BEASTInterface> getRandomCompositionParameters() { checkRead(ContextFacet.RANDOM_COMPOSITION); return randomCompositionParameters; }
 
     // Getters for helper components
     public ModelObjectFactory getObjectFactory() { return objectFactory; }
-    public BeastConversionUtilities getConversionUtilities() { return conversionUtilities; }
-    public StatementCreator getStatementCreator() { return statementCreator; }
+    public BeastConversionUtilities getConversionUtilities() { checkRead(ContextFacet.IDS); return conversionUtilities; }
+    public StatementCreator getStatementCreator() { checkRead(ContextFacet.STATEMENT_CREATOR); return statementCreator; }
 
     // Model access
-    public Beast2Model getModel() { return model; }
+    public Beast2Model getModel() { checkRead(ContextFacet.STATEMENTS); return model; }
 
     // Metadata access for phases to store additional information
-    public void setMetadata(String key, Object value) { metadata.put(key, value); }
-    public Object getMetadata(String key) { return metadata.get(key); }
+    public void setMetadata(String key, Object value) { checkWrite(ContextFacet.METADATA); metadata.put(key, value); }
+    public Object getMetadata(String key) { checkRead(ContextFacet.METADATA); return metadata.get(key); }
     public <T> T getMetadata(String key, Class<T> type) {
+        checkRead(ContextFacet.METADATA);
         return type.cast(metadata.get(key));
     }
 
+    /**
+     * Set the phase running on the current thread, whose declared facets are checked on access
+     * (null when no phase is running, which allows all access)
+     */
+    void setCurrentPhase(ConversionPhase phase) {
+        if (phase == null) {
+            currentPhase.remove();
+        } else {
+            Set<ContextFacet> writes = EnumSet.noneOf(ContextFacet.class);
+            writes.addAll(phase.getWrites());
+            Set<ContextFacet> reads = EnumSet.noneOf(ContextFacet.class);
+            reads.addAll(phase.getReads());
+            reads.addAll(writes);
+            currentPhase.set(new PhaseAccess(phase.getName(), reads, writes));
+        }
+    }
+
+    /**
+     * Fail fast when the running phase uses a facet it did not declare: such a phase
+     * could otherwise run concurrently with one that writes the facet
+     */
+    private void checkRead(ContextFacet facet) {
+        PhaseAccess phase = currentPhase.get();
+        if (phase != null && !phase.reads().contains(facet)) {
+            throw new IllegalStateException("Phase " + phase.name() + " uses undeclared context facet " + facet);
+        }
+    }
+
+    private void checkWrite(ContextFacet facet) {
+        PhaseAccess phase = currentPhase.get();
+        if (phase != null && !phase.writes().contains(facet)) {
+            throw new IllegalStateException("Phase " + phase.name() + " writes undeclared context facet " + facet);
+        }
+    }
+
     /**
      * Update the statement creator (needed after state is set)
      */
     public void updateStatementCreator() {
+        checkWrite(ContextFacet.STATEMENT_CREATOR);
         this.statementCreator = new StatementCreator(objectToIdMap, objectFactory,
                 conversionUtilities, usedDistributions, state);
     }
@@ -100,6 +180,7 @@ public class ConversionContext {
      * Check if an object has been processed
      */
     public boolean isProcessed(BEASTInterface obj) {
+        checkRead(ContextFacet.STATEMENTS);
         return objectToStatementMap.containsKey(obj);
     }
 
@@ -107,6 +188,7 @@ public class ConversionContext {
      * Mark an object as processed with its statement
      */
     public void markProcessed(BEASTInterface obj, Statement statement) {
+        checkWrite(ContextFacet.STATEMENTS);
         objectToStatementMap.put(obj, statement);
         if (statement != null) {
             model.addStatement(statement);
@@ -114,9 +196,11 @@ public class ConversionContext {
     }
 
     /**
-     * Generate a unique identifier for an object
+     * Generate a unique identifier for an object and reserve it.
+     * Callers put the result in the object to id map.
      */
     public String generateIdentifier(BEASTInterface obj) {
+        checkWrite(ContextFacet.IDS);
         String className = obj.getClass().getSimpleName();
         String baseName = className.substring(0, 1).toLowerCase() + className.substring(1);
 
@@ -126,12 +210,14 @@ public class ConversionContext {
             baseName = baseName.replaceAll("[^a-zA-Z0-9_]", "_");
         }
 
-        String uniqueName = baseName;
-        int counter = 1;
-        while (objectToIdMap.containsValue(uniqueName)) {
-            uniqueName = baseName + "_" + counter++;
-        }
+        return identifiers.take(baseName);
+    }
 
-        return uniqueName;
+    /**
+     * Reserve a unique identifier based on a name, with suffixes starting at {@code firstSuffix}
+     */
+    public String uniqueIdentifier(String baseName, int firstSuffix) {
+        checkWrite(ContextFacet.IDS);
+        return identifiers.take(baseName, firstSuffix);
     }
 }
\ No newline at end of file
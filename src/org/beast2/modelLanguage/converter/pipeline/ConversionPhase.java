@@ -1,5 +1,8 @@
 package org.beast2.modelLanguage.converter.pipeline;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Interface for a single phase in the conversion pipeline.
  * Each phase handles a specific aspect of converting BEAST2 to Beast2Lang.
@@ -31,4 +34,20 @@ public interface ConversionPhase {
     default String getDescription() {
         return "";
     }
+
+    /**
+     * Get the context facets this phase reads.
+     * Phases that do not declare their facets are assumed to read and write everything,
+     * so they never run concurrently with other phases.
+     */
+    default Set<ContextFacet> getReads() {
+        return EnumSet.allOf(ContextFacet.class);
+    }
+
+    /**
+     * Get the context facets this phase writes
+     */
+    default Set<ContextFacet> getWrites() {
+        return EnumSet.allOf(ContextFacet.class);
+    }
 }
\ No newline at end of file
@@ -5,67 +5,204 @@ import beast.base.inference.Distribution;
 import beast.base.inference.State;
 import org.beast2.modelLanguage.model.Beast2Model;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Pipeline architecture for converting BEAST2 models to Beast2Lang.
- * Executes a series of phases in order, each handling a specific aspect of the conversion.
+ * Executes a series of phases, each handling a specific aspect of the conversion.
+ * <p>
+ * Phases declare the context facets they read and write. A phase depends on every earlier
+ * phase it conflicts with (one writes a facet the other reads or writes), and phases without
+ * conflicts run concurrently. The result is the same as running them in list order; debug mode
+ * and {@link Builder#serial()} run them strictly in order for comparison.
  */
 public class ConversionPipeline {
     private static final Logger logger = Logger.getLogger(ConversionPipeline.class.getName());
 
     private final List<ConversionPhase> phases;
     private final boolean debugMode;
+    private final boolean serial;
+
+    // For each phase, the earlier phases it has to wait for
+    private final List<List<Integer>> dependencies;
+
+    private final List<PhaseTiming> timings = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Time and memory used by one phase of the last conversion
+     *
+     * @param startNanos     start relative to the start of the conversion
+     * @param allocatedBytes bytes allocated by the thread running the phase, -1 if not supported
+     */
+    public record PhaseTiming(String phase, String thread, long startNanos, long wallNanos, long allocatedBytes) {
+    }
 
     private ConversionPipeline(Builder builder) {
         this.phases = new ArrayList<>(builder.phases);
         this.debugMode = builder.debugMode;
+        this.serial = builder.serial || builder.debugMode;
+        this.dependencies = computeDependencies(phases);
+    }
+
+    private static List<List<Integer>> computeDependencies(List<ConversionPhase> phases) {
+        List<List<Integer>> dependencies = new ArrayList<>();
+        for (int j = 0; j < phases.size(); j++) {
+            Set<ContextFacet> readsJ = phases.get(j).getReads();
+            Set<ContextFacet> writesJ = phases.get(j).getWrites();
+            List<Integer> deps = new ArrayList<>();
+            for (int i = 0; i < j; i++) {
+                Set<ContextFacet> readsI = phases.get(i).getReads();
+                Set<ContextFacet> writesI = phases.get(i).getWrites();
+                if (intersects(writesI, readsJ) || intersects(writesI, writesJ) || intersects(readsI, writesJ)) {
+                    deps.add(i);
+                }
+            }
+            dependencies.add(deps);
+        }
+        return dependencies;
+    }
+
+    private static boolean intersects(Set<ContextFacet> a, Set<ContextFacet> b) {
+        for (ContextFacet facet : a) {
+            if (b.contains(facet)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
      * Execute the conversion pipeline
      */
     public Beast2Model convert(Distribution posterior, State state, BEASTInterface mcmc) {
-        logger.info("Starting conversion pipeline with " + phases.size() + " phases");
+        return convert(posterior, state, mcmc, Collections.emptyMap());
+    }
+
+    /**
+     * Execute the conversion pipeline with initial context metadata
+     * (e.g. {@link ConversionContext#EXTERNAL_ALIGNMENT_FILES})
+     */
+    public Beast2Model convert(Distribution posterior, State state, BEASTInterface mcmc, Map<String, Object> metadata) {
+        logger.info("Starting conversion pipeline with " + phases.size() + " phases" +
+                (serial ? " (serial)" : ""));
 
         // Create the conversion context with all shared state
         ConversionContext context = new ConversionContext(posterior, state, mcmc);
+        metadata.forEach(context::setMetadata);
+
+        timings.clear();
+        long origin = System.nanoTime();
+        if (serial) {
+            for (int i = 0; i < phases.size(); i++) {
+                executePhase(context, i, origin);
+            }
+        } else {
+            executeConcurrently(context, origin);
+        }
+
+        logger.info("Conversion pipeline completed successfully");
+        return context.getModel();
+    }
+
+    /**
+     * Run each phase as soon as the phases it depends on are done
+     */
+    private void executeConcurrently(ConversionContext context, long origin) {
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(phases.size());
 
-        // Execute each phase in order
         for (int i = 0; i < phases.size(); i++) {
-            ConversionPhase phase = phases.get(i);
-            String phaseName = phase.getName();
+            final int index = i;
+            CompletableFuture<?>[] deps = dependencies.get(i).stream()
+                    .map(futures::get)
+                    .toArray(CompletableFuture[]::new);
+            futures.add(CompletableFuture.allOf(deps).thenRunAsync(() -> {
+                // Fail fast: do not start phases once any phase has failed
+                if (failure.get() != null) {
+                    return;
+                }
+                try {
+                    executePhase(context, index, origin);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
 
-            logger.info("Executing phase " + (i + 1) + "/" + phases.size() + ": " + phaseName);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
 
-            try {
-                long startTime = System.currentTimeMillis();
+    private void executePhase(ConversionContext context, int index, long origin) {
+        ConversionPhase phase = phases.get(index);
+        String phaseName = phase.getName();
 
-                phase.execute(context);
+        logger.info("Executing phase " + (index + 1) + "/" + phases.size() + ": " + phaseName);
 
-                long duration = System.currentTimeMillis() - startTime;
-                logger.info("Phase " + phaseName + " completed in " + duration + "ms");
+        context.setCurrentPhase(phase);
+        try {
+            long startAlloc = allocatedBytes();
+            long startTime = System.nanoTime();
 
-                if (debugMode) {
-                    logContextState(context, phaseName);
-                }
+            phase.execute(context);
 
-                // Validate context after each phase if in debug mode
-                if (debugMode) {
-                    validateContext(context, phaseName);
-                }
+            long duration = System.nanoTime() - startTime;
+            long allocated = startAlloc < 0 ? -1 : allocatedBytes() - startAlloc;
+            timings.add(new PhaseTiming(phaseName, Thread.currentThread().getName(),
+                    startTime - origin, duration, allocated));
+            logger.info(String.format("Phase %s completed in %.3f ms%s", phaseName, duration / 1e6,
+                    allocated < 0 ? "" : String.format(", allocated %.1f KB", allocated / 1024.0)));
+
+            if (debugMode) {
+                logContextState(context, phaseName);
+            }
 
-            } catch (Exception e) {
-                logger.log(Level.SEVERE, "Error in phase " + phaseName, e);
-                throw new ConversionException("Conversion failed in phase: " + phaseName, e);
+            // Validate context after each phase if in debug mode
+            if (debugMode) {
+                validateContext(context, phaseName);
             }
+
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error in phase " + phaseName, e);
+            throw new ConversionException("Conversion failed in phase: " + phaseName, e);
+        } finally {
+            context.setCurrentPhase(null);
         }
+    }
 
-        logger.info("Conversion pipeline completed successfully");
-        return context.getModel();
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Get the timings of the phases of the last conversion, in order of completion
+     */
+    public List<PhaseTiming> getPhaseTimings() {
+        synchronized (timings) {
+            return new ArrayList<>(timings);
+        }
+    }
+
+    /**
+     * Get the indices of the earlier phases a phase waits for
+     */
+    public List<Integer> getDependencies(int phaseIndex) {
+        return Collections.unmodifiableList(dependencies.get(phaseIndex));
     }
 
     /**
@@ -93,6 +230,7 @@ public class ConversionPipeline {
     public static class Builder {
         private final List<ConversionPhase> phases = new ArrayList<>();
         private boolean debugMode = false;
+        private boolean serial = false;
 
         public Builder addPhase(ConversionPhase phase) {
             phases.add(phase);
@@ -104,6 +242,14 @@ public class ConversionPipeline {
             return this;
         }
 
+        /**
+         * Run all phases in order on the calling thread
+         */
+        public Builder serial() {
+            this.serial = true;
+            return this;
+        }
+
         public ConversionPipeline build() {
             if (phases.isEmpty()) {
                 throw new IllegalStateException("Pipeline must have at least one phase");
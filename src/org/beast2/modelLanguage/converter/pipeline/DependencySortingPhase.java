@@ -2,6 +2,8 @@ package org.beast2.modelLanguage.converter.pipeline;
 
 import org.beast2.modelLanguage.converter.StatementSorter;
 
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -10,6 +12,9 @@ import java.util.logging.Logger;
 public class DependencySortingPhase implements ConversionPhase {
     private static final Logger logger = Logger.getLogger(DependencySortingPhase.class.getName());
 
+    // Metadata key for the dependency cycles found, a List<List<String>> of statement ids
+    public static final String DEPENDENCY_CYCLES = "dependencyCycles";
+
     @Override
     public void execute(ConversionContext context) {
         logger.info("Sorting statements based on dependencies...");
@@ -19,6 +24,11 @@ public class DependencySortingPhase implements ConversionPhase {
         StatementSorter sorter = new StatementSorter();
         sorter.sortStatements(context.getModel());
 
+        if (!sorter.getCycles().isEmpty()) {
+            context.setMetadata(DEPENDENCY_CYCLES, sorter.getCycles());
+            logger.warning("Statements with circular dependencies: " + sorter.getCycles());
+        }
+
         int afterCount = context.getModel().getStatements().size();
 
         if (beforeCount != afterCount) {
@@ -28,6 +38,17 @@ public class DependencySortingPhase implements ConversionPhase {
         logger.info("Statements sorted successfully");
     }
 
+
+    @Override
+    public Set<ContextFacet> getReads() {
+        return EnumSet.of(ContextFacet.STATEMENTS);
+    }
+
+    @Override
+    public Set<ContextFacet> getWrites() {
+        return EnumSet.of(ContextFacet.STATEMENTS, ContextFacet.METADATA);
+    }
+
     @Override
     public String getName() {
         return "Dependency Sorting";
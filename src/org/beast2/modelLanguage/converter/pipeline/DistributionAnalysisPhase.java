@@ -6,6 +6,8 @@ import beast.base.inference.Distribution;
 import beast.base.inference.StateNode;
 import beast.base.inference.distribution.Prior;
 
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -32,8 +34,9 @@ public class DistributionAnalysisPhase implements ConversionPhase {
         context.getUsedDistributions().clear();
 
         for (StateNode node : context.getState().stateNodeInput.get()) {
-            for (BEASTInterface obj : context.getObjectToIdMap().keySet()) {
-                if (context.getObjectFactory().isDistribution(obj)) {
+            // Only objects that have the state node as an input can use it as their primary input
+            for (BEASTInterface obj : context.getGraph().getConsumers(node)) {
+                if (context.getObjectToIdMap().containsKey(obj) && context.getObjectFactory().isDistribution(obj)) {
                     Distribution dist = (Distribution) obj;
                     String primaryInputName = context.getObjectFactory().getPrimaryInputName(dist);
 
@@ -76,6 +79,17 @@ public class DistributionAnalysisPhase implements ConversionPhase {
         }
     }
 
+
+    @Override
+    public Set<ContextFacet> getReads() {
+        return EnumSet.of(ContextFacet.INPUT, ContextFacet.IDS);
+    }
+
+    @Override
+    public Set<ContextFacet> getWrites() {
+        return EnumSet.of(ContextFacet.USED_DISTRIBUTIONS, ContextFacet.INLINED_DISTRIBUTIONS);
+    }
+
     @Override
     public String getName() {
         return "Distribution Analysis";
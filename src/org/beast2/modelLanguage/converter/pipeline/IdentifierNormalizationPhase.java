@@ -1,7 +1,12 @@
 package org.beast2.modelLanguage.converter.pipeline;
 
+import beast.base.core.BEASTInterface;
 import org.beast2.modelLanguage.converter.BeastIdentifierNormaliser;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -14,13 +19,16 @@ public class IdentifierNormalizationPhase implements ConversionPhase {
     public void execute(ConversionContext context) {
         logger.info("Normalizing identifiers...");
 
-        BeastIdentifierNormaliser normalizer = new BeastIdentifierNormaliser();
-        normalizer.normaliseIdentifiers(context.getPosterior(), context.getState());
-
-        // Also normalize MCMC identifiers if provided
-        if (context.getMcmc() != null) {
-            normalizer.normaliseIdentifiers(context.getMcmc(), context.getState());
+        // One traversal over the posterior, the state nodes and the MCMC (if provided)
+        List<BEASTInterface> roots = new ArrayList<>();
+        roots.add(context.getPosterior());
+        if (context.getState() != null) {
+            roots.addAll(context.getState().stateNodeInput.get());
         }
+        roots.add(context.getMcmc());
+
+        BeastIdentifierNormaliser normalizer = new BeastIdentifierNormaliser();
+        normalizer.normaliseIdentifiers(roots);
 
         logger.info("Identifier normalization completed");
 
@@ -28,6 +36,17 @@ public class IdentifierNormalizationPhase implements ConversionPhase {
         context.updateStatementCreator();
     }
 
+
+    @Override
+    public Set<ContextFacet> getReads() {
+        return EnumSet.of(ContextFacet.INPUT);
+    }
+
+    @Override
+    public Set<ContextFacet> getWrites() {
+        return EnumSet.of(ContextFacet.INPUT, ContextFacet.STATEMENT_CREATOR);
+    }
+
     @Override
     public String getName() {
         return "Identifier Normalization";
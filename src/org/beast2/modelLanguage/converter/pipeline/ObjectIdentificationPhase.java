@@ -1,10 +1,10 @@
 package org.beast2.modelLanguage.converter.pipeline;
 
 import beast.base.core.BEASTInterface;
-import beast.base.core.Input;
 import beast.base.inference.StateNode;
 
-import java.util.List;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -29,33 +29,29 @@ public class ObjectIdentificationPhase implements ConversionPhase {
         logger.info("Identified " + context.getObjectToIdMap().size() + " objects");
     }
 
-    private void processObjectGraph(BEASTInterface obj, ConversionContext context) {
-        if (obj == null || context.getProcessedObjects().contains(obj)) {
-            return;
+    private void processObjectGraph(BEASTInterface root, ConversionContext context) {
+        for (BEASTInterface obj : context.getGraph().getReachable(root)) {
+            if (!context.getProcessedObjects().add(obj)) {
+                continue;
+            }
+
+            // Generate identifier if not already present
+            if (!context.getObjectToIdMap().containsKey(obj)) {
+                String id = context.generateIdentifier(obj);
+                context.getObjectToIdMap().put(obj, id);
+            }
         }
+    }
 
-        context.getProcessedObjects().add(obj);
 
-        // Generate identifier if not already present
-        if (!context.getObjectToIdMap().containsKey(obj)) {
-            String id = context.generateIdentifier(obj);
-            context.getObjectToIdMap().put(obj, id);
-        }
+    @Override
+    public Set<ContextFacet> getReads() {
+        return EnumSet.of(ContextFacet.INPUT);
+    }
 
-        // Recursively process all inputs
-        for (Input<?> input : obj.getInputs().values()) {
-            if (input.get() != null) {
-                if (input.get() instanceof BEASTInterface) {
-                    processObjectGraph((BEASTInterface) input.get(), context);
-                } else if (input.get() instanceof List) {
-                    for (Object item : (List<?>) input.get()) {
-                        if (item instanceof BEASTInterface) {
-                            processObjectGraph((BEASTInterface) item, context);
-                        }
-                    }
-                }
-            }
-        }
+    @Override
+    public Set<ContextFacet> getWrites() {
+        return EnumSet.of(ContextFacet.IDS, ContextFacet.PROCESSED_OBJECTS);
     }
 
     @Override
@@ -1,13 +1,14 @@
 package org.beast2.modelLanguage.converter.pipeline;
 
-import beast.base.core.BEASTInterface;
 import beast.base.evolution.alignment.Alignment;
 import beast.base.evolution.likelihood.TreeLikelihood;
 import org.beast2.modelLanguage.model.*;
 
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -22,8 +23,8 @@ public class ObservedAlignmentPhase implements ConversionPhase {
 
         int observedCount = 0;
 
-        for (BEASTInterface obj : context.getObjectToIdMap().keySet()) {
-            if (obj instanceof TreeLikelihood likelihood) {
+        for (TreeLikelihood likelihood : context.getGraph().getNodesOfType(TreeLikelihood.class)) {
+            if (context.getObjectToIdMap().containsKey(likelihood)) {
                 Alignment data = likelihood.dataInput.get();
                 if (data != null && context.getProcessedAlignments().containsKey(context.getObjectToIdMap().get(data))) {
                     String alignmentId = "alignment_" + context.getObjectToIdMap().get(data);
@@ -46,6 +47,17 @@ public class ObservedAlignmentPhase implements ConversionPhase {
         logger.info("Created " + observedCount + " observed alignment statements");
     }
 
+
+    @Override
+    public Set<ContextFacet> getReads() {
+        return EnumSet.of(ContextFacet.INPUT, ContextFacet.IDS, ContextFacet.ALIGNMENTS, ContextFacet.STATEMENT_CREATOR);
+    }
+
+    @Override
+    public Set<ContextFacet> getWrites() {
+        return EnumSet.of(ContextFacet.STATEMENTS, ContextFacet.USED_DISTRIBUTIONS);
+    }
+
     @Override
     public String getName() {
         return "Observed Alignment Processing";
@@ -4,10 +4,7 @@ import beast.base.core.BEASTInterface;
 import beast.base.core.Input;
 import beast.base.inference.parameter.IntegerParameter;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.logging.Logger;
 
 /**
@@ -22,9 +19,13 @@ public class RandomCompositionDetectionPhase implements ConversionPhase {
 
         context.getRandomCompositionParameters().clear();
 
+        // Objects reachable from MCMC, i.e. the operators that can be interrogated
+        Set<BEASTInterface> mcmcObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+        mcmcObjects.addAll(context.getGraph().getReachable(context.getMcmc()));
+
         for (BEASTInterface obj : context.getObjectToIdMap().keySet()) {
             // Pass MCMC context for operator interrogation
-            if (requiresRandomCompositionPrior(obj, context.getMcmc())) {
+            if (requiresRandomCompositionPrior(obj, context.getGraph(), mcmcObjects)) {
                 context.getRandomCompositionParameters().add(obj);
                 logger.info("Identified RandomComposition parameter: " + obj.getID());
             }
@@ -38,7 +39,8 @@ public class RandomCompositionDetectionPhase implements ConversionPhase {
      * Check if this parameter requires a RandomComposition prior
      * Detection based on: (a) IntegerParameter and (b) only operated on by DeltaExchange operators
      */
-    private boolean requiresRandomCompositionPrior(BEASTInterface obj, BEASTInterface mcmc) {
+    private boolean requiresRandomCompositionPrior(BEASTInterface obj, BeastObjectGraph graph,
+                                                   Set<BEASTInterface> mcmcObjects) {
         if (!(obj instanceof IntegerParameter)) {
             return false;
         }
@@ -49,7 +51,7 @@ public class RandomCompositionDetectionPhase implements ConversionPhase {
         logger.info("Checking IntegerParameter: " + paramId + " for RandomComposition requirement");
 
         // Find operators that operate on this parameter
-        List<BEASTInterface> operatorsOnParam = findOperatorsForParameterInMCMC(param, mcmc);
+        List<BEASTInterface> operatorsOnParam = findOperatorsForParameterInMCMC(param, graph, mcmcObjects);
 
         if (operatorsOnParam.isEmpty()) {
             logger.info("No operators found for " + paramId + " - not a RandomComposition candidate");
@@ -77,57 +79,19 @@ public class RandomCompositionDetectionPhase implements ConversionPhase {
     }
 
     /**
-     * Find operators in MCMC that operate on the given parameter
+     * Find operators in MCMC that operate on the given parameter, i.e. operators
+     * reachable from MCMC that have the parameter as an input
      */
-    private List<BEASTInterface> findOperatorsForParameterInMCMC(IntegerParameter param, BEASTInterface mcmc) {
+    private List<BEASTInterface> findOperatorsForParameterInMCMC(IntegerParameter param, BeastObjectGraph graph,
+                                                                 Set<BEASTInterface> mcmcObjects) {
         List<BEASTInterface> operators = new ArrayList<>();
-        findOperatorsRecursively(param, mcmc, operators, new HashSet<>());
-        return operators;
-    }
-
-    /**
-     * Recursively search for operators that reference the parameter
-     */
-    private void findOperatorsRecursively(IntegerParameter param, BEASTInterface obj,
-                                          List<BEASTInterface> operators, Set<BEASTInterface> visited) {
-        if (obj == null || visited.contains(obj)) {
-            return;
-        }
-        visited.add(obj);
-
-        // Check if this object is an operator that references our parameter
-        if (obj instanceof beast.base.inference.Operator && operatorReferencesParameter(obj, param)) {
-            operators.add(obj);
-            logger.info("Found operator " + obj.getClass().getSimpleName() + " operating on " + param.getID());
-        }
-
-        // Recursively check all inputs
-        for (Input<?> input : obj.getInputs().values()) {
-            if (input.get() != null) {
-                if (input.get() instanceof BEASTInterface) {
-                    findOperatorsRecursively(param, (BEASTInterface) input.get(), operators, visited);
-                } else if (input.get() instanceof List) {
-                    for (Object item : (List<?>) input.get()) {
-                        if (item instanceof BEASTInterface) {
-                            findOperatorsRecursively(param, (BEASTInterface) item, operators, visited);
-                        }
-                    }
-                }
-            }
-        }
-    }
-
-    /**
-     * Check if an operator references the given parameter
-     */
-    private boolean operatorReferencesParameter(BEASTInterface operator, IntegerParameter param) {
-        for (Input<?> input : operator.getInputs().values()) {
-            Object value = input.get();
-            if (value == param || (value instanceof List && ((List<?>) value).contains(param))) {
-                return true;
+        for (BEASTInterface consumer : graph.getConsumers(param)) {
+            if (consumer instanceof beast.base.inference.Operator && mcmcObjects.contains(consumer)) {
+                operators.add(consumer);
+                logger.info("Found operator " + consumer.getClass().getSimpleName() + " operating on " + param.getID());
             }
         }
-        return false;
+        return operators;
     }
 
     /**
@@ -215,6 +179,17 @@ public class RandomCompositionDetectionPhase implements ConversionPhase {
         return false;
     }
 
+
+    @Override
+    public Set<ContextFacet> getReads() {
+        return EnumSet.of(ContextFacet.INPUT, ContextFacet.IDS);
+    }
+
+    @Override
+    public Set<ContextFacet> getWrites() {
+        return EnumSet.of(ContextFacet.RANDOM_COMPOSITION);
+    }
+
     @Override
     public String getName() {
         return "RandomComposition Detection";
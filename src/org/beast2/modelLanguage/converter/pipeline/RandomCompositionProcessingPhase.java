@@ -5,7 +5,9 @@ import beast.base.inference.parameter.IntegerParameter;
 import org.beast2.modelLanguage.model.*;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -80,6 +82,17 @@ public class RandomCompositionProcessingPhase implements ConversionPhase {
         return sum;
     }
 
+
+    @Override
+    public Set<ContextFacet> getReads() {
+        return EnumSet.of(ContextFacet.IDS, ContextFacet.RANDOM_COMPOSITION);
+    }
+
+    @Override
+    public Set<ContextFacet> getWrites() {
+        return EnumSet.of(ContextFacet.STATEMENTS, ContextFacet.USED_DISTRIBUTIONS);
+    }
+
     @Override
     public String getName() {
         return "RandomComposition Processing";
@@ -1,7 +1,6 @@
 package org.beast2.modelLanguage.converter.pipeline;
 
 import beast.base.core.BEASTInterface;
-import beast.base.core.Input;
 import beast.base.evolution.alignment.Sequence;
 import beast.base.evolution.alignment.TaxonSet;
 import beast.base.evolution.likelihood.TreeLikelihood;
@@ -11,7 +10,7 @@ import beast.base.inference.parameter.RealParameter;
 import org.beast2.modelLanguage.model.ImportStatement;
 import org.beast2.modelLanguage.model.Statement;
 
-import java.util.List;
+import java.util.*;
 import java.util.logging.Logger;
 
 /**
@@ -36,39 +35,44 @@ public class RemainingObjectsPhase implements ConversionPhase {
         logger.info("Processed " + processedCount + " remaining objects");
     }
 
-    private void processObject(BEASTInterface obj, ConversionContext context) {
-        if (context.isProcessed(obj)) {
-            return;
-        }
+    /**
+     * Create the statement for an object after those of its dependencies (depth-first post-order,
+     * iterative so deep graphs cannot overflow the stack)
+     */
+    private void processObject(BEASTInterface root, ConversionContext context) {
+        Set<BEASTInterface> onStack = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<BEASTInterface> stack = new ArrayDeque<>();
+        Deque<Iterator<BEASTInterface>> dependencies = new ArrayDeque<>();
+        stack.push(root);
+        dependencies.push(context.getGraph().getInputs(root).iterator());
+        onStack.add(root);
+
+        while (!stack.isEmpty()) {
+            Iterator<BEASTInterface> it = dependencies.peek();
+            if (it.hasNext()) {
+                BEASTInterface dependency = it.next();
+                if (!onStack.contains(dependency) && !context.isProcessed(dependency)
+                        && shouldCreateStatement(dependency, context)) {
+                    stack.push(dependency);
+                    dependencies.push(context.getGraph().getInputs(dependency).iterator());
+                    onStack.add(dependency);
+                }
+                continue;
+            }
 
-        // Process dependencies first
-        processDependencies(obj, context);
+            BEASTInterface obj = stack.pop();
+            dependencies.pop();
+            onStack.remove(obj);
+            if (context.isProcessed(obj)) {
+                continue;
+            }
 
-        // Create statement
-        Statement statement = context.getStatementCreator().createStatement(obj);
-        context.markProcessed(obj, statement);
+            // Create statement
+            Statement statement = context.getStatementCreator().createStatement(obj);
+            context.markProcessed(obj, statement);
 
-        // Ensure the class is imported
-        addImportForClass(obj.getClass(), context);
-    }
-
-    private void processDependencies(BEASTInterface obj, ConversionContext context) {
-        for (Input<?> input : obj.getInputs().values()) {
-            if (input.get() != null) {
-                if (input.get() instanceof BEASTInterface dependency) {
-                    if (shouldCreateStatement(dependency, context) && !context.isProcessed(dependency)) {
-                        processObject(dependency, context);
-                    }
-                } else if (input.get() instanceof List) {
-                    for (Object item : (List<?>) input.get()) {
-                        if (item instanceof BEASTInterface dependency) {
-                            if (shouldCreateStatement(dependency, context) && !context.isProcessed(dependency)) {
-                                processObject(dependency, context);
-                            }
-                        }
-                    }
-                }
-            }
+            // Ensure the class is imported
+            addImportForClass(obj.getClass(), context);
         }
     }
 
@@ -90,8 +94,8 @@ public class RemainingObjectsPhase implements ConversionPhase {
 
         // Skip individual Taxon objects that are part of TaxonSets
         if (obj instanceof beast.base.evolution.alignment.Taxon) {
-            for (BEASTInterface other : context.getObjectToIdMap().keySet()) {
-                if (other instanceof TaxonSet) {
+            for (BEASTInterface other : context.getGraph().getConsumers(obj)) {
+                if (other instanceof TaxonSet && context.getObjectToIdMap().containsKey(other)) {
                     TaxonSet taxonSet = (TaxonSet) other;
                     List<beast.base.evolution.alignment.Taxon> taxa = taxonSet.taxonsetInput.get();
                     if (taxa != null && taxa.contains(obj)) {
@@ -136,8 +140,8 @@ public class RemainingObjectsPhase implements ConversionPhase {
             }
         }
 
-        for (BEASTInterface other : context.getObjectToIdMap().keySet()) {
-            if (other instanceof Prior prior) {
+        for (BEASTInterface other : context.getGraph().getConsumers(obj)) {
+            if (other instanceof Prior prior && context.getObjectToIdMap().containsKey(other)) {
                 if (prior.m_x.get() == obj) {
                     return false;
                 }
@@ -160,6 +164,17 @@ public class RemainingObjectsPhase implements ConversionPhase {
         context.getModel().addImport(importStmt);
     }
 
+
+    @Override
+    public Set<ContextFacet> getReads() {
+        return EnumSet.of(ContextFacet.INPUT, ContextFacet.RANDOM_COMPOSITION, ContextFacet.INLINED_DISTRIBUTIONS, ContextFacet.STATEMENT_CREATOR);
+    }
+
+    @Override
+    public Set<ContextFacet> getWrites() {
+        return EnumSet.of(ContextFacet.IDS, ContextFacet.STATEMENTS, ContextFacet.USED_DISTRIBUTIONS);
+    }
+
     @Override
     public String getName() {
         return "Remaining Objects Processing";
@@ -5,8 +5,10 @@ import beast.base.inference.StateNode;
 import org.beast2.modelLanguage.converter.BeastConversionUtilities;
 import org.beast2.modelLanguage.model.Statement;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -71,6 +73,17 @@ public class StateNodeProcessingPhase implements ConversionPhase {
                 processedWithoutDistributions + " without distributions");
     }
 
+
+    @Override
+    public Set<ContextFacet> getReads() {
+        return EnumSet.of(ContextFacet.INPUT, ContextFacet.RANDOM_COMPOSITION, ContextFacet.STATEMENT_CREATOR);
+    }
+
+    @Override
+    public Set<ContextFacet> getWrites() {
+        return EnumSet.of(ContextFacet.IDS, ContextFacet.STATEMENTS, ContextFacet.USED_DISTRIBUTIONS);
+    }
+
     @Override
     public String getName() {
         return "State Node Processing";
@@ -53,10 +53,11 @@ distributionAssignment
     : className identifier TILDE expression SEMICOLON
     ;
 
+// The built-in functions come first, so that nexus(...) and alignment(...) are not class names
 expression
-    : functionCall                  # FunctionCallExpr
-    | nexusFunction                 # NexusFunctionExpr
+    : nexusFunction                 # NexusFunctionExpr
     | alignmentFunction             # AlignmentFunctionExpr
+    | functionCall                  # FunctionCallExpr
     | mapExpression                 # MapExpr
     | identifier                    # IdentifierExpr
     | literal                       # LiteralExpr
@@ -120,8 +121,11 @@ qualifiedName
     : identifier (DOT identifier)*
     ;
 
+// Keywords of the built-in functions are also names, e.g. in beast.base.evolution.alignment
 identifier
     : IDENTIFIER
+    | NEXUS
+    | ALIGNMENT
     ;
 
 literal
@@ -159,37 +159,37 @@ public class Beast2ModelLanguageBaseListener implements Beast2ModelLanguageListe
 	 *
 	 * <p>The default implementation does nothing.</p>
 	 */
-	@Override public void enterFunctionCallExpr(Beast2ModelLanguageParser.FunctionCallExprContext ctx) { }
+	@Override public void enterNexusFunctionExpr(Beast2ModelLanguageParser.NexusFunctionExprContext ctx) { }
 	/**
 	 * {@inheritDoc}
 	 *
 	 * <p>The default implementation does nothing.</p>
 	 */
-	@Override public void exitFunctionCallExpr(Beast2ModelLanguageParser.FunctionCallExprContext ctx) { }
+	@Override public void exitNexusFunctionExpr(Beast2ModelLanguageParser.NexusFunctionExprContext ctx) { }
 	/**
 	 * {@inheritDoc}
 	 *
 	 * <p>The default implementation does nothing.</p>
 	 */
-	@Override public void enterNexusFunctionExpr(Beast2ModelLanguageParser.NexusFunctionExprContext ctx) { }
+	@Override public void enterAlignmentFunctionExpr(Beast2ModelLanguageParser.AlignmentFunctionExprContext ctx) { }
 	/**
 	 * {@inheritDoc}
 	 *
 	 * <p>The default implementation does nothing.</p>
 	 */
-	@Override public void exitNexusFunctionExpr(Beast2ModelLanguageParser.NexusFunctionExprContext ctx) { }
+	@Override public void exitAlignmentFunctionExpr(Beast2ModelLanguageParser.AlignmentFunctionExprContext ctx) { }
 	/**
 	 * {@inheritDoc}
 	 *
 	 * <p>The default implementation does nothing.</p>
 	 */
-	@Override public void enterAlignmentFunctionExpr(Beast2ModelLanguageParser.AlignmentFunctionExprContext ctx) { }
+	@Override public void enterFunctionCallExpr(Beast2ModelLanguageParser.FunctionCallExprContext ctx) { }
 	/**
 	 * {@inheritDoc}
 	 *
 	 * <p>The default implementation does nothing.</p>
 	 */
-	@Override public void exitAlignmentFunctionExpr(Beast2ModelLanguageParser.AlignmentFunctionExprContext ctx) { }
+	@Override public void exitFunctionCallExpr(Beast2ModelLanguageParser.FunctionCallExprContext ctx) { }
 	/**
 	 * {@inheritDoc}
 	 *
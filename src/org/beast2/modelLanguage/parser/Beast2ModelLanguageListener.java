@@ -126,18 +126,6 @@ public interface Beast2ModelLanguageListener extends ParseTreeListener {
 	 * @param ctx the parse tree
 	 */
 	void exitDistributionAssignment(Beast2ModelLanguageParser.DistributionAssignmentContext ctx);
-	/**
-	 * Enter a parse tree produced by the {@code FunctionCallExpr}
-	 * labeled alternative in {@link Beast2ModelLanguageParser#expression}.
-	 * @param ctx the parse tree
-	 */
-	void enterFunctionCallExpr(Beast2ModelLanguageParser.FunctionCallExprContext ctx);
-	/**
-	 * Exit a parse tree produced by the {@code FunctionCallExpr}
-	 * labeled alternative in {@link Beast2ModelLanguageParser#expression}.
-	 * @param ctx the parse tree
-	 */
-	void exitFunctionCallExpr(Beast2ModelLanguageParser.FunctionCallExprContext ctx);
 	/**
 	 * Enter a parse tree produced by the {@code NexusFunctionExpr}
 	 * labeled alternative in {@link Beast2ModelLanguageParser#expression}.
@@ -162,6 +150,18 @@ public interface Beast2ModelLanguageListener extends ParseTreeListener {
 	 * @param ctx the parse tree
 	 */
 	void exitAlignmentFunctionExpr(Beast2ModelLanguageParser.AlignmentFunctionExprContext ctx);
+	/**
+	 * Enter a parse tree produced by the {@code FunctionCallExpr}
+	 * labeled alternative in {@link Beast2ModelLanguageParser#expression}.
+	 * @param ctx the parse tree
+	 */
+	void enterFunctionCallExpr(Beast2ModelLanguageParser.FunctionCallExprContext ctx);
+	/**
+	 * Exit a parse tree produced by the {@code FunctionCallExpr}
+	 * labeled alternative in {@link Beast2ModelLanguageParser#expression}.
+	 * @param ctx the parse tree
+	 */
+	void exitFunctionCallExpr(Beast2ModelLanguageParser.FunctionCallExprContext ctx);
 	/**
 	 * Enter a parse tree produced by the {@code MapExpr}
 	 * labeled alternative in {@link Beast2ModelLanguageParser#expression}.
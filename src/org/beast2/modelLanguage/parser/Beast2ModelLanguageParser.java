@@ -195,7 +195,7 @@ public class Beast2ModelLanguageParser extends Parser {
 				setState(66); 
 				_errHandler.sync(this);
 				_la = _input.LA(1);
-			} while ( _la==AT || _la==IDENTIFIER );
+			} while ( (((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << AT) | (1L << NEXUS) | (1L << ALIGNMENT) | (1L << IDENTIFIER))) != 0) );
 			setState(68);
 			match(EOF);
 			}
@@ -852,32 +852,32 @@ public class Beast2ModelLanguageParser extends Parser {
 			if ( listener instanceof Beast2ModelLanguageListener ) ((Beast2ModelLanguageListener)listener).exitMapExpr(this);
 		}
 	}
-	public static class FunctionCallExprContext extends ExpressionContext {
-		public FunctionCallContext functionCall() {
-			return getRuleContext(FunctionCallContext.class,0);
+	public static class NexusFunctionExprContext extends ExpressionContext {
+		public NexusFunctionContext nexusFunction() {
+			return getRuleContext(NexusFunctionContext.class,0);
 		}
-		public FunctionCallExprContext(ExpressionContext ctx) { copyFrom(ctx); }
+		public NexusFunctionExprContext(ExpressionContext ctx) { copyFrom(ctx); }
 		@Override
 		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof Beast2ModelLanguageListener ) ((Beast2ModelLanguageListener)listener).enterFunctionCallExpr(this);
+			if ( listener instanceof Beast2ModelLanguageListener ) ((Beast2ModelLanguageListener)listener).enterNexusFunctionExpr(this);
 		}
 		@Override
 		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof Beast2ModelLanguageListener ) ((Beast2ModelLanguageListener)listener).exitFunctionCallExpr(this);
+			if ( listener instanceof Beast2ModelLanguageListener ) ((Beast2ModelLanguageListener)listener).exitNexusFunctionExpr(this);
 		}
 	}
-	public static class NexusFunctionExprContext extends ExpressionContext {
-		public NexusFunctionContext nexusFunction() {
-			return getRuleContext(NexusFunctionContext.class,0);
+	public static class FunctionCallExprContext extends ExpressionContext {
+		public FunctionCallContext functionCall() {
+			return getRuleContext(FunctionCallContext.class,0);
 		}
-		public NexusFunctionExprContext(ExpressionContext ctx) { copyFrom(ctx); }
+		public FunctionCallExprContext(ExpressionContext ctx) { copyFrom(ctx); }
 		@Override
 		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof Beast2ModelLanguageListener ) ((Beast2ModelLanguageListener)listener).enterNexusFunctionExpr(this);
+			if ( listener instanceof Beast2ModelLanguageListener ) ((Beast2ModelLanguageListener)listener).enterFunctionCallExpr(this);
 		}
 		@Override
 		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof Beast2ModelLanguageListener ) ((Beast2ModelLanguageListener)listener).exitNexusFunctionExpr(this);
+			if ( listener instanceof Beast2ModelLanguageListener ) ((Beast2ModelLanguageListener)listener).exitFunctionCallExpr(this);
 		}
 	}
 	public static class AlignmentFunctionExprContext extends ExpressionContext {
@@ -945,27 +945,27 @@ public class Beast2ModelLanguageParser extends Parser {
 			_errHandler.sync(this);
 			switch ( getInterpreter().adaptivePredict(_input,10,_ctx) ) {
 			case 1:
-				_localctx = new FunctionCallExprContext(_localctx);
+				_localctx = new NexusFunctionExprContext(_localctx);
 				enterOuterAlt(_localctx, 1);
 				{
 				setState(141);
-				functionCall();
+				nexusFunction();
 				}
 				break;
 			case 2:
-				_localctx = new NexusFunctionExprContext(_localctx);
+				_localctx = new AlignmentFunctionExprContext(_localctx);
 				enterOuterAlt(_localctx, 2);
 				{
 				setState(142);
-				nexusFunction();
+				alignmentFunction();
 				}
 				break;
 			case 3:
-				_localctx = new AlignmentFunctionExprContext(_localctx);
+				_localctx = new FunctionCallExprContext(_localctx);
 				enterOuterAlt(_localctx, 3);
 				{
 				setState(143);
-				alignmentFunction();
+				functionCall();
 				}
 				break;
 			case 4:
@@ -1050,7 +1050,7 @@ public class Beast2ModelLanguageParser extends Parser {
 			setState(153);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
-			if (_la==IDENTIFIER) {
+			if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << NEXUS) | (1L << ALIGNMENT) | (1L << IDENTIFIER))) != 0)) {
 				{
 				setState(152);
 				argumentList();
@@ -1107,7 +1107,7 @@ public class Beast2ModelLanguageParser extends Parser {
 			setState(160);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
-			if (_la==IDENTIFIER) {
+			if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << NEXUS) | (1L << ALIGNMENT) | (1L << IDENTIFIER))) != 0)) {
 				{
 				setState(159);
 				argumentList();
@@ -1164,7 +1164,7 @@ public class Beast2ModelLanguageParser extends Parser {
 			setState(167);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
-			if (_la==IDENTIFIER) {
+			if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << NEXUS) | (1L << ALIGNMENT) | (1L << IDENTIFIER))) != 0)) {
 				{
 				setState(166);
 				argumentList();
@@ -1594,7 +1594,7 @@ public class Beast2ModelLanguageParser extends Parser {
 			setState(224);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
-			if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << BOOLEAN_LITERAL) | (1L << IDENTIFIER) | (1L << INTEGER_LITERAL) | (1L << FLOAT_LITERAL) | (1L << STRING_LITERAL))) != 0)) {
+			if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << NEXUS) | (1L << ALIGNMENT) | (1L << BOOLEAN_LITERAL) | (1L << IDENTIFIER) | (1L << INTEGER_LITERAL) | (1L << FLOAT_LITERAL) | (1L << STRING_LITERAL))) != 0)) {
 				{
 				setState(216);
 				arrayElement();
@@ -1828,6 +1828,8 @@ public class Beast2ModelLanguageParser extends Parser {
 
 	public static class IdentifierContext extends ParserRuleContext {
 		public TerminalNode IDENTIFIER() { return getToken(Beast2ModelLanguageParser.IDENTIFIER, 0); }
+		public TerminalNode NEXUS() { return getToken(Beast2ModelLanguageParser.NEXUS, 0); }
+		public TerminalNode ALIGNMENT() { return getToken(Beast2ModelLanguageParser.ALIGNMENT, 0); }
 		public IdentifierContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -1845,11 +1847,20 @@ public class Beast2ModelLanguageParser extends Parser {
 	public final IdentifierContext identifier() throws RecognitionException {
 		IdentifierContext _localctx = new IdentifierContext(_ctx, getState());
 		enterRule(_localctx, 52, RULE_identifier);
+		int _la;
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
 			setState(249);
-			match(IDENTIFIER);
+			_la = _input.LA(1);
+			if ( !((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << NEXUS) | (1L << ALIGNMENT) | (1L << IDENTIFIER))) != 0)) ) {
+			_errHandler.recoverInline(this);
+			}
+			else {
+				if ( _input.LA(1)==Token.EOF ) matchedEOF = true;
+				_errHandler.reportMatch(this);
+				consume();
+			}
 			}
 		}
 		catch (RecognitionException re) {
@@ -1953,120 +1964,120 @@ public class Beast2ModelLanguageParser extends Parser {
 		"\u0005\u0019\u00f5\b\u0019\n\u0019\f\u0019\u00f8\t\u0019\u0001\u001a\u0001"+
 		"\u001a\u0001\u001b\u0001\u001b\u0001\u001b\u0000\u0000\u001c\u0000\u0002"+
 		"\u0004\u0006\b\n\f\u000e\u0010\u0012\u0014\u0016\u0018\u001a\u001c\u001e"+
-		" \"$&(*,.0246\u0000\u0001\u0002\u0000\u0013\u0013\u0015\u0017\u0100\u0000"+
-		"<\u0001\u0000\u0000\u0000\u0002F\u0001\u0000\u0000\u0000\u0004J\u0001"+
-		"\u0000\u0000\u0000\u0006N\u0001\u0000\u0000\u0000\bS\u0001\u0000\u0000"+
-		"\u0000\ni\u0001\u0000\u0000\u0000\fk\u0001\u0000\u0000\u0000\u000ep\u0001"+
-		"\u0000\u0000\u0000\u0010r\u0001\u0000\u0000\u0000\u0012}\u0001\u0000\u0000"+
-		"\u0000\u0014\u0081\u0001\u0000\u0000\u0000\u0016\u0087\u0001\u0000\u0000"+
-		"\u0000\u0018\u0094\u0001\u0000\u0000\u0000\u001a\u0096\u0001\u0000\u0000"+
-		"\u0000\u001c\u009d\u0001\u0000\u0000\u0000\u001e\u00a4\u0001\u0000\u0000"+
-		"\u0000 \u00b8\u0001\u0000\u0000\u0000\"\u00ba\u0001\u0000\u0000\u0000"+
-		"$\u00be\u0001\u0000\u0000\u0000&\u00c6\u0001\u0000\u0000\u0000(\u00ca"+
-		"\u0001\u0000\u0000\u0000*\u00d5\u0001\u0000\u0000\u0000,\u00d7\u0001\u0000"+
-		"\u0000\u0000.\u00e7\u0001\u0000\u0000\u00000\u00e9\u0001\u0000\u0000\u0000"+
-		"2\u00f1\u0001\u0000\u0000\u00004\u00f9\u0001\u0000\u0000\u00006\u00fb"+
-		"\u0001\u0000\u0000\u00008;\u0003\u0002\u0001\u00009;\u0003\u0004\u0002"+
-		"\u0000:8\u0001\u0000\u0000\u0000:9\u0001\u0000\u0000\u0000;>\u0001\u0000"+
-		"\u0000\u0000<:\u0001\u0000\u0000\u0000<=\u0001\u0000\u0000\u0000=@\u0001"+
-		"\u0000\u0000\u0000><\u0001\u0000\u0000\u0000?A\u0003\n\u0005\u0000@?\u0001"+
-		"\u0000\u0000\u0000AB\u0001\u0000\u0000\u0000B@\u0001\u0000\u0000\u0000"+
-		"BC\u0001\u0000\u0000\u0000CD\u0001\u0000\u0000\u0000DE\u0005\u0000\u0000"+
-		"\u0001E\u0001\u0001\u0000\u0000\u0000FG\u0005\u000f\u0000\u0000GH\u0003"+
-		"\u0006\u0003\u0000HI\u0005\u0003\u0000\u0000I\u0003\u0001\u0000\u0000"+
-		"\u0000JK\u0005\u0010\u0000\u0000KL\u0003\b\u0004\u0000LM\u0005\u0003\u0000"+
-		"\u0000M\u0005\u0001\u0000\u0000\u0000NQ\u00032\u0019\u0000OP\u0005\u000b"+
-		"\u0000\u0000PR\u0005\r\u0000\u0000QO\u0001\u0000\u0000\u0000QR\u0001\u0000"+
-		"\u0000\u0000R\u0007\u0001\u0000\u0000\u0000SX\u0005\u0014\u0000\u0000"+
-		"TU\u0005\u000b\u0000\u0000UW\u0005\u0014\u0000\u0000VT\u0001\u0000\u0000"+
-		"\u0000WZ\u0001\u0000\u0000\u0000XV\u0001\u0000\u0000\u0000XY\u0001\u0000"+
-		"\u0000\u0000Y\t\u0001\u0000\u0000\u0000ZX\u0001\u0000\u0000\u0000[]\u0003"+
-		"\f\u0006\u0000\\[\u0001\u0000\u0000\u0000]`\u0001\u0000\u0000\u0000^\\"+
-		"\u0001\u0000\u0000\u0000^_\u0001\u0000\u0000\u0000_a\u0001\u0000\u0000"+
-		"\u0000`^\u0001\u0000\u0000\u0000aj\u0003\u0014\n\u0000bd\u0003\f\u0006"+
-		"\u0000cb\u0001\u0000\u0000\u0000dg\u0001\u0000\u0000\u0000ec\u0001\u0000"+
-		"\u0000\u0000ef\u0001\u0000\u0000\u0000fh\u0001\u0000\u0000\u0000ge\u0001"+
-		"\u0000\u0000\u0000hj\u0003\u0016\u000b\u0000i^\u0001\u0000\u0000\u0000"+
-		"ie\u0001\u0000\u0000\u0000j\u000b\u0001\u0000\u0000\u0000kl\u0005\f\u0000"+
-		"\u0000ln\u0003\u000e\u0007\u0000mo\u0003\u0010\b\u0000nm\u0001\u0000\u0000"+
-		"\u0000no\u0001\u0000\u0000\u0000o\r\u0001\u0000\u0000\u0000pq\u00034\u001a"+
-		"\u0000q\u000f\u0001\u0000\u0000\u0000rs\u0005\u0005\u0000\u0000sx\u0003"+
-		"\u0012\t\u0000tu\u0005\u0004\u0000\u0000uw\u0003\u0012\t\u0000vt\u0001"+
-		"\u0000\u0000\u0000wz\u0001\u0000\u0000\u0000xv\u0001\u0000\u0000\u0000"+
-		"xy\u0001\u0000\u0000\u0000y{\u0001\u0000\u0000\u0000zx\u0001\u0000\u0000"+
-		"\u0000{|\u0005\u0006\u0000\u0000|\u0011\u0001\u0000\u0000\u0000}~\u0003"+
-		"4\u001a\u0000~\u007f\u0005\u0002\u0000\u0000\u007f\u0080\u0003\u0018\f"+
-		"\u0000\u0080\u0013\u0001\u0000\u0000\u0000\u0081\u0082\u00030\u0018\u0000"+
-		"\u0082\u0083\u00034\u001a\u0000\u0083\u0084\u0005\u0002\u0000\u0000\u0084"+
-		"\u0085\u0003\u0018\f\u0000\u0085\u0086\u0005\u0003\u0000\u0000\u0086\u0015"+
-		"\u0001\u0000\u0000\u0000\u0087\u0088\u00030\u0018\u0000\u0088\u0089\u0003"+
-		"4\u001a\u0000\u0089\u008a\u0005\u0001\u0000\u0000\u008a\u008b\u0003\u0018"+
-		"\f\u0000\u008b\u008c\u0005\u0003\u0000\u0000\u008c\u0017\u0001\u0000\u0000"+
-		"\u0000\u008d\u0095\u0003\u001a\r\u0000\u008e\u0095\u0003\u001c\u000e\u0000"+
-		"\u008f\u0095\u0003\u001e\u000f\u0000\u0090\u0095\u0003 \u0010\u0000\u0091"+
-		"\u0095\u00034\u001a\u0000\u0092\u0095\u00036\u001b\u0000\u0093\u0095\u0003"+
-		",\u0016\u0000\u0094\u008d\u0001\u0000\u0000\u0000\u0094\u008e\u0001\u0000"+
-		"\u0000\u0000\u0094\u008f\u0001\u0000\u0000\u0000\u0094\u0090\u0001\u0000"+
-		"\u0000\u0000\u0094\u0091\u0001\u0000\u0000\u0000\u0094\u0092\u0001\u0000"+
-		"\u0000\u0000\u0094\u0093\u0001\u0000\u0000\u0000\u0095\u0019\u0001\u0000"+
-		"\u0000\u0000\u0096\u0097\u00030\u0018\u0000\u0097\u0099\u0005\u0005\u0000"+
-		"\u0000\u0098\u009a\u0003$\u0012\u0000\u0099\u0098\u0001\u0000\u0000\u0000"+
-		"\u0099\u009a\u0001\u0000\u0000\u0000\u009a\u009b\u0001\u0000\u0000\u0000"+
-		"\u009b\u009c\u0005\u0006\u0000\u0000\u009c\u001b\u0001\u0000\u0000\u0000"+
-		"\u009d\u009e\u0005\u0011\u0000\u0000\u009e\u00a0\u0005\u0005\u0000\u0000"+
-		"\u009f\u00a1\u0003$\u0012\u0000\u00a0\u009f\u0001\u0000\u0000\u0000\u00a0"+
-		"\u00a1\u0001\u0000\u0000\u0000\u00a1\u00a2\u0001\u0000\u0000\u0000\u00a2"+
-		"\u00a3\u0005\u0006\u0000\u0000\u00a3\u001d\u0001\u0000\u0000\u0000\u00a4"+
-		"\u00a5\u0005\u0012\u0000\u0000\u00a5\u00a7\u0005\u0005\u0000\u0000\u00a6"+
-		"\u00a8\u0003$\u0012\u0000\u00a7\u00a6\u0001\u0000\u0000\u0000\u00a7\u00a8"+
-		"\u0001\u0000\u0000\u0000\u00a8\u00a9\u0001\u0000\u0000\u0000\u00a9\u00aa"+
-		"\u0005\u0006\u0000\u0000\u00aa\u001f\u0001\u0000\u0000\u0000\u00ab\u00ac"+
-		"\u0005\u0007\u0000\u0000\u00ac\u00b1\u0003\"\u0011\u0000\u00ad\u00ae\u0005"+
-		"\u0004\u0000\u0000\u00ae\u00b0\u0003\"\u0011\u0000\u00af\u00ad\u0001\u0000"+
-		"\u0000\u0000\u00b0\u00b3\u0001\u0000\u0000\u0000\u00b1\u00af\u0001\u0000"+
-		"\u0000\u0000\u00b1\u00b2\u0001\u0000\u0000\u0000\u00b2\u00b4\u0001\u0000"+
-		"\u0000\u0000\u00b3\u00b1\u0001\u0000\u0000\u0000\u00b4\u00b5\u0005\b\u0000"+
-		"\u0000\u00b5\u00b9\u0001\u0000\u0000\u0000\u00b6\u00b7\u0005\u0007\u0000"+
-		"\u0000\u00b7\u00b9\u0005\b\u0000\u0000\u00b8\u00ab\u0001\u0000\u0000\u0000"+
-		"\u00b8\u00b6\u0001\u0000\u0000\u0000\u00b9!\u0001\u0000\u0000\u0000\u00ba"+
-		"\u00bb\u00034\u001a\u0000\u00bb\u00bc\u0005\u000e\u0000\u0000\u00bc\u00bd"+
-		"\u0003\u0018\f\u0000\u00bd#\u0001\u0000\u0000\u0000\u00be\u00c3\u0003"+
-		"&\u0013\u0000\u00bf\u00c0\u0005\u0004\u0000\u0000\u00c0\u00c2\u0003&\u0013"+
-		"\u0000\u00c1\u00bf\u0001\u0000\u0000\u0000\u00c2\u00c5\u0001\u0000\u0000"+
-		"\u0000\u00c3\u00c1\u0001\u0000\u0000\u0000\u00c3\u00c4\u0001\u0000\u0000"+
-		"\u0000\u00c4%\u0001\u0000\u0000\u0000\u00c5\u00c3\u0001\u0000\u0000\u0000"+
-		"\u00c6\u00c7\u0003(\u0014\u0000\u00c7\u00c8\u0005\u0002\u0000\u0000\u00c8"+
-		"\u00c9\u0003*\u0015\u0000\u00c9\'\u0001\u0000\u0000\u0000\u00ca\u00cf"+
-		"\u00034\u001a\u0000\u00cb\u00cc\u0005\u000b\u0000\u0000\u00cc\u00ce\u0003"+
-		"4\u001a\u0000\u00cd\u00cb\u0001\u0000\u0000\u0000\u00ce\u00d1\u0001\u0000"+
-		"\u0000\u0000\u00cf\u00cd\u0001\u0000\u0000\u0000\u00cf\u00d0\u0001\u0000"+
-		"\u0000\u0000\u00d0)\u0001\u0000\u0000\u0000\u00d1\u00cf\u0001\u0000\u0000"+
-		"\u0000\u00d2\u00d6\u0003\u0018\f\u0000\u00d3\u00d6\u00036\u001b\u0000"+
-		"\u00d4\u00d6\u0003,\u0016\u0000\u00d5\u00d2\u0001\u0000\u0000\u0000\u00d5"+
-		"\u00d3\u0001\u0000\u0000\u0000\u00d5\u00d4\u0001\u0000\u0000\u0000\u00d6"+
-		"+\u0001\u0000\u0000\u0000\u00d7\u00e0\u0005\t\u0000\u0000\u00d8\u00dd"+
-		"\u0003.\u0017\u0000\u00d9\u00da\u0005\u0004\u0000\u0000\u00da\u00dc\u0003"+
-		".\u0017\u0000\u00db\u00d9\u0001\u0000\u0000\u0000\u00dc\u00df\u0001\u0000"+
-		"\u0000\u0000\u00dd\u00db\u0001\u0000\u0000\u0000\u00dd\u00de\u0001\u0000"+
-		"\u0000\u0000\u00de\u00e1\u0001\u0000\u0000\u0000\u00df\u00dd\u0001\u0000"+
-		"\u0000\u0000\u00e0\u00d8\u0001\u0000\u0000\u0000\u00e0\u00e1\u0001\u0000"+
-		"\u0000\u0000\u00e1\u00e2\u0001\u0000\u0000\u0000\u00e2\u00e3\u0005\n\u0000"+
-		"\u0000\u00e3-\u0001\u0000\u0000\u0000\u00e4\u00e8\u00036\u001b\u0000\u00e5"+
-		"\u00e8\u00034\u001a\u0000\u00e6\u00e8\u0003\u001a\r\u0000\u00e7\u00e4"+
-		"\u0001\u0000\u0000\u0000\u00e7\u00e5\u0001\u0000\u0000\u0000\u00e7\u00e6"+
-		"\u0001\u0000\u0000\u0000\u00e8/\u0001\u0000\u0000\u0000\u00e9\u00ee\u0003"+
-		"2\u0019\u0000\u00ea\u00eb\u0005\t\u0000\u0000\u00eb\u00ed\u0005\n\u0000"+
-		"\u0000\u00ec\u00ea\u0001\u0000\u0000\u0000\u00ed\u00f0\u0001\u0000\u0000"+
-		"\u0000\u00ee\u00ec\u0001\u0000\u0000\u0000\u00ee\u00ef\u0001\u0000\u0000"+
-		"\u0000\u00ef1\u0001\u0000\u0000\u0000\u00f0\u00ee\u0001\u0000\u0000\u0000"+
-		"\u00f1\u00f6\u00034\u001a\u0000\u00f2\u00f3\u0005\u000b\u0000\u0000\u00f3"+
-		"\u00f5\u00034\u001a\u0000\u00f4\u00f2\u0001\u0000\u0000\u0000\u00f5\u00f8"+
-		"\u0001\u0000\u0000\u0000\u00f6\u00f4\u0001\u0000\u0000\u0000\u00f6\u00f7"+
-		"\u0001\u0000\u0000\u0000\u00f73\u0001\u0000\u0000\u0000\u00f8\u00f6\u0001"+
-		"\u0000\u0000\u0000\u00f9\u00fa\u0005\u0014\u0000\u0000\u00fa5\u0001\u0000"+
-		"\u0000\u0000\u00fb\u00fc\u0007\u0000\u0000\u0000\u00fc7\u0001\u0000\u0000"+
-		"\u0000\u0018:<BQX^einx\u0094\u0099\u00a0\u00a7\u00b1\u00b8\u00c3\u00cf"+
-		"\u00d5\u00dd\u00e0\u00e7\u00ee\u00f6";
+		" \"$&(*,.0246\u0000\u0002\u0002\u0000\u0011\u0012\u0014\u0014\u0002\u0000"+
+		"\u0013\u0013\u0015\u0017\u0100\u0000<\u0001\u0000\u0000\u0000\u0002F\u0001"+
+		"\u0000\u0000\u0000\u0004J\u0001\u0000\u0000\u0000\u0006N\u0001\u0000\u0000"+
+		"\u0000\bS\u0001\u0000\u0000\u0000\ni\u0001\u0000\u0000\u0000\fk\u0001"+
+		"\u0000\u0000\u0000\u000ep\u0001\u0000\u0000\u0000\u0010r\u0001\u0000\u0000"+
+		"\u0000\u0012}\u0001\u0000\u0000\u0000\u0014\u0081\u0001\u0000\u0000\u0000"+
+		"\u0016\u0087\u0001\u0000\u0000\u0000\u0018\u0094\u0001\u0000\u0000\u0000"+
+		"\u001a\u0096\u0001\u0000\u0000\u0000\u001c\u009d\u0001\u0000\u0000\u0000"+
+		"\u001e\u00a4\u0001\u0000\u0000\u0000 \u00b8\u0001\u0000\u0000\u0000\""+
+		"\u00ba\u0001\u0000\u0000\u0000$\u00be\u0001\u0000\u0000\u0000&\u00c6\u0001"+
+		"\u0000\u0000\u0000(\u00ca\u0001\u0000\u0000\u0000*\u00d5\u0001\u0000\u0000"+
+		"\u0000,\u00d7\u0001\u0000\u0000\u0000.\u00e7\u0001\u0000\u0000\u00000"+
+		"\u00e9\u0001\u0000\u0000\u00002\u00f1\u0001\u0000\u0000\u00004\u00f9\u0001"+
+		"\u0000\u0000\u00006\u00fb\u0001\u0000\u0000\u00008;\u0003\u0002\u0001"+
+		"\u00009;\u0003\u0004\u0002\u0000:8\u0001\u0000\u0000\u0000:9\u0001\u0000"+
+		"\u0000\u0000;>\u0001\u0000\u0000\u0000<:\u0001\u0000\u0000\u0000<=\u0001"+
+		"\u0000\u0000\u0000=@\u0001\u0000\u0000\u0000><\u0001\u0000\u0000\u0000"+
+		"?A\u0003\n\u0005\u0000@?\u0001\u0000\u0000\u0000AB\u0001\u0000\u0000\u0000"+
+		"B@\u0001\u0000\u0000\u0000BC\u0001\u0000\u0000\u0000CD\u0001\u0000\u0000"+
+		"\u0000DE\u0005\u0000\u0000\u0001E\u0001\u0001\u0000\u0000\u0000FG\u0005"+
+		"\u000f\u0000\u0000GH\u0003\u0006\u0003\u0000HI\u0005\u0003\u0000\u0000"+
+		"I\u0003\u0001\u0000\u0000\u0000JK\u0005\u0010\u0000\u0000KL\u0003\b\u0004"+
+		"\u0000LM\u0005\u0003\u0000\u0000M\u0005\u0001\u0000\u0000\u0000NQ\u0003"+
+		"2\u0019\u0000OP\u0005\u000b\u0000\u0000PR\u0005\r\u0000\u0000QO\u0001"+
+		"\u0000\u0000\u0000QR\u0001\u0000\u0000\u0000R\u0007\u0001\u0000\u0000"+
+		"\u0000SX\u0005\u0014\u0000\u0000TU\u0005\u000b\u0000\u0000UW\u0005\u0014"+
+		"\u0000\u0000VT\u0001\u0000\u0000\u0000WZ\u0001\u0000\u0000\u0000XV\u0001"+
+		"\u0000\u0000\u0000XY\u0001\u0000\u0000\u0000Y\t\u0001\u0000\u0000\u0000"+
+		"ZX\u0001\u0000\u0000\u0000[]\u0003\f\u0006\u0000\\[\u0001\u0000\u0000"+
+		"\u0000]`\u0001\u0000\u0000\u0000^\\\u0001\u0000\u0000\u0000^_\u0001\u0000"+
+		"\u0000\u0000_a\u0001\u0000\u0000\u0000`^\u0001\u0000\u0000\u0000aj\u0003"+
+		"\u0014\n\u0000bd\u0003\f\u0006\u0000cb\u0001\u0000\u0000\u0000dg\u0001"+
+		"\u0000\u0000\u0000ec\u0001\u0000\u0000\u0000ef\u0001\u0000\u0000\u0000"+
+		"fh\u0001\u0000\u0000\u0000ge\u0001\u0000\u0000\u0000hj\u0003\u0016\u000b"+
+		"\u0000i^\u0001\u0000\u0000\u0000ie\u0001\u0000\u0000\u0000j\u000b\u0001"+
+		"\u0000\u0000\u0000kl\u0005\f\u0000\u0000ln\u0003\u000e\u0007\u0000mo\u0003"+
+		"\u0010\b\u0000nm\u0001\u0000\u0000\u0000no\u0001\u0000\u0000\u0000o\r"+
+		"\u0001\u0000\u0000\u0000pq\u00034\u001a\u0000q\u000f\u0001\u0000\u0000"+
+		"\u0000rs\u0005\u0005\u0000\u0000sx\u0003\u0012\t\u0000tu\u0005\u0004\u0000"+
+		"\u0000uw\u0003\u0012\t\u0000vt\u0001\u0000\u0000\u0000wz\u0001\u0000\u0000"+
+		"\u0000xv\u0001\u0000\u0000\u0000xy\u0001\u0000\u0000\u0000y{\u0001\u0000"+
+		"\u0000\u0000zx\u0001\u0000\u0000\u0000{|\u0005\u0006\u0000\u0000|\u0011"+
+		"\u0001\u0000\u0000\u0000}~\u00034\u001a\u0000~\u007f\u0005\u0002\u0000"+
+		"\u0000\u007f\u0080\u0003\u0018\f\u0000\u0080\u0013\u0001\u0000\u0000\u0000"+
+		"\u0081\u0082\u00030\u0018\u0000\u0082\u0083\u00034\u001a\u0000\u0083\u0084"+
+		"\u0005\u0002\u0000\u0000\u0084\u0085\u0003\u0018\f\u0000\u0085\u0086\u0005"+
+		"\u0003\u0000\u0000\u0086\u0015\u0001\u0000\u0000\u0000\u0087\u0088\u0003"+
+		"0\u0018\u0000\u0088\u0089\u00034\u001a\u0000\u0089\u008a\u0005\u0001\u0000"+
+		"\u0000\u008a\u008b\u0003\u0018\f\u0000\u008b\u008c\u0005\u0003\u0000\u0000"+
+		"\u008c\u0017\u0001\u0000\u0000\u0000\u008d\u0095\u0003\u001c\u000e\u0000"+
+		"\u008e\u0095\u0003\u001e\u000f\u0000\u008f\u0095\u0003\u001a\r\u0000\u0090"+
+		"\u0095\u0003 \u0010\u0000\u0091\u0095\u00034\u001a\u0000\u0092\u0095\u0003"+
+		"6\u001b\u0000\u0093\u0095\u0003,\u0016\u0000\u0094\u008d\u0001\u0000\u0000"+
+		"\u0000\u0094\u008e\u0001\u0000\u0000\u0000\u0094\u008f\u0001\u0000\u0000"+
+		"\u0000\u0094\u0090\u0001\u0000\u0000\u0000\u0094\u0091\u0001\u0000\u0000"+
+		"\u0000\u0094\u0092\u0001\u0000\u0000\u0000\u0094\u0093\u0001\u0000\u0000"+
+		"\u0000\u0095\u0019\u0001\u0000\u0000\u0000\u0096\u0097\u00030\u0018\u0000"+
+		"\u0097\u0099\u0005\u0005\u0000\u0000\u0098\u009a\u0003$\u0012\u0000\u0099"+
+		"\u0098\u0001\u0000\u0000\u0000\u0099\u009a\u0001\u0000\u0000\u0000\u009a"+
+		"\u009b\u0001\u0000\u0000\u0000\u009b\u009c\u0005\u0006\u0000\u0000\u009c"+
+		"\u001b\u0001\u0000\u0000\u0000\u009d\u009e\u0005\u0011\u0000\u0000\u009e"+
+		"\u00a0\u0005\u0005\u0000\u0000\u009f\u00a1\u0003$\u0012\u0000\u00a0\u009f"+
+		"\u0001\u0000\u0000\u0000\u00a0\u00a1\u0001\u0000\u0000\u0000\u00a1\u00a2"+
+		"\u0001\u0000\u0000\u0000\u00a2\u00a3\u0005\u0006\u0000\u0000\u00a3\u001d"+
+		"\u0001\u0000\u0000\u0000\u00a4\u00a5\u0005\u0012\u0000\u0000\u00a5\u00a7"+
+		"\u0005\u0005\u0000\u0000\u00a6\u00a8\u0003$\u0012\u0000\u00a7\u00a6\u0001"+
+		"\u0000\u0000\u0000\u00a7\u00a8\u0001\u0000\u0000\u0000\u00a8\u00a9\u0001"+
+		"\u0000\u0000\u0000\u00a9\u00aa\u0005\u0006\u0000\u0000\u00aa\u001f\u0001"+
+		"\u0000\u0000\u0000\u00ab\u00ac\u0005\u0007\u0000\u0000\u00ac\u00b1\u0003"+
+		"\"\u0011\u0000\u00ad\u00ae\u0005\u0004\u0000\u0000\u00ae\u00b0\u0003\""+
+		"\u0011\u0000\u00af\u00ad\u0001\u0000\u0000\u0000\u00b0\u00b3\u0001\u0000"+
+		"\u0000\u0000\u00b1\u00af\u0001\u0000\u0000\u0000\u00b1\u00b2\u0001\u0000"+
+		"\u0000\u0000\u00b2\u00b4\u0001\u0000\u0000\u0000\u00b3\u00b1\u0001\u0000"+
+		"\u0000\u0000\u00b4\u00b5\u0005\b\u0000\u0000\u00b5\u00b9\u0001\u0000\u0000"+
+		"\u0000\u00b6\u00b7\u0005\u0007\u0000\u0000\u00b7\u00b9\u0005\b\u0000\u0000"+
+		"\u00b8\u00ab\u0001\u0000\u0000\u0000\u00b8\u00b6\u0001\u0000\u0000\u0000"+
+		"\u00b9!\u0001\u0000\u0000\u0000\u00ba\u00bb\u00034\u001a\u0000\u00bb\u00bc"+
+		"\u0005\u000e\u0000\u0000\u00bc\u00bd\u0003\u0018\f\u0000\u00bd#\u0001"+
+		"\u0000\u0000\u0000\u00be\u00c3\u0003&\u0013\u0000\u00bf\u00c0\u0005\u0004"+
+		"\u0000\u0000\u00c0\u00c2\u0003&\u0013\u0000\u00c1\u00bf\u0001\u0000\u0000"+
+		"\u0000\u00c2\u00c5\u0001\u0000\u0000\u0000\u00c3\u00c1\u0001\u0000\u0000"+
+		"\u0000\u00c3\u00c4\u0001\u0000\u0000\u0000\u00c4%\u0001\u0000\u0000\u0000"+
+		"\u00c5\u00c3\u0001\u0000\u0000\u0000\u00c6\u00c7\u0003(\u0014\u0000\u00c7"+
+		"\u00c8\u0005\u0002\u0000\u0000\u00c8\u00c9\u0003*\u0015\u0000\u00c9\'"+
+		"\u0001\u0000\u0000\u0000\u00ca\u00cf\u00034\u001a\u0000\u00cb\u00cc\u0005"+
+		"\u000b\u0000\u0000\u00cc\u00ce\u00034\u001a\u0000\u00cd\u00cb\u0001\u0000"+
+		"\u0000\u0000\u00ce\u00d1\u0001\u0000\u0000\u0000\u00cf\u00cd\u0001\u0000"+
+		"\u0000\u0000\u00cf\u00d0\u0001\u0000\u0000\u0000\u00d0)\u0001\u0000\u0000"+
+		"\u0000\u00d1\u00cf\u0001\u0000\u0000\u0000\u00d2\u00d6\u0003\u0018\f\u0000"+
+		"\u00d3\u00d6\u00036\u001b\u0000\u00d4\u00d6\u0003,\u0016\u0000\u00d5\u00d2"+
+		"\u0001\u0000\u0000\u0000\u00d5\u00d3\u0001\u0000\u0000\u0000\u00d5\u00d4"+
+		"\u0001\u0000\u0000\u0000\u00d6+\u0001\u0000\u0000\u0000\u00d7\u00e0\u0005"+
+		"\t\u0000\u0000\u00d8\u00dd\u0003.\u0017\u0000\u00d9\u00da\u0005\u0004"+
+		"\u0000\u0000\u00da\u00dc\u0003.\u0017\u0000\u00db\u00d9\u0001\u0000\u0000"+
+		"\u0000\u00dc\u00df\u0001\u0000\u0000\u0000\u00dd\u00db\u0001\u0000\u0000"+
+		"\u0000\u00dd\u00de\u0001\u0000\u0000\u0000\u00de\u00e1\u0001\u0000\u0000"+
+		"\u0000\u00df\u00dd\u0001\u0000\u0000\u0000\u00e0\u00d8\u0001\u0000\u0000"+
+		"\u0000\u00e0\u00e1\u0001\u0000\u0000\u0000\u00e1\u00e2\u0001\u0000\u0000"+
+		"\u0000\u00e2\u00e3\u0005\n\u0000\u0000\u00e3-\u0001\u0000\u0000\u0000"+
+		"\u00e4\u00e8\u00036\u001b\u0000\u00e5\u00e8\u00034\u001a\u0000\u00e6\u00e8"+
+		"\u0003\u001a\r\u0000\u00e7\u00e4\u0001\u0000\u0000\u0000\u00e7\u00e5\u0001"+
+		"\u0000\u0000\u0000\u00e7\u00e6\u0001\u0000\u0000\u0000\u00e8/\u0001\u0000"+
+		"\u0000\u0000\u00e9\u00ee\u00032\u0019\u0000\u00ea\u00eb\u0005\t\u0000"+
+		"\u0000\u00eb\u00ed\u0005\n\u0000\u0000\u00ec\u00ea\u0001\u0000\u0000\u0000"+
+		"\u00ed\u00f0\u0001\u0000\u0000\u0000\u00ee\u00ec\u0001\u0000\u0000\u0000"+
+		"\u00ee\u00ef\u0001\u0000\u0000\u0000\u00ef1\u0001\u0000\u0000\u0000\u00f0"+
+		"\u00ee\u0001\u0000\u0000\u0000\u00f1\u00f6\u00034\u001a\u0000\u00f2\u00f3"+
+		"\u0005\u000b\u0000\u0000\u00f3\u00f5\u00034\u001a\u0000\u00f4\u00f2\u0001"+
+		"\u0000\u0000\u0000\u00f5\u00f8\u0001\u0000\u0000\u0000\u00f6\u00f4\u0001"+
+		"\u0000\u0000\u0000\u00f6\u00f7\u0001\u0000\u0000\u0000\u00f73\u0001\u0000"+
+		"\u0000\u0000\u00f8\u00f6\u0001\u0000\u0000\u0000\u00f9\u00fa\u0007\u0000"+
+		"\u0000\u0000\u00fa5\u0001\u0000\u0000\u0000\u00fb\u00fc\u0007\u0001\u0000"+
+		"\u0000\u00fc7\u0001\u0000\u0000\u0000\u0018:<BQX^einx\u0094\u0099\u00a0"+
+		"\u00a7\u00b1\u00b8\u00c3\u00cf\u00d5\u00dd\u00e0\u00e7\u00ee\u00f6";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
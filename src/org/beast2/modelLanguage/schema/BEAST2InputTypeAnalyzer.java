@@ -8,7 +8,10 @@ import beast.pkgmgmt.Package;
 import org.beast2.modelLanguage.beast.BEASTUtils;
 import org.beast2.modelLanguage.beast.BeastObjectFactory;
 import org.beast2.modelLanguage.schema.core.ComponentInfo;
+import org.beast2.modelLanguage.schema.core.ComponentInstantiator;
 import org.beast2.modelLanguage.schema.core.KnownTypes;
+import org.beast2.modelLanguage.schema.core.StaticInputReader;
+import org.beast2.modelLanguage.schema.scanner.ComponentCatalog;
 import org.beast2.modelLanguage.schema.scanner.ComponentFilter;
 import org.beast2.modelLanguage.schema.scanner.ComponentScanner;
 
@@ -17,6 +20,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.time.Duration;
 import java.util.*;
 import java.util.logging.Logger;
 
@@ -30,6 +34,8 @@ public class BEAST2InputTypeAnalyzer {
     private final BeastObjectFactory factory;
     private final ComponentFilter filter;
     private final ComponentScanner scanner;
+    private final ComponentCatalog catalog;
+    private final StaticInputReader inputReader = new StaticInputReader();
 
     // Store results
     private final Map<String, List<InputInfo>> realParameterInputs = new TreeMap<>();
@@ -42,9 +48,19 @@ public class BEAST2InputTypeAnalyzer {
     private int failedInstantiations = 0;
 
     public BEAST2InputTypeAnalyzer() {
+        this(ComponentInstantiator.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @param instantiationTimeout time after which a constructor is given up on; the catalog
+     *                             entries of the schema generator are only shared if it uses the same
+     */
+    public BEAST2InputTypeAnalyzer(Duration instantiationTimeout) {
         this.factory = new BeastObjectFactory();
-        this.filter = new ComponentFilter();
+        this.filter = new ComponentFilter(new ComponentInstantiator(instantiationTimeout));
+        this.filter.setInputReader(inputReader);
         this.scanner = new ComponentScanner(factory, filter);
+        this.catalog = new ComponentCatalog(ComponentCatalog.getDefaultDirectory(), scanner, factory);
     }
 
     /**
@@ -88,6 +104,7 @@ public class BEAST2InputTypeAnalyzer {
         logger.info("Analysis complete. Analyzed " + totalClassesAnalyzed + " classes.");
         logger.info("Found " + totalRealParameterInputs + " Input<RealParameter> instances");
         logger.info("Found " + totalFunctionInputs + " Input<Function> instances");
+        logger.info("Read the inputs of " + inputReader.getReadCount() + " classes without instantiating them");
         logger.info("Failed to instantiate " + failedInstantiations + " classes");
     }
 
@@ -101,9 +118,9 @@ public class BEAST2InputTypeAnalyzer {
         allComponents.addAll(scanner.scanImportantTypes(
                 KnownTypes.IMPORTANT_BASE_TYPES, "beast.base"));
 
-        // 2. Scan all packages
+        // 2. Components of all packages, shared with the schema generator through the catalog
         Map<String, Package> packages = getAllPackages();
-        allComponents.addAll(scanner.scanPackages(packages));
+        allComponents.addAll(catalog.getComponents(packages));
 
         logger.info("Found " + allComponents.size() + " total components to analyze");
         return allComponents;
@@ -142,7 +159,17 @@ public class BEAST2InputTypeAnalyzer {
 
         totalClassesAnalyzed++;
 
-        // Try to create instance
+        // Read the inputs from the class files if possible
+        Map<String, StaticInputReader.DeclaredInput> declared = inputReader.readInputs(clazz);
+        if (declared != null) {
+            for (Map.Entry<String, StaticInputReader.DeclaredInput> entry : declared.entrySet()) {
+                analyzeInput(component.getClassName(), entry.getKey(), entry.getValue().input(),
+                        entry.getValue().expectedType());
+            }
+            return;
+        }
+
+        // Otherwise create an instance
         BEASTInterface instance = null;
         try {
             instance = (BEASTInterface) clazz.getDeclaredConstructor().newInstance();
@@ -168,8 +195,10 @@ public class BEAST2InputTypeAnalyzer {
      */
     private void analyzeInput(String className, String inputName, Input<?> input, BEASTInterface instance) {
         // Get the expected type
-        Type expectedType = BEASTUtils.getInputExpectedType(input, instance, inputName);
+        analyzeInput(className, inputName, input, BEASTUtils.getInputExpectedType(input, instance, inputName));
+    }
 
+    private void analyzeInput(String className, String inputName, Input<?> input, Type expectedType) {
         if (expectedType == null) {
             return;
         }
@@ -3,39 +3,72 @@ package org.beast2.modelLanguage.schema;
 import beast.base.core.BEASTInterface;
 import beast.base.core.Function;
 import beast.base.core.Input;
+import beast.base.evolution.datatype.Aminoacid;
+import beast.base.evolution.datatype.Binary;
+import beast.base.evolution.datatype.DataType;
+import beast.base.evolution.datatype.Nucleotide;
+import beast.base.evolution.substitutionmodel.SubstitutionModel;
 import beast.base.evolution.tree.TreeDistribution;
 import beast.base.inference.distribution.ParametricDistribution;
 import beast.base.inference.distribution.Poisson;
 import beast.base.util.Binomial;
 import beast.pkgmgmt.BEASTVersion;
 import beast.pkgmgmt.Package;
+import org.beast2.modelLanguage.beast.AutoboxingRegistry;
 import org.beast2.modelLanguage.beast.BEASTUtils;
 import org.beast2.modelLanguage.beast.BeastObjectFactory;
+import org.beast2.modelLanguage.schema.binary.BinaryLibraryWriter;
 import org.beast2.modelLanguage.schema.builder.ArgumentBuilder;
 import org.beast2.modelLanguage.schema.builder.ConstraintResolver;
 import org.beast2.modelLanguage.schema.builder.DimensionResolver;
 import org.beast2.modelLanguage.schema.core.ComponentInfo;
+import org.beast2.modelLanguage.schema.core.ComponentInstantiator;
 import org.beast2.modelLanguage.schema.core.KnownTypes;
+import org.beast2.modelLanguage.schema.core.StaticInputReader;
 import org.beast2.modelLanguage.schema.core.TypeResolver;
+import org.beast2.modelLanguage.schema.scanner.ComponentCatalog;
 import org.beast2.modelLanguage.schema.scanner.ComponentFilter;
 import org.beast2.modelLanguage.schema.scanner.ComponentScanner;
+import org.beast2.modelLanguage.schema.validation.ClosureGraph;
 import org.beast2.modelLanguage.schema.validation.ClosureValidator;
 import org.beast2.modelLanguage.schema.validation.ValidationResult;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 /**
  * BEAST2 Model Library Generator - generates types and generators for the new schema format
+ * <p>
+ * Classes are scanned and definitions are built in parallel on a ForkJoin pool; results are
+ * put in the schema in scan order, so the output is the same for any number of threads.
+ * Component constructors run through a {@link ComponentInstantiator} with a timeout.
+ * The pool is shut down when the generator is closed.
+ * <p>
+ * The components of each BEAST package, and the type and generator definitions built from them,
+ * come from a {@link ComponentCatalog}, so only packages that changed are scanned again.
+ * <p>
+ * Generator arguments are read from the class files by a {@link StaticInputReader}; a component
+ * is only instantiated when its inputs cannot be read that way.
  */
-public class BEAST2ModelLibraryGenerator {
+public class BEAST2ModelLibraryGenerator implements AutoCloseable {
     private static final Logger logger = Logger.getLogger(BEAST2ModelLibraryGenerator.class.getName());
 
+    // Keys of type definitions that are replaced by "implements" when the schema is put together
+    private static final String INTERFACES = "_interfaces";
+    private static final String BEAST_INTERFACES = "_beastInterfaces";
+    private static final String CLOSURE_GRAPH_FILE = "closure-graph.json";
+
     private final BeastObjectFactory factory;
     private final TypeResolver typeResolver;
     private final ArgumentBuilder argumentBuilder;
@@ -44,17 +77,49 @@ public class BEAST2ModelLibraryGenerator {
     private final ComponentFilter filter;
     private final ComponentScanner scanner;
     private final ClosureValidator validator;
-
-    private Set<String> knownTypeNames = new HashSet<>();
+    private final ComponentInstantiator instantiator;
+    private final ForkJoinPool pool;
+    private final ComponentCatalog catalog;
+    private final File catalogDirectory;
+    // Last generated schema, so closure can be checked without parsing the JSON text again
+    private JSONObject lastSchema;
+    private final StaticInputReader inputReader = new StaticInputReader();
+    private boolean staticInputs = true;
+
+    // Time spent reading inputs from class files and by instantiating components for the generators
+    private final AtomicLong staticReadNanos = new AtomicLong();
+    private final AtomicLong instantiationNanos = new AtomicLong();
+    private final AtomicInteger instantiations = new AtomicInteger();
+    // Substitution models whose inputs were read from class files but that are instantiated for their state count
+    private final AtomicLong stateCountNanos = new AtomicLong();
+    private final AtomicInteger stateCountInstantiations = new AtomicInteger();
 
     public BEAST2ModelLibraryGenerator() {
+        this(Runtime.getRuntime().availableProcessors(), ComponentInstantiator.DEFAULT_TIMEOUT);
+    }
+
+    public BEAST2ModelLibraryGenerator(int parallelism, Duration instantiationTimeout) {
+        this(parallelism, instantiationTimeout, ComponentCatalog.getDefaultDirectory());
+    }
+
+    /**
+     * @param parallelism          number of threads for scanning and building definitions
+     * @param instantiationTimeout time after which a class initialiser or constructor is given up on
+     * @param catalogDirectory     directory of the component catalog, null to scan all packages without caching
+     */
+    public BEAST2ModelLibraryGenerator(int parallelism, Duration instantiationTimeout, File catalogDirectory) {
         this.factory = new BeastObjectFactory();
         this.typeResolver = new TypeResolver();
         this.dimensionResolver = new DimensionResolver();
         this.constraintResolver = new ConstraintResolver();
         this.argumentBuilder = new ArgumentBuilder(typeResolver, dimensionResolver, constraintResolver);
-        this.filter = new ComponentFilter();
-        this.scanner = new ComponentScanner(factory, filter);
+        this.instantiator = new ComponentInstantiator(instantiationTimeout);
+        this.pool = new ForkJoinPool(parallelism);
+        this.filter = new ComponentFilter(instantiator);
+        this.filter.setInputReader(inputReader);
+        this.scanner = new ComponentScanner(factory, filter, pool);
+        this.catalog = new ComponentCatalog(catalogDirectory, scanner, factory);
+        this.catalogDirectory = catalogDirectory;
         this.validator = new ClosureValidator(typeResolver);
     }
 
@@ -62,6 +127,23 @@ public class BEAST2ModelLibraryGenerator {
         return filter;
     }
 
+    /**
+     * Shut down the threads used for scanning and building definitions
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Whether to read component inputs from the class files, instantiating components only
+     * when that fails (default), or to instantiate every component
+     */
+    public void setStaticInputs(boolean staticInputs) {
+        this.staticInputs = staticInputs;
+        filter.setInputReader(staticInputs ? inputReader : null);
+    }
+
     /**
      * Generate the complete model library schema
      */
@@ -76,55 +158,107 @@ public class BEAST2ModelLibraryGenerator {
         modelLibrary.put("engineVersion", BEASTVersion.INSTANCE.getVersion());
         modelLibrary.put("description", "Core model components for BEAST2");
 
-        // Scan for all components
-        List<ComponentInfo> allComponents = scanAllComponents();
+        // Components outside the BEAST packages are scanned on every run,
+        // the packages come from the catalog together with their definitions
+        List<ComponentInfo> baseComponents = scanBaseComponents();
+        List<ComponentCatalog.Entry> packageEntries = catalogPackages();
+        List<ComponentInfo> innerComponents = scanInnerTypes();
 
-        // Generate types and generators from components
-        JSONArray types = generateTypes(allComponents);
-        modelLibrary.put("types", types);
+        // Names of all component types, which decide the "implements" lists of the types
+        Set<String> knownTypeNames = new HashSet<>();
+        for (ComponentInfo component : baseComponents) {
+            knownTypeNames.add(typeResolver.getSimpleClassName(component.getClazz()));
+        }
+        for (ComponentCatalog.Entry entry : packageEntries) {
+            for (ComponentInfo component : entry.getComponents()) {
+                knownTypeNames.add(typeResolver.getSimpleClassName(component.getClazz()));
+            }
+        }
+        for (ComponentInfo component : innerComponents) {
+            knownTypeNames.add(typeResolver.getSimpleClassName(component.getClazz()));
+        }
+        logger.info("Found " + knownTypeNames.size() + " component types");
+
+        // Definitions in scan order: base types, packages by name, inner types
+        List<JSONObject> typeDefinitions = new ArrayList<>(buildTypeDefinitions(baseComponents));
+        List<JSONObject> generatorDefinitions = new ArrayList<>(buildGeneratorDefinitions(baseComponents));
+        for (ComponentCatalog.Entry entry : packageEntries) {
+            addAll(typeDefinitions, entry.getTypes());
+            addAll(generatorDefinitions, entry.getGenerators());
+        }
+        typeDefinitions.addAll(buildTypeDefinitions(innerComponents));
+        generatorDefinitions.addAll(buildGeneratorDefinitions(innerComponents));
 
-        JSONArray generators = generateGenerators(allComponents);
-        modelLibrary.put("generators", generators);
+        JSONArray types = generateTypes(typeDefinitions, knownTypeNames);
+        addConversions(types);
+        modelLibrary.put("types", types);
+        modelLibrary.put("generators", generateGenerators(generatorDefinitions));
+        logInputStatistics();
+        logRuleStatistics();
 
         schema.put("modelLibrary", modelLibrary);
+        lastSchema = schema;
         return schema.toString(2);
     }
 
     /**
-     * Scan for all components using ComponentScanner
+     * Scan the important base types, non-BEAST interfaces, inner classes and enums
      */
-    private List<ComponentInfo> scanAllComponents() {
-        List<ComponentInfo> allComponents = new ArrayList<>();
+    private List<ComponentInfo> scanBaseComponents() {
+        List<ComponentInfo> components = new ArrayList<>();
 
         // 1. Scan important base types
-        allComponents.addAll(scanner.scanImportantTypes(
+        components.addAll(scanner.scanImportantTypes(
                 KnownTypes.IMPORTANT_BASE_TYPES, "beast.base"));
 
         // 2. Scan important non-BEAST interfaces
-        allComponents.addAll(scanner.scanImportantTypes(
+        components.addAll(scanner.scanImportantTypes(
                 KnownTypes.IMPORTANT_NON_BEAST_INTERFACES, "beast.base"));
 
         // 3. Scan known inner classes
-        allComponents.addAll(scanner.scanImportantTypes(
+        components.addAll(scanner.scanImportantTypes(
                 KnownTypes.IMPORTANT_INNER_CLASSES, "beast.base"));
 
         // 4. Scan known enums
-        allComponents.addAll(scanner.scanEnums(KnownTypes.ENUMS));
+        components.addAll(scanner.scanEnums(KnownTypes.ENUMS));
+
+        return components;
+    }
 
-        // 5. Scan all packages
-        Map<String, Package> packages = getAllPackages();
-        allComponents.addAll(scanner.scanPackages(packages));
+    /**
+     * Catalog entries of all packages, building and storing the definitions of packages that have none yet
+     */
+    private List<ComponentCatalog.Entry> catalogPackages() {
+        List<ComponentCatalog.Entry> entries = new ArrayList<>();
+        for (ComponentCatalog.Entry entry : catalog.getEntries(getAllPackages())) {
+            if (!entry.hasFragments()) {
+                logger.info("Building definitions for package " + entry.getName() + " " + entry.getVersion());
+                entry = catalog.storeFragments(entry,
+                        new JSONArray(buildTypeDefinitions(entry.getComponents())),
+                        new JSONArray(buildGeneratorDefinitions(entry.getComponents())));
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
 
-        // 6. Collect any referenced inner types from the closure test
+    /**
+     * Scan the inner types referenced from the closure test
+     */
+    private List<ComponentInfo> scanInnerTypes() {
         Set<String> referencedInnerTypes = collectReferencedInnerTypes();
-        if (!referencedInnerTypes.isEmpty()) {
-            allComponents.addAll(scanner.scanReferencedInnerTypes(
-                    referencedInnerTypes,
-                    KnownTypes.PACKAGE_SEARCH_PREFIXES.toArray(new String[0])));
+        if (referencedInnerTypes.isEmpty()) {
+            return List.of();
         }
+        return scanner.scanReferencedInnerTypes(
+                referencedInnerTypes,
+                KnownTypes.PACKAGE_SEARCH_PREFIXES.toArray(new String[0]));
+    }
 
-        logger.info("Found " + allComponents.size() + " total components");
-        return allComponents;
+    private static void addAll(List<JSONObject> definitions, JSONArray fragment) {
+        for (int i = 0; i < fragment.length(); i++) {
+            definitions.add(fragment.getJSONObject(i));
+        }
     }
 
     /**
@@ -167,29 +301,37 @@ public class BEAST2ModelLibraryGenerator {
     }
 
     /**
-     * Generate all type definitions from components
+     * Type definitions of components, in parallel and in component order.
+     * The definitions still list all interfaces; {@link #generateTypes} picks the known ones.
+     */
+    private List<JSONObject> buildTypeDefinitions(List<ComponentInfo> components) {
+        Set<String> processedClasses = new HashSet<>();
+        List<ComponentInfo> unique = new ArrayList<>();
+        for (ComponentInfo component : components) {
+            if (processedClasses.add(component.getClassName())) {
+                unique.add(component);
+            }
+        }
+        return pool.submit(() -> unique.parallelStream()
+                .map(this::generateTypeDefinition)
+                .filter(Objects::nonNull)
+                .toList()).join();
+    }
+
+    /**
+     * Generate all type definitions, keeping the first definition of each class
      */
-    private JSONArray generateTypes(List<ComponentInfo> components) throws Exception {
+    private JSONArray generateTypes(List<JSONObject> definitions, Set<String> knownTypeNames) {
         JSONArray types = new JSONArray();
         Set<String> processedClasses = new HashSet<>();
 
         // Add primitive types first
         addPrimitiveTypes(types);
 
-        // First pass: populate knownTypeNames with all component types
-        for (ComponentInfo component : components) {
-            knownTypeNames.add(typeResolver.getSimpleClassName(component.getClazz()));
-        }
-
-        // Second pass: generate type definitions (now with complete knownTypeNames)
-        for (ComponentInfo component : components) {
-            String className = component.getClassName();
-            if (!processedClasses.contains(className)) {
-                JSONObject type = generateTypeDefinition(component);
-                if (type != null) {
-                    types.put(type);
-                    processedClasses.add(className);
-                }
+        for (JSONObject type : definitions) {
+            if (processedClasses.add(type.getString("fullyQualifiedName"))) {
+                resolveImplements(type, knownTypeNames);
+                types.put(type);
             }
         }
 
@@ -198,7 +340,54 @@ public class BEAST2ModelLibraryGenerator {
     }
 
     /**
-     * Add built-in functions that are part of the beast2lang parser
+     * Record the conversions of the autoboxing rules on the types they convert to, as a
+     * "convertedFrom" list of the library names of the converted types
+     */
+    private static void addConversions(JSONArray types) {
+        Map<String, JSONObject> typesByClass = new HashMap<>();
+        for (int i = 0; i < types.length(); i++) {
+            JSONObject type = types.getJSONObject(i);
+            typesByClass.putIfAbsent(type.optString("fullyQualifiedName"), type);
+        }
+        for (AutoboxingRegistry.Conversion conversion : AutoboxingRegistry.getInstance().getConversions()) {
+            JSONObject value = typesByClass.get(conversion.valueClass());
+            JSONObject target = typesByClass.get(conversion.targetClass());
+            if (value != null && target != null) {
+                target.append("convertedFrom", value.getString("name"));
+            }
+        }
+    }
+
+    /**
+     * Replace the interfaces of a type definition by its "implements" list: the BEASTInterface
+     * interfaces and the interfaces that are known types. Definitions from the catalog are built
+     * without knowing all types, so this is done when the schema is put together.
+     */
+    private static void resolveImplements(JSONObject type, Set<String> knownTypeNames) {
+        JSONArray allInterfaces = (JSONArray) type.remove(INTERFACES);
+        JSONArray beastInterfaces = (JSONArray) type.remove(BEAST_INTERFACES);
+        if (allInterfaces == null) {
+            return;
+        }
+
+        Set<String> beast = new HashSet<>();
+        for (int i = 0; i < beastInterfaces.length(); i++) {
+            beast.add(beastInterfaces.getString(i));
+        }
+        JSONArray interfaces = new JSONArray();
+        for (int i = 0; i < allInterfaces.length(); i++) {
+            String ifaceName = allInterfaces.getString(i);
+            if (beast.contains(ifaceName) || knownTypeNames.contains(ifaceName)) {
+                interfaces.put(ifaceName);
+            }
+        }
+        if (interfaces.length() > 0) {
+            type.put("implements", interfaces);
+        }
+    }
+
+    /**
+     * Add built-in functions and distributions that are part of the beast2lang language
      * These don't have corresponding BEASTInterface classes
      */
     private void addBuiltInFunctions(JSONArray generators) {
@@ -235,44 +424,82 @@ public class BEAST2ModelLibraryGenerator {
 
         generators.put(nexusFunction);
 
+        // Add built-in RandomComposition distribution, which the decompiler writes for integer
+        // parameters that only delta exchange operators change, e.g. skyline group sizes
+        JSONObject randomComposition = new JSONObject();
+        randomComposition.put("name", "RandomComposition");
+        randomComposition.put("description", "Built-in distribution of k positive integers that sum to n");
+        randomComposition.put("generatorType", "distribution");
+        randomComposition.put("satisfiesConstraints", new JSONArray().put("positive").put("integer"));
+        randomComposition.put("generatedType", "IntegerParameter");
+
+        JSONArray compositionArguments = new JSONArray();
+        JSONObject sumArg = new JSONObject();
+        sumArg.put("name", "n");
+        sumArg.put("type", "Integer");
+        sumArg.put("description", "Sum of the integers");
+        sumArg.put("required", true);
+        compositionArguments.put(sumArg);
+        JSONObject countArg = new JSONObject();
+        countArg.put("name", "k");
+        countArg.put("type", "Integer");
+        countArg.put("description", "Number of integers, the dimension of the parameter");
+        countArg.put("required", true);
+        compositionArguments.put(countArg);
+        randomComposition.put("arguments", compositionArguments);
+
+        generators.put(randomComposition);
+
         // Optionally add other built-in functions like fasta, newick, etc.
         // addBuiltInFastaFunction(generators);
         // addBuiltInNewickFunction(generators);
     }
 
     /**
-     * Generate all generator definitions from components
-     * Modified to include built-in functions
+     * Generator definitions of the concrete BEASTInterface components, in parallel and in component order
      */
-    private JSONArray generateGenerators(List<ComponentInfo> components) throws Exception {
-        JSONArray generators = new JSONArray();
+    private List<JSONObject> buildGeneratorDefinitions(List<ComponentInfo> components) {
         Set<String> processedClasses = new HashSet<>();
-
-        // First, add built-in functions
-        addBuiltInFunctions(generators);
-
-        // Then process discovered components as before
+        List<ComponentInfo> concrete = new ArrayList<>();
         for (ComponentInfo component : components) {
-            Class<?> clazz = component.getClazz();
-            String className = component.getClassName();
-
             // Only concrete BEASTInterface classes can be generators
-            if (!processedClasses.contains(className) &&
-                    BEASTInterface.class.isAssignableFrom(clazz) &&
+            if (BEASTInterface.class.isAssignableFrom(component.getClazz()) &&
                     !component.isInterface() &&
                     !component.isAbstract() &&
-                    !component.isEnum()) {
+                    !component.isEnum() &&
+                    processedClasses.add(component.getClassName())) {
+                concrete.add(component);
+            }
+        }
 
-                try {
-                    JSONObject generator = generateGeneratorDefinition(component);
-                    if (generator != null) {
-                        generators.put(generator);
-                        processedClasses.add(className);
+        return pool.submit(() -> concrete.parallelStream()
+                .map(component -> {
+                    try {
+                        return generateGeneratorDefinition(component);
+                    } catch (Exception e) {
+                        logger.warning("Failed to generate definition for " + component.getClassName() + ": " + e.getMessage());
+                        // Continue with next component
+                        return null;
                     }
-                } catch (Exception e) {
-                    logger.warning("Failed to generate definition for " + className + ": " + e.getMessage());
-                    // Continue with next component
-                }
+                })
+                .filter(Objects::nonNull)
+                .toList()).join();
+    }
+
+    /**
+     * Generate all generator definitions, starting with the built-in functions
+     */
+    private JSONArray generateGenerators(List<JSONObject> definitions) {
+        JSONArray generators = new JSONArray();
+        Set<String> processedNames = new HashSet<>();
+
+        // First, add built-in functions
+        addBuiltInFunctions(generators);
+
+        // Then the definitions of the components, the first one of each class
+        for (JSONObject generator : definitions) {
+            if (processedNames.add(generator.getString("fullyQualifiedName"))) {
+                generators.put(generator);
             }
         }
 
@@ -321,19 +548,19 @@ public class BEAST2ModelLibraryGenerator {
                 type.put("extends", typeResolver.getSimpleClassName(clazz.getSuperclass()));
             }
 
-            // Interfaces - include both BEASTInterface and other known model interfaces
-            JSONArray interfaces = new JSONArray();
+            // Interfaces - BEASTInterface ones and other known model interfaces end up in
+            // "implements", which is resolved once all types are known (see resolveImplements)
+            JSONArray allInterfaces = new JSONArray();
+            JSONArray beastInterfaces = new JSONArray();
             for (Class<?> iface : clazz.getInterfaces()) {
                 String ifaceName = typeResolver.getSimpleClassName(iface);
-
-                // Include if it's a BEASTInterface OR if it's in our known types
-                if (BEASTInterface.class.isAssignableFrom(iface) || knownTypeNames.contains(ifaceName)) {
-                    interfaces.put(ifaceName);
+                allInterfaces.put(ifaceName);
+                if (BEASTInterface.class.isAssignableFrom(iface)) {
+                    beastInterfaces.put(ifaceName);
                 }
             }
-            if (interfaces.length() > 0) {
-                type.put("implements", interfaces);
-            }
+            type.put(INTERFACES, allInterfaces);
+            type.put(BEAST_INTERFACES, beastInterfaces);
         }
 
         // Primitive assignment for parameter types
@@ -384,35 +611,59 @@ public class BEAST2ModelLibraryGenerator {
             addConstraintSatisfactionIfApplicable(generator, clazz, className);
         }
 
-        // Try to create instance - if it fails, return minimal generator with no arguments
+        // Inputs and their expected types, from the class files if possible, otherwise from an instance
+        Map<String, Input<?>> inputMap = new LinkedHashMap<>();
+        Map<String, Type> inputTypes = new HashMap<>();
         BEASTInterface instance = null;
-        try {
-            instance = (BEASTInterface) clazz.getDeclaredConstructor().newInstance();
-        } catch (Exception e) {
-            logger.info("Cannot instantiate " + className + " (no no-arg constructor): " + e.getMessage());
-
-            // Return generator with empty arguments
-            generator.put("arguments", new JSONArray());
+        if (!readInputs(clazz, inputMap, inputTypes)) {
+            // Try to create instance - if it fails, return minimal generator with no arguments
+            long start = System.nanoTime();
+            try {
+                instance = instantiator.newInstance(clazz);
+            } catch (Exception e) {
+                logger.info("Cannot instantiate " + className + " (no no-arg constructor): " + e.getMessage());
+
+                // Return generator with empty arguments
+                generator.put("arguments", new JSONArray());
+
+                // Still try to determine generatedType for known cases
+                String generatedType = determineGeneratedType(clazz, component.isDistribution(), null);
+                if (generatedType != null) {
+                    generator.put("generatedType", generatedType);
+                }
 
-            // Still try to determine generatedType for known cases
-            String generatedType = determineGeneratedType(clazz, component.isDistribution(), null);
-            if (generatedType != null) {
-                generator.put("generatedType", generatedType);
+                return generator;
+            } finally {
+                instantiations.incrementAndGet();
+                instantiationNanos.addAndGet(System.nanoTime() - start);
             }
 
-            return generator;
+            inputMap.putAll(BEASTUtils.buildInputMap(instance, clazz));
+            for (Map.Entry<String, Input<?>> entry : inputMap.entrySet()) {
+                inputTypes.put(entry.getKey(), argumentBuilder.getExpectedType(entry.getValue(), instance));
+            }
         }
 
-        Map<String, Input<?>> inputMap = BEASTUtils.buildInputMap(instance, clazz);
+        if (SubstitutionModel.class.isAssignableFrom(clazz)) {
+            addStateCount(generator, clazz, instance);
+        }
 
         if (component.isDistribution()) {
-            // Determine generated type with instance available
-            String generatedType = determineGeneratedType(clazz, component.isDistribution(), instance);
+            // Determine generated type from the primary input
+            String primaryInputName = factory.getPrimaryInputNameForClass(clazz);
+            Type primaryInputType = null;
+            if (primaryInputName != null && inputMap.containsKey(primaryInputName)) {
+                primaryInputType = inputTypes.get(primaryInputName);
+                if (primaryInputType == null) {
+                    logger.warning("Could not determine type for primary input '" + primaryInputName + "' of " + className);
+                }
+            }
+            String generatedType = determineGeneratedType(clazz, true, primaryInputType);
             if (generatedType != null) {
                 generator.put("generatedType", generatedType);
             }
 
-            addDistributionArguments(generator, instance, inputMap, clazz);
+            addDistributionArguments(generator, primaryInputName, inputMap, inputTypes, clazz);
         } else {
             // Functions - determine generated type
             String generatedType = determineGeneratedType(clazz, false, null);
@@ -422,8 +673,8 @@ public class BEAST2ModelLibraryGenerator {
 
             // All inputs are arguments
             JSONArray arguments = new JSONArray();
-            for (Input<?> input : inputMap.values()) {
-                JSONObject arg = argumentBuilder.buildArgument(input, instance, clazz);
+            for (Map.Entry<String, Input<?>> entry : inputMap.entrySet()) {
+                JSONObject arg = argumentBuilder.buildArgument(entry.getValue(), inputTypes.get(entry.getKey()), clazz);
                 arguments.put(arg);
             }
             generator.put("arguments", arguments);
@@ -432,6 +683,95 @@ public class BEAST2ModelLibraryGenerator {
         return generator;
     }
 
+    /**
+     * Add the number of states of a substitution model that handles a single data type, e.g. 4
+     * for HKY; models that handle several, or whose data type depends on their inputs, have none.
+     * The data types a model handles are only known from an instance, so a model whose inputs were
+     * read from its class files is instantiated here after all; these instantiations are counted
+     * separately in the statistics.
+     *
+     * @param instance instance created for the inputs, or null
+     */
+    private void addStateCount(JSONObject generator, Class<?> clazz, BEASTInterface instance) {
+        Integer stateCount = null;
+        try {
+            if (instance == null) {
+                long start = System.nanoTime();
+                try {
+                    instance = instantiator.newInstance(clazz);
+                } finally {
+                    stateCountInstantiations.incrementAndGet();
+                    stateCountNanos.addAndGet(System.nanoTime() - start);
+                }
+            }
+            SubstitutionModel model = (SubstitutionModel) instance;
+            for (DataType dataType : new DataType[]{new Nucleotide(), new Aminoacid(), new Binary()}) {
+                if (model.canHandleDataType(dataType)) {
+                    if (stateCount != null) {
+                        return;
+                    }
+                    stateCount = dataType.getStateCount();
+                }
+            }
+        } catch (Exception e) {
+            logger.fine("Cannot determine the state count of " + clazz.getName() + ": " + e.getMessage());
+            return;
+        }
+        if (stateCount != null) {
+            generator.put("stateCount", stateCount);
+        }
+    }
+
+    /**
+     * Read the inputs of a class from its class files
+     *
+     * @return false if the class has to be instantiated instead
+     */
+    private boolean readInputs(Class<?> clazz, Map<String, Input<?>> inputMap, Map<String, Type> inputTypes) {
+        if (!staticInputs) {
+            return false;
+        }
+        long start = System.nanoTime();
+        Map<String, StaticInputReader.DeclaredInput> declared = inputReader.readInputs(clazz);
+        staticReadNanos.addAndGet(System.nanoTime() - start);
+        if (declared == null) {
+            return false;
+        }
+        for (Map.Entry<String, StaticInputReader.DeclaredInput> entry : declared.entrySet()) {
+            inputMap.put(entry.getKey(), entry.getValue().input());
+            inputTypes.put(entry.getKey(), entry.getValue().expectedType());
+        }
+        return true;
+    }
+
+    /**
+     * How often each component filter and constraint rule applied, to see which rules matter
+     */
+    private void logRuleStatistics() {
+        logger.info("Component filter rule hits: " + filter.getRuleHits());
+        logger.info("Constraint rule hits: " + constraintResolver.getRuleHits());
+    }
+
+    /**
+     * Log how many instantiations reading the inputs from class files avoided, and the time per class
+     */
+    private void logInputStatistics() {
+        int read = inputReader.getReadCount();
+        int unreadable = inputReader.getUnreadableCount();
+        int instantiated = instantiations.get();
+        logger.info("Inputs of " + read + " classes read from class files, " + unreadable
+                + " classes instantiated instead");
+        if (read + unreadable > 0 && instantiated > 0) {
+            logger.info("Reading inputs took " + staticReadNanos.get() / 1000 / (read + unreadable)
+                    + " µs per class, instantiating " + instantiationNanos.get() / 1000 / instantiated + " µs per class");
+        }
+        int forStateCount = stateCountInstantiations.get();
+        if (forStateCount > 0) {
+            logger.info(forStateCount + " substitution models instantiated for their state count, "
+                    + stateCountNanos.get() / 1000 / forStateCount + " µs per class");
+        }
+    }
+
     /**
      * Add I/O hints for file-loading generators
      */
@@ -576,7 +916,7 @@ public class BEAST2ModelLibraryGenerator {
     /**
      * Determine what type a generator produces
      */
-    private String determineGeneratedType(Class<?> clazz, boolean isDistribution, BEASTInterface instance) {
+    private String determineGeneratedType(Class<?> clazz, boolean isDistribution, Type primaryInputType) {
         String className = typeResolver.getSimpleClassName(clazz);
 
         if (isDistribution) {
@@ -593,21 +933,9 @@ public class BEAST2ModelLibraryGenerator {
                 return "RealParameter";
             }
 
-            // For other distributions, determine from primary input if we have an instance
-            if (instance != null) {
-                String primaryInputName = factory.getPrimaryInputName(instance);
-                if (primaryInputName != null) {
-                    Input<?> primaryInput = instance.getInput(primaryInputName);
-                    if (primaryInput != null) {
-                        // Use BEASTUtils to get the proper type, handling generics
-                        Type inputType = BEASTUtils.getInputExpectedType(primaryInput, instance, primaryInputName);
-                        if (inputType != null) {
-                            return typeResolver.resolveType(inputType);
-                        } else {
-                            logger.warning("Could not determine type for primary input '" + primaryInputName + "' of " + className);
-                        }
-                    }
-                }
+            // For other distributions, determine from the type of the primary input if known
+            if (primaryInputType != null) {
+                return typeResolver.resolveType(primaryInputType);
             }
 
             // No generatedType if we can't determine it properly
@@ -629,9 +957,8 @@ public class BEAST2ModelLibraryGenerator {
     /**
      * Add distribution arguments (excluding primary argument)
      */
-    private void addDistributionArguments(JSONObject generator, BEASTInterface instance, Map<String, Input<?>> inputMap, Class<?> clazz) {
-        String primaryInputName = factory.getPrimaryInputName(instance);
-
+    private void addDistributionArguments(JSONObject generator, String primaryInputName, Map<String, Input<?>> inputMap,
+                                          Map<String, Type> inputTypes, Class<?> clazz) {
         // All inputs except primary argument are arguments for distributions
         JSONArray arguments = new JSONArray();
         for (Map.Entry<String, Input<?>> entry : inputMap.entrySet()) {
@@ -643,7 +970,7 @@ public class BEAST2ModelLibraryGenerator {
                 continue;
             }
 
-            JSONObject arg = argumentBuilder.buildArgument(input, instance, clazz);
+            JSONObject arg = argumentBuilder.buildArgument(input, inputTypes.get(inputName), clazz);
             arguments.put(arg);
         }
 
@@ -676,6 +1003,14 @@ public class BEAST2ModelLibraryGenerator {
         }
     }
 
+    /**
+     * Write a generated schema in the binary format, for tools that look up single types or generators
+     */
+    public void writeBinaryModelLibrary(String jsonSchema, File file) throws IOException {
+        BinaryLibraryWriter.write(new JSONObject(jsonSchema), file);
+        logger.info("Binary model library written to " + file);
+    }
+
     /**
      * Validate the generated schema
      */
@@ -683,6 +1018,35 @@ public class BEAST2ModelLibraryGenerator {
         return validator.validateClosure(new JSONObject(jsonSchema));
     }
 
+    /**
+     * Validate the closure of the last generated schema against the closure graph saved by the
+     * previous run in the catalog directory, checking only the definitions that changed, and save
+     * the graph for the next run. Without a catalog directory, the whole schema is checked.
+     *
+     * @return the closure graph of the schema and the changes since the previous run
+     */
+    public ClosureCheck validateClosureChanges() throws IOException {
+        if (lastSchema == null) {
+            throw new IllegalStateException("No model library generated yet");
+        }
+        File graphFile = catalogDirectory == null ? null : new File(catalogDirectory, CLOSURE_GRAPH_FILE);
+        ClosureGraph graph = graphFile == null
+                ? new ClosureGraph(validator.getComponentFilter())
+                : ClosureGraph.load(graphFile, validator.getComponentFilter());
+        ClosureGraph.Diff diff = validator.validateClosure(lastSchema, graph);
+        if (graphFile != null) {
+            Files.createDirectories(catalogDirectory.toPath());
+            graph.save(graphFile);
+        }
+        return new ClosureCheck(graph.getResult(), diff);
+    }
+
+    /**
+     * Closure of a generated schema and its changes since the previous run
+     */
+    public record ClosureCheck(ValidationResult result, ClosureGraph.Diff diff) {
+    }
+
     /**
      * Determine accepted primitives for a type
      */
@@ -756,8 +1120,7 @@ public class BEAST2ModelLibraryGenerator {
      * Main method
      */
     public static void main(String[] args) {
-        try {
-            BEAST2ModelLibraryGenerator generator = new BEAST2ModelLibraryGenerator();
+        try (BEAST2ModelLibraryGenerator generator = new BEAST2ModelLibraryGenerator()) {
             String jsonOutput = generator.generateModelLibrary();
 
             Files.write(Paths.get("beast2-model-library.json"), jsonOutput.getBytes());
@@ -0,0 +1,240 @@
+package org.beast2.modelLanguage.schema.binary;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.beast2.modelLanguage.schema.binary.BinaryLibraryFormat.*;
+
+/**
+ * Model library in the binary format written by {@link BinaryLibraryWriter}.
+ * <p>
+ * The file is memory-mapped and nothing is decoded up front: a lookup by name is a binary search
+ * over the name index, and only the records it touches are turned into JSON objects, equal to the
+ * ones in the JSON document. Safe to use from several threads.
+ */
+public class BinaryLibrary {
+
+    private final ByteBuffer buffer;
+    private final int stringOffsets;
+    private final int stringData;
+    private final int lists;
+    // Decoded strings, filled on first use
+    private final String[] strings;
+
+    private BinaryLibrary(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a binary model library");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported binary model library version " + buffer.getInt(4));
+        }
+        this.stringOffsets = buffer.getInt(STRING_OFFSETS);
+        this.stringData = buffer.getInt(STRING_DATA);
+        this.lists = buffer.getInt(LISTS);
+        this.strings = new String[buffer.getInt(STRING_COUNT)];
+    }
+
+    /**
+     * Map a library file into memory
+     */
+    public static BinaryLibrary open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new BinaryLibrary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Read a library from bytes, e.g. from {@link BinaryLibraryWriter#toBytes}
+     */
+    public static BinaryLibrary wrap(byte[] bytes) throws IOException {
+        return new BinaryLibrary(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * The fields of the model library other than its types and generators (name, version, engine, ...)
+     */
+    public JSONObject getMetadata() {
+        return new JSONObject(string(buffer.getInt(METADATA)));
+    }
+
+    public int getTypeCount() {
+        return buffer.getInt(TYPE_COUNT);
+    }
+
+    public JSONObject getType(int index) {
+        return decode(TYPE, buffer.getInt(TYPES), index);
+    }
+
+    /**
+     * The first type with this name, or null
+     */
+    public JSONObject getType(String name) {
+        int records = buffer.getInt(TYPES);
+        int index = buffer.getInt(TYPE_INDEX);
+        int length = (buffer.getInt(GENERATOR_INDEX) - index) / 4;
+        int position = lowerBound(TYPE, records, index, length, name);
+        if (position < length) {
+            int record = buffer.getInt(index + 4 * position);
+            if (name.equals(nameOf(TYPE, records, record))) {
+                return getType(record);
+            }
+        }
+        return null;
+    }
+
+    public int getGeneratorCount() {
+        return buffer.getInt(GENERATOR_COUNT);
+    }
+
+    public JSONObject getGenerator(int index) {
+        return decode(GENERATOR, buffer.getInt(GENERATORS), index);
+    }
+
+    /**
+     * The first generator with this name, or null
+     */
+    public JSONObject getGenerator(String name) {
+        List<JSONObject> generators = getGenerators(name);
+        return generators.isEmpty() ? null : generators.get(0);
+    }
+
+    /**
+     * All generators with this name, in library order
+     */
+    public List<JSONObject> getGenerators(String name) {
+        int records = buffer.getInt(GENERATORS);
+        int index = buffer.getInt(GENERATOR_INDEX);
+        int length = (buffer.limit() - index) / 4;
+        List<JSONObject> generators = new ArrayList<>();
+        int position = lowerBound(GENERATOR, records, index, length, name);
+        while (position < length) {
+            int record = buffer.getInt(index + 4 * position);
+            if (!name.equals(nameOf(GENERATOR, records, record))) {
+                break;
+            }
+            generators.add(getGenerator(record));
+            position++;
+        }
+        return generators;
+    }
+
+    /**
+     * The whole library as the JSON schema it was written from
+     */
+    public JSONObject toJSON() {
+        JSONObject modelLibrary = getMetadata();
+        JSONArray types = new JSONArray();
+        for (int i = 0; i < getTypeCount(); i++) {
+            types.put(getType(i));
+        }
+        JSONArray generators = new JSONArray();
+        for (int i = 0; i < getGeneratorCount(); i++) {
+            generators.put(getGenerator(i));
+        }
+        modelLibrary.put("types", types);
+        modelLibrary.put("generators", generators);
+
+        JSONObject schema = new JSONObject();
+        schema.put("modelLibrary", modelLibrary);
+        return schema;
+    }
+
+    /**
+     * Position of the first index entry whose name is not less than the name
+     */
+    private int lowerBound(Layout layout, int records, int index, int length, String name) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            String middleName = nameOf(layout, records, buffer.getInt(index + 4 * middle));
+            if (middleName.compareTo(name) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private String nameOf(Layout layout, int records, int record) {
+        // "name" is the first string field of every layout
+        return string(buffer.getInt(records + layout.size() * record));
+    }
+
+    private JSONObject decode(Layout layout, int records, int record) {
+        int position = records + layout.size() * record;
+        JSONObject object = new JSONObject();
+
+        for (int i = 0; i < layout.strings().size(); i++) {
+            int string = buffer.getInt(position + 4 * i);
+            if (string != ABSENT) {
+                object.put(layout.strings().get(i), string(string));
+            }
+        }
+
+        int flags = buffer.getInt(position + layout.flagsOffset());
+        for (int i = 0; i < layout.flags().size(); i++) {
+            if ((flags & (1 << (2 * i))) != 0) {
+                object.put(layout.flags().get(i), (flags & (1 << (2 * i + 1))) != 0);
+            }
+        }
+
+        for (int i = 0; i < layout.lists().size(); i++) {
+            int start = buffer.getInt(position + layout.listOffset(i));
+            if (start != ABSENT) {
+                int length = buffer.getInt(position + layout.listOffset(i) + 4);
+                JSONArray list = new JSONArray();
+                for (int j = 0; j < length; j++) {
+                    list.put(string(buffer.getInt(lists + 4 * (start + j))));
+                }
+                object.put(layout.lists().get(i), list);
+            }
+        }
+
+        if (layout.hasArguments()) {
+            int first = buffer.getInt(position + layout.argumentsOffset());
+            if (first != ABSENT) {
+                int count = buffer.getInt(position + layout.argumentsOffset() + 4);
+                JSONArray arguments = new JSONArray();
+                for (int j = 0; j < count; j++) {
+                    arguments.put(decode(ARGUMENT, buffer.getInt(BinaryLibraryFormat.ARGUMENTS), first + j));
+                }
+                object.put(ARGUMENTS_KEY, arguments);
+            }
+        }
+
+        int extra = buffer.getInt(position + layout.extraOffset());
+        if (extra != ABSENT) {
+            JSONObject fields = new JSONObject(string(extra));
+            for (String key : fields.keySet()) {
+                object.put(key, fields.get(key));
+            }
+        }
+        return object;
+    }
+
+    private String string(int index) {
+        String s = strings[index];
+        if (s == null) {
+            int start = buffer.getInt(stringOffsets + 4 * index);
+            int end = buffer.getInt(stringOffsets + 4 * (index + 1));
+            byte[] bytes = new byte[end - start];
+            buffer.get(stringData + start, bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+            // A race only decodes the same string twice
+            strings[index] = s;
+        }
+        return s;
+    }
+}
@@ -0,0 +1,98 @@
+package org.beast2.modelLanguage.schema.binary;
+
+import java.util.List;
+
+/**
+ * Layout of the binary model library, shared by {@link BinaryLibraryWriter} and {@link BinaryLibrary}.
+ * <p>
+ * All numbers are big-endian 32-bit integers. The file starts with a fixed header, followed by
+ * <ul>
+ *   <li>the string table: one offset per string into the string data, plus an end offset, then
+ *       the UTF-8 bytes of all strings;</li>
+ *   <li>the list table: string indices of all string lists (e.g. "implements");</li>
+ *   <li>fixed-width records of types, generators and arguments;</li>
+ *   <li>the name indices: record numbers of types and generators, sorted by name.</li>
+ * </ul>
+ * A record holds string indices for the common string fields, two bits per boolean field (present,
+ * value), position and length of its string lists and, for generators, of its arguments. Any other
+ * field, or a field whose value has an unexpected type, is kept in an "extra" JSON object stored as
+ * a string, so the encoding holds everything the JSON document does. Absent values are -1.
+ */
+final class BinaryLibraryFormat {
+
+    static final int MAGIC = 0x42324C42; // "B2LB"
+    static final int VERSION = 1;
+
+    // Header fields, by byte offset
+    static final int HEADER_SIZE = 64;
+    static final int STRING_COUNT = 8;
+    static final int STRING_OFFSETS = 12;
+    static final int STRING_DATA = 16;
+    static final int LISTS = 20;
+    static final int TYPE_COUNT = 24;
+    static final int TYPES = 28;
+    static final int GENERATOR_COUNT = 32;
+    static final int GENERATORS = 36;
+    static final int ARGUMENT_COUNT = 40;
+    static final int ARGUMENTS = 44;
+    static final int TYPE_INDEX = 48;
+    static final int GENERATOR_INDEX = 52;
+    static final int METADATA = 56;
+
+    static final int ABSENT = -1;
+
+    static final String ARGUMENTS_KEY = "arguments";
+
+    static final Layout TYPE = new Layout(
+            List.of("name", "package", "fullyQualifiedName", "description", "extends"),
+            List.of("isEnum", "isAbstract", "isInterface", "primitiveAssignable"),
+            List.of("implements", "values", "acceptedPrimitives"),
+            false);
+
+    static final Layout GENERATOR = new Layout(
+            List.of("name", "package", "fullyQualifiedName", "description", "generatorType", "generatedType"),
+            List.of(),
+            List.of(),
+            true);
+
+    static final Layout ARGUMENT = new Layout(
+            List.of("name", "type", "description", "default", "constraint"),
+            List.of("required", "recommended"),
+            List.of(),
+            false);
+
+    /**
+     * Fields of one kind of record: string indices, a flags word, (position, length) of each list,
+     * (first, count) of the arguments if any, and the index of the extra JSON
+     */
+    record Layout(List<String> strings, List<String> flags, List<String> lists, boolean hasArguments) {
+
+        int flagsOffset() {
+            return 4 * strings.size();
+        }
+
+        int listOffset(int list) {
+            return flagsOffset() + 4 + 8 * list;
+        }
+
+        int argumentsOffset() {
+            return listOffset(lists.size());
+        }
+
+        int extraOffset() {
+            return argumentsOffset() + (hasArguments ? 8 : 0);
+        }
+
+        int size() {
+            return extraOffset() + 4;
+        }
+
+        boolean isKnown(String key) {
+            return strings.contains(key) || flags.contains(key) || lists.contains(key)
+                    || (hasArguments && key.equals(ARGUMENTS_KEY));
+        }
+    }
+
+    private BinaryLibraryFormat() {
+    }
+}
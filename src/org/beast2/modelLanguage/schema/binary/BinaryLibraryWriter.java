@@ -0,0 +1,264 @@
+package org.beast2.modelLanguage.schema.binary;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.beast2.modelLanguage.schema.binary.BinaryLibraryFormat.*;
+
+/**
+ * Writes a model library schema in the binary format read by {@link BinaryLibrary}.
+ */
+public class BinaryLibraryWriter {
+
+    // Strings in order of first use
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+    private final List<Integer> lists = new ArrayList<>();
+    private final List<int[]> types = new ArrayList<>();
+    private final List<int[]> generators = new ArrayList<>();
+    private final List<int[]> arguments = new ArrayList<>();
+
+    /**
+     * Write the schema ({"modelLibrary": {..., "types": [...], "generators": [...]}}) to a file
+     */
+    public static void write(JSONObject schema, File file) throws IOException {
+        Files.write(file.toPath(), toBytes(schema));
+    }
+
+    /**
+     * Encode the schema
+     */
+    public static byte[] toBytes(JSONObject schema) {
+        return new BinaryLibraryWriter().encode(schema);
+    }
+
+    private byte[] encode(JSONObject schema) {
+        JSONObject modelLibrary = schema.getJSONObject("modelLibrary");
+        JSONArray typeArray = modelLibrary.optJSONArray("types");
+        JSONArray generatorArray = modelLibrary.optJSONArray("generators");
+
+        JSONObject metadata = new JSONObject();
+        for (String key : modelLibrary.keySet()) {
+            if (!key.equals("types") && !key.equals("generators")) {
+                metadata.put(key, modelLibrary.get(key));
+            }
+        }
+        int metadataIndex = string(metadata.toString());
+
+        List<JSONObject> typeObjects = objects(typeArray);
+        List<JSONObject> generatorObjects = objects(generatorArray);
+        for (JSONObject type : typeObjects) {
+            types.add(record(type, TYPE));
+        }
+        for (JSONObject generator : generatorObjects) {
+            generators.add(record(generator, GENERATOR));
+        }
+
+        // Record numbers of the named records, sorted by name
+        int[] typeIndex = nameIndex(typeObjects);
+        int[] generatorIndex = nameIndex(generatorObjects);
+
+        // String table
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        int dataSize = 0;
+        for (String s : strings.keySet()) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            dataSize += bytes.length;
+        }
+
+        int stringOffsets = HEADER_SIZE;
+        int stringData = stringOffsets + 4 * (strings.size() + 1);
+        int listsPos = align(stringData + dataSize);
+        int typesPos = listsPos + 4 * lists.size();
+        int generatorsPos = typesPos + TYPE.size() * types.size();
+        int argumentsPos = generatorsPos + GENERATOR.size() * generators.size();
+        int typeIndexPos = argumentsPos + ARGUMENT.size() * arguments.size();
+        int generatorIndexPos = typeIndexPos + 4 * typeIndex.length;
+        int size = generatorIndexPos + 4 * generatorIndex.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(STRING_COUNT, strings.size());
+        buffer.putInt(STRING_OFFSETS, stringOffsets);
+        buffer.putInt(STRING_DATA, stringData);
+        buffer.putInt(LISTS, listsPos);
+        buffer.putInt(TYPE_COUNT, types.size());
+        buffer.putInt(TYPES, typesPos);
+        buffer.putInt(GENERATOR_COUNT, generators.size());
+        buffer.putInt(GENERATORS, generatorsPos);
+        buffer.putInt(ARGUMENT_COUNT, arguments.size());
+        buffer.putInt(ARGUMENTS, argumentsPos);
+        buffer.putInt(TYPE_INDEX, typeIndexPos);
+        buffer.putInt(GENERATOR_INDEX, generatorIndexPos);
+        buffer.putInt(METADATA, metadataIndex);
+
+        buffer.position(stringOffsets);
+        int offset = 0;
+        for (byte[] bytes : encoded) {
+            buffer.putInt(offset);
+            offset += bytes.length;
+        }
+        buffer.putInt(offset);
+        for (byte[] bytes : encoded) {
+            buffer.put(bytes);
+        }
+
+        buffer.position(listsPos);
+        lists.forEach(buffer::putInt);
+        putRecords(buffer, types);
+        putRecords(buffer, generators);
+        putRecords(buffer, arguments);
+        for (int record : typeIndex) {
+            buffer.putInt(record);
+        }
+        for (int record : generatorIndex) {
+            buffer.putInt(record);
+        }
+        return buffer.array();
+    }
+
+    private static List<JSONObject> objects(JSONArray array) {
+        List<JSONObject> objects = new ArrayList<>();
+        if (array != null) {
+            for (int i = 0; i < array.length(); i++) {
+                objects.add(array.getJSONObject(i));
+            }
+        }
+        return objects;
+    }
+
+    private static int align(int position) {
+        return (position + 3) & ~3;
+    }
+
+    private static void putRecords(ByteBuffer buffer, List<int[]> records) {
+        for (int[] record : records) {
+            for (int value : record) {
+                buffer.putInt(value);
+            }
+        }
+    }
+
+    private int string(String s) {
+        Integer index = strings.get(s);
+        if (index == null) {
+            index = strings.size();
+            strings.put(s, index);
+        }
+        return index;
+    }
+
+    /**
+     * Encode an object as a record of the layout, as ints
+     */
+    private int[] record(JSONObject object, Layout layout) {
+        int[] record = new int[layout.size() / 4];
+        JSONObject extra = new JSONObject();
+        for (String key : object.keySet()) {
+            if (!layout.isKnown(key)) {
+                extra.put(key, object.get(key));
+            }
+        }
+
+        for (int i = 0; i < layout.strings().size(); i++) {
+            String key = layout.strings().get(i);
+            Object value = object.opt(key);
+            record[i] = ABSENT;
+            if (value instanceof String s) {
+                record[i] = string(s);
+            } else if (value != null) {
+                extra.put(key, value);
+            }
+        }
+
+        int flags = 0;
+        for (int i = 0; i < layout.flags().size(); i++) {
+            String key = layout.flags().get(i);
+            Object value = object.opt(key);
+            if (value instanceof Boolean b) {
+                flags |= 1 << (2 * i);
+                if (b) {
+                    flags |= 1 << (2 * i + 1);
+                }
+            } else if (value != null) {
+                extra.put(key, value);
+            }
+        }
+        record[layout.flagsOffset() / 4] = flags;
+
+        for (int i = 0; i < layout.lists().size(); i++) {
+            String key = layout.lists().get(i);
+            Object value = object.opt(key);
+            int slot = layout.listOffset(i) / 4;
+            record[slot] = ABSENT;
+            if (value instanceof JSONArray array && isStringArray(array)) {
+                record[slot] = lists.size();
+                record[slot + 1] = array.length();
+                for (int j = 0; j < array.length(); j++) {
+                    lists.add(string(array.getString(j)));
+                }
+            } else if (value != null) {
+                extra.put(key, value);
+            }
+        }
+
+        if (layout.hasArguments()) {
+            Object value = object.opt(ARGUMENTS_KEY);
+            int slot = layout.argumentsOffset() / 4;
+            record[slot] = ABSENT;
+            if (value instanceof JSONArray array && isObjectArray(array)) {
+                record[slot] = arguments.size();
+                record[slot + 1] = array.length();
+                for (JSONObject argument : objects(array)) {
+                    arguments.add(record(argument, ARGUMENT));
+                }
+            } else if (value != null) {
+                extra.put(ARGUMENTS_KEY, value);
+            }
+        }
+
+        record[layout.extraOffset() / 4] = extra.isEmpty() ? ABSENT : string(extra.toString());
+        return record;
+    }
+
+    private static boolean isStringArray(JSONArray array) {
+        for (int i = 0; i < array.length(); i++) {
+            if (!(array.get(i) instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isObjectArray(JSONArray array) {
+        for (int i = 0; i < array.length(); i++) {
+            if (!(array.get(i) instanceof JSONObject)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Record numbers of the objects with a name, sorted by name and then record number
+     */
+    private static int[] nameIndex(List<JSONObject> objects) {
+        List<Integer> named = new ArrayList<>();
+        for (int i = 0; i < objects.size(); i++) {
+            if (objects.get(i).opt("name") instanceof String) {
+                named.add(i);
+            }
+        }
+        named.sort(Comparator.<Integer, String>comparing(i -> objects.get(i).getString("name"))
+                .thenComparing(Comparator.naturalOrder()));
+        return named.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -69,11 +69,23 @@ public class ArgumentBuilder {
      * Build an argument object from an Input
      */
     public JSONObject buildArgument(Input<?> input, BEASTInterface instance, Class<?> clazz) {
+        return buildArgument(input, getExpectedType(input, instance), clazz);
+    }
+
+    /**
+     * Build an argument object from an Input whose expected type is already known,
+     * e.g. read from the declaring field without an instance
+     *
+     * @param expectedType type of the input values, null to fall back to the type of the Input
+     */
+    public JSONObject buildArgument(Input<?> input, Type expectedType, Class<?> clazz) {
         JSONObject arg = new JSONObject();
         arg.put("name", input.getName());
 
         // Get the proper type name
-        String inputType = getProperInputTypeName(input, instance);
+        String inputType = expectedType != null
+                ? typeResolver.resolveType(expectedType)
+                : getBasicInputTypeName(input);
         arg.put("type", inputType);
 
         // Add description and validation info
@@ -134,22 +146,16 @@ public class ArgumentBuilder {
     }
 
     /**
-     * Get proper input type name using BEASTUtils
+     * Get the expected input type using BEASTUtils, or null if it cannot be determined
      */
-    private String getProperInputTypeName(Input<?> input, BEASTInterface instance) {
+    public Type getExpectedType(Input<?> input, BEASTInterface instance) {
         try {
             // Use BEASTUtils method to get the proper type
-            Type expectedType = BEASTUtils.getInputExpectedType(input, instance, input.getName());
-
-            if (expectedType != null) {
-                return typeResolver.resolveType(expectedType);
-            }
+            return BEASTUtils.getInputExpectedType(input, instance, input.getName());
         } catch (Exception e) {
             logger.fine("Error getting input type for " + input.getName() + ": " + e.getMessage());
+            return null;
         }
-
-        // Fallback to basic approach
-        return getBasicInputTypeName(input);
     }
 
     /**
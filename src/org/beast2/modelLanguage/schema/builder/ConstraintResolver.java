@@ -1,16 +1,32 @@
 package org.beast2.modelLanguage.schema.builder;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 
 /**
- * Resolves constraints for arguments based on their name and type
+ * Resolves constraints for arguments based on their name and type.
+ * <p>
+ * The rules are compiled once: exact constraints are looked up by class and then by argument, and
+ * the pattern rule matching an argument name is found once per distinct name and remembered, so a
+ * library build evaluates the patterns a few thousand times instead of once per argument of every
+ * class. Safe to use from several threads.
  */
 public class ConstraintResolver {
-    private final Map<String, String> exactConstraints;
+    private static final int NO_RULE = -1;
+
+    // Class name -> argument name -> constraint
+    private final Map<String, Map<String, String>> exactConstraints;
     private final List<ConstraintRule> patternRules;
+    // Argument name -> index of the first matching pattern rule, or NO_RULE
+    private final Map<String, Integer> ruleByArgument = new ConcurrentHashMap<>();
+
+    private final LongAdder exactHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
 
     public ConstraintResolver() {
-        this.exactConstraints = initializeExactConstraints();
+        this.exactConstraints = compileExactConstraints(initializeExactConstraints());
         this.patternRules = initializePatternRules();
     }
 
@@ -18,21 +34,59 @@ public class ConstraintResolver {
      * Resolve constraint for a given class and argument
      */
     public Optional<String> resolveConstraint(String className, String argName) {
-        String fullKey = className + "." + argName;
-
         // Check exact matches first
-        if (exactConstraints.containsKey(fullKey)) {
-            return Optional.of(exactConstraints.get(fullKey));
+        Map<String, String> classConstraints = exactConstraints.get(className);
+        if (classConstraints != null) {
+            String constraint = classConstraints.get(argName);
+            if (constraint != null) {
+                exactHits.increment();
+                return Optional.of(constraint);
+            }
         }
 
         // Check pattern-based rules
+        int rule = ruleByArgument.computeIfAbsent(argName, this::findRule);
+        if (rule == NO_RULE) {
+            misses.increment();
+            return Optional.empty();
+        }
+        ConstraintRule matched = patternRules.get(rule);
+        matched.hits.increment();
+        return Optional.of(matched.constraint);
+    }
+
+    /**
+     * Number of arguments each rule gave the constraint for, in the order the rules are tried,
+     * with "exact" for the exact constraints and "none" for arguments without a constraint
+     */
+    public Map<String, Long> getRuleHits() {
+        Map<String, Long> hits = new LinkedHashMap<>();
+        hits.put("exact", exactHits.sum());
         for (ConstraintRule rule : patternRules) {
-            if (rule.matches(argName)) {
-                return Optional.of(rule.constraint);
+            hits.put(rule.name, rule.hits.sum());
+        }
+        hits.put("none", misses.sum());
+        return hits;
+    }
+
+    private int findRule(String argName) {
+        String lower = argName.toLowerCase();
+        for (int i = 0; i < patternRules.size(); i++) {
+            if (patternRules.get(i).matches(lower)) {
+                return i;
             }
         }
+        return NO_RULE;
+    }
 
-        return Optional.empty();
+    private static Map<String, Map<String, String>> compileExactConstraints(Map<String, String> constraints) {
+        Map<String, Map<String, String>> byClass = new HashMap<>();
+        constraints.forEach((key, constraint) -> {
+            int dot = key.lastIndexOf('.');
+            byClass.computeIfAbsent(key.substring(0, dot), k -> new HashMap<>())
+                    .put(key.substring(dot + 1), constraint);
+        });
+        return byClass;
     }
 
     private Map<String, String> initializeExactConstraints() {
@@ -105,116 +159,92 @@ public class ConstraintResolver {
         List<ConstraintRule> rules = new ArrayList<>();
 
         // Rate parameters should be positive (but not death rates or relative rates)
-        rules.add(new ConstraintRule(
-                name -> {
-                    String lower = name.toLowerCase();
-                    return lower.contains("rate") &&
-                            !lower.contains("death") &&
-                            !lower.contains("relative") &&
-                            !lower.contains("growth"); // growth rate can be negative
-                },
+        rules.add(new ConstraintRule("rate",
+                lower -> lower.contains("rate") &&
+                        !lower.contains("death") &&
+                        !lower.contains("relative") &&
+                        !lower.contains("growth"), // growth rate can be negative
                 "positive"
         ));
 
         // Scale parameters should be positive
-        rules.add(new ConstraintRule(
-                name -> name.toLowerCase().contains("scale") &&
-                        !name.toLowerCase().contains("scalefactor"), // scaleFactor handled explicitly
+        rules.add(new ConstraintRule("scale",
+                lower -> lower.contains("scale") &&
+                        !lower.contains("scalefactor"), // scaleFactor handled explicitly
                 "positive"
         ));
 
         // Variance, standard deviation, and precision parameters should be positive
-        rules.add(new ConstraintRule(
-                name -> {
-                    String lower = name.toLowerCase();
-                    return lower.contains("variance") ||
-                            lower.contains("stddev") ||
-                            lower.contains("standarddeviation") ||
-                            lower.contains("precision");
-                },
+        rules.add(new ConstraintRule("spread",
+                lower -> lower.contains("variance") ||
+                        lower.contains("stddev") ||
+                        lower.contains("standarddeviation") ||
+                        lower.contains("precision"),
                 "positive"
         ));
 
         // Probability and proportion parameters should be in [0,1]
-        rules.add(new ConstraintRule(
-                name -> {
-                    String lower = name.toLowerCase();
-                    return lower.contains("probability") ||
-                            lower.contains("prob") ||
-                            lower.contains("proportion") ||
-                            lower.contains("fraction");
-                },
+        rules.add(new ConstraintRule("probability",
+                lower -> lower.contains("probability") ||
+                        lower.contains("prob") ||
+                        lower.contains("proportion") ||
+                        lower.contains("fraction"),
                 "0-1"
         ));
 
         // Frequency parameters (plural) often need simplex constraint
-        rules.add(new ConstraintRule(
-                name -> name.toLowerCase().equals("frequencies") ||
-                        name.toLowerCase().endsWith("frequencies"),
+        rules.add(new ConstraintRule("frequencies",
+                lower -> lower.equals("frequencies") ||
+                        lower.endsWith("frequencies"),
                 "simplex"
         ));
 
         // Size, count, and dimension parameters should be positive integers
-        rules.add(new ConstraintRule(
-                name -> {
-                    String lower = name.toLowerCase();
-                    return (lower.contains("size") && !lower.contains("popsize") && !lower.contains("populationsize")) ||
-                            lower.contains("count") ||
-                            lower.contains("dimension") ||
-                            lower.equals("n") ||
-                            lower.equals("k");
-                },
+        rules.add(new ConstraintRule("size",
+                lower -> (lower.contains("size") && !lower.contains("popsize") && !lower.contains("populationsize")) ||
+                        lower.contains("count") ||
+                        lower.contains("dimension") ||
+                        lower.equals("n") ||
+                        lower.equals("k"),
                 "positive-integer"
         ));
 
         // Population size parameters should be positive
-        rules.add(new ConstraintRule(
-                name -> {
-                    String lower = name.toLowerCase();
-                    return lower.contains("popsize") ||
-                            lower.contains("populationsize") ||
-                            (lower.contains("population") && lower.contains("size"));
-                },
+        rules.add(new ConstraintRule("popSize",
+                lower -> lower.contains("popsize") ||
+                        lower.contains("populationsize") ||
+                        (lower.contains("population") && lower.contains("size")),
                 "positive"
         ));
 
         // Height and length parameters should be positive
-        rules.add(new ConstraintRule(
-                name -> {
-                    String lower = name.toLowerCase();
-                    return lower.contains("height") ||
-                            lower.contains("length") ||
-                            lower.contains("distance");
-                },
+        rules.add(new ConstraintRule("length",
+                lower -> lower.contains("height") ||
+                        lower.contains("length") ||
+                        lower.contains("distance"),
                 "positive"
         ));
 
         // Weight parameters that aren't part of "weighted" should be positive
-        rules.add(new ConstraintRule(
-                name -> {
-                    String lower = name.toLowerCase();
-                    return lower.equals("weight") ||
-                            (lower.contains("weight") && !lower.contains("weighted"));
-                },
+        rules.add(new ConstraintRule("weight",
+                lower -> lower.equals("weight") ||
+                        (lower.contains("weight") && !lower.contains("weighted")),
                 "positive"
         ));
 
         // Offset parameters should be non-negative
-        rules.add(new ConstraintRule(
-                name -> name.toLowerCase().equals("offset"),
+        rules.add(new ConstraintRule("offset",
+                lower -> lower.equals("offset"),
                 "non-negative"
         ));
 
         // Boolean flags
-        rules.add(new ConstraintRule(
-                name -> {
-                    String lower = name.toLowerCase();
-                    return lower.startsWith("is") ||
-                            lower.startsWith("has") ||
-                            lower.startsWith("use") ||
-                            lower.startsWith("include") ||
-                            lower.startsWith("exclude");
-                },
+        rules.add(new ConstraintRule("flag",
+                lower -> lower.startsWith("is") ||
+                        lower.startsWith("has") ||
+                        lower.startsWith("use") ||
+                        lower.startsWith("include") ||
+                        lower.startsWith("exclude"),
                 "boolean"
         ));
 
@@ -222,19 +252,22 @@ public class ConstraintResolver {
     }
 
     /**
-     * A rule for applying constraints based on patterns
+     * A rule for applying constraints based on patterns of the lower case argument name
      */
     private static class ConstraintRule {
-        private final java.util.function.Predicate<String> matcher;
+        private final String name;
+        private final Predicate<String> matcher;
         private final String constraint;
+        private final LongAdder hits = new LongAdder();
 
-        ConstraintRule(java.util.function.Predicate<String> matcher, String constraint) {
+        ConstraintRule(String name, Predicate<String> matcher, String constraint) {
+            this.name = name;
             this.matcher = matcher;
             this.constraint = constraint;
         }
 
-        boolean matches(String argName) {
-            return matcher.test(argName);
+        boolean matches(String lowerCaseArgName) {
+            return matcher.test(lowerCaseArgName);
         }
     }
 }
\ No newline at end of file
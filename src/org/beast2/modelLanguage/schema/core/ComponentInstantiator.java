@@ -0,0 +1,88 @@
+package org.beast2.modelLanguage.schema.core;
+
+import beast.base.core.BEASTInterface;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Runs code from scanned packages (class initialisation, constructors) in isolation.
+ * <p>
+ * Each call runs on a daemon thread of its own and is given a fixed time. A call that does not
+ * finish in time is abandoned: its thread is left behind (it cannot be stopped safely) and the
+ * caller gets a TimeoutException, so a hanging constructor costs one timeout instead of stalling
+ * the scan. Keys that timed out fail immediately on later calls. Errors such as
+ * ExceptionInInitializerError or NoClassDefFoundError are rethrown as exceptions.
+ */
+public class ComponentInstantiator {
+    private static final Logger logger = Logger.getLogger(ComponentInstantiator.class.getName());
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "component-instantiator-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Duration timeout;
+    private final Set<String> timedOut = ConcurrentHashMap.newKeySet();
+
+    public ComponentInstantiator() {
+        this(DEFAULT_TIMEOUT);
+    }
+
+    public ComponentInstantiator(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Create an instance with the no-argument constructor
+     */
+    public BEASTInterface newInstance(Class<?> clazz) throws Exception {
+        return call(clazz.getName(), () -> (BEASTInterface) clazz.getDeclaredConstructor().newInstance());
+    }
+
+    /**
+     * Run a task in isolation
+     *
+     * @param key identifies what the task runs, e.g. a class name; keys that timed out before fail fast
+     */
+    public <T> T call(String key, Callable<T> task) throws Exception {
+        if (timedOut.contains(key)) {
+            throw new TimeoutException(key + " timed out before");
+        }
+
+        Future<T> future = executor.submit(task);
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.add(key);
+            logger.warning("Abandoned " + key + " after " + timeout.toMillis() + " ms");
+            throw new TimeoutException(key + " did not finish within " + timeout.toMillis() + " ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw new ExecutionException(key + " failed: " + cause, cause);
+        }
+    }
+
+    /**
+     * Keys of the tasks that were abandoned
+     */
+    public Set<String> getTimedOut() {
+        return Set.copyOf(timedOut);
+    }
+}
@@ -0,0 +1,600 @@
+package org.beast2.modelLanguage.schema.core;
+
+import beast.base.core.Input;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Reads the inputs of a BEAST class without creating an instance of it.
+ * <p>
+ * Inputs are fields initialised with {@code new Input<>(name, tipText, ...)}, which the compiler
+ * copies into the constructors. The reader decodes the no-argument constructors of the class and
+ * its superclasses from their class files and replays the Input constructor calls, as long as the
+ * arguments are constants: strings, numbers, enum values, class literals, new empty collections,
+ * arrays of those, or other inputs of the same object. The expected type of an input is the type
+ * argument of its field.
+ * <p>
+ * A class is unreadable when a constructor does something that could change an input and cannot
+ * be replayed: an argument computed at run time, a method call on an input or on the object
+ * itself, a super or this call with arguments, or a branch before an input is assigned. Callers
+ * then fall back to instantiating the class. No constructor or static initialiser of the class
+ * runs; only enum classes used as default values are initialised.
+ */
+public class StaticInputReader {
+    private static final Logger logger = Logger.getLogger(StaticInputReader.class.getName());
+
+    private static final String INPUT = "beast/base/core/Input";
+    private static final String INPUT_DESCRIPTOR = "L" + INPUT + ";";
+
+    // Decoded no-argument constructors by class, empty if the class file is not available
+    private final Map<Class<?>, Optional<ConstructorCode>> constructors = new ConcurrentHashMap<>();
+
+    private final AtomicInteger readCount = new AtomicInteger();
+    private final AtomicInteger unreadableCount = new AtomicInteger();
+
+    /**
+     * An input of a class with the type expected by its field
+     */
+    public record DeclaredInput(Field field, Input<?> input, Type expectedType) {
+    }
+
+    /**
+     * Read the public inputs of a class, by input name in the order of {@link Class#getFields()}
+     *
+     * @return the inputs, or null if they cannot be read without instantiating the class
+     */
+    public Map<String, DeclaredInput> readInputs(Class<?> clazz) {
+        try {
+            Map<String, DeclaredInput> inputs = new LinkedHashMap<>();
+            Map<String, Input<?>> values = replayConstructors(clazz);
+            for (Field field : clazz.getFields()) {
+                if (!Input.class.isAssignableFrom(field.getType()) || Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                Input<?> input = values.get(key(field));
+                if (input == null) {
+                    throw new Unreadable("input field " + field.getName() + " is not assigned a constant Input");
+                }
+                inputs.put(input.getName(), new DeclaredInput(field, input, expectedType(field, input)));
+            }
+            readCount.incrementAndGet();
+            return inputs;
+        } catch (Unreadable | ReflectiveOperationException | LinkageError | RuntimeException e) {
+            unreadableCount.incrementAndGet();
+            logger.fine("Cannot read inputs of " + clazz.getName() + " statically: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Number of classes whose inputs were read without instantiating them
+     */
+    public int getReadCount() {
+        return readCount.get();
+    }
+
+    /**
+     * Number of classes that had to be instantiated instead
+     */
+    public int getUnreadableCount() {
+        return unreadableCount.get();
+    }
+
+    /**
+     * The type argument of the field, as BEASTUtils.getInputExpectedType finds it on an instance
+     */
+    private static Type expectedType(Field field, Input<?> input) {
+        try {
+            Type genericType = field.getGenericType();
+            if (genericType instanceof ParameterizedType paramType && paramType.getActualTypeArguments().length > 0) {
+                return paramType.getActualTypeArguments()[0];
+            }
+        } catch (TypeNotPresentException | LinkageError e) {
+            return Object.class;
+        }
+        return input.getType() != null ? input.getType() : Object.class;
+    }
+
+    private static String key(Field field) {
+        return field.getDeclaringClass().getName() + "#" + field.getName();
+    }
+
+    /**
+     * Run the Input assignments of the constructors from the top of the hierarchy down
+     *
+     * @return inputs by field key
+     */
+    private Map<String, Input<?>> replayConstructors(Class<?> clazz) throws Unreadable, ReflectiveOperationException {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(c);
+        }
+        Map<String, Class<?>> byInternalName = new HashMap<>();
+        for (Class<?> c : hierarchy) {
+            byInternalName.put(c.getName().replace('.', '/'), c);
+        }
+
+        Map<String, Input<?>> values = new HashMap<>();
+        for (int i = hierarchy.size() - 1; i >= 0; i--) {
+            Class<?> c = hierarchy.get(i);
+            Optional<ConstructorCode> constructor = constructors.computeIfAbsent(c, StaticInputReader::decode);
+            if (constructor.isPresent()) {
+                new Replay(c, constructor.get(), byInternalName, values).run();
+            } else if (c == clazz || declaresInputs(c)) {
+                throw new Unreadable("no class file or no-argument constructor for " + c.getName());
+            }
+        }
+        return values;
+    }
+
+    private static boolean declaresInputs(Class<?> clazz) {
+        for (Field field : clazz.getDeclaredFields()) {
+            if (Input.class.isAssignableFrom(field.getType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Class files
+
+    /**
+     * Constant pool and code of the no-argument constructor of a class
+     */
+    private record ConstructorCode(int[] tags, int[] refs1, int[] refs2, Object[] constants, byte[] code) {
+
+        String utf8(int index) {
+            return (String) constants[index];
+        }
+
+        String className(int index) {
+            return utf8(refs1[index]);
+        }
+
+        /** Owner, name and descriptor of a field or method reference */
+        String[] member(int index) {
+            int nameAndType = refs2[index];
+            return new String[]{className(refs1[index]), utf8(refs1[nameAndType]), utf8(refs2[nameAndType])};
+        }
+    }
+
+    private static Optional<ConstructorCode> decode(Class<?> clazz) {
+        ClassLoader loader = clazz.getClassLoader();
+        if (loader == null) {
+            return Optional.empty();
+        }
+        try (InputStream in = loader.getResourceAsStream(clazz.getName().replace('.', '/') + ".class")) {
+            if (in == null) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(parse(in.readAllBytes()));
+        } catch (IOException | RuntimeException e) {
+            logger.fine("Cannot decode class file of " + clazz.getName() + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static ConstructorCode parse(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("not a class file");
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+
+        int count = in.readUnsignedShort();
+        int[] tags = new int[count];
+        int[] refs1 = new int[count];
+        int[] refs2 = new int[count];
+        Object[] constants = new Object[count];
+        for (int i = 1; i < count; i++) {
+            tags[i] = in.readUnsignedByte();
+            switch (tags[i]) {
+                case 1 -> constants[i] = in.readUTF();
+                case 3 -> constants[i] = in.readInt();
+                case 4 -> constants[i] = in.readFloat();
+                case 5 -> constants[i++] = in.readLong();
+                case 6 -> constants[i++] = in.readDouble();
+                case 7, 8, 16, 19, 20 -> refs1[i] = in.readUnsignedShort();
+                case 9, 10, 11, 12, 17, 18 -> {
+                    refs1[i] = in.readUnsignedShort();
+                    refs2[i] = in.readUnsignedShort();
+                }
+                case 15 -> {
+                    in.readUnsignedByte();
+                    refs1[i] = in.readUnsignedShort();
+                }
+                default -> throw new IOException("unknown constant pool tag " + tags[i]);
+            }
+        }
+
+        in.readUnsignedShort(); // access flags
+        in.readUnsignedShort(); // this class
+        in.readUnsignedShort(); // super class
+        in.skipBytes(2 * in.readUnsignedShort()); // interfaces
+        int fields = in.readUnsignedShort();
+        for (int i = 0; i < fields; i++) {
+            in.skipBytes(6);
+            skipAttributes(in);
+        }
+
+        int methods = in.readUnsignedShort();
+        for (int i = 0; i < methods; i++) {
+            in.readUnsignedShort(); // access flags
+            String name = (String) constants[in.readUnsignedShort()];
+            String descriptor = (String) constants[in.readUnsignedShort()];
+            boolean noArgConstructor = name.equals("<init>") && descriptor.equals("()V");
+            int attributes = in.readUnsignedShort();
+            for (int j = 0; j < attributes; j++) {
+                String attribute = (String) constants[in.readUnsignedShort()];
+                int length = in.readInt();
+                if (noArgConstructor && attribute.equals("Code")) {
+                    in.skipBytes(4); // max stack, max locals
+                    byte[] code = new byte[in.readInt()];
+                    in.readFully(code);
+                    return new ConstructorCode(tags, refs1, refs2, constants, code);
+                }
+                in.skipBytes(length);
+            }
+        }
+        return null;
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            in.readUnsignedShort();
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    /**
+     * Length of the instruction at pc
+     */
+    private static int length(byte[] code, int pc) {
+        int opcode = code[pc] & 0xFF;
+        return switch (opcode) {
+            case 16, 18, 21, 22, 23, 24, 25, 54, 55, 56, 57, 58, 169, 188 -> 2;
+            case 17, 19, 20, 132, 178, 179, 180, 181, 182, 183, 184, 187, 189, 192, 193, 198, 199 -> 3;
+            case 197 -> 4;
+            case 185, 186, 200, 201 -> 5;
+            case 196 -> (code[pc + 1] & 0xFF) == 132 ? 6 : 4;
+            case 170 -> {
+                int base = pc + 1 + (4 - (pc + 1) % 4) % 4;
+                yield base - pc + 12 + 4 * (readInt(code, base + 8) - readInt(code, base + 4) + 1);
+            }
+            case 171 -> {
+                int base = pc + 1 + (4 - (pc + 1) % 4) % 4;
+                yield base - pc + 8 + 8 * readInt(code, base + 4);
+            }
+            default -> {
+                if (opcode >= 153 && opcode <= 168) {
+                    yield 3;
+                }
+                yield 1;
+            }
+        };
+    }
+
+    private static boolean isBranch(int opcode) {
+        return (opcode >= 153 && opcode <= 171) || (opcode >= 198 && opcode <= 201);
+    }
+
+    private static int readInt(byte[] code, int pc) {
+        return (code[pc] & 0xFF) << 24 | (code[pc + 1] & 0xFF) << 16 | (code[pc + 2] & 0xFF) << 8 | (code[pc + 3] & 0xFF);
+    }
+
+    private static int readShort(byte[] code, int pc) {
+        return (code[pc] & 0xFF) << 8 | (code[pc + 1] & 0xFF);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Replaying constructors
+
+    /** The object under construction */
+    private static final Object THIS = new Object();
+    /** A null on the operand stack */
+    private static final Object NULL = new Object();
+
+    /** Result of a {@code new} instruction before its constructor has run, compared by identity */
+    private static final class Uninitialised {
+        final String className;
+
+        Uninitialised(String className) {
+            this.className = className;
+        }
+    }
+
+    private static class Unreadable extends Exception {
+        Unreadable(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Replays the Input assignments of one constructor
+     */
+    private static class Replay {
+        private final Class<?> clazz;
+        private final ConstructorCode constructor;
+        private final Map<String, Class<?>> hierarchy;
+        private final Map<String, Input<?>> values;
+        private final ClassLoader loader;
+        private final String superName;
+
+        Replay(Class<?> clazz, ConstructorCode constructor, Map<String, Class<?>> hierarchy, Map<String, Input<?>> values) {
+            this.clazz = clazz;
+            this.constructor = constructor;
+            this.hierarchy = hierarchy;
+            this.values = values;
+            this.loader = clazz.getClassLoader();
+            this.superName = clazz.getSuperclass().getName().replace('.', '/');
+        }
+
+        void run() throws Unreadable, ReflectiveOperationException {
+            byte[] code = constructor.code();
+            // Classes of new instructions outside Input expressions, to tell their constructors from super()
+            List<String> pendingNew = new ArrayList<>();
+            boolean branched = false;
+
+            int pc = 0;
+            while (pc < code.length) {
+                int opcode = code[pc] & 0xFF;
+                switch (opcode) {
+                    case 187 -> { // new
+                        String className = constructor.className(readShort(code, pc + 1));
+                        if (className.equals(INPUT)) {
+                            if (branched) {
+                                throw new Unreadable("input assigned after a branch in " + clazz.getName());
+                            }
+                            pc = assignInput(pc);
+                            continue;
+                        }
+                        pendingNew.add(className);
+                    }
+                    case 181 -> { // putfield
+                        if (constructor.member(readShort(code, pc + 1))[2].equals(INPUT_DESCRIPTOR)) {
+                            throw new Unreadable("input assigned a computed value in " + clazz.getName());
+                        }
+                    }
+                    case 182, 183, 184, 185 -> { // invokevirtual, invokespecial, invokestatic, invokeinterface
+                        String[] method = constructor.member(readShort(code, pc + 1));
+                        String owner = method[0];
+                        if (owner.equals(INPUT)) {
+                            throw new Unreadable("calls Input." + method[1] + " in " + clazz.getName());
+                        }
+                        if (method[1].equals("<init>")) {
+                            if (!pendingNew.remove(owner)) {
+                                // the super() or this() call
+                                if (!owner.equals(superName) || !method[2].equals("()V")) {
+                                    throw new Unreadable("calls " + owner + ".<init>" + method[2] + " in " + clazz.getName());
+                                }
+                            }
+                        } else if (opcode != 184 && hierarchy.containsKey(owner)) {
+                            throw new Unreadable("calls " + method[1] + " on itself in " + clazz.getName());
+                        }
+                    }
+                    default -> branched |= isBranch(opcode);
+                }
+                pc += length(code, pc);
+            }
+        }
+
+        /**
+         * Evaluate {@code new Input(...)} starting at pc and store it in the field it is assigned to
+         *
+         * @return pc after the putfield
+         */
+        private int assignInput(int pc) throws Unreadable, ReflectiveOperationException {
+            byte[] code = constructor.code();
+            // aload_0 was pushed before the new instruction, for the putfield
+            List<Object> stack = new ArrayList<>();
+            stack.add(THIS);
+            stack.add(new Uninitialised(INPUT));
+
+            pc += 3;
+            while (true) {
+                int opcode = code[pc] & 0xFF;
+                switch (opcode) {
+                    case 1 -> push(stack, NULL); // aconst_null
+                    case 2, 3, 4, 5, 6, 7, 8 -> push(stack, opcode - 3); // iconst_m1 .. iconst_5
+                    case 9, 10 -> push(stack, (long) (opcode - 9)); // lconst
+                    case 11, 12, 13 -> push(stack, (float) (opcode - 11)); // fconst
+                    case 14, 15 -> push(stack, (double) (opcode - 14)); // dconst
+                    case 16 -> push(stack, (int) code[pc + 1]); // bipush
+                    case 17 -> push(stack, (int) (short) readShort(code, pc + 1)); // sipush
+                    case 18 -> push(stack, constant(code[pc + 1] & 0xFF)); // ldc
+                    case 19, 20 -> push(stack, constant(readShort(code, pc + 1))); // ldc_w, ldc2_w
+                    case 42 -> push(stack, THIS); // aload_0
+                    case 89 -> push(stack, stack.get(stack.size() - 1)); // dup
+                    case 83 -> { // aastore
+                        Object value = pop(stack);
+                        int index = (Integer) pop(stack);
+                        Array.set(pop(stack), index, value == NULL ? null : value);
+                    }
+                    case 178 -> push(stack, staticValue(readShort(code, pc + 1))); // getstatic
+                    case 180 -> push(stack, inputField(pop(stack), readShort(code, pc + 1))); // getfield
+                    case 181 -> { // putfield
+                        String[] field = constructor.member(readShort(code, pc + 1));
+                        Object value = pop(stack);
+                        if (pop(stack) != THIS || !stack.isEmpty() || !(value instanceof Input<?>)) {
+                            throw new Unreadable("Input expression not assigned to a field in " + clazz.getName());
+                        }
+                        values.put(fieldKey(field[0], field[1]), (Input<?>) value);
+                        return pc + 3;
+                    }
+                    case 183 -> construct(stack, readShort(code, pc + 1)); // invokespecial
+                    case 184 -> invokeStatic(stack, readShort(code, pc + 1)); // invokestatic
+                    case 187 -> { // new
+                        String className = constructor.className(readShort(code, pc + 1));
+                        if (className.equals(INPUT)) {
+                            throw new Unreadable("nested Input expression in " + clazz.getName());
+                        }
+                        push(stack, new Uninitialised(className));
+                    }
+                    case 189 -> { // anewarray
+                        Class<?> component = loadClass(constructor.className(readShort(code, pc + 1)));
+                        push(stack, Array.newInstance(component, (Integer) pop(stack)));
+                    }
+                    case 192 -> { // checkcast
+                    }
+                    default -> throw new Unreadable("Input argument computed at run time (opcode " + opcode
+                            + ") in " + clazz.getName());
+                }
+                pc += length(code, pc);
+            }
+        }
+
+        private void push(List<Object> stack, Object value) {
+            stack.add(value);
+        }
+
+        private Object pop(List<Object> stack) throws Unreadable {
+            if (stack.isEmpty()) {
+                throw new Unreadable("unexpected operand stack in " + clazz.getName());
+            }
+            return stack.remove(stack.size() - 1);
+        }
+
+        private Object constant(int index) throws Unreadable, ClassNotFoundException {
+            return switch (constructor.tags()[index]) {
+                case 3, 4, 5, 6 -> constructor.constants()[index];
+                case 8 -> constructor.utf8(constructor.refs1()[index]);
+                case 7 -> loadClass(constructor.className(index));
+                default -> throw new Unreadable("unsupported constant in " + clazz.getName());
+            };
+        }
+
+        /**
+         * Enum constants, including Input.Validate
+         */
+        private Object staticValue(int index) throws Unreadable, ReflectiveOperationException {
+            String[] field = constructor.member(index);
+            Class<?> owner = loadClass(field[0]);
+            if (!owner.isEnum()) {
+                throw new Unreadable("reads static field " + field[1] + " in " + clazz.getName());
+            }
+            return owner.getField(field[1]).get(null);
+        }
+
+        /**
+         * Another input of the object, e.g. the partner of an XOR input
+         */
+        private Object inputField(Object target, int index) throws Unreadable {
+            String[] field = constructor.member(index);
+            Input<?> input = target == THIS && field[2].equals(INPUT_DESCRIPTOR)
+                    ? values.get(fieldKey(field[0], field[1]))
+                    : null;
+            if (input == null) {
+                throw new Unreadable("reads field " + field[1] + " in " + clazz.getName());
+            }
+            return input;
+        }
+
+        /**
+         * Run the constructor of an Input or of an empty java.util collection
+         */
+        private void construct(List<Object> stack, int index) throws Unreadable, ReflectiveOperationException {
+            String[] method = constructor.member(index);
+            Class<?>[] parameterTypes = parameterTypes(method[2]);
+            Object[] args = new Object[parameterTypes.length];
+            for (int i = args.length - 1; i >= 0; i--) {
+                Object arg = pop(stack);
+                args[i] = arg == NULL ? null : arg;
+            }
+            Object target = pop(stack);
+            if (!(target instanceof Uninitialised uninitialised) || !uninitialised.className.equals(method[0])) {
+                throw new Unreadable("calls " + method[0] + ".<init> in an Input expression in " + clazz.getName());
+            }
+
+            Object value;
+            if (method[0].equals(INPUT)) {
+                value = Input.class.getConstructor(parameterTypes).newInstance(args);
+            } else if (method[0].startsWith("java/util/") && args.length == 0) {
+                value = loadClass(method[0]).getConstructor().newInstance();
+            } else {
+                throw new Unreadable("creates " + method[0] + " in an Input expression in " + clazz.getName());
+            }
+            Collections.replaceAll(stack, target, value);
+        }
+
+        /**
+         * Boxing of constants and the values() of enums
+         */
+        private void invokeStatic(List<Object> stack, int index) throws Unreadable, ClassNotFoundException {
+            String[] method = constructor.member(index);
+            String owner = method[0];
+            if (method[1].equals("valueOf") && owner.startsWith("java/lang/")) {
+                Object value = pop(stack);
+                switch (owner) {
+                    case "java/lang/Integer", "java/lang/Long", "java/lang/Float", "java/lang/Double" -> push(stack, value);
+                    case "java/lang/Boolean" -> push(stack, ((Integer) value) != 0);
+                    case "java/lang/Short" -> push(stack, ((Integer) value).shortValue());
+                    case "java/lang/Byte" -> push(stack, ((Integer) value).byteValue());
+                    case "java/lang/Character" -> push(stack, (char) ((Integer) value).intValue());
+                    default -> throw new Unreadable("calls " + owner + ".valueOf in " + clazz.getName());
+                }
+                return;
+            }
+            if (method[1].equals("values") && method[2].startsWith("()[")) {
+                Class<?> enumClass = loadClass(owner);
+                if (enumClass.isEnum()) {
+                    push(stack, enumClass.getEnumConstants());
+                    return;
+                }
+            }
+            throw new Unreadable("calls " + owner + "." + method[1] + " in an Input expression in " + clazz.getName());
+        }
+
+        /**
+         * Key of the field a reference resolves to, which may be declared in a superclass
+         */
+        private String fieldKey(String owner, String name) throws Unreadable {
+            for (Class<?> c = hierarchy.get(owner); c != null; c = c.getSuperclass()) {
+                try {
+                    return key(c.getDeclaredField(name));
+                } catch (NoSuchFieldException e) {
+                    // declared further up
+                }
+            }
+            throw new Unreadable("field " + owner + "." + name + " is not a field of " + clazz.getName());
+        }
+
+        private Class<?>[] parameterTypes(String descriptor) throws Unreadable, ClassNotFoundException {
+            List<Class<?>> types = new ArrayList<>();
+            int i = 1;
+            while (descriptor.charAt(i) != ')') {
+                int start = i;
+                while (descriptor.charAt(i) == '[') {
+                    i++;
+                }
+                if (descriptor.charAt(i) != 'L') {
+                    throw new Unreadable("primitive constructor argument in " + clazz.getName());
+                }
+                i = descriptor.indexOf(';', i) + 1;
+                String type = descriptor.substring(start, i);
+                types.add(type.startsWith("[")
+                        ? Class.forName(type.replace('/', '.'), false, loader)
+                        : loadClass(type.substring(1, type.length() - 1)));
+            }
+            return types.toArray(new Class<?>[0]);
+        }
+
+        private Class<?> loadClass(String internalName) throws ClassNotFoundException {
+            return Class.forName(internalName.replace('/', '.'), false, loader);
+        }
+    }
+}
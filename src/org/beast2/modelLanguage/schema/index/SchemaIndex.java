@@ -0,0 +1,289 @@
+package org.beast2.modelLanguage.schema.index;
+
+import org.beast2.modelLanguage.schema.core.TypeResolver;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.*;
+
+/**
+ * Index over a model library schema for validators, completion and type checking.
+ * <p>
+ * Everything is computed once when the index is built: the supertypes and subtypes of every type
+ * (following "extends" and "implements" transitively), the generators producing each type or one
+ * of its subtypes, the types accepted by each generator argument, and a trie of all type and
+ * generator names. Queries are map lookups or a walk down the trie and return unmodifiable
+ * views, so an index can be shared between threads.
+ */
+public class SchemaIndex {
+
+    private final TypeResolver typeResolver = new TypeResolver();
+
+    private final List<JSONObject> types = new ArrayList<>();
+    private final List<JSONObject> generators = new ArrayList<>();
+    // First type and first generators of each name
+    private final Map<String, JSONObject> typesByName = new HashMap<>();
+    private final Map<String, List<JSONObject>> generatorsByName = new HashMap<>();
+
+    // Direct supertypes, and the transitive closures including the type itself
+    private final Map<String, Set<String>> directSupertypes = new HashMap<>();
+    private final Map<String, Set<String>> supertypes = new HashMap<>();
+    private final Map<String, Set<String>> subtypes = new HashMap<>();
+
+    // Type -> generators producing it or a subtype
+    private final Map<String, List<JSONObject>> producers = new HashMap<>();
+    // "Generator.argument" -> argument, and the types it accepts
+    private final Map<String, JSONObject> arguments = new HashMap<>();
+    private final Map<String, Set<String>> acceptedTypes = new HashMap<>();
+
+    private final NameTrie names = new NameTrie();
+
+    public SchemaIndex(JSONObject schema) {
+        JSONObject modelLibrary = schema.getJSONObject("modelLibrary");
+        JSONArray typeArray = modelLibrary.getJSONArray("types");
+        JSONArray generatorArray = modelLibrary.getJSONArray("generators");
+
+        for (int i = 0; i < typeArray.length(); i++) {
+            JSONObject type = typeArray.getJSONObject(i);
+            String name = type.getString("name");
+            types.add(type);
+            typesByName.putIfAbsent(name, type);
+            names.add(name);
+
+            Set<String> direct = directSupertypes.computeIfAbsent(name, k -> new LinkedHashSet<>());
+            if (type.has("extends")) {
+                direct.add(type.getString("extends"));
+            }
+            JSONArray interfaces = type.optJSONArray("implements");
+            if (interfaces != null) {
+                for (int j = 0; j < interfaces.length(); j++) {
+                    direct.add(interfaces.getString(j));
+                }
+            }
+        }
+        for (int i = 0; i < generatorArray.length(); i++) {
+            JSONObject generator = generatorArray.getJSONObject(i);
+            generators.add(generator);
+            generatorsByName.computeIfAbsent(generator.getString("name"), k -> new ArrayList<>()).add(generator);
+            names.add(generator.getString("name"));
+        }
+
+        buildLattice();
+        buildProducers();
+        buildArguments();
+    }
+
+    private void buildLattice() {
+        Set<String> all = new HashSet<>(directSupertypes.keySet());
+        directSupertypes.values().forEach(all::addAll);
+        for (String type : all) {
+            supertypes.put(type, Collections.unmodifiableSet(collectSupertypes(type)));
+        }
+        for (Map.Entry<String, Set<String>> entry : supertypes.entrySet()) {
+            for (String supertype : entry.getValue()) {
+                subtypes.computeIfAbsent(supertype, k -> new LinkedHashSet<>()).add(entry.getKey());
+            }
+        }
+        subtypes.replaceAll((type, set) -> Collections.unmodifiableSet(set));
+    }
+
+    /**
+     * The type and all its supertypes, breadth first; cycles in a broken schema are ignored
+     */
+    private Set<String> collectSupertypes(String type) {
+        Set<String> result = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(type);
+        while (!queue.isEmpty()) {
+            String next = queue.poll();
+            if (result.add(next)) {
+                queue.addAll(directSupertypes.getOrDefault(next, Set.of()));
+            }
+        }
+        return result;
+    }
+
+    private void buildProducers() {
+        for (JSONObject generator : generators) {
+            String produced = generator.optString("generatedType", null);
+            if (produced == null) {
+                continue;
+            }
+            for (String type : getSupertypes(produced)) {
+                producers.computeIfAbsent(type, k -> new ArrayList<>()).add(generator);
+            }
+        }
+        producers.replaceAll((type, list) -> Collections.unmodifiableList(list));
+    }
+
+    private void buildArguments() {
+        for (List<JSONObject> sameName : generatorsByName.values()) {
+            JSONObject generator = sameName.get(0);
+            JSONArray args = generator.optJSONArray("arguments");
+            if (args == null) {
+                continue;
+            }
+            for (int i = 0; i < args.length(); i++) {
+                JSONObject argument = args.getJSONObject(i);
+                String key = generator.getString("name") + "." + argument.getString("name");
+                arguments.put(key, argument);
+                acceptedTypes.put(key, getSubtypes(typeResolver.extractBaseType(argument.getString("type"))));
+            }
+        }
+    }
+
+    public List<JSONObject> getTypes() {
+        return Collections.unmodifiableList(types);
+    }
+
+    public List<JSONObject> getGenerators() {
+        return Collections.unmodifiableList(generators);
+    }
+
+    /**
+     * The first type with this name, or null
+     */
+    public JSONObject getType(String name) {
+        return typesByName.get(name);
+    }
+
+    /**
+     * The first generator with this name, or null
+     */
+    public JSONObject getGenerator(String name) {
+        List<JSONObject> sameName = generatorsByName.get(name);
+        return sameName == null ? null : sameName.get(0);
+    }
+
+    /**
+     * All generators with this name, in library order; classes of different packages can share a name
+     */
+    public List<JSONObject> getGenerators(String name) {
+        return Collections.unmodifiableList(generatorsByName.getOrDefault(name, List.of()));
+    }
+
+    /**
+     * Whether the name is a type or a generator of the library
+     */
+    public boolean isKnownType(String name) {
+        return typesByName.containsKey(name) || generatorsByName.containsKey(name);
+    }
+
+    /**
+     * The type and everything it extends or implements, directly or indirectly
+     */
+    public Set<String> getSupertypes(String type) {
+        return supertypes.getOrDefault(type, Set.of(type));
+    }
+
+    /**
+     * The type and everything that extends or implements it, directly or indirectly
+     */
+    public Set<String> getSubtypes(String type) {
+        return subtypes.getOrDefault(type, Set.of(type));
+    }
+
+    /**
+     * Whether a value of the type can be used where the other type is expected
+     */
+    public boolean isAssignable(String type, String expectedType) {
+        return getSupertypes(type).contains(expectedType);
+    }
+
+    /**
+     * Generators whose generated type is the type or a subtype of it, in library order,
+     * e.g. all generators that produce a SubstitutionModel
+     */
+    public List<JSONObject> getGeneratorsProducing(String type) {
+        return producers.getOrDefault(type, List.of());
+    }
+
+    /**
+     * An argument of a generator, or null
+     */
+    public JSONObject getArgument(String generator, String argument) {
+        return arguments.get(generator + "." + argument);
+    }
+
+    /**
+     * Types of the values an argument accepts (the element type for lists and arrays),
+     * e.g. what can go into TreeLikelihood.siteModel; empty if there is no such argument
+     */
+    public Set<String> getAcceptedTypes(String generator, String argument) {
+        return acceptedTypes.getOrDefault(generator + "." + argument, Set.of());
+    }
+
+    /**
+     * Primitive values a type can be given as, e.g. Double for RealParameter
+     */
+    public List<String> getAcceptedPrimitives(String type) {
+        JSONObject definition = typesByName.get(type);
+        JSONArray primitives = definition == null ? null : definition.optJSONArray("acceptedPrimitives");
+        if (primitives == null) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>(primitives.length());
+        for (int i = 0; i < primitives.length(); i++) {
+            result.add(primitives.getString(i));
+        }
+        return result;
+    }
+
+    /**
+     * Type and generator names starting with the prefix, in alphabetical order
+     *
+     * @param limit maximum number of names
+     */
+    public List<String> complete(String prefix, int limit) {
+        return names.complete(prefix, limit);
+    }
+
+    /**
+     * Trie of names; each node keeps its children in character order
+     */
+    private static class NameTrie {
+        private final Node root = new Node();
+
+        private static class Node {
+            final TreeMap<Character, Node> children = new TreeMap<>();
+            boolean isName;
+        }
+
+        void add(String name) {
+            Node node = root;
+            for (int i = 0; i < name.length(); i++) {
+                node = node.children.computeIfAbsent(name.charAt(i), c -> new Node());
+            }
+            node.isName = true;
+        }
+
+        List<String> complete(String prefix, int limit) {
+            Node node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            List<String> result = new ArrayList<>();
+            if (node != null) {
+                collect(node, new StringBuilder(prefix), result, limit);
+            }
+            return result;
+        }
+
+        private static void collect(Node node, StringBuilder name, List<String> result, int limit) {
+            if (result.size() >= limit) {
+                return;
+            }
+            if (node.isName) {
+                result.add(name.toString());
+            }
+            for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                name.append(child.getKey());
+                collect(child.getValue(), name, result, limit);
+                name.setLength(name.length() - 1);
+                if (result.size() >= limit) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package org.beast2.modelLanguage.schema.scanner;
+
+import beast.pkgmgmt.BEASTVersion;
+import beast.pkgmgmt.Package;
+import org.beast2.modelLanguage.ResultCache;
+import org.beast2.modelLanguage.beast.BeastObjectFactory;
+import org.beast2.modelLanguage.schema.core.ComponentInfo;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Catalog of the components of each BEAST package, cached on disk per package version.
+ * <p>
+ * Scanning a package loads and filters every class in it, which instantiates most of them.
+ * The catalog keeps the result (the names of the component classes) in one JSON file per
+ * package, together with the type and generator fragments built from them by the schema
+ * generator. An entry is used as long as the package version, the BEAST version, the
+ * Beast2Lang build and the configuration of the component filter are unchanged; otherwise the
+ * package is scanned again and its fragments are rebuilt. The schema generator and the input
+ * type analyzer share the catalog; an entry written with another filter configuration, i.e. a
+ * different instantiation timeout or way of reading inputs, is not used.
+ */
+public class ComponentCatalog {
+    private static final Logger logger = Logger.getLogger(ComponentCatalog.class.getName());
+
+    /** System property for the catalog directory, by default ~/.beast2lang/catalog */
+    public static final String DIRECTORY_PROPERTY = "beast2lang.catalog.dir";
+
+    private static final int FORMAT = 1;
+
+    private final File directory;
+    private final ComponentScanner scanner;
+    private final BeastObjectFactory factory;
+
+    /**
+     * @param directory directory for the catalog files, null to scan every time without caching
+     */
+    public ComponentCatalog(File directory, ComponentScanner scanner, BeastObjectFactory factory) {
+        this.directory = directory;
+        this.scanner = scanner;
+        this.factory = factory;
+    }
+
+    /**
+     * The catalog directory given by the system property, or the default one
+     */
+    public static File getDefaultDirectory() {
+        String dir = System.getProperty(DIRECTORY_PROPERTY);
+        return dir != null
+                ? new File(dir)
+                : new File(System.getProperty("user.home"), ".beast2lang" + File.separator + "catalog");
+    }
+
+    /**
+     * Components of a package, from the catalog if the package is unchanged, otherwise
+     * from a new scan, which is then stored
+     */
+    public Entry getEntry(Package pkg) {
+        String name = pkg.getName();
+        String version = versionOf(pkg);
+
+        Entry entry = load(name, version);
+        if (entry != null) {
+            logger.fine("Using catalog entry for " + name + " " + version);
+            return entry;
+        }
+
+        logger.info("Scanning package " + name + " " + version);
+        List<ComponentInfo> components = scanner.scanPackages(Map.of(name, pkg));
+        entry = new Entry(name, version, components, null, null);
+        save(entry);
+        return entry;
+    }
+
+    /**
+     * Entries of all packages, ordered by package name
+     */
+    public List<Entry> getEntries(Map<String, Package> packages) {
+        List<Entry> entries = new ArrayList<>();
+        packages.values().stream()
+                .sorted((a, b) -> a.getName().compareTo(b.getName()))
+                .forEach(pkg -> entries.add(getEntry(pkg)));
+        return entries;
+    }
+
+    /**
+     * Components of all packages, ordered by package name
+     */
+    public List<ComponentInfo> getComponents(Map<String, Package> packages) {
+        List<ComponentInfo> components = new ArrayList<>();
+        for (Entry entry : getEntries(packages)) {
+            components.addAll(entry.getComponents());
+        }
+        return components;
+    }
+
+    /**
+     * Store the type and generator fragments built for the components of an entry
+     */
+    public Entry storeFragments(Entry entry, JSONArray types, JSONArray generators) {
+        Entry updated = new Entry(entry.getName(), entry.getVersion(), entry.getComponents(), types, generators);
+        save(updated);
+        return updated;
+    }
+
+    private static String versionOf(Package pkg) {
+        return pkg.isInstalled() && pkg.getInstalledVersion() != null
+                ? pkg.getInstalledVersion().toString()
+                : "not installed";
+    }
+
+    /**
+     * Timeout of the filter's instantiator in ms; classes that time out are left out of a scan
+     */
+    private long instantiationTimeout() {
+        return scanner.getFilter().getInstantiator().getTimeout().toMillis();
+    }
+
+    private File fileFor(String packageName) {
+        return new File(directory, packageName.replaceAll("[^a-zA-Z0-9_.\\-]", "_") + ".json");
+    }
+
+    /**
+     * Load the entry of a package, or null if there is none for this version
+     * or one of its classes no longer loads
+     */
+    private Entry load(String name, String version) {
+        if (directory == null) {
+            return null;
+        }
+        File file = fileFor(name);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            JSONObject json = new JSONObject(Files.readString(file.toPath(), StandardCharsets.UTF_8));
+            if (json.optInt("format") != FORMAT
+                    || !name.equals(json.optString("name"))
+                    || !version.equals(json.optString("version"))
+                    || !BEASTVersion.INSTANCE.getVersion().equals(json.optString("beastVersion"))
+                    || !ResultCache.buildStamp().equals(json.optString("build"))
+                    || json.optLong("instantiationTimeout") != instantiationTimeout()
+                    || !json.has("staticInputs")
+                    || json.getBoolean("staticInputs") != scanner.getFilter().isStaticInputs()) {
+                return null;
+            }
+
+            List<ComponentInfo> components = new ArrayList<>();
+            JSONArray array = json.getJSONArray("components");
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject component = array.getJSONObject(i);
+                Class<?> clazz = factory.loadClass(component.getString("className"));
+                components.add(new ComponentInfo(clazz, component.getString("packageName")));
+            }
+            return new Entry(name, version, components,
+                    json.optJSONArray("types"), json.optJSONArray("generators"));
+        } catch (IOException | JSONException | ClassNotFoundException | LinkageError e) {
+            logger.info("Ignoring catalog entry for " + name + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void save(Entry entry) {
+        if (directory == null) {
+            return;
+        }
+        JSONObject json = new JSONObject();
+        json.put("format", FORMAT);
+        json.put("name", entry.getName());
+        json.put("version", entry.getVersion());
+        json.put("beastVersion", BEASTVersion.INSTANCE.getVersion());
+        json.put("build", ResultCache.buildStamp());
+        json.put("instantiationTimeout", instantiationTimeout());
+        json.put("staticInputs", scanner.getFilter().isStaticInputs());
+        JSONArray components = new JSONArray();
+        for (ComponentInfo component : entry.getComponents()) {
+            JSONObject c = new JSONObject();
+            c.put("className", component.getClassName());
+            c.put("packageName", component.getPackageName());
+            components.put(c);
+        }
+        json.put("components", components);
+        if (entry.hasFragments()) {
+            json.put("types", entry.getTypes());
+            json.put("generators", entry.getGenerators());
+        }
+
+        // Write to a temporary file and rename, so a concurrent reader never sees half an entry
+        try {
+            Files.createDirectories(directory.toPath());
+            Path temp = Files.createTempFile(directory.toPath(), "catalog", ".tmp");
+            try {
+                Files.writeString(temp, json.toString(), StandardCharsets.UTF_8);
+                Files.move(temp, fileFor(entry.getName()).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            logger.warning("Could not write catalog entry for " + entry.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * The components of one package version, with the schema fragments built from them if available
+     */
+    public static class Entry {
+        private final String name;
+        private final String version;
+        private final List<ComponentInfo> components;
+        private final JSONArray types;
+        private final JSONArray generators;
+
+        Entry(String name, String version, List<ComponentInfo> components, JSONArray types, JSONArray generators) {
+            this.name = name;
+            this.version = version;
+            this.components = Collections.unmodifiableList(new ArrayList<>(components));
+            this.types = types;
+            this.generators = generators;
+        }
+
+        public String getName() { return name; }
+        public String getVersion() { return version; }
+        public List<ComponentInfo> getComponents() { return components; }
+        public boolean hasFragments() { return types != null && generators != null; }
+        public JSONArray getTypes() { return types; }
+        public JSONArray getGenerators() { return generators; }
+    }
+}
@@ -2,19 +2,26 @@ package org.beast2.modelLanguage.schema.scanner;
 
 import beast.base.core.BEASTInterface;
 import beast.base.core.Input;
+import org.beast2.modelLanguage.schema.core.ComponentInstantiator;
+import org.beast2.modelLanguage.schema.core.StaticInputReader;
 
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
 /**
- * Filters classes to determine which ones are model components
+ * Filters classes to determine which ones are model components.
+ * Safe to use from several threads.
  */
 public class ComponentFilter {
     private static final Logger logger = Logger.getLogger(ComponentFilter.class.getName());
 
     private final FilterReport filterReport = new FilterReport();
+    private final ComponentInstantiator instantiator;
+    private volatile StaticInputReader inputReader;
 
     private static final Set<String> EXCLUDED_PACKAGES = Set.of(
             "beastfx.app"
@@ -36,6 +43,83 @@ public class ComponentFilter {
             "beast.base.inference.Logger"
     );
 
+    // Inference classes that are on the class path, loaded once
+    private static final List<Class<?>> INFERENCE_CLASS_TYPES = loadClasses(INFERENCE_CLASSES);
+
+    // Whether a superclass of the class is in a GUI package; superclasses are shared, so each is checked once
+    private static final ClassValue<Boolean> GUI_SUBCLASS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> clazz) {
+            Class<?> superclass = clazz.getSuperclass();
+            if (superclass == null) {
+                return false;
+            }
+            return (superclass.getPackage() != null && isGUIPackage(superclass.getPackage().getName()))
+                    || get(superclass);
+        }
+    };
+
+    /**
+     * The rules of {@link #isModelClass}, in the order they are tried
+     */
+    public enum Rule {
+        GUI_PACKAGE, GUI_SUPERCLASS, INFERENCE_CLASS, OPERATOR_PACKAGE, INPUT_TYPE,
+        TEST_CLASS, BEAUTI_NAME, LOGGER_NAME, NONE
+    }
+
+    private enum TypeCategory {INFERENCE, GUI, MODEL}
+
+    // Package and type names recur for many classes and inputs, so their rules are evaluated once per name
+    private final Map<String, Rule> packageRules = new ConcurrentHashMap<>();
+    private final Map<String, TypeCategory> typeCategories = new ConcurrentHashMap<>();
+    private final Map<Rule, LongAdder> ruleHits = new EnumMap<>(Rule.class);
+
+    public ComponentFilter() {
+        this(new ComponentInstantiator());
+    }
+
+    /**
+     * @param instantiator creates the instances whose inputs are checked
+     */
+    public ComponentFilter(ComponentInstantiator instantiator) {
+        this.instantiator = instantiator;
+        for (Rule rule : Rule.values()) {
+            ruleHits.put(rule, new LongAdder());
+        }
+    }
+
+    private static List<Class<?>> loadClasses(Set<String> classNames) {
+        List<Class<?>> classes = new ArrayList<>();
+        for (String className : classNames) {
+            try {
+                classes.add(Class.forName(className));
+            } catch (ClassNotFoundException e) {
+                // Class not found, continue
+            }
+        }
+        return classes;
+    }
+
+    public ComponentInstantiator getInstantiator() {
+        return instantiator;
+    }
+
+    /**
+     * Read the inputs that are checked from the class files where possible instead of from an instance
+     *
+     * @param inputReader the reader, or null to always instantiate
+     */
+    public void setInputReader(StaticInputReader inputReader) {
+        this.inputReader = inputReader;
+    }
+
+    /**
+     * Whether inputs are read from the class files, see {@link #setInputReader}
+     */
+    public boolean isStaticInputs() {
+        return inputReader != null;
+    }
+
     public FilterReport getFilterReport() {
         return filterReport;
     }
@@ -46,122 +130,130 @@ public class ComponentFilter {
     public boolean isModelClass(Class<?> clazz) {
         String className = clazz.getName();
         String packageName = clazz.getPackage() != null ? clazz.getPackage().getName() : "";
+        Rule packageRule = packageRules.computeIfAbsent(packageName, ComponentFilter::findPackageRule);
 
         // Exclude BEAUti GUI components
-        if (isGUIPackage(packageName)) {
-            String reason = "GUI package: " + packageName;
-            logger.fine("Excluding BEAUti/GUI class: " + clazz.getSimpleName());
-            filterReport.addFiltered(className, reason);
-            return false;
+        if (packageRule == Rule.GUI_PACKAGE) {
+            return exclude(Rule.GUI_PACKAGE, clazz, "GUI package: " + packageName, "BEAUti/GUI class");
         }
 
         // Check if extends GUI classes
-        if (extendsGUIClass(clazz)) {
-            String reason = "Extends GUI class";
-            logger.fine("Excluding subclass of BEAUti/GUI class: " + clazz.getSimpleName());
-            filterReport.addFiltered(className, reason);
-            return false;
+        if (GUI_SUBCLASS.get(clazz)) {
+            return exclude(Rule.GUI_SUPERCLASS, clazz, "Extends GUI class", "subclass of BEAUti/GUI class");
         }
 
         // Exclude inference machinery
         if (isInferenceClass(clazz)) {
-            String reason = "Inference class (Runnable/Operator/Logger/OperatorSchedule)";
-            logger.fine("Excluding inference class: " + clazz.getSimpleName());
-            filterReport.addFiltered(className, reason);
-            return false;
+            return exclude(Rule.INFERENCE_CLASS, clazz,
+                    "Inference class (Runnable/Operator/Logger/OperatorSchedule)", "inference class");
         }
 
         // Exclude operator packages
-        if (isOperatorPackage(packageName)) {
-            String reason = "Operator package: " + packageName;
-            logger.fine("Excluding operator package class: " + clazz.getSimpleName());
-            filterReport.addFiltered(className, reason);
-            return false;
+        if (packageRule == Rule.OPERATOR_PACKAGE) {
+            return exclude(Rule.OPERATOR_PACKAGE, clazz, "Operator package: " + packageName, "operator package class");
         }
 
         // Check inputs for inference/GUI types
         String inputCheckResult = checkInputsForInferenceOrGUI(clazz);
         if (inputCheckResult != null) {
+            ruleHits.get(Rule.INPUT_TYPE).increment();
             filterReport.addFiltered(className, inputCheckResult);
             return false;
         }
 
         // Exclude test classes
         if (isTestClass(className)) {
-            String reason = "Test class";
-            logger.fine("Excluding test class: " + clazz.getSimpleName());
-            filterReport.addFiltered(className, reason);
-            return false;
+            return exclude(Rule.TEST_CLASS, clazz, "Test class", "test class");
         }
 
         // Exclude BEAUti-related classes
         if (isBEAutiRelated(className)) {
-            String reason = "BEAUti-related class name";
-            logger.fine("Excluding BEAUti-related class: " + clazz.getSimpleName());
-            filterReport.addFiltered(className, reason);
-            return false;
+            return exclude(Rule.BEAUTI_NAME, clazz, "BEAUti-related class name", "BEAUti-related class");
         }
 
         // Exclude logger-like classes (except TreeLogger)
         if (isLoggerClass(className)) {
-            String reason = "Logger class (except TreeLogger)";
-            logger.fine("Excluding logger-like class: " + clazz.getSimpleName());
-            filterReport.addFiltered(className, reason);
-            return false;
+            return exclude(Rule.LOGGER_NAME, clazz, "Logger class (except TreeLogger)", "logger-like class");
         }
 
+        ruleHits.get(Rule.NONE).increment();
         return true;
     }
 
+    private boolean exclude(Rule rule, Class<?> clazz, String reason, String description) {
+        ruleHits.get(rule).increment();
+        logger.fine("Excluding " + description + ": " + clazz.getSimpleName());
+        filterReport.addFiltered(clazz.getName(), reason);
+        return false;
+    }
+
+    /**
+     * Number of classes each rule excluded, in the order the rules are tried, with NONE for the
+     * model classes that passed all of them
+     */
+    public Map<Rule, Long> getRuleHits() {
+        Map<Rule, Long> hits = new EnumMap<>(Rule.class);
+        ruleHits.forEach((rule, count) -> hits.put(rule, count.sum()));
+        return hits;
+    }
+
     /**
      * Check if a type name is an inference-related type
      */
     public boolean isInferenceType(String typeName) {
-        return INFERENCE_TYPES.contains(typeName) ||
-                typeName.contains("Logger") ||
-                typeName.contains("Operator") ||
-                typeName.contains("OperatorSchedule");
+        return typeCategories.computeIfAbsent(typeName, ComponentFilter::findTypeCategory) == TypeCategory.INFERENCE;
     }
 
     /**
      * Check if a type name is a BEAUti/GUI-related type
      */
     public boolean isGUIType(String typeName) {
-        return GUI_TYPES.contains(typeName) ||
-                typeName.contains("Beauti");
+        return typeCategories.computeIfAbsent(typeName, ComponentFilter::findTypeCategory) == TypeCategory.GUI;
+    }
+
+    private static TypeCategory findTypeCategory(String typeName) {
+        if (INFERENCE_TYPES.contains(typeName) ||
+                typeName.contains("Logger") ||
+                typeName.contains("Operator") ||
+                typeName.contains("OperatorSchedule")) {
+            return TypeCategory.INFERENCE;
+        }
+        if (GUI_TYPES.contains(typeName) ||
+                typeName.contains("Beauti")) {
+            return TypeCategory.GUI;
+        }
+        return TypeCategory.MODEL;
     }
 
-    private boolean isGUIPackage(String packageName) {
-        return EXCLUDED_PACKAGES.stream().anyMatch(packageName::startsWith);
+    private static Rule findPackageRule(String packageName) {
+        if (isGUIPackage(packageName)) {
+            return Rule.GUI_PACKAGE;
+        }
+        if (isOperatorPackage(packageName)) {
+            return Rule.OPERATOR_PACKAGE;
+        }
+        return Rule.NONE;
     }
 
-    private boolean extendsGUIClass(Class<?> clazz) {
-        Class<?> current = clazz.getSuperclass();
-        while (current != null) {
-            if (current.getPackage() != null &&
-                    isGUIPackage(current.getPackage().getName())) {
+    private static boolean isGUIPackage(String packageName) {
+        for (String excluded : EXCLUDED_PACKAGES) {
+            if (packageName.startsWith(excluded)) {
                 return true;
             }
-            current = current.getSuperclass();
         }
         return false;
     }
 
-    private boolean isInferenceClass(Class<?> clazz) {
-        for (String inferenceClassName : INFERENCE_CLASSES) {
-            try {
-                Class<?> inferenceClass = Class.forName(inferenceClassName);
-                if (inferenceClass.isAssignableFrom(clazz)) {
-                    return true;
-                }
-            } catch (ClassNotFoundException e) {
-                // Class not found, continue
+    private static boolean isInferenceClass(Class<?> clazz) {
+        for (Class<?> inferenceClass : INFERENCE_CLASS_TYPES) {
+            if (inferenceClass.isAssignableFrom(clazz)) {
+                return true;
             }
         }
         return false;
     }
 
-    private boolean isOperatorPackage(String packageName) {
+    private static boolean isOperatorPackage(String packageName) {
         return packageName.contains(".operators") ||
                 packageName.contains(".operator");
     }
@@ -171,8 +263,7 @@ public class ComponentFilter {
                 !clazz.isInterface() &&
                 !Modifier.isAbstract(clazz.getModifiers())) {
             try {
-                BEASTInterface instance = (BEASTInterface) clazz.getDeclaredConstructor().newInstance();
-                for (Input<?> input : instance.listInputs()) {
+                for (Input<?> input : listInputs(clazz)) {
                     String typeName = getInputTypeName(input);
                     if (isInferenceType(typeName)) {
                         String reason = "Has inference input '" + input.getName() + "' of type " + typeName;
@@ -194,6 +285,21 @@ public class ComponentFilter {
         return null;
     }
 
+    /**
+     * Inputs of a class, read from its class files if possible, otherwise from an instance
+     */
+    private Collection<Input<?>> listInputs(Class<?> clazz) throws Exception {
+        StaticInputReader reader = inputReader;
+        if (reader != null) {
+            Map<String, StaticInputReader.DeclaredInput> declared = reader.readInputs(clazz);
+            if (declared != null) {
+                return declared.values().stream().<Input<?>>map(StaticInputReader.DeclaredInput::input).toList();
+            }
+        }
+        BEASTInterface instance = instantiator.newInstance(clazz);
+        return instance.listInputs();
+    }
+
     private String getInputTypeName(Input<?> input) {
         Type type = input.getType();
         if (type == null) {
@@ -4,59 +4,95 @@ import beast.base.core.BEASTInterface;
 import beast.pkgmgmt.Package;
 import org.beast2.modelLanguage.beast.BeastObjectFactory;
 import org.beast2.modelLanguage.schema.core.ComponentInfo;
+import org.beast2.modelLanguage.schema.core.ComponentInstantiator;
 
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 
 /**
- * Scans for BEAST2 components in packages and specific types
+ * Scans for BEAST2 components in packages and specific types.
+ * <p>
+ * Package classes are loaded and filtered in parallel on a ForkJoin pool. Results are
+ * collected in a fixed order (packages by name, classes in the order the package lists them),
+ * so the output does not depend on scheduling. Class initialisation and constructors run
+ * through the filter's {@link ComponentInstantiator}, so a class that hangs is given up on.
  */
 public class ComponentScanner {
     private static final Logger logger = Logger.getLogger(ComponentScanner.class.getName());
     
     private final BeastObjectFactory factory;
     private final ComponentFilter filter;
+    private final ComponentInstantiator instantiator;
+    private final ForkJoinPool pool;
     
     public ComponentScanner(BeastObjectFactory factory, ComponentFilter filter) {
+        this(factory, filter, ForkJoinPool.commonPool());
+    }
+    
+    public ComponentScanner(BeastObjectFactory factory, ComponentFilter filter, ForkJoinPool pool) {
         this.factory = factory;
         this.filter = filter;
+        this.instantiator = filter.getInstantiator();
+        this.pool = pool;
+    }
+
+    public ComponentFilter getFilter() {
+        return filter;
     }
     
     /**
      * Scan all packages for components
      */
     public List<ComponentInfo> scanPackages(Map<String, Package> packages) {
-        List<ComponentInfo> components = new ArrayList<>();
-        
-        for (Map.Entry<String, Package> entry : packages.entrySet()) {
-            String packageName = entry.getKey();
-            Package pkg = entry.getValue();
-            
-            List<String> classes = factory.findModelObjectClasses(pkg.getName());
-            
-            for (String className : classes) {
-                try {
-                    Class<?> clazz = factory.loadClass(className);
-                    
-                    if (BEASTInterface.class.isAssignableFrom(clazz) && filter.isModelClass(clazz)) {
-                        components.add(new ComponentInfo(clazz, pkg.getName()));
-                        
-                        // Also scan for public inner BEASTInterfaces
-                        components.addAll(scanInnerBEASTInterfaces(clazz, pkg.getName()));
-                    }
-                } catch (Exception e) {
-                    logger.fine("Could not process class: " + className + " - " + e.getMessage());
-                }
+        // Listing classes initialises the package manager's class list, so it is done serially
+        List<Map.Entry<String, String>> classes = new ArrayList<>();
+        List<String> packageNames = packages.values().stream()
+                .map(Package::getName)
+                .distinct()
+                .sorted()
+                .toList();
+        for (String packageName : packageNames) {
+            for (String className : factory.findModelObjectClasses(packageName)) {
+                classes.add(Map.entry(packageName, className));
             }
         }
         
+        List<List<ComponentInfo>> results = pool.submit(() -> classes.parallelStream()
+                .map(entry -> scanClass(entry.getValue(), entry.getKey()))
+                .toList()).join();
+        
+        List<ComponentInfo> components = new ArrayList<>();
+        results.forEach(components::addAll);
+        logger.info("Scanned " + classes.size() + " classes in " + packageNames.size() + " packages");
         return components;
     }
     
+    /**
+     * Load and filter one class of a package, with its public inner BEASTInterfaces
+     */
+    private List<ComponentInfo> scanClass(String className, String packageName) {
+        try {
+            Class<?> clazz = instantiator.call(className, () -> factory.loadClass(className));
+            
+            if (BEASTInterface.class.isAssignableFrom(clazz) && filter.isModelClass(clazz)) {
+                List<ComponentInfo> components = new ArrayList<>();
+                components.add(new ComponentInfo(clazz, packageName));
+                
+                // Also scan for public inner BEASTInterfaces
+                components.addAll(scanInnerBEASTInterfaces(clazz, packageName));
+                return components;
+            }
+        } catch (Exception e) {
+            logger.fine("Could not process class: " + className + " - " + e.getMessage());
+        }
+        return List.of();
+    }
+    
     /**
      * Scan specific important types
      */
@@ -3,30 +3,31 @@ package org.beast2.modelLanguage.schema.scanner;
 import java.util.*;
 
 /**
- * Tracks components that were filtered out and the reasons why
+ * Tracks components that were filtered out and the reasons why.
+ * Filters running on several threads report to it concurrently.
  */
 public class FilterReport {
     private final Map<String, List<String>> filteredComponents = new TreeMap<>();
     private final Map<String, Integer> reasonCounts = new TreeMap<>();
 
-    public void addFiltered(String className, String reason) {
+    public synchronized void addFiltered(String className, String reason) {
         filteredComponents.computeIfAbsent(className, k -> new ArrayList<>()).add(reason);
         reasonCounts.merge(reason, 1, Integer::sum);
     }
 
-    public Map<String, List<String>> getFilteredComponents() {
-        return Collections.unmodifiableMap(filteredComponents);
+    public synchronized Map<String, List<String>> getFilteredComponents() {
+        return Collections.unmodifiableMap(new TreeMap<>(filteredComponents));
     }
 
-    public Map<String, Integer> getReasonCounts() {
-        return Collections.unmodifiableMap(reasonCounts);
+    public synchronized Map<String, Integer> getReasonCounts() {
+        return Collections.unmodifiableMap(new TreeMap<>(reasonCounts));
     }
 
-    public int getTotalFiltered() {
+    public synchronized int getTotalFiltered() {
         return filteredComponents.size();
     }
 
-    public String generateReport() {
+    public synchronized String generateReport() {
         StringBuilder report = new StringBuilder();
         report.append("\n=== COMPONENT FILTER REPORT ===\n");
         report.append("Total components filtered: ").append(getTotalFiltered()).append("\n\n");
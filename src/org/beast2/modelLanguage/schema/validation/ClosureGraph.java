@@ -0,0 +1,349 @@
+package org.beast2.modelLanguage.schema.validation;
+
+import org.beast2.modelLanguage.schema.core.TypeResolver;
+import org.beast2.modelLanguage.schema.scanner.ComponentFilter;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Type-reference graph of a model library, validated incrementally.
+ * <p>
+ * Nodes are the type and generator definitions; edges are their references to other types (what a
+ * type extends and implements, the types of generator arguments). The graph keeps the set of
+ * references to types that are not defined. {@link #update} applies a new version of the library:
+ * only nodes whose references changed are replaced, and only their references and references to
+ * names that were added or removed are resolved again. When a single package is regenerated, this
+ * is a small part of the library. The returned {@link Diff} lists the references that broke or were
+ * fixed since the previous version, and the graph can be saved to compare the next generated library.
+ */
+public class ClosureGraph {
+
+    private static final Set<String> PRIMITIVE_TYPES = Set.of(
+            "Integer", "Double", "String", "Boolean",
+            "int", "double", "boolean", "Long", "Float",
+            "Object", "T", "Map", "File"
+    );
+
+    private static final int FORMAT = 1;
+
+    /**
+     * A reference from a node to a type, e.g. "HKY.kappa" to Function
+     *
+     * @param node  key of the referencing node
+     * @param usage how the type is used, as in the closure report
+     * @param type  referenced type, the element type for lists and arrays
+     */
+    public record Reference(String node, String usage, String type) {
+        JSONObject toJSON() {
+            return new JSONObject().put("node", node).put("usage", usage).put("type", type);
+        }
+
+        static Reference fromJSON(JSONObject json) {
+            return new Reference(json.getString("node"), json.getString("usage"), json.getString("type"));
+        }
+    }
+
+    /**
+     * Changes in closure from one version of the library to the next
+     *
+     * @param broken            references that are unresolved now but were not before, or are new
+     * @param fixed             references that were unresolved before and are resolved or gone now
+     * @param changedNodes      nodes that were added, removed or changed
+     * @param checkedReferences references that were resolved again
+     * @param unresolved        unresolved references in the new version
+     */
+    public record Diff(List<Reference> broken, List<Reference> fixed,
+                       int changedNodes, int checkedReferences, int unresolved) {
+
+        public boolean isEmpty() {
+            return broken.isEmpty() && fixed.isEmpty();
+        }
+
+        public JSONObject toJSON() {
+            JSONObject json = new JSONObject();
+            json.put("broken", new JSONArray(broken.stream().map(Reference::toJSON).toList()));
+            json.put("fixed", new JSONArray(fixed.stream().map(Reference::toJSON).toList()));
+            json.put("changedNodes", changedNodes);
+            json.put("checkedReferences", checkedReferences);
+            json.put("unresolved", unresolved);
+            return json;
+        }
+    }
+
+    /**
+     * A definition and its references
+     */
+    private record Node(String name, List<Reference> references) {
+    }
+
+    private final TypeResolver typeResolver = new TypeResolver();
+    private final ComponentFilter componentFilter;
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    // Number of nodes defining each name; a type is available while this is positive
+    private final Map<String, Integer> definitions = new HashMap<>();
+    // Referenced type -> references to it, to resolve them again when it is added or removed
+    private final Map<String, Set<Reference>> referencesTo = new HashMap<>();
+    private final Set<Reference> unresolved = new LinkedHashSet<>();
+
+    public ClosureGraph(ComponentFilter componentFilter) {
+        this.componentFilter = componentFilter;
+    }
+
+    /**
+     * Apply a new version of the library
+     */
+    public Diff update(JSONObject schema) {
+        JSONObject modelLibrary = schema.getJSONObject("modelLibrary");
+        return update(toList(modelLibrary.getJSONArray("types")), toList(modelLibrary.getJSONArray("generators")));
+    }
+
+    /**
+     * Apply a new version of the library, given by its type and generator definitions
+     */
+    public Diff update(List<JSONObject> types, List<JSONObject> generators) {
+        Map<String, Node> newNodes = new LinkedHashMap<>();
+        for (JSONObject type : types) {
+            addNode(newNodes, "type:" + keyOf(type), type.getString("name"), typeReferences(type));
+        }
+        for (JSONObject generator : generators) {
+            addNode(newNodes, "generator:" + keyOf(generator), generator.getString("name"),
+                    generatorReferences(generator));
+        }
+
+        Set<Reference> before = new HashSet<>(unresolved);
+        Set<String> changedNames = new HashSet<>();
+        Set<Reference> toCheck = new LinkedHashSet<>();
+        int changedNodes = 0;
+
+        for (Iterator<Map.Entry<String, Node>> it = nodes.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Node> entry = it.next();
+            if (!newNodes.containsKey(entry.getKey())) {
+                removeNode(entry.getValue(), changedNames);
+                it.remove();
+                changedNodes++;
+            }
+        }
+        for (Map.Entry<String, Node> entry : newNodes.entrySet()) {
+            Node old = nodes.get(entry.getKey());
+            if (entry.getValue().equals(old)) {
+                continue;
+            }
+            if (old != null) {
+                removeNode(old, changedNames);
+            }
+            insertNode(entry.getValue(), changedNames);
+            nodes.put(entry.getKey(), entry.getValue());
+            toCheck.addAll(entry.getValue().references());
+            changedNodes++;
+        }
+
+        for (String name : changedNames) {
+            toCheck.addAll(referencesTo.getOrDefault(name, Set.of()));
+        }
+        for (Reference reference : toCheck) {
+            if (isAvailable(reference.type())) {
+                unresolved.remove(reference);
+            } else {
+                unresolved.add(reference);
+            }
+        }
+
+        List<Reference> broken = unresolved.stream().filter(reference -> !before.contains(reference)).toList();
+        List<Reference> fixed = before.stream().filter(reference -> !unresolved.contains(reference)).toList();
+        return new Diff(broken, fixed, changedNodes, toCheck.size(), unresolved.size());
+    }
+
+    private static void addNode(Map<String, Node> nodes, String key, String name, List<Reference> references) {
+        Node node = nodes.get(key);
+        if (node == null) {
+            nodes.put(key, new Node(name, references));
+        } else {
+            // A class defined twice keeps the references of both definitions
+            List<Reference> merged = new ArrayList<>(node.references());
+            merged.addAll(references);
+            nodes.put(key, new Node(name, merged));
+        }
+    }
+
+    private void insertNode(Node node, Set<String> changedNames) {
+        if (definitions.merge(node.name(), 1, Integer::sum) == 1) {
+            changedNames.add(node.name());
+        }
+        for (Reference reference : node.references()) {
+            referencesTo.computeIfAbsent(reference.type(), k -> new LinkedHashSet<>()).add(reference);
+        }
+    }
+
+    private void removeNode(Node node, Set<String> changedNames) {
+        if (definitions.merge(node.name(), -1, Integer::sum) == 0) {
+            definitions.remove(node.name());
+            changedNames.add(node.name());
+        }
+        for (Reference reference : node.references()) {
+            Set<Reference> references = referencesTo.get(reference.type());
+            if (references != null) {
+                references.remove(reference);
+                if (references.isEmpty()) {
+                    referencesTo.remove(reference.type());
+                }
+            }
+            unresolved.remove(reference);
+        }
+    }
+
+    private static String keyOf(JSONObject definition) {
+        return definition.optString("fullyQualifiedName", definition.getString("name"));
+    }
+
+    private List<Reference> typeReferences(JSONObject type) {
+        String name = type.getString("name");
+        String key = "type:" + keyOf(type);
+        List<Reference> references = new ArrayList<>();
+        if (type.has("extends")) {
+            String superType = type.getString("extends");
+            references.add(new Reference(key, name + " extends " + superType, superType));
+        }
+        JSONArray interfaces = type.optJSONArray("implements");
+        for (int i = 0; interfaces != null && i < interfaces.length(); i++) {
+            String interfaceType = interfaces.getString(i);
+            references.add(new Reference(key, name + " implements " + interfaceType, interfaceType));
+        }
+        return references;
+    }
+
+    private List<Reference> generatorReferences(JSONObject generator) {
+        String name = generator.getString("name");
+        String key = "generator:" + keyOf(generator);
+        List<Reference> references = new ArrayList<>();
+        if (generator.has("primaryArgument")) {
+            String type = generator.getJSONObject("primaryArgument").getString("type");
+            references.add(new Reference(key, name + ".primaryArgument", typeResolver.extractBaseType(type)));
+        }
+        JSONArray arguments = generator.optJSONArray("arguments");
+        for (int i = 0; arguments != null && i < arguments.length(); i++) {
+            JSONObject argument = arguments.getJSONObject(i);
+            references.add(new Reference(key, name + "." + argument.getString("name"),
+                    typeResolver.extractBaseType(argument.getString("type"))));
+        }
+        return references;
+    }
+
+    /**
+     * Whether a type is defined by the library (types and generators) or is a primitive
+     */
+    private boolean isAvailable(String type) {
+        return definitions.containsKey(type) || PRIMITIVE_TYPES.contains(type);
+    }
+
+    /**
+     * Unresolved references, in the order they were found
+     */
+    public Set<Reference> getUnresolved() {
+        return Collections.unmodifiableSet(unresolved);
+    }
+
+    /**
+     * The closure of the current version as a validation result, with unresolved types split into
+     * missing, inference-related and GUI-related ones
+     */
+    public ValidationResult getResult() {
+        ValidationResult result = new ValidationResult();
+        result.setTotalComponents(nodes.size());
+        for (Node node : nodes.values()) {
+            for (Reference reference : node.references()) {
+                result.addTypeUsage(reference.type(), reference.usage());
+            }
+        }
+        for (Reference reference : unresolved) {
+            String type = reference.type();
+            if (componentFilter.isInferenceType(type)) {
+                result.addInferenceType(type);
+            } else if (componentFilter.isGUIType(type)) {
+                result.addGUIType(type);
+            } else {
+                result.addMissingType(type);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Save the graph, to compare the next version of the library with
+     */
+    public void save(File file) throws IOException {
+        JSONObject json = new JSONObject();
+        json.put("format", FORMAT);
+        JSONObject nodesJson = new JSONObject();
+        for (Map.Entry<String, Node> entry : nodes.entrySet()) {
+            JSONArray references = new JSONArray();
+            for (Reference reference : entry.getValue().references()) {
+                references.put(new JSONArray().put(reference.usage()).put(reference.type()));
+            }
+            nodesJson.put(entry.getKey(), new JSONObject()
+                    .put("name", entry.getValue().name())
+                    .put("references", references));
+        }
+        json.put("nodes", nodesJson);
+        json.put("unresolved", new JSONArray(unresolved.stream().map(Reference::toJSON).toList()));
+
+        // Write to a temporary file and rename, so the next run never reads half a graph
+        Path directory = file.getAbsoluteFile().toPath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "closure-graph", ".tmp");
+        try {
+            Files.writeString(temp, json.toString(), StandardCharsets.UTF_8);
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Load a saved graph; an empty graph if the file does not exist or has another format
+     */
+    public static ClosureGraph load(File file, ComponentFilter componentFilter) throws IOException {
+        ClosureGraph graph = new ClosureGraph(componentFilter);
+        if (!file.exists()) {
+            return graph;
+        }
+        JSONObject json = new JSONObject(Files.readString(file.toPath(), StandardCharsets.UTF_8));
+        if (json.optInt("format") != FORMAT) {
+            return graph;
+        }
+        JSONObject nodesJson = json.getJSONObject("nodes");
+        for (String key : nodesJson.keySet()) {
+            JSONObject node = nodesJson.getJSONObject(key);
+            JSONArray references = node.getJSONArray("references");
+            List<Reference> list = new ArrayList<>(references.length());
+            for (int i = 0; i < references.length(); i++) {
+                JSONArray reference = references.getJSONArray(i);
+                list.add(new Reference(key, reference.getString(0), reference.getString(1)));
+            }
+            Node loaded = new Node(node.getString("name"), list);
+            graph.nodes.put(key, loaded);
+            graph.insertNode(loaded, new HashSet<>());
+        }
+        JSONArray unresolved = json.getJSONArray("unresolved");
+        for (int i = 0; i < unresolved.length(); i++) {
+            graph.unresolved.add(Reference.fromJSON(unresolved.getJSONObject(i)));
+        }
+        return graph;
+    }
+
+    private static List<JSONObject> toList(JSONArray array) {
+        List<JSONObject> list = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            list.add(array.getJSONObject(i));
+        }
+        return list;
+    }
+}
@@ -1,12 +1,10 @@
 package org.beast2.modelLanguage.schema.validation;
 
 import org.beast2.modelLanguage.schema.core.TypeResolver;
+import org.beast2.modelLanguage.schema.index.SchemaIndex;
 import org.beast2.modelLanguage.schema.scanner.ComponentFilter;
-import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.util.HashSet;
-import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -15,188 +13,53 @@ import java.util.logging.Logger;
 public class ClosureValidator {
     private static final Logger logger = Logger.getLogger(ClosureValidator.class.getName());
 
-    private final TypeResolver typeResolver;
     private final ComponentFilter componentFilter;
-    private final Set<String> primitiveTypes;
 
     public ClosureValidator(TypeResolver typeResolver) {
-        this.typeResolver = typeResolver;
         this.componentFilter = new ComponentFilter();
-        this.primitiveTypes = Set.of(
-                "Integer", "Double", "String", "Boolean",
-                "int", "double", "boolean", "Long", "Float",
-                "Object", "T", "Map", "File"
-        );
     }
 
     /**
      * Validate closure of the new schema format
      */
     public ValidationResult validateClosure(JSONObject schema) {
-        ValidationResult result = new ValidationResult();
-
         try {
-            JSONObject modelLibrary = schema.getJSONObject("modelLibrary");
-            JSONArray types = modelLibrary.getJSONArray("types");
-            JSONArray generators = modelLibrary.getJSONArray("generators");
-
-            // Set total components (types + generators)
-            result.setTotalComponents(types.length() + generators.length());
-
-            // Build set of all available type names
-            Set<String> availableTypes = buildAvailableTypeSet(types, generators);
-
-            // Check type inheritance closure
-            for (int i = 0; i < types.length(); i++) {
-                JSONObject type = types.getJSONObject(i);
-                checkTypeInheritance(type, availableTypes, result);
-            }
-
-            // Check all generators for type closure
-            for (int i = 0; i < generators.length(); i++) {
-                JSONObject generator = generators.getJSONObject(i);
-                checkGenerator(generator, availableTypes, result);
-            }
-
+            return validateClosure(new SchemaIndex(schema));
         } catch (Exception e) {
             logger.severe("Error validating schema: " + e.getMessage());
             e.printStackTrace();
+            return new ValidationResult();
         }
-
-        return result;
-    }
-
-    /**
-     * Build set of all available types
-     */
-    private Set<String> buildAvailableTypeSet(JSONArray types, JSONArray generators) {
-        Set<String> availableTypes = new HashSet<>();
-
-        // Add all types
-        for (int i = 0; i < types.length(); i++) {
-            JSONObject type = types.getJSONObject(i);
-            String name = type.getString("name");
-            availableTypes.add(name);
-        }
-
-        // Add all generator names (they're also types in BEAST2)
-        for (int i = 0; i < generators.length(); i++) {
-            JSONObject generator = generators.getJSONObject(i);
-            String name = generator.getString("name");
-            availableTypes.add(name);
-        }
-
-        // Add primitive types
-        availableTypes.addAll(primitiveTypes);
-
-        return availableTypes;
     }
 
     /**
-     * Check type inheritance relationships for closure
+     * Validate closure of a schema that is already indexed
      */
-    private void checkTypeInheritance(JSONObject type, Set<String> availableTypes,
-                                      ValidationResult result) {
-        String typeName = type.getString("name");
-
-        // Check extends relationship
-        if (type.has("extends")) {
-            String superType = type.getString("extends");
-            String usage = typeName + " extends " + superType;
-            result.addTypeUsage(superType, usage);
-
-            if (!availableTypes.contains(superType) && !primitiveTypes.contains(superType)) {
-                // Check if it's an inference-related type
-                if (componentFilter.isInferenceType(superType)) {
-                    result.addInferenceType(superType);
-                }
-                // Check if it's a GUI-related type
-                else if (componentFilter.isGUIType(superType)) {
-                    result.addGUIType(superType);
-                }
-                else {
-                    result.addMissingType(superType);
-                    logger.warning("Type " + typeName + " extends missing type: " + superType);
-                }
-            }
-        }
-
-        // Check implements relationships
-        if (type.has("implements")) {
-            JSONArray interfaces = type.getJSONArray("implements");
-            for (int i = 0; i < interfaces.length(); i++) {
-                String interfaceType = interfaces.getString(i);
-                String usage = typeName + " implements " + interfaceType;
-                result.addTypeUsage(interfaceType, usage);
-
-                if (!availableTypes.contains(interfaceType) && !primitiveTypes.contains(interfaceType)) {
-                    // Check if it's an inference-related type
-                    if (componentFilter.isInferenceType(interfaceType)) {
-                        result.addInferenceType(interfaceType);
-                    }
-                    // Check if it's a GUI-related type
-                    else if (componentFilter.isGUIType(interfaceType)) {
-                        result.addGUIType(interfaceType);
-                    }
-                    else {
-                        result.addMissingType(interfaceType);
-                        logger.warning("Type " + typeName + " implements missing interface: " + interfaceType);
-                    }
-                }
-            }
+    public ValidationResult validateClosure(SchemaIndex index) {
+        ClosureGraph graph = new ClosureGraph(componentFilter);
+        graph.update(index.getTypes(), index.getGenerators());
+        ValidationResult result = graph.getResult();
+        for (String missing : result.getMissingTypes()) {
+            logger.warning("Missing type " + missing + " used by " + String.join(", ", result.getTypeUsage(missing)));
         }
+        return result;
     }
 
     /**
-     * Check a generator for type closure
+     * Validate closure of a new version of a schema against the graph of the previous version,
+     * checking only what changed
+     *
+     * @param graph closure graph of the previous version, updated to the new one
      */
-    private void checkGenerator(JSONObject generator, Set<String> availableTypes,
-                                ValidationResult result) {
-        String generatorName = generator.getString("name");
-
-        // Check primary argument if it exists
-        if (generator.has("primaryArgument")) {
-            JSONObject primaryArg = generator.getJSONObject("primaryArgument");
-            checkArgumentType(primaryArg, generatorName, "primaryArgument",
-                    availableTypes, result);
-        }
-
-        // Check all arguments
-        if (generator.has("arguments")) {
-            JSONArray arguments = generator.getJSONArray("arguments");
-            for (int j = 0; j < arguments.length(); j++) {
-                JSONObject arg = arguments.getJSONObject(j);
-                checkArgumentType(arg, generatorName, arg.getString("name"),
-                        availableTypes, result);
-            }
+    public ClosureGraph.Diff validateClosure(JSONObject schema, ClosureGraph graph) {
+        ClosureGraph.Diff diff = graph.update(schema);
+        for (ClosureGraph.Reference reference : diff.broken()) {
+            logger.warning("Broken reference " + reference.usage() + " to " + reference.type());
         }
+        return diff;
     }
 
-    /**
-     * Check a single argument type for closure
-     */
-    private void checkArgumentType(JSONObject arg, String generatorName, String argName,
-                                   Set<String> availableTypes, ValidationResult result) {
-        String type = arg.getString("type");
-        String baseType = typeResolver.extractBaseType(type);
-
-        // Track usage
-        String usage = generatorName + "." + argName;
-        result.addTypeUsage(baseType, usage);
-
-        // Check if type is defined
-        if (!availableTypes.contains(baseType)) {
-            // Check if it's an inference-related type
-            if (componentFilter.isInferenceType(baseType)) {
-                result.addInferenceType(baseType);
-            }
-            // Check if it's a GUI-related type
-            else if (componentFilter.isGUIType(baseType)) {
-                result.addGUIType(baseType);
-            }
-            else {
-                result.addMissingType(baseType);
-            }
-        }
+    public ComponentFilter getComponentFilter() {
+        return componentFilter;
     }
-}
\ No newline at end of file
+}
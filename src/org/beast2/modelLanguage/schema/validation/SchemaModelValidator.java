@@ -0,0 +1,644 @@
+package org.beast2.modelLanguage.schema.validation;
+
+import org.beast2.modelLanguage.model.*;
+import org.beast2.modelLanguage.schema.core.TypeResolver;
+import org.beast2.modelLanguage.schema.index.SchemaIndex;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.*;
+
+/**
+ * Type-checks a parsed model against a model library, without loading BEAST or any package.
+ * <p>
+ * Class names are resolved by simple name against the library and must be covered by an import or
+ * a requires statement. Every generator call is checked for unknown and missing required arguments
+ * and for argument values of the wrong type, allowing the conversions the model builder applies,
+ * which the library records on the types they convert to. Distribution assignments must use a
+ * distribution over a compatible type. Literal values are checked against the argument constraints
+ * of the library, and frequencies against the state count the library gives for the substitution
+ * model they are given to.
+ * <p>
+ * Errors are what would make building the model fail; warnings are values that the constraints of
+ * the library, which are partly heuristic, do not allow.
+ */
+public class SchemaModelValidator {
+
+    public enum Severity {ERROR, WARNING}
+
+    /**
+     * A problem found in the statement that defines a variable
+     */
+    public record Problem(Severity severity, String variable, String message) {
+        @Override
+        public String toString() {
+            return severity + " [" + variable + "] " + message;
+        }
+    }
+
+    private static final Set<String> PRIMITIVES = Set.of("Integer", "Double", "String", "Boolean");
+    private static final Set<String> ANY_TYPE = Set.of("T", "Object");
+    private static final String ANY_ARGUMENT = "*";
+
+    private static final double SIMPLEX_TOLERANCE = 1e-6;
+    // Depth of variable references followed to find literal values
+    private static final int MAX_REFERENCE_DEPTH = 16;
+
+    private final SchemaIndex index;
+    private final TypeResolver typeResolver = new TypeResolver();
+    // Fully qualified name (with '.' for nested classes) -> library name
+    private final Map<String, String> namesByQualifiedName = new HashMap<>();
+
+    public SchemaModelValidator(SchemaIndex index) {
+        this.index = index;
+        for (JSONObject definition : index.getTypes()) {
+            addQualifiedName(definition);
+        }
+        for (JSONObject definition : index.getGenerators()) {
+            addQualifiedName(definition);
+        }
+    }
+
+    private void addQualifiedName(JSONObject definition) {
+        String qualifiedName = definition.optString("fullyQualifiedName", null);
+        if (qualifiedName != null) {
+            namesByQualifiedName.putIfAbsent(qualifiedName.replace('$', '.'), definition.getString("name"));
+        }
+    }
+
+    /**
+     * Problems of the model, in statement order; empty if the model is valid
+     */
+    public List<Problem> validate(Beast2Model model) {
+        return new ModelCheck(model).run();
+    }
+
+    /**
+     * Whether any of the problems is an error
+     */
+    public static boolean hasErrors(List<Problem> problems) {
+        return problems.stream().anyMatch(problem -> problem.severity() == Severity.ERROR);
+    }
+
+    /**
+     * State of checking one model
+     */
+    private class ModelCheck {
+        private final Beast2Model model;
+        private final Set<String> explicitImports = new HashSet<>();
+        private final Set<String> wildcardImports = new HashSet<>();
+        private final Set<String> requiredPackages = new HashSet<>();
+
+        // Declared type, value of "=" statements and distributions of "~" statements, by variable
+        private final Map<String, String> variableTypes = new HashMap<>();
+        private final Map<String, Expression> variableValues = new HashMap<>();
+        private final Map<String, List<JSONObject>> variableDistributions = new HashMap<>();
+
+        private final List<Problem> problems = new ArrayList<>();
+        private String variable;
+
+        ModelCheck(Beast2Model model) {
+            this.model = model;
+            for (ImportStatement importStatement : model.getImports()) {
+                (importStatement.isWildcard() ? wildcardImports : explicitImports).add(importStatement.getPackageName());
+            }
+            for (RequiresStatement requires : model.getRequires()) {
+                requiredPackages.add(requires.getPluginName().toLowerCase());
+            }
+        }
+
+        List<Problem> run() {
+            // Variables can be used before the statement defining them
+            for (Statement statement : model.getStatements()) {
+                declare(unwrap(statement));
+            }
+            for (Statement statement : model.getStatements()) {
+                check(statement);
+            }
+            return problems.stream().distinct().toList();
+        }
+
+        private Statement unwrap(Statement statement) {
+            return statement instanceof AnnotatedStatement annotated ? unwrap(annotated.getStatement()) : statement;
+        }
+
+        private void declare(Statement statement) {
+            if (statement instanceof VariableDeclaration declaration) {
+                variableTypes.putIfAbsent(declaration.getVariableName(), libraryType(declaration.getClassName()));
+                variableValues.put(declaration.getVariableName(), declaration.getValue());
+            } else if (statement instanceof DistributionAssignment assignment) {
+                variableTypes.putIfAbsent(assignment.getVariableName(), libraryType(assignment.getClassName()));
+                if (assignment.getDistribution() instanceof FunctionCall call) {
+                    JSONObject generator = importedGenerator(call.getClassName());
+                    if (generator != null) {
+                        variableDistributions.computeIfAbsent(assignment.getVariableName(), k -> new ArrayList<>())
+                                .add(generator);
+                    }
+                }
+            }
+        }
+
+        private void check(Statement statement) {
+            if (statement instanceof AnnotatedStatement annotated) {
+                check(annotated.getStatement());
+                for (Annotation annotation : annotated.getAnnotations()) {
+                    checkAnnotation(annotation, unwrap(annotated.getStatement()));
+                }
+            } else if (statement instanceof VariableDeclaration declaration) {
+                variable = declaration.getVariableName();
+                String declaredType = resolveType(declaration.getClassName());
+                String valueType = checkExpression(declaration.getValue());
+                if (declaredType != null && !isCompatible(valueType, libraryType(declaration.getClassName()))) {
+                    error(variable + " is declared " + declaration.getClassName() + " but assigned " + valueType);
+                }
+            } else if (statement instanceof DistributionAssignment assignment) {
+                variable = assignment.getVariableName();
+                checkDistributionAssignment(assignment);
+            }
+        }
+
+        private void checkDistributionAssignment(DistributionAssignment assignment) {
+            String declaredType = resolveType(assignment.getClassName());
+            if (!(assignment.getDistribution() instanceof FunctionCall call)) {
+                error("the right-hand side of ~ must be a distribution, not " + assignment.getDistribution());
+                return;
+            }
+            JSONObject generator = resolveGenerator(call.getClassName());
+            if (generator == null) {
+                return;
+            }
+            if (!"distribution".equals(generator.optString("generatorType"))) {
+                error(call.getClassName() + " is not a distribution");
+            } else {
+                String generatedType = generator.optString("generatedType", null);
+                if (declaredType != null && generatedType != null && !fits(declaredType, generatedType)) {
+                    error(call.getClassName() + " is a distribution over " + generatedType
+                            + ", not " + assignment.getClassName());
+                }
+            }
+            // Arguments the distribution does not have go to the variable itself
+            JSONObject variableGenerator = declaredType == null ? null : importedGenerator(assignment.getClassName());
+            checkArguments(generator, call.getArguments(), variableGenerator);
+        }
+
+        private void checkAnnotation(Annotation annotation, Statement statement) {
+            if (annotation.isObservedAnnotation() && statement instanceof DistributionAssignment assignment) {
+                Expression data = annotation.getParameters().get("data");
+                if (data == null) {
+                    error("@observed needs a data parameter");
+                } else {
+                    String dataType = checkExpression(data);
+                    if (!isCompatible(dataType, libraryType(assignment.getClassName()))) {
+                        error("observed data " + data + " is a " + dataType + ", not " + assignment.getClassName());
+                    }
+                }
+            } else if ("calibration".equals(annotation.getName())) {
+                Expression taxonset = annotation.getParameters().get("taxonset");
+                if (!(taxonset instanceof Identifier)) {
+                    error("@calibration needs a taxonset variable");
+                } else if (!isCompatible(checkExpression(taxonset), "TaxonSet")) {
+                    error("calibration taxonset " + taxonset + " is not a TaxonSet");
+                }
+                Expression distribution = annotation.getParameters().get("distribution");
+                if (distribution != null && !isCompatible(checkExpression(distribution), "ParametricDistribution")) {
+                    error("calibration distribution " + distribution + " is not a ParametricDistribution");
+                }
+            }
+        }
+
+        /**
+         * Check an expression and the calls in it
+         *
+         * @return the library type of its value, or null if it cannot be determined
+         */
+        private String checkExpression(Expression expression) {
+            if (expression instanceof FunctionCall call) {
+                JSONObject generator = resolveGenerator(call.getClassName());
+                if (generator == null) {
+                    return null;
+                }
+                checkArguments(generator, call.getArguments(), null);
+                return valueType(generator);
+            } else if (expression instanceof Identifier identifier) {
+                String type = variableTypes.get(identifier.getName());
+                if (type == null) {
+                    error("undefined variable " + identifier.getName());
+                }
+                return type;
+            } else if (expression instanceof Literal literal) {
+                return switch (literal.getType()) {
+                    case INTEGER -> "Integer";
+                    case FLOAT -> "Double";
+                    case STRING -> "String";
+                    case BOOLEAN -> "Boolean";
+                };
+            } else if (expression instanceof ArrayLiteral array) {
+                String elementType = null;
+                for (Expression element : array.getElements()) {
+                    String type = checkExpression(element);
+                    elementType = elementType == null || "Integer".equals(elementType) ? type : elementType;
+                }
+                return elementType == null ? null : elementType + "[]";
+            } else if (expression instanceof NexusFunction nexus) {
+                return checkBuiltIn("nexus", nexus.getArguments());
+            } else if (expression instanceof AlignmentFunction alignment) {
+                return checkBuiltIn("alignment", alignment.getArguments());
+            } else if (expression instanceof MapExpression map) {
+                map.getEntries().values().forEach(this::checkExpression);
+                return "Map";
+            }
+            return null;
+        }
+
+        private String checkBuiltIn(String name, List<Argument> arguments) {
+            JSONObject generator = index.getGenerator(name);
+            if (generator == null) {
+                arguments.forEach(argument -> checkExpression(argument.getValue()));
+                return "Alignment";
+            }
+            checkArguments(generator, arguments, null);
+            return valueType(generator);
+        }
+
+        /**
+         * Type of the object a call creates: what a function generates, or the distribution itself
+         */
+        private String valueType(JSONObject generator) {
+            if ("function".equals(generator.optString("generatorType"))) {
+                return generator.optString("generatedType", null);
+            }
+            String name = generator.getString("name");
+            return index.getType(name) != null ? name : null;
+        }
+
+        /**
+         * Check the arguments of a call
+         *
+         * @param fallback generator whose arguments are also accepted, or null
+         */
+        private void checkArguments(JSONObject generator, List<Argument> arguments, JSONObject fallback) {
+            String name = generator.getString("name");
+            Set<String> given = new HashSet<>();
+            for (Argument argument : arguments) {
+                String argumentName = argument.getName();
+                String valueType = checkExpression(argument.getValue());
+                if (argumentName == null || argumentName.isEmpty()) {
+                    error("argument " + argument.getValue() + " of " + name + " has no name");
+                    continue;
+                }
+                if (!given.add(argumentName)) {
+                    error("argument " + argumentName + " of " + name + " is given twice");
+                }
+
+                JSONObject definition = findArgument(generator, argumentName);
+                String owner = name;
+                if (definition == null && fallback != null) {
+                    definition = findArgument(fallback, argumentName);
+                    owner = fallback.getString("name");
+                }
+                if (definition == null) {
+                    if (findArgument(generator, ANY_ARGUMENT) == null) {
+                        error(name + " has no argument " + argumentName);
+                    }
+                    continue;
+                }
+                checkArgument(owner, definition, argument.getValue(), valueType);
+                checkDimension(generator, definition, argument.getValue());
+            }
+
+            JSONArray definitions = generator.optJSONArray("arguments");
+            for (int i = 0; definitions != null && i < definitions.length(); i++) {
+                JSONObject definition = definitions.getJSONObject(i);
+                if (definition.optBoolean("required") && !given.contains(definition.getString("name"))) {
+                    error(name + " needs argument " + definition.getString("name"));
+                }
+            }
+        }
+
+        private JSONObject findArgument(JSONObject generator, String name) {
+            JSONArray arguments = generator.optJSONArray("arguments");
+            for (int i = 0; arguments != null && i < arguments.length(); i++) {
+                if (name.equals(arguments.getJSONObject(i).getString("name"))) {
+                    return arguments.getJSONObject(i);
+                }
+            }
+            return null;
+        }
+
+        private void checkArgument(String generator, JSONObject definition, Expression value, String valueType) {
+            String argumentName = definition.getString("name");
+            String expectedType = definition.getString("type");
+            if (!isCompatible(valueType, expectedType)) {
+                error("argument " + argumentName + " of " + generator + " expects " + expectedType
+                        + ", not " + valueType);
+                return;
+            }
+
+            JSONObject type = index.getType(typeResolver.extractBaseType(expectedType));
+            if (type != null && type.optBoolean("isEnum") && value instanceof Literal literal
+                    && literal.getType() == Literal.LiteralType.STRING) {
+                JSONArray values = type.optJSONArray("values");
+                if (values != null && !values.toList().contains(literal.getValue())) {
+                    error("argument " + argumentName + " of " + generator + " must be one of " + values.toList()
+                            + ", not " + literal);
+                }
+            }
+
+            String constraint = definition.optString("constraint", null);
+            if (constraint != null) {
+                checkConstraint(generator, argumentName, constraint, value);
+            }
+        }
+
+        private void checkConstraint(String generator, String argumentName, String constraint, Expression value) {
+            List<Double> numbers = numbers(value, null, 0);
+            if (numbers != null && !numbers.isEmpty() && !satisfies(numbers, constraint)) {
+                warning("argument " + argumentName + " of " + generator + " should be " + constraint
+                        + ", not " + (numbers.size() == 1 ? numbers.get(0) : numbers));
+                return;
+            }
+
+            // A random variable should have a prior whose support lies within the constraint
+            if (value instanceof Identifier identifier && !"real".equals(constraint) && !"boolean".equals(constraint)) {
+                List<JSONObject> priors = variableDistributions.getOrDefault(identifier.getName(), List.of()).stream()
+                        .filter(distribution -> index.isAssignable(distribution.getString("name"), "ParametricDistribution"))
+                        .toList();
+                boolean supported = priors.stream().anyMatch(distribution -> {
+                    JSONArray satisfied = distribution.optJSONArray("satisfiesConstraints");
+                    return satisfied != null && satisfied.toList().contains(constraint);
+                });
+                if (!priors.isEmpty() && !supported) {
+                    warning("argument " + argumentName + " of " + generator + " should be " + constraint
+                            + ", but the prior of " + identifier.getName() + " is "
+                            + priors.get(0).getString("name"));
+                }
+            }
+        }
+
+        private boolean satisfies(List<Double> numbers, String constraint) {
+            return switch (constraint) {
+                case "positive" -> numbers.stream().allMatch(x -> x > 0);
+                case "non-negative" -> numbers.stream().allMatch(x -> x >= 0);
+                case "0-1" -> numbers.stream().allMatch(x -> x >= 0 && x <= 1);
+                case "positive-integer" -> numbers.stream().allMatch(x -> x > 0 && x == Math.rint(x));
+                case "simplex" -> numbers.stream().allMatch(x -> x >= 0 && x <= 1)
+                        && Math.abs(numbers.stream().mapToDouble(Double::doubleValue).sum() - 1) < SIMPLEX_TOLERANCE;
+                default -> true;
+            };
+        }
+
+        /**
+         * Check values whose dimension the library resolves from the state count of the model they
+         * are given to, e.g. the frequencies of an HKY model
+         */
+        private void checkDimension(JSONObject generator, JSONObject definition, Expression value) {
+            Integer stateCount = generator.has("stateCount") ? generator.getInt("stateCount") : null;
+            JSONObject valueGenerator = index.getGenerator(typeResolver.extractBaseType(definition.getString("type")));
+            if (stateCount == null || valueGenerator == null) {
+                return;
+            }
+            JSONArray arguments = valueGenerator.optJSONArray("arguments");
+            for (int i = 0; arguments != null && i < arguments.length(); i++) {
+                JSONObject argument = arguments.getJSONObject(i);
+                if (!resolvesFromParentStateCount(argument.optJSONObject("dimension"))) {
+                    continue;
+                }
+                List<Double> numbers = numbers(value, argument.getString("name"), 0);
+                if (numbers != null && numbers.size() != stateCount) {
+                    error("argument " + definition.getString("name") + " of " + generator.getString("name") + " has dimension "
+                            + numbers.size() + ", but " + generator.getString("name") + " has " + stateCount + " states");
+                }
+            }
+        }
+
+        private boolean resolvesFromParentStateCount(JSONObject dimension) {
+            JSONArray resolutions = dimension == null ? null : dimension.optJSONArray("resolution");
+            for (int i = 0; resolutions != null && i < resolutions.length(); i++) {
+                JSONObject resolution = resolutions.getJSONObject(i);
+                if ("parent".equals(resolution.optString("context")) && "stateCount".equals(resolution.optString("path"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Numbers an expression evaluates to, following variables and the value arguments of
+         * parameters; null if they are not literal
+         *
+         * @param argument argument of a call that holds the numbers, besides "value"
+         */
+        private List<Double> numbers(Expression expression, String argument, int depth) {
+            if (depth > MAX_REFERENCE_DEPTH) {
+                return null;
+            }
+            if (expression instanceof Literal literal) {
+                return literal.getValue() instanceof Number number ? List.of(number.doubleValue()) : null;
+            } else if (expression instanceof ArrayLiteral array) {
+                List<Double> numbers = new ArrayList<>();
+                for (Expression element : array.getElements()) {
+                    List<Double> elementNumbers = numbers(element, null, depth + 1);
+                    if (elementNumbers == null) {
+                        return null;
+                    }
+                    numbers.addAll(elementNumbers);
+                }
+                return numbers;
+            } else if (expression instanceof Identifier identifier) {
+                return numbers(variableValues.get(identifier.getName()), argument, depth + 1);
+            } else if (expression instanceof FunctionCall call) {
+                List<Double> numbers = null;
+                Integer dimension = null;
+                for (Argument callArgument : call.getArguments()) {
+                    String name = callArgument.getName();
+                    if ("value".equals(name) || (name != null && name.equals(argument))) {
+                        numbers = numbers(callArgument.getValue(), "value", depth + 1);
+                    } else if ("dimension".equals(name) && callArgument.getValue() instanceof Literal literal
+                            && literal.getValue() instanceof Number number) {
+                        dimension = number.intValue();
+                    }
+                }
+                // A single value is repeated to the dimension of the parameter
+                if (numbers != null && numbers.size() == 1 && dimension != null) {
+                    return Collections.nCopies(dimension, numbers.get(0));
+                }
+                return numbers;
+            }
+            return null;
+        }
+
+        /**
+         * Whether a value can be given where the type is expected, directly or after conversion;
+         * true if either type is unknown
+         */
+        private boolean isCompatible(String valueType, String expectedType) {
+            if (valueType == null || expectedType == null) {
+                return true;
+            }
+            String expected = typeResolver.extractBaseType(expectedType);
+            boolean expectsList = !expected.equals(expectedType);
+            if (ANY_TYPE.contains(expected)) {
+                return true;
+            }
+            if (valueType.endsWith("[]")) {
+                String element = valueType.substring(0, valueType.length() - 2);
+                if (expectsList && fits(element, expected)) {
+                    return true;
+                }
+                return switch (element) {
+                    // Numeric arrays become constant parameters, or frequencies
+                    case "Double" -> index.isAssignable(expected, "Function") || index.isAssignable(expected, "Frequencies");
+                    case "Integer" -> index.isAssignable(expected, "Function");
+                    // Taxon names become taxa
+                    case "String" -> expectsList && index.isAssignable(expected, "Taxon");
+                    default -> !index.isKnownType(element) || !index.isKnownType(expected);
+                };
+            }
+            return fits(valueType, expected);
+        }
+
+        /**
+         * Whether a single value fits the expected type
+         */
+        private boolean fits(String valueType, String expected) {
+            if (index.isAssignable(valueType, expected) || ANY_TYPE.contains(expected)
+                    || !index.isKnownType(expected) || !index.isKnownType(valueType)) {
+                return true;
+            }
+            if (PRIMITIVES.contains(valueType)) {
+                return acceptsPrimitive(expected, valueType);
+            }
+            // The model builder converts values of some types for inputs of a type or its subtypes
+            for (String type : index.getSupertypes(expected)) {
+                JSONObject definition = index.getType(type);
+                JSONArray sources = definition == null ? null : definition.optJSONArray("convertedFrom");
+                for (int i = 0; sources != null && i < sources.length(); i++) {
+                    if (index.isAssignable(valueType, sources.getString(i))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean acceptsPrimitive(String expected, String valueType) {
+            JSONObject type = index.getType(expected);
+            if (type == null) {
+                return false;
+            }
+            if (type.optBoolean("isEnum")) {
+                return "String".equals(valueType);
+            }
+            // Literals become constant parameters where a Parameter fits
+            if (index.isAssignable("Parameter", expected) && !"String".equals(valueType)) {
+                return true;
+            }
+            if (!type.optBoolean("primitiveAssignable")) {
+                return false;
+            }
+            List<String> accepted = index.getAcceptedPrimitives(expected);
+            return accepted.isEmpty() || accepted.contains(valueType)
+                    || ("Integer".equals(valueType) && accepted.contains("Double"));
+        }
+
+        /**
+         * The library name of a declared type, or null if it is unknown or not imported
+         */
+        private String resolveType(String className) {
+            String name = resolveName(typeResolver.extractBaseType(className));
+            if (name == null) {
+                error("unknown type " + className);
+                return null;
+            }
+            List<JSONObject> definitions = new ArrayList<>(index.getGenerators(name));
+            if (index.getType(name) != null) {
+                definitions.add(0, index.getType(name));
+            }
+            return selectImported(className, definitions) != null ? name : null;
+        }
+
+        /**
+         * The generator a call uses, or null if it is unknown or not imported
+         */
+        private JSONObject resolveGenerator(String className) {
+            String name = resolveName(className);
+            if (name == null || index.getGenerators(name).isEmpty()) {
+                error(name != null ? className + " cannot be created" : "unknown generator " + className);
+                return null;
+            }
+            return selectImported(className, index.getGenerators(name));
+        }
+
+        /**
+         * A declared type with its class by library name, e.g. Tree[] for
+         * beast.base.evolution.tree.Tree[]; unchanged if the class is unknown
+         */
+        private String libraryType(String className) {
+            String baseType = typeResolver.extractBaseType(className);
+            String name = resolveName(baseType);
+            return name == null || name.equals(baseType) ? className : className.replace(baseType, name);
+        }
+
+        private String resolveName(String className) {
+            if (index.isKnownType(className)) {
+                return className;
+            }
+            return namesByQualifiedName.get(className);
+        }
+
+        /**
+         * The first definition that the name refers to in this model: classes of different
+         * packages can share a simple name, and only imported ones can be used by it
+         */
+        private JSONObject selectImported(String className, List<JSONObject> definitions) {
+            for (JSONObject definition : definitions) {
+                String qualifiedName = definition.optString("fullyQualifiedName", "");
+                if (isImported(definition) || qualifiedName.replace('$', '.').equals(className)) {
+                    return definition;
+                }
+            }
+            error(className + " is not imported (" + String.join(" or ", definitions.stream()
+                    .map(definition -> topLevelClass(definition.getString("fullyQualifiedName"))).distinct().toList()) + ")");
+            return null;
+        }
+
+        /**
+         * The generator a class name refers to, without reporting problems; null if there is none
+         */
+        private JSONObject importedGenerator(String className) {
+            String name = resolveName(className);
+            return name == null ? null : index.getGenerators(name).stream()
+                    .filter(generator -> isImported(generator)
+                            || generator.optString("fullyQualifiedName").replace('$', '.').equals(className))
+                    .findFirst().orElse(null);
+        }
+
+        private boolean isImported(JSONObject definition) {
+            String qualifiedName = definition.optString("fullyQualifiedName", null);
+            if (qualifiedName == null || "primitive".equals(definition.optString("package"))) {
+                return true;
+            }
+            String topLevel = topLevelClass(qualifiedName);
+            String javaPackage = topLevel.substring(0, Math.max(topLevel.lastIndexOf('.'), 0));
+            return explicitImports.contains(topLevel) || wildcardImports.contains(javaPackage)
+                    || requiredPackages.contains(definition.optString("package").toLowerCase())
+                    || requiredPackages.stream().anyMatch(required -> topLevel.startsWith(required + "."));
+        }
+
+        /**
+         * Nested classes are imported with the class they are declared in
+         */
+        private String topLevelClass(String qualifiedName) {
+            int nested = qualifiedName.indexOf('$');
+            return nested < 0 ? qualifiedName : qualifiedName.substring(0, nested);
+        }
+
+        private void error(String message) {
+            problems.add(new Problem(Severity.ERROR, variable, message));
+        }
+
+        private void warning(String message) {
+            problems.add(new Problem(Severity.WARNING, variable, message));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.beast2.modelLanguage;
+
+import beast.base.evolution.alignment.Alignment;
+import beastfx.app.util.OutFile;
+import org.beast2.modelLanguage.beast.Beast2ModelBuilder;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that decompiled scripts with external Nexus files build where they are written.
+ */
+public class Beast2LangDecompileTest {
+
+    private static void assumeBeast() {
+        boolean available;
+        try {
+            Class.forName("beast.base.parser.XMLParser");
+            available = true;
+        } catch (ClassNotFoundException e) {
+            available = false;
+        }
+        Assume.assumeTrue("BEAST2 is not available", available);
+    }
+
+    @Test
+    public void testExternalDataInSubdirectoryBuildsFromWorkingDirectory() throws Exception {
+        assumeBeast();
+        // A relative output directory, as in "decompile -output out/model.b2l"
+        Path dir = Files.createTempDirectory(Path.of(""), "b2l-decompile");
+        try {
+            File output = dir.resolve("model.b2l").toFile();
+            Beast2LangDecompile decompile = new Beast2LangDecompile();
+            decompile.initByName("file", new File("examples/example_model_hky.xml"),
+                    "output", new OutFile(output.getPath()),
+                    "externalData", true,
+                    "noCache", true);
+            decompile.run();
+            assertTrue(output.exists());
+
+            // The Nexus files are next to the script, and referred to from the working directory
+            String script = Files.readString(output.toPath());
+            assertTrue(script, script.contains("nexus(file=\"" + dir + File.separator));
+
+            Beast2ModelBuilder builder = new Beast2ModelBuilder();
+            try (FileInputStream in = new FileInputStream(output)) {
+                builder.buildModel(builder.buildFromStream(in));
+            }
+            assertTrue(builder.getAllObjects().values().stream().anyMatch(obj -> obj instanceof Alignment));
+        } finally {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.beast2.modelLanguage;
+
+import org.beast2.modelLanguage.beast.Beast2ModelBuilder;
+import org.beast2.modelLanguage.model.Beast2Model;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that streamed Beast2Lang output is byte-for-byte the same as the string output it replaced.
+ */
+public class Beast2LangUtilsTest {
+
+    private static Beast2Model readExample() throws Exception {
+        try (FileInputStream in = new FileInputStream("examples/example_model.b2l")) {
+            return new Beast2ModelBuilder().buildFromStream(in);
+        }
+    }
+
+    @Test
+    public void testStreamedFileMatchesStringOutput() throws Exception {
+        Beast2Model model = readExample();
+        File streamed = File.createTempFile("streamed", ".b2l");
+        File string = File.createTempFile("string", ".b2l");
+        streamed.deleteOnExit();
+        string.deleteOnExit();
+
+        Beast2LangUtils.writeOutput(streamed, out -> Beast2LangUtils.writeBeast2Lang(model, out));
+        Beast2LangUtils.writeOutput(string, Beast2LangUtils.generateBeast2Lang(model));
+
+        assertArrayEquals(Files.readAllBytes(string.toPath()), Files.readAllBytes(streamed.toPath()));
+    }
+
+    @Test
+    public void testStreamedStdoutMatchesStringOutput() throws Exception {
+        Beast2Model model = readExample();
+        byte[] streamed = captureStdout(() ->
+                Beast2LangUtils.writeOutput(null, out -> Beast2LangUtils.writeBeast2Lang(model, out)));
+        byte[] string = captureStdout(() ->
+                Beast2LangUtils.writeOutput(null, Beast2LangUtils.generateBeast2Lang(model)));
+
+        assertTrue(string.length > 0);
+        assertArrayEquals(string, streamed);
+    }
+
+    private interface Output {
+        void write() throws Exception;
+    }
+
+    private static byte[] captureStdout(Output output) throws Exception {
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true, "UTF-8"));
+        try {
+            output.write();
+        } finally {
+            System.setOut(stdout);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,160 @@
+package org.beast2.modelLanguage;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the keys, entries and eviction of the result cache.
+ */
+public class ResultCacheTest {
+
+    private static File write(File dir, String name, String content) throws Exception {
+        File file = new File(dir, name);
+        Files.writeString(file.toPath(), content);
+        return file;
+    }
+
+    @Test
+    public void testKeyDependsOnInputDataOptionsAndPackages() throws Exception {
+        File dir = Files.createTempDirectory("b2l-key").toFile();
+        write(dir, "data.nex", "#NEXUS");
+        File input = write(dir, "model.b2l", "requires feast;\nalignment = nexus(file=\"data.nex\");\n");
+
+        ResultCache.Key key = ResultCache.key("run", "1.0").input(input);
+        assertEquals(Set.of("feast"), key.getRequiredPackages());
+        String base = key.packages(Map.of("feast", "10.4.0", "BEAST.base", "2.7.7")).option("seed", 1).build();
+
+        // The same parts give the same key, whatever the order of the packages
+        assertEquals(base, ResultCache.key("run", "1.0").input(input)
+                .packages(Map.of("BEAST.base", "2.7.7", "feast", "10.4.0")).option("seed", 1).build());
+
+        assertNotEquals(base, ResultCache.key("run", "1.0").input(input)
+                .packages(Map.of("feast", "10.4.0", "BEAST.base", "2.7.7")).option("seed", 2).build());
+        assertNotEquals(base, ResultCache.key("run", "1.1").input(input)
+                .packages(Map.of("feast", "10.4.0", "BEAST.base", "2.7.7")).option("seed", 1).build());
+        assertNotEquals(base, ResultCache.key("run", "1.0").input(input)
+                .packages(Map.of("feast", "10.5.0", "BEAST.base", "2.7.7")).option("seed", 1).build());
+
+        // A change to a referenced data file changes the key
+        write(dir, "data.nex", "#NEXUS changed");
+        assertNotEquals(base, ResultCache.key("run", "1.0").input(input)
+                .packages(Map.of("feast", "10.4.0", "BEAST.base", "2.7.7")).option("seed", 1).build());
+    }
+
+    @Test
+    public void testRequiredAttributeOfXml() throws Exception {
+        File dir = Files.createTempDirectory("b2l-key").toFile();
+        File input = write(dir, "model.xml",
+                "<beast version=\"2.7\" required=\"BEAST.base v2.7.7:feast v10.4.0\">\n</beast>\n");
+        assertEquals(Set.of("BEAST.base", "feast"), ResultCache.key("decompile", "1.0").input(input).getRequiredPackages());
+    }
+
+    @Test
+    public void testStoreAndRestore() throws Exception {
+        File dir = Files.createTempDirectory("b2l-cache").toFile();
+        File work = Files.createTempDirectory("b2l-work").toFile();
+        ResultCache cache = new ResultCache(new File(dir, "cache"), 1 << 20);
+
+        File output = write(work, "model.b2l", "script");
+        File nexus = write(work, "data.nex", "#NEXUS");
+        assertFalse(cache.restore("k1", output));
+        cache.store("k1", output, List.of(nexus.getPath()));
+
+        output.delete();
+        nexus.delete();
+        assertTrue(cache.restore("k1", output));
+        assertEquals("script", Files.readString(output.toPath()));
+        assertEquals("#NEXUS", Files.readString(nexus.toPath()));
+    }
+
+    @Test
+    public void testExistingSideFilesAreNotOverwritten() throws Exception {
+        File dir = Files.createTempDirectory("b2l-cache").toFile();
+        File work = Files.createTempDirectory("b2l-work").toFile();
+        ResultCache cache = new ResultCache(new File(dir, "cache"), 1 << 20);
+
+        File output = write(work, "model.b2l", "script");
+        File nexus = write(work, "data.nex", "#NEXUS");
+        cache.store("k1", output, List.of(nexus.getPath()));
+
+        // A file with the cached content is kept as it is
+        output.delete();
+        assertTrue(cache.restore("k1", output));
+        assertEquals("script", Files.readString(output.toPath()));
+        assertEquals("#NEXUS", Files.readString(nexus.toPath()));
+
+        // A file with other content is neither overwritten nor referred to
+        output.delete();
+        write(work, "data.nex", "my own data");
+        assertFalse(cache.restore("k1", output));
+        assertEquals("my own data", Files.readString(nexus.toPath()));
+        assertFalse(output.exists());
+    }
+
+    @Test
+    public void testEntriesAreMovedIntoPlace() throws Exception {
+        File dir = Files.createTempDirectory("b2l-cache").toFile();
+        File work = Files.createTempDirectory("b2l-work").toFile();
+        Path cacheDir = new File(dir, "cache").toPath();
+        ResultCache cache = new ResultCache(cacheDir.toFile(), 1 << 20);
+
+        File output = write(work, "model.b2l", "first");
+        cache.store("k1", output, List.of());
+        // An entry that exists is kept, as it may be in use by another run
+        write(work, "model.b2l", "second");
+        cache.store("k1", output, List.of());
+        // A failed store leaves nothing behind
+        cache.store("k2", output, List.of(new File(work, "missing.nex").getPath()));
+
+        try (Stream<Path> entries = Files.list(cacheDir)) {
+            assertEquals(List.of("k1"), entries.map(entry -> entry.getFileName().toString()).toList());
+        }
+        assertTrue(cache.restore("k1", output));
+        assertEquals("first", Files.readString(output.toPath()));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted() throws Exception {
+        File dir = Files.createTempDirectory("b2l-cache").toFile();
+        File work = Files.createTempDirectory("b2l-work").toFile();
+        Path cacheDir = new File(dir, "cache").toPath();
+        ResultCache cache = new ResultCache(cacheDir.toFile(), 250);
+        File output = write(work, "model.b2l", "x".repeat(100));
+        long now = System.currentTimeMillis();
+
+        cache.store("k1", output, List.of());
+        Files.setLastModifiedTime(cacheDir.resolve("k1"), FileTime.fromMillis(now - 3000));
+        cache.store("k2", output, List.of());
+        Files.setLastModifiedTime(cacheDir.resolve("k2"), FileTime.fromMillis(now - 2000));
+
+        // Using k1 makes k2 the least recently used entry
+        assertTrue(cache.restore("k1", output));
+        cache.store("k3", output, List.of());
+
+        assertTrue(Files.isDirectory(cacheDir.resolve("k1")));
+        assertFalse(Files.exists(cacheDir.resolve("k2")));
+        assertTrue(Files.isDirectory(cacheDir.resolve("k3")));
+    }
+
+    @Test
+    public void testBuildStampOfClassDirectoryFollowsContents() throws Exception {
+        Path classes = Files.createTempDirectory("b2l-classes");
+        Files.createDirectories(classes.resolve("a"));
+        Files.writeString(classes.resolve("a/A.class"), "one");
+        String stamp = ResultCache.hashClassFiles(classes);
+        assertEquals(stamp, ResultCache.hashClassFiles(classes));
+
+        Files.writeString(classes.resolve("a/A.class"), "two");
+        assertNotEquals(stamp, ResultCache.hashClassFiles(classes));
+    }
+}
@@ -0,0 +1,84 @@
+package org.beast2.modelLanguage.beast;
+
+import org.beast2.modelLanguage.builder.ObjectRegistry;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the dispatch cache of the autoboxing registry.
+ * The rules added here only apply to the target types declared in this test.
+ */
+public class AutoboxingRegistryTest {
+
+    private record Marker(String name) {
+    }
+
+    private record Boxed(Object value) {
+    }
+
+    private record NestedBoxed(Object value) {
+    }
+
+    /**
+     * Boxes values into a target record, if the innermost first element of the value is a Marker
+     */
+    private record BoxingRule(Class<?> targetClass) implements AutoboxingRegistry.AutoboxingRule {
+
+        @Override
+        public boolean canAutobox(Object value, Type targetType) {
+            Object first = value;
+            while (first instanceof Object[] array && array.length > 0) {
+                first = array[0];
+            }
+            return targetType == targetClass && first instanceof Marker;
+        }
+
+        @Override
+        public Object autobox(Object value, Type targetType, ObjectRegistry objectRegistry) {
+            return targetClass == Boxed.class ? new Boxed(value) : new NestedBoxed(value);
+        }
+    }
+
+    @Test
+    public void testAddRuleInvalidatesCache() {
+        AutoboxingRegistry registry = AutoboxingRegistry.getInstance();
+        Marker marker = new Marker("a");
+
+        // Cache that no rule applies, then add one
+        assertSame(marker, registry.autobox(marker, Boxed.class, null));
+        assertSame(marker, registry.autobox(marker, Boxed.class, null));
+        registry.addRule(new BoxingRule(Boxed.class));
+
+        assertEquals(new Boxed(marker), registry.autobox(marker, Boxed.class, null));
+    }
+
+    @Test
+    public void testNestedArraysHaveTheirOwnCacheEntries() {
+        AutoboxingRegistry registry = AutoboxingRegistry.getInstance();
+        registry.addRule(new BoxingRule(NestedBoxed.class));
+
+        // Same array classes at the first two levels, different innermost element class
+        Object[][] strings = {{"a"}};
+        Object[][] markers = {{new Marker("a")}};
+        assertSame(strings, registry.autobox(strings, NestedBoxed.class, null));
+        assertEquals(new NestedBoxed(markers), registry.autobox(markers, NestedBoxed.class, null));
+        assertSame(strings, registry.autobox(strings, NestedBoxed.class, null));
+    }
+
+    @Test
+    public void testConversions() {
+        // Conversions of model classes are listed for the model library; the rules of this test have none
+        AutoboxingRegistry registry = AutoboxingRegistry.getInstance();
+        registry.addRule(new BoxingRule(Boxed.class));
+        assertTrue(registry.getConversions().contains(new AutoboxingRegistry.Conversion(
+                "beast.base.evolution.substitutionmodel.SubstitutionModel",
+                "beast.base.evolution.sitemodel.SiteModelInterface")));
+        assertTrue(registry.getConversions().contains(new AutoboxingRegistry.Conversion(
+                "beast.base.evolution.tree.TreeInterface", "beast.base.evolution.tree.TreeIntervals")));
+        assertTrue(registry.getConversions().stream()
+                .noneMatch(conversion -> conversion.targetClass().equals(Boxed.class.getName())));
+    }
+}
@@ -0,0 +1,165 @@
+package org.beast2.modelLanguage.beast;
+
+import beast.base.core.BEASTInterface;
+import beast.base.core.Input;
+import beast.base.evolution.alignment.Alignment;
+import beast.base.evolution.alignment.Taxon;
+import beast.base.evolution.alignment.TaxonSet;
+import beast.base.evolution.datatype.DataType;
+import beast.base.evolution.tree.TraitSet;
+import beast.base.inference.Logger;
+import beast.base.inference.MCMC;
+import beast.base.inference.distribution.Normal;
+import beast.base.inference.distribution.Prior;
+import beast.base.inference.parameter.RealParameter;
+import org.beast2.modelLanguage.model.Beast2Analysis;
+import org.beast2.modelLanguage.model.Beast2Model;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that BeastGraphCopier makes an independent copy of an object graph.
+ */
+public class BeastGraphCopierTest {
+
+    @Test
+    public void testCopySmallGraph() throws Exception {
+        RealParameter lambda = new RealParameter(new Double[]{1.5});
+        lambda.setID("lambda");
+        Normal normal = new Normal();
+        normal.setID("normal");
+        normal.initAndValidate();
+        Prior prior = new Prior();
+        prior.setID("lambdaPrior");
+        prior.initByName("x", lambda, "distr", normal);
+        Logger logger = new Logger();
+        logger.setID("tracelog");
+        logger.initByName("fileName", "out/trace.log", "logEvery", 100, "log", List.of(lambda, prior));
+
+        BeastGraphCopier copier = new BeastGraphCopier("_2");
+        Logger loggerCopy = copier.copy(logger);
+
+        // IDs and log file names differ from the original
+        assertNotSame(logger, loggerCopy);
+        assertEquals("tracelog_2", loggerCopy.getID());
+        assertEquals("out/trace_2.log", loggerCopy.fileNameInput.get());
+        assertEquals("out/trace.log", logger.fileNameInput.get());
+        assertEquals(100, (int) loggerCopy.everyInput.get());
+
+        // Inputs are deep-copied, and objects used twice are copied once
+        List<BEASTInterface> logged = loggerCopy.loggersInput.get();
+        assertEquals(2, logged.size());
+        RealParameter lambdaCopy = (RealParameter) logged.get(0);
+        Prior priorCopy = (Prior) logged.get(1);
+        assertNotSame(lambda, lambdaCopy);
+        assertNotSame(prior, priorCopy);
+        assertNotSame(normal, priorCopy.distInput.get());
+        assertSame(lambdaCopy, priorCopy.m_x.get());
+        assertSame(lambdaCopy, copier.getCopy(lambda));
+        assertEquals("lambda_2", lambdaCopy.getID());
+        assertEquals("lambdaPrior_2", priorCopy.getID());
+        assertEquals("normal_2", priorCopy.distInput.get().getID());
+
+        // State nodes take over the current value
+        assertEquals(1.5, lambdaCopy.getValue(), 0.0);
+    }
+
+    @Test
+    public void testReplicatesOfBuiltRun() throws Exception {
+        Beast2ModelBuilder builder = new Beast2ModelBuilder();
+        Beast2Model model;
+        try (FileInputStream in = new FileInputStream("examples/calibrated_model_direct_alignment.b2l")) {
+            model = builder.buildFromStream(in);
+        }
+        Beast2AnalysisBuilder analysisBuilder = new Beast2AnalysisBuilder(builder);
+        MCMC run = analysisBuilder.buildRun(new Beast2Analysis(model, 1000, 100, "trace.log"));
+
+        Set<BEASTInterface> original = reachable(run);
+        Map<BEASTInterface, Set<BEASTInterface>> sharedOutputs = new IdentityHashMap<>();
+        for (BEASTInterface obj : original) {
+            if (isShared(obj)) {
+                sharedOutputs.put(obj, new HashSet<>(obj.getOutputs()));
+            }
+        }
+        assertTrue(sharedOutputs.keySet().stream().anyMatch(obj -> obj instanceof Alignment));
+
+        MCMC replicate2 = analysisBuilder.buildReplicate(run, 2);
+        MCMC replicate3 = analysisBuilder.buildReplicate(run, 3);
+        Set<BEASTInterface> graph2 = reachable(replicate2);
+        Set<BEASTInterface> graph3 = reachable(replicate3);
+
+        // Replicates share only the data with the original and with each other
+        for (BEASTInterface obj : graph2) {
+            if (isShared(obj)) {
+                assertTrue(obj.getID(), original.contains(obj));
+            } else {
+                assertFalse(obj.getID(), original.contains(obj));
+                assertFalse(obj.getID(), graph3.contains(obj));
+            }
+        }
+
+        // The outputs of shared data are those of the original graph, so no replicate reaches another one
+        for (Map.Entry<BEASTInterface, Set<BEASTInterface>> entry : sharedOutputs.entrySet()) {
+            assertEquals(entry.getKey().getID(), entry.getValue(), new HashSet<>(entry.getKey().getOutputs()));
+        }
+        Set<BEASTInterface> downstream = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<BEASTInterface> queue = new ArrayDeque<>(graph2);
+        while (!queue.isEmpty()) {
+            for (BEASTInterface output : queue.pop().getOutputs()) {
+                if (downstream.add(output)) {
+                    queue.push(output);
+                }
+            }
+        }
+        for (BEASTInterface obj : downstream) {
+            assertFalse(obj.getID(), graph3.contains(obj));
+        }
+
+        // IDs and log files are those of the original with the replicate suffix
+        assertEquals(run.getID() + "_2", replicate2.getID());
+        List<Logger> loggers = run.loggersInput.get();
+        List<Logger> loggers2 = replicate2.loggersInput.get();
+        assertEquals(loggers.size(), loggers2.size());
+        for (int i = 0; i < loggers.size(); i++) {
+            String fileName = loggers.get(i).fileNameInput.get();
+            if (fileName != null && !fileName.isEmpty()) {
+                assertNotEquals(fileName, loggers2.get(i).fileNameInput.get());
+                assertTrue(loggers2.get(i).fileNameInput.get().contains("_2"));
+            }
+        }
+
+        // The replicate starts from the same state, so has the same posterior
+        assertEquals(run.posteriorInput.get().calculateLogP(), replicate2.posteriorInput.get().calculateLogP(), 1e-8);
+    }
+
+    private static boolean isShared(BEASTInterface obj) {
+        return obj instanceof Alignment || obj instanceof TaxonSet || obj instanceof Taxon
+                || obj instanceof TraitSet || obj instanceof DataType;
+    }
+
+    /**
+     * All objects reachable from the root through inputs, including the root, without descending into shared data
+     */
+    private static Set<BEASTInterface> reachable(BEASTInterface root) {
+        Set<BEASTInterface> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<BEASTInterface> queue = new ArrayDeque<>();
+        seen.add(root);
+        queue.push(root);
+        while (!queue.isEmpty()) {
+            for (Input<?> input : queue.pop().getInputs().values()) {
+                Object value = input.get();
+                List<?> values = value instanceof List<?> list ? list : Collections.singletonList(value);
+                for (Object item : values) {
+                    if (item instanceof BEASTInterface beastObj && seen.add(beastObj) && !isShared(beastObj)) {
+                        queue.push(beastObj);
+                    }
+                }
+            }
+        }
+        return seen;
+    }
+}
@@ -0,0 +1,101 @@
+package org.beast2.modelLanguage.beast;
+
+import beast.base.inference.Distribution;
+import beast.base.inference.StateNode;
+import beast.base.inference.distribution.Normal;
+import beast.base.inference.distribution.Prior;
+import beast.base.inference.parameter.IntegerParameter;
+import beast.base.inference.parameter.Parameter;
+import beast.base.inference.parameter.RealParameter;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the typed and reverse-reference lookups of BeastObjectRegistry.
+ */
+public class BeastObjectRegistryTest {
+
+    private static Prior prior(RealParameter x) {
+        Normal normal = new Normal();
+        normal.initAndValidate();
+        Prior prior = new Prior();
+        prior.initByName("x", x, "distr", normal);
+        return prior;
+    }
+
+    @Test
+    public void testObjectsOfType() {
+        BeastObjectRegistry registry = new BeastObjectRegistry();
+        RealParameter lambda = new RealParameter(new Double[]{1.0});
+        IntegerParameter count = new IntegerParameter(new Integer[]{3});
+        Prior lambdaPrior = prior(lambda);
+        registry.register("lambda", lambda);
+        registry.register("count", count);
+        registry.register("lambdaPrior", lambdaPrior);
+
+        // Objects are found by their class and by every supertype, in registration order
+        assertEquals(List.of(lambda), List.copyOf(registry.getObjectsOfType(RealParameter.class)));
+        assertEquals(List.of(lambda, count), List.copyOf(registry.getObjectsOfType(Parameter.class)));
+        assertEquals(List.of(lambda, count), List.copyOf(registry.getObjectsOfType(StateNode.class)));
+        assertEquals(List.of(lambdaPrior), List.copyOf(registry.getObjectsOfType(Distribution.class)));
+        assertTrue(registry.getObjectsOfType(String.class).isEmpty());
+
+        // Registering another object under an ID replaces the old one in all types
+        IntegerParameter lambdaCount = new IntegerParameter(new Integer[]{1});
+        registry.register("lambda", lambdaCount);
+        assertTrue(registry.getObjectsOfType(RealParameter.class).isEmpty());
+        assertEquals(List.of(count, lambdaCount), List.copyOf(registry.getObjectsOfType(IntegerParameter.class)));
+
+        // Objects removed with their statement are gone as well
+        registry.setCurrentStatement("kept");
+        registry.register("kept", count);
+        registry.setCurrentStatement(null);
+        registry.removeStatementObjects(Set.of());
+        assertEquals(List.of(count), List.copyOf(registry.getObjectsOfType(Parameter.class)));
+        assertTrue(registry.getObjectsOfType(Distribution.class).isEmpty());
+
+        registry.clear();
+        assertTrue(registry.getObjectsOfType(Parameter.class).isEmpty());
+    }
+
+    @Test
+    public void testConsumers() {
+        BeastObjectRegistry registry = new BeastObjectRegistry();
+        RealParameter lambda = new RealParameter(new Double[]{1.0});
+        RealParameter mu = new RealParameter(new Double[]{2.0});
+        registry.register("lambda", lambda);
+        registry.register("mu", mu);
+        Prior lambdaPrior = prior(lambda);
+        registry.register("lambdaPrior", lambdaPrior);
+
+        assertEquals(Set.of("lambdaPrior"), registry.getConsumers("lambda"));
+        assertEquals(Set.of("lambdaPrior"), registry.getConsumers(lambda));
+        assertTrue(registry.getConsumers("mu").isEmpty());
+        assertTrue(registry.getConsumers("lambdaPrior").isEmpty());
+        assertTrue(registry.getConsumers("unknown").isEmpty());
+        assertTrue(registry.getConsumers("not a BEAST object").isEmpty());
+
+        // Inputs set after registration are seen, and former consumers are dropped
+        Prior otherPrior = prior(mu);
+        registry.register("otherPrior", otherPrior);
+        otherPrior.setInputValue("x", lambda);
+        assertEquals(Set.of("lambdaPrior", "otherPrior"), registry.getConsumers("lambda"));
+        assertTrue(registry.getConsumers("mu").isEmpty());
+
+        // An object registered under two IDs is reported by both
+        registry.register("alias", otherPrior);
+        assertEquals(Set.of("alias", "lambdaPrior", "otherPrior"), registry.getConsumers("lambda"));
+
+        // Consumers that are not registered, or no longer, are left out
+        prior(lambda);
+        registry.setCurrentStatement("lambda");
+        registry.register("lambda", lambda);
+        registry.setCurrentStatement(null);
+        registry.removeStatementObjects(Set.of());
+        assertTrue(registry.getConsumers("lambda").isEmpty());
+    }
+}
@@ -0,0 +1,87 @@
+package org.beast2.modelLanguage.beast;
+
+import beast.base.core.BEASTInterface;
+import beast.base.evolution.alignment.Alignment;
+import beast.base.evolution.alignment.Sequence;
+import beast.base.inference.MCMC;
+import beast.base.inference.StateNode;
+import beast.base.parser.XMLParser;
+import org.beast2.modelLanguage.model.Beast2Analysis;
+import org.beast2.modelLanguage.model.Beast2Model;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that XML written by BeastXMLWriter can be loaded by BEAST's XMLParser.
+ */
+public class BeastXMLWriterTest {
+
+    @Test
+    public void testExamplesReloadWithXMLParser() throws Exception {
+        File[] examples = new File("examples").listFiles((dir, name) ->
+                name.equals("example_model.b2l") || name.equals("calibrated_model.b2l"));
+        assertNotNull(examples);
+
+        for (File example : examples) {
+            Beast2ModelBuilder modelBuilder = new Beast2ModelBuilder();
+            Beast2Model model;
+            try (FileInputStream in = new FileInputStream(example)) {
+                model = modelBuilder.buildFromStream(in);
+            }
+            MCMC run = new Beast2AnalysisBuilder(modelBuilder)
+                    .buildRun(new Beast2Analysis(model, 10000, 1000, "test.log"));
+
+            File xmlFile = File.createTempFile(example.getName(), ".xml");
+            xmlFile.deleteOnExit();
+            try (Writer writer = new FileWriter(xmlFile)) {
+                new BeastXMLWriter().write(run, writer);
+            }
+
+            BEASTInterface loaded = (BEASTInterface) new XMLParser().parseFile(xmlFile);
+            assertTrue(example.getName(), loaded instanceof MCMC);
+            MCMC loadedRun = (MCMC) loaded;
+
+            assertEquals(example.getName(), stateNodeIds(run), stateNodeIds(loadedRun));
+            assertEquals(example.getName(), run.operatorsInput.get().size(), loadedRun.operatorsInput.get().size());
+            assertEquals(example.getName(), run.loggersInput.get().size(), loadedRun.loggersInput.get().size());
+        }
+    }
+
+    /**
+     * An alignment with 10k taxa: every sequence of the list input is written
+     */
+    @Test
+    public void testLargeAlignment() throws Exception {
+        int taxonCount = 10_000;
+        List<Sequence> sequences = new ArrayList<>(taxonCount);
+        for (int i = 0; i < taxonCount; i++) {
+            sequences.add(new Sequence("taxon" + i, "ACGTACGTACGTACGTACGTACGTACGTACGTACGTACGT"));
+        }
+        Alignment alignment = new Alignment(sequences, "nucleotide");
+        alignment.setID("alignment");
+
+        StringWriter writer = new StringWriter();
+        new BeastXMLWriter().write(alignment, writer);
+
+        String xml = writer.toString();
+        assertTrue(xml.contains("taxon=\"taxon9999\""));
+        assertEquals(taxonCount, xml.split("<sequence ", -1).length - 1);
+    }
+
+    private static List<String> stateNodeIds(MCMC run) {
+        List<String> ids = new ArrayList<>();
+        for (StateNode node : run.startStateInput.get().stateNodeInput.get()) {
+            ids.add(node.getID());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,79 @@
+package org.beast2.modelLanguage.beast;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the class hierarchy index, on the JSON library jar in the repository.
+ */
+public class ClassHierarchyIndexTest {
+
+    private static final List<File> ROOTS = List.of(new File("lib/json-20231013.jar"));
+
+    @Test
+    public void testFindSubtypes() {
+        ClassHierarchyIndex index = new ClassHierarchyIndex(null);
+        index.update(ROOTS);
+        assertTrue(index.getClassCount() > 0);
+
+        List<String> exceptions = index.findSubtypes("java.lang.RuntimeException", "org.json");
+        assertTrue(exceptions.contains("org.json.JSONException"));
+        // JSONPointerException extends JSONException
+        assertTrue(exceptions.contains("org.json.JSONPointerException"));
+        assertEquals(List.of("org.json.JSONPointerException"),
+                index.findSubtypes("org.json.JSONException", ""));
+        assertTrue(index.findSubtypes("java.lang.RuntimeException", "no.such.prefix").isEmpty());
+    }
+
+    @Test
+    public void testIsComplete() {
+        ClassHierarchyIndex index = new ClassHierarchyIndex(null);
+        assertFalse(index.isComplete("org.json.JSONException", "org.json"));
+
+        index.update(ROOTS);
+        // All supertypes of the JSON classes are in the jar or in the Java runtime
+        assertTrue(index.isComplete("org.json.JSONException", "org.json"));
+        // The type itself is not indexed
+        assertFalse(index.isComplete("java.lang.RuntimeException", "org.json"));
+        assertFalse(index.isComplete("no.such.Type", "org.json"));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        File file = File.createTempFile("class-index", ".json");
+        file.delete();
+        file.deleteOnExit();
+
+        ClassHierarchyIndex index = new ClassHierarchyIndex(file);
+        index.update(ROOTS);
+        assertTrue(file.exists());
+
+        ClassHierarchyIndex loaded = new ClassHierarchyIndex(file);
+        assertEquals(index.getClassCount(), loaded.getClassCount());
+        assertEquals(index.findSubtypes("java.lang.RuntimeException", "org.json"),
+                loaded.findSubtypes("java.lang.RuntimeException", "org.json"));
+
+        loaded.update(List.of());
+        assertEquals(0, loaded.getClassCount());
+    }
+
+    @Test
+    public void testSaveLeavesNoTemporaryFiles() throws Exception {
+        Path directory = Files.createTempDirectory("class-index");
+        File file = directory.resolve("class-index.json").toFile();
+
+        new ClassHierarchyIndex(file).update(ROOTS);
+        new ClassHierarchyIndex(file).update(List.of());
+        assertEquals(0, new ClassHierarchyIndex(file).getClassCount());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(file.toPath()), files.toList());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.beast2.modelLanguage.beast;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for reading, expiring and writing the package catalogue, without contacting the repositories.
+ */
+public class PackageCatalogueTest {
+
+    private static File catalogueFile(Path directory) {
+        return directory.resolve("packages.json").toFile();
+    }
+
+    private static void write(File file, int format, Instant refreshed) throws Exception {
+        JSONObject json = new JSONObject()
+                .put("format", format)
+                .put("refreshed", refreshed.toEpochMilli())
+                .put("packages", new JSONArray()
+                        .put(new JSONObject().put("name", "feast").put("latestVersion", "10.4.0")
+                                .put("description", "Expanded BEAST 2 XML"))
+                        .put(new JSONObject().put("name", "BEASTLabs")));
+        Files.writeString(file.toPath(), json.toString(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testParsing() throws Exception {
+        Path directory = Files.createTempDirectory("packages");
+        File file = catalogueFile(directory);
+        Instant refreshed = Instant.ofEpochMilli(Instant.now().toEpochMilli());
+        write(file, 1, refreshed);
+
+        PackageCatalogue catalogue = new PackageCatalogue(file, Duration.ofDays(1));
+        assertFalse(catalogue.isExpired());
+        assertEquals(refreshed, catalogue.getRefreshTime());
+        Map<String, PackageCatalogue.AvailablePackage> packages = catalogue.getAvailablePackages();
+        assertEquals(2, packages.size());
+        assertEquals(new PackageCatalogue.AvailablePackage("feast", "10.4.0", "Expanded BEAST 2 XML"),
+                packages.get("feast"));
+        // Optional fields that are missing
+        assertEquals(new PackageCatalogue.AvailablePackage("BEASTLabs", null, ""), packages.get("BEASTLabs"));
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        Path directory = Files.createTempDirectory("packages");
+        File file = catalogueFile(directory);
+        write(file, 1, Instant.now().minus(Duration.ofHours(2)));
+
+        assertFalse(new PackageCatalogue(file, Duration.ofHours(3)).isExpired());
+        assertEquals(2, new PackageCatalogue(file, Duration.ofHours(3)).getAvailablePackages().size());
+
+        PackageCatalogue expired = new PackageCatalogue(file, Duration.ofHours(1));
+        assertTrue(expired.isExpired());
+        assertTrue(expired.getAvailablePackages().isEmpty());
+        // The refresh time is still known, so it can be reported
+        assertNotNull(expired.getRefreshTime());
+    }
+
+    @Test
+    public void testMissingOrOtherFormat() throws Exception {
+        Path directory = Files.createTempDirectory("packages");
+        File file = catalogueFile(directory);
+        PackageCatalogue catalogue = new PackageCatalogue(file, Duration.ofDays(1));
+        assertNull(catalogue.getRefreshTime());
+        assertTrue(catalogue.isExpired());
+        assertTrue(catalogue.getAvailablePackages().isEmpty());
+
+        write(file, 2, Instant.now());
+        assertNull(catalogue.getRefreshTime());
+        assertTrue(catalogue.isExpired());
+        assertTrue(catalogue.getAvailablePackages().isEmpty());
+
+        Files.writeString(file.toPath(), "not json", StandardCharsets.UTF_8);
+        assertTrue(catalogue.getAvailablePackages().isEmpty());
+    }
+
+    @Test
+    public void testStore() throws Exception {
+        Path directory = Files.createTempDirectory("packages");
+        File file = catalogueFile(directory);
+        write(file, 1, Instant.now().minus(Duration.ofDays(30)));
+
+        PackageCatalogue catalogue = new PackageCatalogue(file, Duration.ofDays(1));
+        assertTrue(catalogue.isExpired());
+        catalogue.store(List.of(new PackageCatalogue.AvailablePackage("SA", "2.1.1", "Sampled ancestors")));
+        assertFalse(catalogue.isExpired());
+        assertEquals(Map.of("SA", new PackageCatalogue.AvailablePackage("SA", "2.1.1", "Sampled ancestors")),
+                catalogue.getAvailablePackages());
+
+        // Only the catalogue itself is left in the directory
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(file.toPath()), files.toList());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.beast2.modelLanguage.builder;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for nesting of profiled spans and the totals reported per phase and statement.
+ */
+public class BuildProfilerTest {
+
+    @After
+    public void tearDown() {
+        BuildProfiler.stop();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        assertFalse(BuildProfiler.isEnabled());
+        try (BuildProfiler.Span span = BuildProfiler.statement("x")) {
+            assertSame(BuildProfiler.Span.NONE, span);
+        }
+        assertNull(BuildProfiler.stop());
+    }
+
+    @Test
+    public void testNesting() {
+        BuildProfiler profiler = BuildProfiler.start();
+        assertTrue(BuildProfiler.isEnabled());
+        try (BuildProfiler.Span statement = BuildProfiler.statement("lambda")) {
+            sleep(5);
+            try (BuildProfiler.Span instantiate = BuildProfiler.phase(BuildProfiler.INSTANTIATE)) {
+                sleep(5);
+                try (BuildProfiler.Span init = BuildProfiler.phase(BuildProfiler.INIT_AND_VALIDATE)) {
+                    sleep(5);
+                }
+            }
+        }
+        assertSame(profiler, BuildProfiler.stop());
+        assertFalse(BuildProfiler.isEnabled());
+
+        // Spans are recorded when closed, innermost first
+        List<BuildProfiler.Record> records = profiler.getRecords();
+        assertEquals(List.of(BuildProfiler.INIT_AND_VALIDATE, BuildProfiler.INSTANTIATE, "lambda"),
+                records.stream().map(BuildProfiler.Record::name).toList());
+        BuildProfiler.Record init = records.get(0);
+        BuildProfiler.Record instantiate = records.get(1);
+        BuildProfiler.Record statement = records.get(2);
+
+        assertEquals(2, init.depth());
+        assertEquals(1, instantiate.depth());
+        assertEquals(0, statement.depth());
+        assertTrue(statement.isTopLevel());
+        assertFalse(instantiate.isTopLevel());
+        assertEquals(BuildProfiler.STATEMENT, statement.category());
+        assertEquals(BuildProfiler.PHASE, instantiate.category());
+
+        // A span contains its nested spans, and its self time excludes only its direct children
+        assertTrue(statement.startNanos() <= instantiate.startNanos());
+        assertTrue(instantiate.startNanos() <= init.startNanos());
+        assertTrue(statement.wallNanos() >= instantiate.wallNanos());
+        assertTrue(instantiate.wallNanos() >= init.wallNanos());
+        assertEquals(init.wallNanos(), init.selfWallNanos());
+        assertEquals(instantiate.wallNanos() - init.wallNanos(), instantiate.selfWallNanos());
+        assertEquals(statement.wallNanos() - instantiate.wallNanos(), statement.selfWallNanos());
+        assertEquals(statement.cpuNanos() - instantiate.cpuNanos(), statement.selfCpuNanos());
+        assertTrue(statement.selfWallNanos() >= 5_000_000);
+        assertTrue(init.selfWallNanos() >= 5_000_000);
+    }
+
+    @Test
+    public void testSpanClosedTwiceIsRecordedOnce() {
+        BuildProfiler profiler = BuildProfiler.start();
+        BuildProfiler.Span span = BuildProfiler.phase(BuildProfiler.NEXUS);
+        span.close();
+        span.close();
+        BuildProfiler.stop();
+        assertEquals(1, profiler.getRecords().size());
+    }
+
+    @Test
+    public void testStatementTotals() {
+        BuildProfiler profiler = BuildProfiler.start();
+        for (String key : new String[]{"alignment", "tree", null}) {
+            try (BuildProfiler.Span statement = BuildProfiler.statement(key)) {
+                try (BuildProfiler.Span phase = BuildProfiler.phase(BuildProfiler.AUTOBOX)) {
+                    sleep(2);
+                }
+                sleep(1);
+            }
+        }
+        // Spans on another thread are nested on their own stack
+        Thread thread = new Thread(() -> {
+            try (BuildProfiler.Span statement = BuildProfiler.statement("other")) {
+                sleep(1);
+            }
+        });
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        BuildProfiler.stop();
+
+        Map<String, BuildProfiler.Record> statements = profiler.getRecords().stream()
+                .filter(r -> BuildProfiler.STATEMENT.equals(r.category()))
+                .collect(Collectors.toMap(BuildProfiler.Record::name, Function.identity()));
+        assertEquals(Map.of("alignment", 0, "tree", 0, "<anonymous>", 0, "other", 0),
+                statements.values().stream().collect(Collectors.toMap(BuildProfiler.Record::name,
+                        BuildProfiler.Record::depth)));
+
+        List<BuildProfiler.Record> autobox = profiler.getRecords().stream()
+                .filter(r -> BuildProfiler.AUTOBOX.equals(r.name())).toList();
+        assertEquals(3, autobox.size());
+        long autoboxSelf = autobox.stream().mapToLong(BuildProfiler.Record::selfWallNanos).sum();
+        long otherSelf = statements.values().stream().mapToLong(BuildProfiler.Record::selfWallNanos).sum();
+        long statementTotal = statements.values().stream().mapToLong(BuildProfiler.Record::wallNanos).sum();
+        // The statements add up to the phases nested in them plus their own time
+        assertEquals(statementTotal, autoboxSelf + otherSelf);
+
+        String report = profiler.getReport();
+        assertTrue(report, report.startsWith("Build profile: 4 statements"));
+        assertTrue(report, report.matches("(?s).*\\n" + BuildProfiler.AUTOBOX + " +3 .*"));
+        assertTrue(report, report.matches("(?s).*\\n" + BuildProfiler.OTHER + " +4 .*"));
+        for (String name : statements.keySet()) {
+            assertTrue(report, report.contains("\n" + name + " "));
+        }
+    }
+}
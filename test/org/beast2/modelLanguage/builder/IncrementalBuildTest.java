@@ -0,0 +1,213 @@
+package org.beast2.modelLanguage.builder;
+
+import beast.base.core.BEASTInterface;
+import beast.base.core.Input;
+import org.beast2.modelLanguage.beast.Beast2ModelBuilder;
+import org.beast2.modelLanguage.model.*;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that an incremental rebuild produces the same object graph as a full build.
+ */
+public class IncrementalBuildTest {
+
+    private static final String BASE_MODEL =
+            "beast.base.inference.distribution.ParametricDistribution lognorm = " +
+                    "beast.base.inference.distribution.LogNormalDistributionModel(M=1, S=1);\n" +
+                    "beast.base.inference.parameter.RealParameter lambda ~ " +
+                    "beast.base.inference.distribution.Prior(distr=lognorm);\n" +
+                    "beast.base.inference.parameter.RealParameter kappa ~ " +
+                    "beast.base.inference.distribution.LogNormalDistributionModel(M=0, S=1);";
+
+    // A chain lognorm -> lambda -> scaled -> mu, and kappa on its own
+    private static final String CHAIN_MODEL =
+            "beast.base.inference.distribution.ParametricDistribution lognorm = " +
+                    "beast.base.inference.distribution.LogNormalDistributionModel(M=1, S=1);\n" +
+                    "beast.base.inference.parameter.RealParameter lambda ~ " +
+                    "beast.base.inference.distribution.Prior(distr=lognorm);\n" +
+                    "beast.base.inference.distribution.ParametricDistribution scaled = " +
+                    "beast.base.inference.distribution.LogNormalDistributionModel(M=lambda, S=1);\n" +
+                    "beast.base.inference.parameter.RealParameter mu ~ " +
+                    "beast.base.inference.distribution.Prior(distr=scaled);\n" +
+                    "beast.base.inference.parameter.RealParameter kappa ~ " +
+                    "beast.base.inference.distribution.LogNormalDistributionModel(M=0, S=1);";
+
+    @Test
+    public void testDirtyKeysIncludeDependents() {
+        Beast2ModelBuilder builder = new Beast2ModelBuilder();
+        Beast2Model before = builder.buildFromString(BASE_MODEL);
+        Beast2Model after = builder.buildFromString(BASE_MODEL.replace("M=1, S=1", "M=2, S=1"));
+
+        ModelDiff diff = ModelDiff.compute(before, after, Collections.emptyMap());
+
+        assertFalse(diff.isFullRebuildRequired());
+        assertEquals(Set.of("lognorm"), diff.getChangedKeys());
+        assertEquals(Set.of("lognorm", "lambda"), diff.getDirtyKeys());
+        assertTrue(diff.getRemovedKeys().isEmpty());
+    }
+
+    @Test
+    public void testImportChangeRequiresFullRebuild() {
+        Beast2ModelBuilder builder = new Beast2ModelBuilder();
+        Beast2Model before = builder.buildFromString(BASE_MODEL);
+        Beast2Model after = builder.buildFromString("import beast.base.inference.parameter.*;\n" + BASE_MODEL);
+
+        assertTrue(ModelDiff.compute(before, after, Collections.emptyMap()).isFullRebuildRequired());
+    }
+
+    private static void assumeBeast() {
+        boolean available;
+        try {
+            Class.forName("beast.base.inference.distribution.LogNormalDistributionModel");
+            available = true;
+        } catch (ClassNotFoundException e) {
+            available = false;
+        }
+        Assume.assumeTrue("BEAST2 is not available", available);
+    }
+
+    @Test
+    public void testMiddleEditRebuildsDownstream() throws Exception {
+        assumeBeast();
+        String edited = CHAIN_MODEL.replace("M=lambda, S=1", "M=lambda, S=2");
+
+        Beast2ModelBuilder builder = new Beast2ModelBuilder();
+        builder.buildModel(builder.buildFromString(CHAIN_MODEL));
+        Map<String, Object> before = new HashMap<>(builder.getAllObjects());
+
+        ModelDiff diff = builder.buildModelIncremental(builder.buildFromString(edited));
+        assertEquals(Set.of("scaled"), diff.getChangedKeys());
+        assertEquals(Set.of("scaled", "mu"), diff.getDirtyKeys());
+
+        // Upstream and unrelated objects are kept, everything downstream of the edit is new
+        for (String kept : List.of("lognorm", "lambda", "kappa")) {
+            assertSame(kept, before.get(kept), builder.getObject(kept));
+        }
+        for (String rebuilt : List.of("scaled", "mu")) {
+            assertNotNull(rebuilt, builder.getObject(rebuilt));
+            assertNotSame(rebuilt, before.get(rebuilt), builder.getObject(rebuilt));
+        }
+
+        Beast2ModelBuilder fullBuilder = new Beast2ModelBuilder();
+        fullBuilder.buildModel(fullBuilder.buildFromString(edited));
+        assertEquals(describe(fullBuilder.getAllObjects()), describe(builder.getAllObjects()));
+    }
+
+    @Test
+    public void testIncrementalMatchesFullBuildOnExamples() throws Exception {
+        assumeBeast();
+        // Start from the model without its last statement, then rebuild incrementally
+        for (File example : examples()) {
+            assertIncrementalMatchesFullBuild(example, IncrementalBuildTest::dropLastStatement, model -> {
+            }, false);
+        }
+    }
+
+    @Test
+    public void testRemovedStatementMatchesFullBuildOnExamples() throws Exception {
+        assumeBeast();
+        // Start from the whole model, then rebuild incrementally without its last statement
+        for (File example : examples()) {
+            assertIncrementalMatchesFullBuild(example, model -> {
+            }, IncrementalBuildTest::dropLastStatement, false);
+        }
+    }
+
+    @Test
+    public void testImportChangeMatchesFullBuildOnExamples() throws Exception {
+        assumeBeast();
+        // An extra import may change how any name resolves, so everything is rebuilt
+        for (File example : examples()) {
+            assertIncrementalMatchesFullBuild(example, model -> {
+            }, model -> model.addImport(new ImportStatement("beast.base.core", true)), true);
+        }
+    }
+
+    private static File[] examples() {
+        File[] examples = new File("examples").listFiles((dir, name) -> name.endsWith(".b2l"));
+        assertNotNull("examples directory not found", examples);
+        Arrays.sort(examples);
+        return examples;
+    }
+
+    private static void dropLastStatement(Beast2Model model) {
+        List<Statement> statements = new ArrayList<>(model.getStatements());
+        model.clearStatements();
+        statements.subList(0, statements.size() - 1).forEach(model::addStatement);
+    }
+
+    /**
+     * Build an example edited by {@code initial}, rebuild it incrementally as edited by {@code target},
+     * and check that the outcome and the object graph are those of a full build of the target
+     */
+    private void assertIncrementalMatchesFullBuild(File example, Consumer<Beast2Model> initial,
+                                                   Consumer<Beast2Model> target, boolean fullRebuild) throws Exception {
+        Beast2ModelBuilder fullBuilder = new Beast2ModelBuilder();
+        Beast2Model model = parse(fullBuilder, example);
+        target.accept(model);
+
+        String fullError = null;
+        try {
+            fullBuilder.buildModel(model);
+        } catch (Exception e) {
+            fullError = e.getClass().getName();
+        }
+
+        Beast2ModelBuilder incrementalBuilder = new Beast2ModelBuilder();
+        String incrementalError = null;
+        try {
+            Beast2Model first = parse(incrementalBuilder, example);
+            initial.accept(first);
+            incrementalBuilder.buildModel(first);
+            Beast2Model edited = parse(incrementalBuilder, example);
+            target.accept(edited);
+            ModelDiff diff = incrementalBuilder.buildModelIncremental(edited);
+            assertEquals(example.getName() + ": full rebuild", fullRebuild, diff.isFullRebuildRequired());
+        } catch (Exception e) {
+            incrementalError = e.getClass().getName();
+        }
+
+        assertEquals(example.getName() + ": build outcome differs", fullError, incrementalError);
+        if (fullError == null) {
+            assertEquals(example.getName() + ": object graphs differ",
+                    describe(fullBuilder.getAllObjects()), describe(incrementalBuilder.getAllObjects()));
+        }
+    }
+
+    private Beast2Model parse(Beast2ModelBuilder builder, File file) throws Exception {
+        try (FileInputStream fis = new FileInputStream(file)) {
+            return builder.buildFromStream(fis);
+        }
+    }
+
+    /**
+     * Describe each object by its class and the ids of the objects connected to its inputs
+     */
+    private Map<String, String> describe(Map<String, Object> objects) {
+        Map<String, String> description = new TreeMap<>();
+        for (Map.Entry<String, Object> entry : objects.entrySet()) {
+            Object obj = entry.getValue();
+            StringBuilder sb = new StringBuilder(obj.getClass().getName());
+            if (obj instanceof BEASTInterface beastObj) {
+                for (Map.Entry<String, Input<?>> input : new TreeMap<>(beastObj.getInputs()).entrySet()) {
+                    Object value = input.getValue().get();
+                    if (value instanceof BEASTInterface ref) {
+                        sb.append(' ').append(input.getKey()).append('=').append(ref.getID());
+                    } else if (value instanceof Collection<?> c && !c.isEmpty()) {
+                        sb.append(' ').append(input.getKey()).append("=[").append(c.size()).append(']');
+                    }
+                }
+            }
+            description.put(entry.getKey(), sb.toString());
+        }
+        return description;
+    }
+}
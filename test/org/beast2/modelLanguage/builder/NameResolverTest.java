@@ -0,0 +1,127 @@
+package org.beast2.modelLanguage.builder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for resolving names against required packages, with a stub factory that records which
+ * packages are loaded and indexed, so no BEAST installation is needed.
+ */
+public class NameResolverTest {
+
+    // Classes of each package, as the stub factory finds them
+    private static final Map<String, List<String>> PACKAGES = Map.of(
+            "alpha", List.of("alpha.model.Foo", "alpha.model.Shared"),
+            "beta", List.of("beta.model.Bar", "beta.model.Shared"),
+            "gamma", List.of("gamma.model.Baz"));
+
+    private final List<String> loaded = new ArrayList<>();
+    private final List<String> indexed = new ArrayList<>();
+    private final Set<String> existing = Set.of("util.Foo", "util.Quux", "other.Bar");
+
+    @Before
+    public void setUp() {
+        ModelObjectFactory factory = (ModelObjectFactory) Proxy.newProxyInstance(
+                ModelObjectFactory.class.getClassLoader(), new Class<?>[]{ModelObjectFactory.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "loadPackage" -> {
+                        loaded.add((String) args[0]);
+                        yield null;
+                    }
+                    case "findModelObjectClasses" -> {
+                        indexed.add((String) args[0]);
+                        yield PACKAGES.getOrDefault((String) args[0], List.of());
+                    }
+                    case "classExists" -> existing.contains((String) args[0])
+                            || loaded.stream().anyMatch(name -> PACKAGES.get(name).contains((String) args[0]));
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        FactoryProvider.reset();
+        FactoryProvider.setFactory(factory);
+    }
+
+    @After
+    public void tearDown() {
+        FactoryProvider.reset();
+    }
+
+    private static NameResolver requiring(String... packages) {
+        NameResolver resolver = new NameResolver();
+        for (String name : packages) {
+            resolver.addRequiredPackage(name);
+        }
+        return resolver;
+    }
+
+    @Test
+    public void testImportsNeedNoPackages() {
+        NameResolver resolver = requiring("alpha", "beta", "gamma");
+        resolver.addExplicitImport("util.Foo");
+        resolver.addWildcardImport("util");
+
+        assertEquals("util.Foo", resolver.resolveClassName("Foo"));
+        assertEquals("util.Quux", resolver.resolveClassName("Quux"));
+        assertEquals("java.lang.String", resolver.resolveClassName("String"));
+        assertEquals("x.y.Z", resolver.resolveClassName("x.y.Z"));
+        assertTrue(loaded.isEmpty());
+        assertTrue(indexed.isEmpty());
+    }
+
+    @Test
+    public void testPackagesLoadedOnDemand() {
+        NameResolver resolver = requiring("alpha", "beta", "gamma");
+
+        assertEquals("alpha.model.Foo", resolver.resolveClassName("Foo"));
+        assertEquals(List.of("alpha"), loaded);
+        assertEquals(List.of("alpha"), indexed);
+
+        assertEquals("beta.model.Bar", resolver.resolveClassName("Bar"));
+        assertEquals(List.of("alpha", "beta"), loaded);
+        assertEquals(List.of("alpha", "beta"), indexed);
+
+        // Resolved names are cached, and a package is never loaded twice
+        assertEquals("alpha.model.Foo", resolver.resolveClassName("Foo"));
+        resolver.addRequiredPackage("alpha");
+        assertEquals("beta.model.Bar[]", resolver.resolveClassName("Bar[]"));
+        assertEquals(List.of("alpha", "beta"), loaded);
+        assertEquals(List.of("alpha", "beta"), indexed);
+    }
+
+    @Test
+    public void testUnresolvedNameLoadsAllPackages() {
+        NameResolver resolver = requiring("alpha", "beta", "gamma");
+        assertEquals("Missing", resolver.resolveClassName("Missing"));
+        assertEquals(List.of("alpha", "beta", "gamma"), loaded);
+        assertEquals(List.of("alpha", "beta", "gamma"), indexed);
+    }
+
+    @Test
+    public void testResolutionOrder() {
+        // Imports come before required packages, whichever is added first
+        NameResolver resolver = requiring("beta");
+        resolver.addWildcardImport("other");
+        assertEquals("other.Bar", resolver.resolveClassName("Bar"));
+        assertTrue(loaded.isEmpty());
+
+        // Required packages are searched in the order they were required, also when a later
+        // package was indexed before the name was looked up
+        resolver = requiring("alpha", "beta");
+        assertEquals("beta.model.Bar", resolver.resolveClassName("Bar"));
+        assertEquals("alpha.model.Shared", resolver.resolveClassName("Shared"));
+
+        loaded.clear();
+        indexed.clear();
+        resolver = requiring("beta", "alpha");
+        assertEquals("beta.model.Shared", resolver.resolveClassName("Shared"));
+        assertEquals(List.of("beta"), indexed);
+    }
+}
@@ -0,0 +1,91 @@
+package org.beast2.modelLanguage.converter;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for naming, paths and de-duplication of Nexus files written for decompiled alignments.
+ */
+public class AlignmentFileWriterTest {
+
+    private static Map<String, String> sequences(String... rows) {
+        Map<String, String> sequences = new LinkedHashMap<>();
+        for (int i = 0; i < rows.length; i += 2) {
+            sequences.put(rows[i], rows[i + 1]);
+        }
+        return sequences;
+    }
+
+    @Test
+    public void testNamesAreCleanedAndUnique() throws Exception {
+        File dir = Files.createTempDirectory("b2l-nexus").toFile();
+        AlignmentFileWriter writer = new AlignmentFileWriter(dir);
+
+        assertEquals(new File(dir, "my_data_1.nex").getPath(),
+                writer.write("my-data.1", "nucleotide", sequences("a", "ACGT"), 4));
+        assertEquals(new File(dir, "my_data_1_2.nex").getPath(),
+                writer.write("my-data.1", "nucleotide", sequences("a", "TTTT"), 4));
+        assertTrue(new File(dir, "my_data_1.nex").exists());
+        assertTrue(new File(dir, "my_data_1_2.nex").exists());
+    }
+
+    @Test
+    public void testPathsIncludeTheDirectory() throws Exception {
+        // A relative directory, as for "-output out/model.b2l", gives paths from the working directory
+        File dir = Files.createTempDirectory(Path.of(""), "b2l-nexus").toFile();
+        try {
+            AlignmentFileWriter writer = new AlignmentFileWriter(dir);
+
+            String path = writer.write("dna", "nucleotide", sequences("a", "ACGT", "b", "ACGA"), 4);
+            assertEquals(new File(dir, "dna.nex").getPath(), path);
+            assertFalse(new File(path).isAbsolute());
+            String text = Files.readString(new File(path).toPath());
+            assertTrue(text.startsWith("#NEXUS\nBEGIN DATA;\nDIMENSIONS NTAX=2 NCHAR=4;\n"));
+            assertTrue(text.contains("a ACGT\nb ACGA\n;\nEND;\n"));
+
+            // The files for the result cache are the ones referred to
+            assertEquals(List.of(path), List.copyOf(writer.getFiles()));
+        } finally {
+            for (File file : Objects.requireNonNull(dir.listFiles())) {
+                Files.delete(file.toPath());
+            }
+            Files.delete(dir.toPath());
+        }
+    }
+
+    @Test
+    public void testExistingFilesAreNotOverwritten() throws Exception {
+        File dir = Files.createTempDirectory("b2l-nexus").toFile();
+        File userFile = new File(dir, "dna.nex");
+        Files.writeString(userFile.toPath(), "my own data");
+
+        AlignmentFileWriter writer = new AlignmentFileWriter(dir);
+        assertEquals(new File(dir, "dna_2.nex").getPath(), writer.write("dna", "nucleotide", sequences("a", "ACGT"), 4));
+        assertEquals("my own data", Files.readString(userFile.toPath()));
+    }
+
+    @Test
+    public void testIdenticalAlignmentsShareAFile() throws Exception {
+        File dir = Files.createTempDirectory("b2l-nexus").toFile();
+        AlignmentFileWriter writer = new AlignmentFileWriter(dir);
+
+        String first = new File(dir, "first.nex").getPath();
+        assertEquals(first, writer.write("first", "nucleotide", sequences("a", "ACGT"), 4));
+        assertEquals(first, writer.write("second", "nucleotide", sequences("a", "ACGT"), 4));
+        assertFalse(new File(dir, "second.nex").exists());
+        assertEquals(1, writer.getDuplicateCount());
+        assertEquals(1, writer.getFiles().size());
+
+        // The name of a dropped duplicate can be used again
+        assertEquals(new File(dir, "second.nex").getPath(), writer.write("second", "nucleotide", sequences("a", "TTTT"), 4));
+    }
+}
@@ -0,0 +1,57 @@
+package org.beast2.modelLanguage.converter;
+
+import beast.base.core.BEASTInterface;
+import beast.base.inference.parameter.RealParameter;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the normalization of BEAST identifiers.
+ */
+public class BeastIdentifierNormaliserTest {
+
+    @Test
+    public void testValidIdentifiersKeepTheirName() {
+        // "a.b" cleans to "a_b", which a later object already has
+        RealParameter dotted = parameter("a.b");
+        RealParameter valid = parameter("a_b");
+        RealParameter numeric = parameter("1x");
+
+        BeastIdentifierNormaliser normaliser = new BeastIdentifierNormaliser();
+        normaliser.normaliseIdentifiers(List.of(dotted, valid, numeric));
+
+        assertEquals("a_b", valid.getID());
+        assertEquals("a_b_1", dotted.getID());
+        assertEquals("id1x", numeric.getID());
+        assertEquals("a_b_1", normaliser.getTransformationMap().get("a.b"));
+        assertEquals("id1x", normaliser.getTransformationMap().get("1x"));
+        assertFalse(normaliser.getTransformationMap().containsKey("a_b"));
+    }
+
+    @Test
+    public void testManyCollisionsGetDistinctSuffixes() {
+        int count = 10_000;
+        List<BEASTInterface> parameters = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // ids that differ only in invalid characters, so they clean to a handful of names
+            parameters.add(parameter("rate" + Integer.toBinaryString(i).replace('0', '.').replace('1', ':')));
+        }
+
+        BeastIdentifierNormaliser normaliser = new BeastIdentifierNormaliser();
+        normaliser.normaliseIdentifiers(parameters);
+
+        long distinct = parameters.stream().map(BEASTInterface::getID).distinct().count();
+        assertEquals(count, distinct);
+        assertEquals(count, normaliser.getTransformationMap().size());
+    }
+
+    private static RealParameter parameter(String id) {
+        RealParameter parameter = new RealParameter("1.0");
+        parameter.setID(id);
+        return parameter;
+    }
+}
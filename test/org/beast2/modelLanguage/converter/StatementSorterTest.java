@@ -0,0 +1,92 @@
+package org.beast2.modelLanguage.converter;
+
+import org.beast2.modelLanguage.model.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the dependency sorting of decompiled statements.
+ */
+public class StatementSorterTest {
+
+    @Test
+    public void testDependenciesFirstAndStableTies() {
+        Beast2Model model = new Beast2Model();
+        model.addStatement(declare("c", "b"));
+        model.addStatement(declare("x"));
+        model.addStatement(declare("b", "a"));
+        model.addStatement(declare("a"));
+        model.addStatement(declare("y"));
+
+        StatementSorter sorter = new StatementSorter();
+        sorter.sortStatements(model);
+
+        assertEquals(List.of("x", "a", "b", "c", "y"), ids(model));
+        assertTrue(sorter.getCycles().isEmpty());
+    }
+
+    @Test
+    public void testCycleMembersReported() {
+        Beast2Model model = new Beast2Model();
+        model.addStatement(declare("p", "q"));
+        model.addStatement(declare("q", "r"));
+        model.addStatement(declare("r", "p"));
+        model.addStatement(declare("s", "r"));
+        model.addStatement(declare("t"));
+
+        StatementSorter sorter = new StatementSorter();
+        sorter.sortStatements(model);
+
+        // cycle members and their dependents are kept, after the sorted statements
+        assertEquals(List.of("t", "p", "q", "r", "s"), ids(model));
+        assertEquals(List.of(List.of("p", "q", "r")), sorter.getCycles());
+    }
+
+    /**
+     * A synthetic model of 50k statements in reverse dependency order:
+     * a chain plus references to a few shared statements.
+     */
+    @Test
+    public void testLargeModel() {
+        int n = 50_000;
+        Beast2Model model = new Beast2Model();
+        for (int i = n - 1; i >= 0; i--) {
+            List<String> deps = new ArrayList<>();
+            if (i > 0) {
+                deps.add("v" + (i - 1));
+            }
+            if (i > 10) {
+                deps.add("v" + (i % 10));
+            }
+            model.addStatement(declare("v" + i, deps.toArray(new String[0])));
+        }
+
+        new StatementSorter().sortStatements(model);
+
+        List<String> ids = ids(model);
+        assertEquals(n, ids.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals("v" + i, ids.get(i));
+        }
+    }
+
+    private static Statement declare(String name, String... dependencies) {
+        List<Argument> args = new ArrayList<>();
+        for (String dependency : dependencies) {
+            args.add(new Argument("x", new Identifier(dependency)));
+        }
+        return new VariableDeclaration("RealParameter", name, new FunctionCall("RealParameter", args));
+    }
+
+    private static List<String> ids(Beast2Model model) {
+        List<String> ids = new ArrayList<>();
+        for (Statement stmt : model.getStatements()) {
+            ids.add(((VariableDeclaration) stmt).getVariableName());
+        }
+        return ids;
+    }
+}
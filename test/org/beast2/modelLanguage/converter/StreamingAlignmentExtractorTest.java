@@ -0,0 +1,86 @@
+package org.beast2.modelLanguage.converter;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for streaming alignments of BEAST2 XML to Nexus files.
+ */
+public class StreamingAlignmentExtractorTest {
+
+    private static final String XML = """
+            <beast version="2.7">
+            <data id="dna" dataType="nucleotide">
+                <sequence taxon="a" value="ACGT"/>
+                <sequence taxon="b" value="A{CT}G-"/>
+            </data>
+            <data id="counts" dataType="integer">
+                <sequence taxon="a" value="1,12,3"/>
+                <sequence taxon="b" value="10,2,0"/>
+            </data>
+            <data id="codes" dataType="user">
+                <userDataType spec="beast.base.evolution.datatype.UserDataType" states="3" codelength="-1"
+                              codeMap="x=0,y=1,z=2,? = 0 1 2"/>
+                <sequence taxon="a" value="x,y,z"/>
+                <sequence taxon="b" value="z,z,x"/>
+            </data>
+            </beast>
+            """;
+
+    @Test
+    public void testOnlyCharacterDataTypesAreStreamed() throws Exception {
+        File dir = Files.createTempDirectory("b2l-stream").toFile();
+        File xmlFile = new File(dir, "input.xml");
+        Files.writeString(xmlFile.toPath(), XML);
+
+        StreamingAlignmentExtractor.Result result =
+                new StreamingAlignmentExtractor(new AlignmentFileWriter(dir), 0, 0).extract(xmlFile);
+        try {
+            assertEquals(Set.of("dna"), result.getAlignmentFiles().keySet());
+            assertEquals(new File(dir, "dna.nex").getPath(), result.getAlignmentFiles().get("dna"));
+
+            // The nucleotide alignment is in the Nexus file, with the ambiguity set as one site
+            File nexus = new File(dir, "dna.nex");
+            String nexusText = Files.readString(nexus.toPath());
+            assertTrue(nexusText.contains("NTAX=2 NCHAR=4;"));
+            assertTrue(nexusText.contains("FORMAT DATATYPE=nucleotide"));
+            assertTrue(nexusText.contains("a ACGT\n"));
+            assertTrue(nexusText.contains("b A{CT}G-\n"));
+
+            // and reduced to its first site in the XML, while integer and user data are kept whole
+            String reduced = Files.readString(result.getXmlFile().toPath());
+            assertTrue(reduced.contains("taxon=\"a\" value=\"A\""));
+            assertFalse(reduced.contains("ACGT"));
+            assertTrue(reduced.contains("value=\"1,12,3\""));
+            assertTrue(reduced.contains("value=\"10,2,0\""));
+            assertTrue(reduced.contains("value=\"x,y,z\""));
+            assertFalse(new File(dir, "counts.nex").exists());
+            assertFalse(new File(dir, "codes.nex").exists());
+        } finally {
+            result.getXmlFile().delete();
+        }
+    }
+
+    @Test
+    public void testNothingExtractedForIntegerData() throws Exception {
+        File dir = Files.createTempDirectory("b2l-stream").toFile();
+        File xmlFile = new File(dir, "input.xml");
+        Files.writeString(xmlFile.toPath(), """
+                <beast version="2.7">
+                <data id="counts" dataType="integer">
+                    <sequence taxon="a">1,12,3</sequence>
+                </data>
+                </beast>
+                """);
+
+        StreamingAlignmentExtractor.Result result =
+                new StreamingAlignmentExtractor(new AlignmentFileWriter(dir), 0, 0).extract(xmlFile);
+        assertTrue(result.isEmpty());
+        assertNull(result.getXmlFile());
+    }
+}
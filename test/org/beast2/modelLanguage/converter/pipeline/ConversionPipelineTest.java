@@ -0,0 +1,257 @@
+package org.beast2.modelLanguage.converter.pipeline;
+
+import beast.base.core.BEASTInterface;
+import beast.base.inference.MCMC;
+import beast.base.parser.XMLParser;
+import org.beast2.modelLanguage.converter.AlignmentFileWriter;
+import org.beast2.modelLanguage.converter.Beast2ModelWriter;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for scheduling conversion phases from the context facets they declare.
+ */
+public class ConversionPipelineTest {
+
+    private static ConversionPhase phase(String name, Set<ContextFacet> reads, Set<ContextFacet> writes,
+                                         Consumer<ConversionContext> body) {
+        return new ConversionPhase() {
+            @Override
+            public void execute(ConversionContext context) {
+                body.accept(context);
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Set<ContextFacet> getReads() {
+                return reads;
+            }
+
+            @Override
+            public Set<ContextFacet> getWrites() {
+                return writes;
+            }
+        };
+    }
+
+    private static ConversionPhase phase(String name, Set<ContextFacet> reads, Set<ContextFacet> writes) {
+        return phase(name, reads, writes, context -> {
+        });
+    }
+
+    private static boolean conflict(ConversionPhase a, ConversionPhase b) {
+        return !Collections.disjoint(a.getWrites(), b.getReads()) || !Collections.disjoint(a.getWrites(), b.getWrites())
+                || !Collections.disjoint(a.getReads(), b.getWrites());
+    }
+
+    @Test
+    public void testDependencies() {
+        ConversionPipeline pipeline = new ConversionPipeline.Builder()
+                .addPhase(phase("ids", EnumSet.of(ContextFacet.INPUT), EnumSet.of(ContextFacet.IDS)))
+                .addPhase(phase("composition", EnumSet.of(ContextFacet.INPUT), EnumSet.of(ContextFacet.RANDOM_COMPOSITION)))
+                .addPhase(phase("statements", EnumSet.of(ContextFacet.IDS), EnumSet.of(ContextFacet.STATEMENTS)))
+                .addPhase(phase("compositionStatements", EnumSet.of(ContextFacet.RANDOM_COMPOSITION),
+                        EnumSet.of(ContextFacet.STATEMENTS)))
+                .addPhase(phase("readIds", EnumSet.of(ContextFacet.IDS), EnumSet.noneOf(ContextFacet.class)))
+                .addPhase(new ConversionPhase() {
+                    // Declares nothing, so it uses everything
+                    @Override
+                    public void execute(ConversionContext context) {
+                    }
+
+                    @Override
+                    public String getName() {
+                        return "undeclared";
+                    }
+                })
+                .build();
+
+        // Readers of the same facet do not wait for each other; a writer waits for earlier readers
+        assertEquals(List.of(), pipeline.getDependencies(0));
+        assertEquals(List.of(), pipeline.getDependencies(1));
+        assertEquals(List.of(0), pipeline.getDependencies(2));
+        assertEquals(List.of(1, 2), pipeline.getDependencies(3));
+        assertEquals(List.of(0), pipeline.getDependencies(4));
+        assertEquals(List.of(0, 1, 2, 3, 4), pipeline.getDependencies(5));
+    }
+
+    @Test
+    public void testStandardPipelineDependencies() {
+        List<ConversionPhase> phases = List.of(new IdentifierNormalizationPhase(), new ObjectIdentificationPhase(),
+                new RandomCompositionDetectionPhase(), new DistributionAnalysisPhase(), new AlignmentProcessingPhase(),
+                new RandomCompositionProcessingPhase(), new StateNodeProcessingPhase(), new RemainingObjectsPhase(),
+                new DependencySortingPhase(), new ObservedAlignmentPhase());
+        ConversionPipeline.Builder builder = new ConversionPipeline.Builder();
+        phases.forEach(builder::addPhase);
+        ConversionPipeline pipeline = builder.build();
+
+        // Every earlier phase that conflicts is waited for, and no other
+        for (int j = 0; j < phases.size(); j++) {
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < j; i++) {
+                if (conflict(phases.get(i), phases.get(j))) {
+                    expected.add(i);
+                }
+            }
+            assertEquals(phases.get(j).getName(), expected, pipeline.getDependencies(j));
+        }
+        // Object identification needs the normalised identifiers
+        assertTrue(pipeline.getDependencies(1).contains(0));
+    }
+
+    @Test
+    public void testConcurrentMatchesSerialOnExamples() throws Exception {
+        File[] examples = new File("examples").listFiles((dir, name) -> name.endsWith(".xml"));
+        assertNotNull("examples directory not found", examples);
+        Arrays.sort(examples);
+
+        int compared = 0;
+        for (File example : examples) {
+            String serial = convert(example, true);
+            if (serial == null) {
+                continue;
+            }
+            assertEquals(example.getName(), serial, convert(example, false));
+            compared++;
+        }
+        assertTrue("no example could be converted", compared > 0);
+    }
+
+    /**
+     * The script for an example XML, with the directory of its Nexus files left out;
+     * null if the XML cannot be parsed, e.g. because a package is not installed
+     */
+    private static String convert(File xml, boolean serial) throws Exception {
+        BEASTInterface beast;
+        try {
+            beast = new XMLParser().parseFile(xml);
+        } catch (Exception e) {
+            return null;
+        }
+        if (!(beast instanceof MCMC mcmc)) {
+            return null;
+        }
+
+        File dir = Files.createTempDirectory("b2l-pipeline").toFile();
+        try {
+            ConversionPipeline.Builder builder = new ConversionPipeline.Builder()
+                    .addPhase(new IdentifierNormalizationPhase())
+                    .addPhase(new ObjectIdentificationPhase())
+                    .addPhase(new RandomCompositionDetectionPhase())
+                    .addPhase(new DistributionAnalysisPhase())
+                    .addPhase(new AlignmentProcessingPhase())
+                    .addPhase(new RandomCompositionProcessingPhase())
+                    .addPhase(new StateNodeProcessingPhase())
+                    .addPhase(new RemainingObjectsPhase())
+                    .addPhase(new DependencySortingPhase())
+                    .addPhase(new ObservedAlignmentPhase());
+            if (serial) {
+                builder.serial();
+            }
+            String script = new Beast2ModelWriter().writeModel(builder.build().convert(
+                    mcmc.posteriorInput.get(), mcmc.startStateInput.get(), mcmc,
+                    Map.of(ConversionContext.ALIGNMENT_FILE_WRITER, new AlignmentFileWriter(dir))));
+            return script.replace(dir.getPath() + File.separator, "");
+        } finally {
+            for (File file : Objects.requireNonNull(dir.listFiles())) {
+                Files.delete(file.toPath());
+            }
+            Files.delete(dir.toPath());
+        }
+    }
+
+    @Test
+    public void testFailingPhaseFailsFast() throws Exception {
+        for (boolean serial : new boolean[]{true, false}) {
+            AtomicBoolean dependentRan = new AtomicBoolean();
+            ConversionPipeline.Builder builder = new ConversionPipeline.Builder()
+                    .addPhase(phase("failing", EnumSet.noneOf(ContextFacet.class), EnumSet.of(ContextFacet.IDS),
+                            context -> {
+                                throw new IllegalArgumentException("broken");
+                            }))
+                    .addPhase(phase("dependent", EnumSet.of(ContextFacet.IDS), EnumSet.of(ContextFacet.STATEMENTS),
+                            context -> dependentRan.set(true)))
+                    .addPhase(phase("later", EnumSet.of(ContextFacet.STATEMENTS), EnumSet.of(ContextFacet.METADATA),
+                            context -> dependentRan.set(true)));
+            if (serial) {
+                builder.serial();
+            }
+            try {
+                builder.build().convert(null, null, null);
+                fail("conversion should fail");
+            } catch (ConversionException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("failing"));
+                assertTrue(e.getCause() instanceof IllegalArgumentException);
+            }
+            assertFalse("a phase after the failure ran", dependentRan.get());
+        }
+    }
+
+    @Test
+    public void testIndependentPhasesRunConcurrently() throws Exception {
+        // Each phase waits for the other to start, which only works if they run at the same time
+        CountDownLatch started = new CountDownLatch(2);
+        Consumer<ConversionContext> body = context -> {
+            started.countDown();
+            try {
+                assertTrue(started.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        new ConversionPipeline.Builder()
+                .addPhase(phase("first", EnumSet.of(ContextFacet.INPUT), EnumSet.of(ContextFacet.IDS), body))
+                .addPhase(phase("second", EnumSet.of(ContextFacet.INPUT), EnumSet.of(ContextFacet.METADATA), body))
+                .build()
+                .convert(null, null, null);
+    }
+
+    @Test
+    public void testUndeclaredFacetsAreRejected() {
+        // Reading the model needs STATEMENTS
+        assertRejected(phase("reader", EnumSet.of(ContextFacet.INPUT), EnumSet.of(ContextFacet.IDS),
+                ConversionContext::getModel), "uses undeclared context facet STATEMENTS");
+        // Metadata that is only declared as read cannot be written
+        assertRejected(phase("writer", EnumSet.of(ContextFacet.METADATA), EnumSet.noneOf(ContextFacet.class),
+                context -> context.setMetadata("key", "value")), "writes undeclared context facet METADATA");
+        // Declared facets are allowed, and a written facet can also be read
+        new ConversionPipeline.Builder()
+                .addPhase(phase("declared", EnumSet.of(ContextFacet.INPUT), EnumSet.of(ContextFacet.METADATA),
+                        context -> {
+                            context.setMetadata("key", "value");
+                            assertEquals("value", context.getMetadata("key"));
+                            context.getGraph();
+                        }))
+                .build()
+                .convert(null, null, null);
+    }
+
+    private static void assertRejected(ConversionPhase phase, String message) {
+        for (boolean serial : new boolean[]{true, false}) {
+            ConversionPipeline.Builder builder = new ConversionPipeline.Builder().addPhase(phase);
+            if (serial) {
+                builder.serial();
+            }
+            try {
+                builder.build().convert(null, null, null);
+                fail(phase.getName() + " should be rejected");
+            } catch (ConversionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+                assertTrue(e.getCause().getMessage(), e.getCause().getMessage().contains(message));
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.beast2.modelLanguage.schema;
+
+import org.beast2.modelLanguage.schema.core.ComponentInstantiator;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that the generated model library does not depend on the number of threads.
+ */
+public class BEAST2ModelLibraryGeneratorTest {
+
+    private static String generate(int parallelism) throws Exception {
+        // No catalog, so every package is scanned
+        try (BEAST2ModelLibraryGenerator generator =
+                     new BEAST2ModelLibraryGenerator(parallelism, ComponentInstantiator.DEFAULT_TIMEOUT, null)) {
+            return generator.generateModelLibrary();
+        }
+    }
+
+    @Test
+    public void testOutputOrderIsDeterministic() throws Exception {
+        String sequential = generate(1);
+        assertTrue(sequential.contains("\"generators\""));
+        assertEquals(sequential, generate(4));
+        assertEquals(sequential, generate(4));
+    }
+}
@@ -0,0 +1,78 @@
+package org.beast2.modelLanguage.schema.binary;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that the binary model library holds the same content as the JSON one.
+ */
+public class BinaryLibraryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLibraryRoundTrip() throws Exception {
+        JSONObject schema = new JSONObject(new String(
+                Files.readAllBytes(Paths.get("beast2-model-library.json")), StandardCharsets.UTF_8));
+
+        File file = folder.newFile("library.b2lib");
+        BinaryLibraryWriter.write(schema, file);
+        BinaryLibrary library = BinaryLibrary.open(file);
+
+        assertTrue(library.toJSON().similar(schema));
+
+        // Every lookup by name gives the first object with that name in the JSON document
+        JSONObject modelLibrary = schema.getJSONObject("modelLibrary");
+        JSONArray generators = modelLibrary.getJSONArray("generators");
+        for (int i = generators.length() - 1; i >= 0; i--) {
+            JSONObject generator = generators.getJSONObject(i);
+            JSONObject found = library.getGenerator(generator.getString("name"));
+            assertNotNull(found);
+            assertEquals(generator.getString("name"), found.getString("name"));
+        }
+        JSONArray types = modelLibrary.getJSONArray("types");
+        for (int i = 0; i < types.length(); i++) {
+            JSONObject type = types.getJSONObject(i);
+            assertNotNull(type.getString("name"), library.getType(type.getString("name")));
+        }
+        assertNull(library.getType("NoSuchType"));
+        assertTrue(library.getGenerators("NoSuchGenerator").isEmpty());
+    }
+
+    @Test
+    public void testUnexpectedValuesAreKept() throws Exception {
+        JSONObject argument = new JSONObject()
+                .put("name", "x")
+                .put("required", "sometimes")
+                .put("dimension", new JSONObject().put("match", "y"));
+        JSONObject generator = new JSONObject()
+                .put("name", "G")
+                .put("arguments", new JSONArray().put(argument))
+                .put("ioHints", new JSONObject().put("role", "dataInput"));
+        JSONObject type = new JSONObject()
+                .put("name", "T")
+                .put("implements", new JSONArray().put("A").put(1))
+                .put("isEnum", false);
+        JSONObject schema = new JSONObject().put("modelLibrary", new JSONObject()
+                .put("name", "test")
+                .put("types", new JSONArray().put(type))
+                .put("generators", new JSONArray().put(generator)));
+
+        BinaryLibrary library = BinaryLibrary.wrap(BinaryLibraryWriter.toBytes(schema));
+
+        assertTrue(library.toJSON().similar(schema));
+        assertTrue(library.getGenerator("G").similar(generator));
+        assertTrue(library.getType("T").similar(type));
+    }
+}
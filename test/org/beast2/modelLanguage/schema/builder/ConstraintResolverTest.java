@@ -0,0 +1,68 @@
+package org.beast2.modelLanguage.schema.builder;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for argument constraints, with a benchmark over the arguments of the model library in the repository.
+ */
+public class ConstraintResolverTest {
+
+    @Test
+    public void testRules() {
+        ConstraintResolver resolver = new ConstraintResolver();
+        assertEquals(Optional.of("positive"), resolver.resolveConstraint("HKY", "kappa"));
+        assertEquals(Optional.of("non-negative"), resolver.resolveConstraint("Exponential", "offset"));
+        assertEquals(Optional.of("positive"), resolver.resolveConstraint("StrictClockModel", "clock.rate"));
+        assertEquals(Optional.empty(), resolver.resolveConstraint("BirthDeath", "deathRate"));
+        assertEquals(Optional.of("0-1"), resolver.resolveConstraint("Sampling", "samplingProportion"));
+        assertEquals(Optional.of("simplex"), resolver.resolveConstraint("GTR", "frequencies"));
+        assertEquals(Optional.of("boolean"), resolver.resolveConstraint("TreeLikelihood", "useAmbiguities"));
+
+        Map<String, Long> hits = resolver.getRuleHits();
+        assertEquals(2L, (long) hits.get("exact"));
+        assertEquals(1L, (long) hits.get("rate"));
+        assertEquals(1L, (long) hits.get("none"));
+    }
+
+    /**
+     * Every generator argument of the model library, resolved as the schema generator does,
+     * is counted by exactly one rule
+     */
+    @Test
+    public void testLibraryRuleHits() throws Exception {
+        JSONArray generators = new JSONObject(new String(
+                Files.readAllBytes(Paths.get("beast2-model-library.json")), StandardCharsets.UTF_8))
+                .getJSONObject("modelLibrary").getJSONArray("generators");
+        List<String[]> arguments = new ArrayList<>();
+        for (int i = 0; i < generators.length(); i++) {
+            JSONObject generator = generators.getJSONObject(i);
+            JSONArray args = generator.optJSONArray("arguments");
+            for (int j = 0; args != null && j < args.length(); j++) {
+                arguments.add(new String[]{generator.getString("name"), args.getJSONObject(j).getString("name")});
+            }
+        }
+
+        ConstraintResolver resolver = new ConstraintResolver();
+        int rounds = 100;
+        for (int round = 0; round < rounds; round++) {
+            for (String[] argument : arguments) {
+                resolver.resolveConstraint(argument[0], argument[1]);
+            }
+        }
+
+        long total = resolver.getRuleHits().values().stream().mapToLong(Long::longValue).sum();
+        assertEquals((long) rounds * arguments.size(), total);
+    }
+}
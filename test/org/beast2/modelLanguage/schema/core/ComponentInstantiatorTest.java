@@ -0,0 +1,57 @@
+package org.beast2.modelLanguage.schema.core;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that calls into scanned packages are given up on after the timeout.
+ */
+public class ComponentInstantiatorTest {
+
+    @Test
+    public void testTimeout() throws Exception {
+        ComponentInstantiator instantiator = new ComponentInstantiator(Duration.ofMillis(100));
+        assertEquals("done", instantiator.call("quick", () -> "done"));
+
+        long start = System.nanoTime();
+        try {
+            instantiator.call("hanging", () -> {
+                Thread.sleep(60_000);
+                return "never";
+            });
+            fail("expected a timeout");
+        } catch (TimeoutException e) {
+            // expected
+        }
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 10_000);
+        assertEquals(Set.of("hanging"), instantiator.getTimedOut());
+
+        // A key that timed out fails straight away, without running the task
+        try {
+            instantiator.call("hanging", () -> "ran");
+            fail("expected a timeout");
+        } catch (TimeoutException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testExceptionsArePassedOn() {
+        ComponentInstantiator instantiator = new ComponentInstantiator(Duration.ofSeconds(10));
+        try {
+            instantiator.call("failing", () -> {
+                throw new IllegalStateException("broken constructor");
+            });
+            fail("expected an exception");
+        } catch (Exception e) {
+            assertTrue(e instanceof IllegalStateException);
+            assertEquals("broken constructor", e.getMessage());
+        }
+        assertTrue(instantiator.getTimedOut().isEmpty());
+    }
+}
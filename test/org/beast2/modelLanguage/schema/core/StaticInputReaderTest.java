@@ -0,0 +1,72 @@
+package org.beast2.modelLanguage.schema.core;
+
+import beast.base.core.BEASTInterface;
+import beast.base.core.BEASTObject;
+import beast.base.core.Input;
+import beast.base.inference.distribution.LogNormalDistributionModel;
+import beast.base.inference.distribution.Normal;
+import org.beast2.modelLanguage.beast.BEASTUtils;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for reading inputs from class files.
+ */
+public class StaticInputReaderTest {
+
+    @Test
+    public void testInputsMatchInstance() throws Exception {
+        StaticInputReader reader = new StaticInputReader();
+        for (Class<?> clazz : new Class<?>[]{Normal.class, LogNormalDistributionModel.class}) {
+            Map<String, StaticInputReader.DeclaredInput> declared = reader.readInputs(clazz);
+            assertNotNull(clazz.getName(), declared);
+
+            BEASTInterface instance = (BEASTInterface) clazz.getDeclaredConstructor().newInstance();
+            Map<String, Input<?>> inputs = BEASTUtils.buildInputMap(instance, clazz);
+            assertEquals(inputs.keySet(), declared.keySet());
+            for (Map.Entry<String, Input<?>> entry : inputs.entrySet()) {
+                Input<?> expected = entry.getValue();
+                StaticInputReader.DeclaredInput actual = declared.get(entry.getKey());
+                assertEquals(expected.getTipText(), actual.input().getTipText());
+                assertEquals(expected.getRule(), actual.input().getRule());
+                assertEquals(String.valueOf(expected.defaultValue), String.valueOf(actual.input().defaultValue));
+                assertEquals(BEASTUtils.getInputExpectedType(expected, instance, entry.getKey()), actual.expectedType());
+            }
+        }
+        assertEquals(2, reader.getReadCount());
+    }
+
+    @Test
+    public void testInputChangedInConstructorIsUnreadable() {
+        StaticInputReader reader = new StaticInputReader();
+        assertNull(reader.readInputs(ChangesRule.class));
+        assertNull(reader.readInputs(ComputedDefault.class));
+        assertNotNull(reader.readInputs(Constant.class));
+        assertEquals(2, reader.getUnreadableCount());
+    }
+
+    public static class Constant extends BEASTObject {
+        public Input<Double> valueInput = new Input<>("value", "a value", 1.0, Input.Validate.REQUIRED);
+
+        @Override
+        public void initAndValidate() {
+        }
+    }
+
+    public static class ChangesRule extends Constant {
+        public ChangesRule() {
+            valueInput.setRule(Input.Validate.OPTIONAL);
+        }
+    }
+
+    public static class ComputedDefault extends BEASTObject {
+        public Input<Long> seedInput = new Input<>("seed", "a seed", System.nanoTime());
+
+        @Override
+        public void initAndValidate() {
+        }
+    }
+}
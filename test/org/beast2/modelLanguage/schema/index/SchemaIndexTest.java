@@ -0,0 +1,61 @@
+package org.beast2.modelLanguage.schema.index;
+
+import org.json.JSONObject;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the schema index, on the model library in the repository.
+ */
+public class SchemaIndexTest {
+
+    private static SchemaIndex index;
+
+    @BeforeClass
+    public static void buildIndex() throws Exception {
+        index = new SchemaIndex(new JSONObject(new String(
+                Files.readAllBytes(Paths.get("beast2-model-library.json")), StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testSubtypeLattice() {
+        // HKY extends SubstitutionModel.NucleotideBase extends SubstitutionModel.Base implements SubstitutionModel
+        assertTrue(index.isAssignable("HKY", "SubstitutionModel"));
+        assertTrue(index.getSubtypes("SubstitutionModel").contains("GTR"));
+        assertFalse(index.isAssignable("SubstitutionModel", "HKY"));
+        assertEquals(1, index.getSupertypes("NoSuchType").size());
+    }
+
+    @Test
+    public void testGeneratorsProducing() {
+        List<String> names = index.getGeneratorsProducing("SubstitutionModel").stream()
+                .map(generator -> generator.getString("name"))
+                .toList();
+        assertTrue(names.contains("HKY"));
+        assertTrue(names.contains("GTR"));
+        assertFalse(names.contains("SiteModel"));
+    }
+
+    @Test
+    public void testAcceptedTypes() {
+        assertTrue(index.getAcceptedTypes("TreeLikelihood", "siteModel").contains("SiteModel"));
+        assertTrue(index.getAcceptedTypes("TreeLikelihood", "noSuchArgument").isEmpty());
+        assertTrue(index.getAcceptedPrimitives("RealParameter").contains("Double"));
+    }
+
+    @Test
+    public void testCompletion() {
+        List<String> names = index.complete("LogNormal", 10);
+        assertTrue(names.contains("LogNormalDistributionModel"));
+        assertEquals(names.stream().sorted().toList(), names);
+        assertEquals(2, index.complete("", 2).size());
+        assertTrue(index.complete("NoSuchPrefix", 10).isEmpty());
+    }
+}
@@ -0,0 +1,120 @@
+package org.beast2.modelLanguage.schema.scanner;
+
+import beast.base.inference.distribution.Normal;
+import beast.pkgmgmt.Package;
+import org.beast2.modelLanguage.beast.BeastObjectFactory;
+import org.beast2.modelLanguage.schema.core.ComponentInstantiator;
+import org.beast2.modelLanguage.schema.core.StaticInputReader;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for saving, loading and invalidating catalog entries.
+ * The package does not exist, so a scan finds no components, while a loaded entry has the
+ * components written to its file.
+ */
+public class ComponentCatalogTest {
+
+    private static final String PACKAGE = "nosuchpackage";
+
+    private static ComponentCatalog catalog(File directory, Duration timeout) {
+        BeastObjectFactory factory = new BeastObjectFactory();
+        ComponentFilter filter = new ComponentFilter(new ComponentInstantiator(timeout));
+        return new ComponentCatalog(directory, new ComponentScanner(factory, filter), factory);
+    }
+
+    /**
+     * Put a component in the saved entry, as if the scan had found it
+     */
+    private static void addComponent(File file, Class<?> clazz) throws Exception {
+        JSONObject json = new JSONObject(Files.readString(file.toPath()));
+        json.put("components", new JSONArray().put(new JSONObject()
+                .put("className", clazz.getName())
+                .put("packageName", PACKAGE)));
+        Files.writeString(file.toPath(), json.toString());
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        File directory = Files.createTempDirectory("b2l-catalog").toFile();
+        ComponentCatalog catalog = catalog(directory, Duration.ofSeconds(10));
+
+        ComponentCatalog.Entry scanned = catalog.getEntry(new Package(PACKAGE));
+        assertTrue(scanned.getComponents().isEmpty());
+        File file = new File(directory, PACKAGE + ".json");
+        assertTrue(file.isFile());
+        assertEquals(List.of(file.getName()), List.of(directory.list()));
+
+        addComponent(file, Normal.class);
+        ComponentCatalog.Entry loaded = catalog(directory, Duration.ofSeconds(10)).getEntry(new Package(PACKAGE));
+        assertEquals(1, loaded.getComponents().size());
+        assertEquals(Normal.class, loaded.getComponents().get(0).getClazz());
+        assertFalse(loaded.hasFragments());
+
+        // Fragments are saved with the entry
+        catalog.storeFragments(loaded, new JSONArray().put(new JSONObject().put("name", "Normal")), new JSONArray());
+        ComponentCatalog.Entry withFragments = catalog.getEntry(new Package(PACKAGE));
+        assertTrue(withFragments.hasFragments());
+        assertEquals("Normal", withFragments.getTypes().getJSONObject(0).getString("name"));
+    }
+
+    @Test
+    public void testOtherFilterConfigurationInvalidates() throws Exception {
+        File directory = Files.createTempDirectory("b2l-catalog").toFile();
+        catalog(directory, Duration.ofSeconds(10)).getEntry(new Package(PACKAGE));
+        File file = new File(directory, PACKAGE + ".json");
+        addComponent(file, Normal.class);
+
+        // Another timeout scans again, and replaces the entry
+        assertTrue(catalog(directory, Duration.ofSeconds(1)).getEntry(new Package(PACKAGE)).getComponents().isEmpty());
+        assertEquals(1000, new JSONObject(Files.readString(file.toPath())).getLong("instantiationTimeout"));
+    }
+
+    @Test
+    public void testOtherInputReadingModeInvalidates() throws Exception {
+        File directory = Files.createTempDirectory("b2l-catalog").toFile();
+        ComponentCatalog staticCatalog = catalog(directory, Duration.ofSeconds(10));
+        staticCatalog.getEntry(new Package(PACKAGE));
+        File file = new File(directory, PACKAGE + ".json");
+        assertFalse(new JSONObject(Files.readString(file.toPath())).getBoolean("staticInputs"));
+
+        // An entry scanned by instantiating every component is not used when reading class files
+        addComponent(file, Normal.class);
+        BeastObjectFactory factory = new BeastObjectFactory();
+        ComponentFilter filter = new ComponentFilter(new ComponentInstantiator(Duration.ofSeconds(10)));
+        filter.setInputReader(new StaticInputReader());
+        ComponentCatalog readerCatalog = new ComponentCatalog(directory, new ComponentScanner(factory, filter), factory);
+        assertTrue(readerCatalog.getEntry(new Package(PACKAGE)).getComponents().isEmpty());
+        assertTrue(new JSONObject(Files.readString(file.toPath())).getBoolean("staticInputs"));
+
+        addComponent(file, Normal.class);
+        assertEquals(1, readerCatalog.getEntry(new Package(PACKAGE)).getComponents().size());
+    }
+
+    @Test
+    public void testOtherVersionOrMissingClassInvalidates() throws Exception {
+        File directory = Files.createTempDirectory("b2l-catalog").toFile();
+        ComponentCatalog catalog = catalog(directory, Duration.ofSeconds(10));
+        catalog.getEntry(new Package(PACKAGE));
+        File file = new File(directory, PACKAGE + ".json");
+
+        addComponent(file, Normal.class);
+        JSONObject json = new JSONObject(Files.readString(file.toPath()));
+        Files.writeString(file.toPath(), json.put("version", "0.0.1").toString());
+        assertTrue(catalog.getEntry(new Package(PACKAGE)).getComponents().isEmpty());
+
+        addComponent(file, Normal.class);
+        json = new JSONObject(Files.readString(file.toPath()));
+        json.getJSONArray("components").getJSONObject(0).put("className", "no.such.Component");
+        Files.writeString(file.toPath(), json.toString());
+        assertTrue(catalog.getEntry(new Package(PACKAGE)).getComponents().isEmpty());
+    }
+}
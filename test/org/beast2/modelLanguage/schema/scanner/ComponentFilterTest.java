@@ -0,0 +1,82 @@
+package org.beast2.modelLanguage.schema.scanner;
+
+import org.beast2.modelLanguage.schema.core.StaticInputReader;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the component filter rules, with a benchmark over the classes of the model library in the repository.
+ */
+public class ComponentFilterTest {
+
+    @Test
+    public void testRules() throws Exception {
+        ComponentFilter filter = new ComponentFilter();
+        assertTrue(filter.isModelClass(Class.forName("beast.base.evolution.substitutionmodel.HKY")));
+        assertFalse(filter.isModelClass(Class.forName("beast.base.inference.MCMC")));
+        assertFalse(filter.isModelClass(Class.forName("beast.base.inference.operator.ScaleOperator")));
+        // Not an operator, but in an operator package
+        assertFalse(filter.isModelClass(Class.forName("beast.base.inference.operator.kernel.KernelDistribution$Bactrian")));
+        assertTrue(filter.isInferenceType("OperatorSchedule"));
+        assertTrue(filter.isGUIType("BeautiSubTemplate"));
+        assertFalse(filter.isGUIType("Tree"));
+
+        Map<ComponentFilter.Rule, Long> hits = filter.getRuleHits();
+        // MCMC is a Runnable and ScaleOperator an Operator
+        assertEquals(2L, (long) hits.get(ComponentFilter.Rule.INFERENCE_CLASS));
+        assertEquals(1L, (long) hits.get(ComponentFilter.Rule.OPERATOR_PACKAGE));
+        assertEquals(1L, (long) hits.get(ComponentFilter.Rule.NONE));
+    }
+
+    /**
+     * Every class of the installed packages that is in the model library, with inputs read from the
+     * class files as in the schema generator, is counted by exactly one rule; type names are not counted
+     */
+    @Test
+    public void testLibraryRuleHits() throws Exception {
+        JSONArray types = new JSONObject(new String(
+                Files.readAllBytes(Paths.get("beast2-model-library.json")), StandardCharsets.UTF_8))
+                .getJSONObject("modelLibrary").getJSONArray("types");
+        List<Class<?>> classes = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < types.length(); i++) {
+            JSONObject type = types.getJSONObject(i);
+            names.add(type.getString("name"));
+            try {
+                Class<?> clazz = Class.forName(type.optString("fullyQualifiedName"), false,
+                        ComponentFilterTest.class.getClassLoader());
+                classes.add(clazz);
+            } catch (ClassNotFoundException | LinkageError e) {
+                // Package not installed
+            }
+        }
+
+        ComponentFilter filter = new ComponentFilter();
+        filter.setInputReader(new StaticInputReader());
+        int rounds = 10;
+        for (int round = 0; round < rounds; round++) {
+            for (Class<?> clazz : classes) {
+                filter.isModelClass(clazz);
+            }
+        }
+        for (int round = 0; round < rounds; round++) {
+            for (String name : names) {
+                filter.isInferenceType(name);
+                filter.isGUIType(name);
+            }
+        }
+
+        long total = filter.getRuleHits().values().stream().mapToLong(Long::longValue).sum();
+        assertEquals((long) rounds * classes.size(), total);
+    }
+}
@@ -0,0 +1,107 @@
+package org.beast2.modelLanguage.schema.validation;
+
+import org.beast2.modelLanguage.schema.scanner.ComponentFilter;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for incremental closure validation, on the model library in the repository.
+ */
+public class ClosureGraphTest {
+
+    private static JSONObject readLibrary() throws Exception {
+        return new JSONObject(new String(
+                Files.readAllBytes(Paths.get("beast2-model-library.json")), StandardCharsets.UTF_8));
+    }
+
+    private static void removeType(JSONObject schema, String name) {
+        JSONArray types = schema.getJSONObject("modelLibrary").getJSONArray("types");
+        for (int i = 0; i < types.length(); i++) {
+            if (types.getJSONObject(i).getString("name").equals(name)) {
+                types.remove(i);
+                return;
+            }
+        }
+        fail("No type " + name);
+    }
+
+    @Test
+    public void testBrokenAndFixed() throws Exception {
+        ClosureGraph graph = new ClosureGraph(new ComponentFilter());
+        graph.update(readLibrary());
+        int unresolved = graph.getUnresolved().size();
+
+        JSONObject changed = readLibrary();
+        removeType(changed, "SubstitutionModel");
+        ClosureGraph.Diff diff = graph.update(changed);
+        assertEquals(1, diff.changedNodes());
+        assertTrue(diff.fixed().isEmpty());
+        assertTrue(diff.broken().stream().anyMatch(reference -> reference.usage().equals("SiteModel.substModel")));
+        // Only references to the removed type are checked again
+        assertEquals(diff.broken().size(), diff.checkedReferences());
+
+        diff = graph.update(readLibrary());
+        assertTrue(diff.broken().isEmpty());
+        assertTrue(diff.fixed().stream().anyMatch(reference -> reference.usage().equals("SiteModel.substModel")));
+        assertEquals(unresolved, diff.unresolved());
+
+        assertTrue(graph.update(readLibrary()).isEmpty());
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        ClosureGraph graph = new ClosureGraph(new ComponentFilter());
+        graph.update(readLibrary());
+        File file = File.createTempFile("closure-graph", ".json");
+        file.deleteOnExit();
+        graph.save(file);
+
+        ClosureGraph loaded = ClosureGraph.load(file, new ComponentFilter());
+        assertEquals(graph.getUnresolved(), loaded.getUnresolved());
+        ClosureGraph.Diff diff = loaded.update(readLibrary());
+        assertTrue(diff.isEmpty());
+        assertEquals(0, diff.changedNodes());
+        assertEquals(graph.getResult().getMissingTypes(), loaded.getResult().getMissingTypes());
+    }
+
+    @Test
+    public void testFailedSaveLeavesNoTemporaryFile() throws Exception {
+        ClosureGraph graph = new ClosureGraph(new ComponentFilter());
+        graph.update(readLibrary());
+        Path dir = Files.createTempDirectory("closure-graph");
+        // A non-empty directory where the graph should go cannot be replaced
+        Path target = dir.resolve("graph.json");
+        Files.createDirectory(target);
+        Files.writeString(target.resolve("keep"), "");
+        try {
+            graph.save(target.toFile());
+            fail("saving over a non-empty directory should fail");
+        } catch (IOException e) {
+            // expected
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(target), files.toList());
+        }
+
+        Files.delete(target.resolve("keep"));
+        Files.delete(target);
+        graph.save(target.toFile());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(target), files.toList());
+        }
+        Files.delete(target);
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,155 @@
+package org.beast2.modelLanguage.schema.validation;
+
+import org.beast2.modelLanguage.builder.Beast2LangParserImpl;
+import org.beast2.modelLanguage.schema.index.SchemaIndex;
+import org.beast2.modelLanguage.schema.validation.SchemaModelValidator.Problem;
+import org.beast2.modelLanguage.schema.validation.SchemaModelValidator.Severity;
+import org.json.JSONObject;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for type-checking models against the model library in the repository.
+ */
+public class SchemaModelValidatorTest {
+
+    private static final String IMPORTS = """
+            import beast.base.inference.parameter.*;
+            import beast.base.inference.distribution.*;
+            import beast.base.evolution.tree.*;
+            import beast.base.evolution.speciation.*;
+            import beast.base.evolution.substitutionmodel.*;
+            import beast.base.evolution.sitemodel.*;
+            """;
+
+    private static SchemaModelValidator validator;
+
+    @BeforeClass
+    public static void buildValidator() throws Exception {
+        validator = new SchemaModelValidator(new SchemaIndex(new JSONObject(new String(
+                Files.readAllBytes(Paths.get("beast2-model-library.json")), StandardCharsets.UTF_8))));
+    }
+
+    private List<Problem> validate(String model) {
+        return validator.validate(new Beast2LangParserImpl().parseFromString(model));
+    }
+
+    private static boolean hasError(List<Problem> problems, String text) {
+        return problems.stream().anyMatch(problem ->
+                problem.severity() == Severity.ERROR && problem.message().contains(text));
+    }
+
+    @Test
+    public void testValidModel() {
+        List<Problem> problems = validate(IMPORTS + """
+                RealParameter kappa ~ LogNormalDistributionModel(M=1.0, S=0.5);
+                Tree tree ~ YuleModel(birthDiffRate=1.0);
+                HKY hky = HKY(kappa=kappa, frequencies=[0.25, 0.25, 0.25, 0.25]);
+                SiteModel siteModel = SiteModel(substModel=hky, gammaCategoryCount=4);
+                """);
+        assertTrue(problems.toString(), problems.isEmpty());
+    }
+
+    @Test
+    public void testArgumentErrors() {
+        List<Problem> problems = validate(IMPORTS + """
+                HKY hky = HKY(kappa=2.0, frequencies=[0.3, 0.3, 0.4], gamma=1);
+                SiteModel siteModel = SiteModel(substModel=hky, gammaCategoryCount="four");
+                SiteModel other = SiteModel(gammaCategoryCount=4, shape=undefinedShape);
+                """);
+        assertTrue(hasError(problems, "HKY has no argument gamma"));
+        assertTrue(hasError(problems, "has dimension 3, but HKY has 4 states"));
+        assertTrue(hasError(problems, "argument gammaCategoryCount of SiteModel expects Integer"));
+        assertTrue(hasError(problems, "SiteModel needs argument substModel"));
+        assertTrue(hasError(problems, "undefined variable undefinedShape"));
+    }
+
+    @Test
+    public void testTypeErrors() {
+        List<Problem> problems = validate(IMPORTS + """
+                Tree tree ~ LogNormalDistributionModel(M=1.0, S=0.5);
+                RealParameter rate ~ HKY(kappa=2.0);
+                Tree other = HKY(kappa=2.0, frequencies=[0.25, 0.25, 0.25, 0.25]);
+                SiteModel siteModel = HKY(kappa=2.0, frequencies=[0.25, 0.25, 0.25, 0.25]);
+                """);
+        assertTrue(hasError(problems, "LogNormalDistributionModel is a distribution over RealParameter, not Tree"));
+        assertTrue(hasError(problems, "HKY is not a distribution"));
+        assertTrue(hasError(problems, "other is declared Tree but assigned HKY"));
+        // A substitution model is wrapped in a site model
+        assertFalse(problems.stream().anyMatch(problem -> "siteModel".equals(problem.variable())));
+    }
+
+    @Test
+    public void testImports() {
+        List<Problem> problems = validate("""
+                RealParameter kappa ~ LogNormalDistributionModel(M=1.0, S=0.5);
+                """);
+        assertTrue(hasError(problems, "RealParameter is not imported"));
+        assertTrue(hasError(problems, "LogNormalDistributionModel is not imported"));
+        assertTrue(validate("""
+                beast.base.inference.parameter.RealParameter kappa ~ beast.base.inference.distribution.LogNormalDistributionModel(M=1.0, S=0.5);
+                """).isEmpty());
+    }
+
+    @Test
+    public void testFullyQualifiedDeclarations() {
+        List<Problem> problems = validate(IMPORTS + """
+                beast.base.evolution.tree.Tree other = HKY(kappa=2.0, frequencies=[0.25, 0.25, 0.25, 0.25]);
+                beast.base.evolution.substitutionmodel.HKY hky = HKY(kappa=2.0, frequencies=[0.25, 0.25, 0.25, 0.25]);
+                beast.base.evolution.sitemodel.SiteModel siteModel = hky;
+                Tree tree = hky;
+                """);
+        assertTrue(hasError(problems, "other is declared beast.base.evolution.tree.Tree but assigned HKY"));
+        // hky has the library type HKY, which is converted to a site model but is not a tree
+        assertFalse(problems.stream().anyMatch(problem -> "siteModel".equals(problem.variable())));
+        assertTrue(hasError(problems, "tree is declared Tree but assigned HKY"));
+    }
+
+    @Test
+    public void testExamples() throws Exception {
+        List<Path> examples;
+        try (Stream<Path> files = Files.list(Paths.get("examples"))) {
+            examples = files.filter(path -> path.toString().endsWith(".b2l")).sorted().toList();
+        }
+        assertFalse(examples.isEmpty());
+        for (Path example : examples) {
+            List<Problem> problems = validator.validate(new Beast2LangParserImpl().parseFromString(
+                    Files.readString(example, StandardCharsets.UTF_8)));
+            assertFalse(example + ": " + problems, SchemaModelValidator.hasErrors(problems));
+        }
+    }
+
+    @Test
+    public void testRandomComposition() {
+        // As the decompiler writes skyline group sizes
+        List<Problem> problems = validate(IMPORTS + """
+                IntegerParameter groupSizes ~ RandomComposition(n=62, k=4);
+                """);
+        assertTrue(problems.toString(), problems.isEmpty());
+
+        problems = validate(IMPORTS + """
+                IntegerParameter groupSizes ~ RandomComposition(n=62);
+                """);
+        assertTrue(problems.toString(), hasError(problems, "k"));
+    }
+
+    @Test
+    public void testConstraintWarnings() {
+        List<Problem> problems = validate(IMPORTS + """
+                RealParameter kappa ~ Normal(mean=1.0, sigma=1.0);
+                HKY hky = HKY(kappa=kappa, frequencies=[0.25, 0.25, 0.25, 0.25]);
+                ParametricDistribution lognorm = LogNormalDistributionModel(M=1.0, S=-0.5);
+                """);
+        assertFalse(SchemaModelValidator.hasErrors(problems));
+        assertEquals(problems.toString(), 2, problems.size());
+    }
+}